@@ -0,0 +1,54 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.application;
+
+import ag.ion.noa.metrics.IOfficeMetrics;
+
+/**
+ * Office application which can install a metrics collector for NOA.
+ */
+public interface IMeteredOfficeApplication extends IOfficeApplication {
+
+  //----------------------------------------------------------------------------
+  /**
+   * Installs a metrics collector which records the duration of the costly NOA
+   * wrapper methods and of the calls into the office. The wrappers of NOA are not 
+   * bound to an application, therefore the collector receives the calls of all 
+   * applications of the Java VM.
+   * 
+   * @param officeMetrics metrics collector to be used (null disables the instrumentation)
+   */
+  public void setMetrics(IOfficeMetrics officeMetrics);
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the installed metrics collector. Returns null if no collector 
+   * is installed.
+   * 
+   * @return installed metrics collector or null
+   */
+  public IOfficeMetrics getMetrics();
+  //----------------------------------------------------------------------------
+
+}
@@ -62,6 +62,13 @@ public interface IOfficeApplication extends IDisposeable {
   public static final String APPLICATION_PORT_KEY = "port";
   /** Configuration key for the application home path (only for local applications). */
   public static final String APPLICATION_HOME_KEY = "home";
+  /** 
+   * Configuration key for the name of the pipe on which the office is listening (only 
+   * for remote applications). If set, the application connects through the named pipe
+   * instead of a socket and host and port are not required. The office must be started
+   * with the option -accept=pipe,name=&lt;name&gt;;urp; on the same host.
+   */
+  public static final String APPLICATION_PIPE_KEY = "pipe";
   /** 
    * Configuration key for the application arguments (only for local applications).<br>
    * Value must be of type string array String[]!<br><br>
@@ -75,10 +82,111 @@ public interface IOfficeApplication extends IDisposeable {
    */
   public static final String APPLICATION_ARGUMENTS_KEY = "arguments";
 
+  /** 
+   * Configuration key for the number of office processes of a pooled application.<br>
+   * Value can be of type Integer or String. If not set, one process per available 
+   * processor will be started.
+   */
+  public static final String APPLICATION_POOL_SIZE_KEY = "pool.size";
+  /** 
+   * Configuration key for the directory which contains the user profiles of the office 
+   * processes of a pooled application (only for pooled applications). Every process 
+   * uses its own sub directory. If not set, the temporary directory of the Java VM
+   * will be used.
+   */
+  public static final String APPLICATION_POOL_PROFILE_PATH_KEY = "pool.profile.path";
+  /** 
+   * Configuration key for the number of documents an office process may load or construct 
+   * before it is recycled (only for local and pooled applications).<br>
+   * Value can be of type Integer or String. When the limit is reached, new loads wait 
+   * while running loads finish and open documents are closed (see 
+   * {@link #APPLICATION_RECYCLE_DRAIN_TIMEOUT_KEY}), then the office process is restarted 
+   * in the background. Document services obtained before the restart stay valid.
+   */
+  public static final String APPLICATION_RECYCLE_DOCUMENTS_KEY = "recycle.documents";
+  /** 
+   * Configuration key for the maximum uptime of an office process in milliseconds before it 
+   * is recycled (only for local and pooled applications).<br>
+   * Value can be of type Long or String.
+   */
+  public static final String APPLICATION_RECYCLE_UPTIME_KEY = "recycle.uptime";
+  /** 
+   * Configuration key for the maximum resident memory of an office process in megabytes 
+   * before it is recycled (only for local and pooled applications). The resident memory
+   * is read from the proc file system and therefore only available on Linux.<br>
+   * Value can be of type Integer or String.
+   */
+  public static final String APPLICATION_RECYCLE_MEMORY_KEY = "recycle.memory";
+  /** 
+   * Configuration key for the maximum time in milliseconds an office process which is 
+   * due to be recycled waits for running loads and open documents (only for local and 
+   * pooled applications). The office process is restarted when the time elapsed, even
+   * if documents are still open. Default is 60000.<br>
+   * Value can be of type Long or String.
+   */
+  public static final String APPLICATION_RECYCLE_DRAIN_TIMEOUT_KEY = "recycle.drain.timeout";
+  /** 
+   * Configuration key for the maximum time in milliseconds to wait until the office 
+   * accepts the connection. The connection is polled with an exponential backoff and is
+   * returned as soon as it is usable. If not set, local applications wait 60 seconds
+   * for the started office process and remote applications wait 10 seconds.<br>
+   * Value can be of type Long or String.
+   */
+  public static final String APPLICATION_CONNECT_TIMEOUT_KEY = "connect.timeout";
+  /** 
+   * Configuration key for a listener which is informed about the time until the 
+   * connection to the office was ready.<br>
+   * Value must be of type <code>IOfficeConnectionListener</code>.
+   */
+  public static final String APPLICATION_CONNECTION_LISTENER_KEY = "connection.listener";
+  /** 
+   * Configuration key for the headless mode (only for local and pooled applications).
+   * In headless mode the office is started with the options --headless, --invisible,
+   * --nolockcheck and --nofirststartwizard in addition to the configured arguments.<br>
+   * Value can be of type Boolean or String.
+   */
+  public static final String APPLICATION_HEADLESS_KEY = "headless";
+  /** 
+   * Configuration key for the directory of a template user profile (only for local and
+   * pooled applications). Every office process gets its own user profile which is cloned 
+   * from the template, so that parallel processes do not share one profile. The template 
+   * can be prepared by starting the office once with the option 
+   * -env:UserInstallation=&lt;URL of the template directory&gt;.<br>
+   * If the arguments do not contain a user profile, a temporary directory will be used.
+   */
+  public static final String APPLICATION_PROFILE_TEMPLATE_KEY = "profile.template";
+  /** 
+   * Configuration key for the number of worker threads of the asynchronous document 
+   * service per office process. Default is 2.<br>
+   * Value can be of type Integer or String.
+   */
+  public static final String APPLICATION_ASYNC_THREADS_KEY = "async.threads";
+  /** 
+   * Configuration key for the number of tasks the asynchronous document service queues 
+   * per office process. Further tasks are rejected. Default is 64.<br>
+   * Value can be of type Integer or String.
+   */
+  public static final String APPLICATION_ASYNC_QUEUE_KEY = "async.queue";
+  /** 
+   * Configuration key for the time in milliseconds after which a running task of the 
+   * asynchronous document service is cancelled. Default is 0 (no timeout).<br>
+   * Value can be of type Long or String.
+   */
+  public static final String APPLICATION_ASYNC_TIMEOUT_KEY = "async.timeout";
+  /** 
+   * Configuration key for the number of hidden frames which are kept for reuse per office 
+   * process. Hidden documents without a target frame are loaded into a pooled frame. 
+   * Default is 0 (no frame pool).<br>
+   * Value can be of type Integer or String.
+   */
+  public static final String APPLICATION_FRAME_POOL_KEY = "frame.pool";
+
   /** Configuration value for a remote application. */
   public static final String REMOTE_APPLICATION   = "remote";
   /** Configuration value for a local application. */
   public static final String LOCAL_APPLICATION    = "local";
+  /** Configuration value for a pool of local applications. */
+  public static final String POOLED_APPLICATION   = "pooled";
 
   /**Java system property key for NOA natvie library path */
   public static final String NOA_NATIVE_LIB_PATH  = "noa.native.lib.path";
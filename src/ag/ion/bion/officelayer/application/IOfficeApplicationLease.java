@@ -0,0 +1,90 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.application;
+
+import ag.ion.bion.officelayer.desktop.IDesktopService;
+import ag.ion.bion.officelayer.document.IDocumentService;
+import ag.ion.noa.service.IServiceProvider;
+
+/**
+ * Lease on one office process of a pooled office application. The process
+ * counts as busy until the lease is released.
+ * 
+ * @see IPooledOfficeApplication#acquireLease()
+ */
+public interface IOfficeApplicationLease {
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the office application of the leased process.
+   * 
+   * @return office application of the leased process
+   */
+  public IOfficeApplication getApplication();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns document service of the leased process.
+   * 
+   * @return document service of the leased process
+   * 
+   * @throws OfficeApplicationException if the document service is not available
+   */
+  public IDocumentService getDocumentService() throws OfficeApplicationException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns desktop service of the leased process.
+   * 
+   * @return desktop service of the leased process
+   * 
+   * @throws OfficeApplicationException if the desktop service is not available
+   */
+  public IDesktopService getDesktopService() throws OfficeApplicationException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns service provider of the leased process. Returns null if the
+   * process is not active.
+   * 
+   * @return service provider of the leased process or null
+   */
+  public IServiceProvider getServiceProvider();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the lease was already released.
+   * 
+   * @return information whether the lease was already released
+   */
+  public boolean isReleased();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Releases the lease. Further calls have no effect.
+   */
+  public void release();
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.application;
+
+/**
+ * Supervisor of an office application. The supervisor probes the office 
+ * processes of the application on a schedule and restarts processes which
+ * crashed or do not answer within the probe timeout. For pooled applications 
+ * every process of the pool is supervised on its own.
+ * <br><br>
+ * The supervisor should be stopped before the supervised application is 
+ * deactivated on purpose. 
+ * 
+ * @see OfficeApplicationRuntime#getSupervisor(IOfficeApplication, java.util.Map)
+ */
+public interface IOfficeSupervisor {
+
+  /** 
+   * Configuration key for the time between two probes in milliseconds. 
+   * Value can be of type Number or String. Default is 5000.
+   */
+  public static final String PROBE_INTERVAL_KEY = "supervisor.probe.interval";
+  /** 
+   * Configuration key for the time in milliseconds an office process must 
+   * answer a probe. Value can be of type Number or String. Default is 10000.
+   */
+  public static final String PROBE_TIMEOUT_KEY  = "supervisor.probe.timeout";
+  /** 
+   * Configuration key for the number of consecutive failed probes after which a still 
+   * running office process is restarted. Crashed processes are restarted immediately. 
+   * Value can be of type Number or String. Default is 2.
+   */
+  public static final String PROBE_FAILURES_KEY = "supervisor.probe.failures";
+
+  //----------------------------------------------------------------------------
+  /**
+   * Starts the supervision.
+   */
+  public void start();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Stops the supervision. A running probe is finished.
+   */
+  public void stop();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the supervision is running.
+   * 
+   * @return information whether the supervision is running
+   */
+  public boolean isRunning();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Probes all supervised office processes immediately and restarts the 
+   * processes which do not respond. Can be used after a bridge error in order 
+   * not to wait for the next scheduled probe.
+   */
+  public void check();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of office process restarts done by the supervisor.
+   * 
+   * @return number of office process restarts
+   */
+  public int getRestartCount();
+  //----------------------------------------------------------------------------
+
+}
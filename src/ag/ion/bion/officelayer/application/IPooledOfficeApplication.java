@@ -0,0 +1,73 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.application;
+
+/**
+ * Office application which manages several local office processes. Every 
+ * process is started with its own accept pipe and its own user profile, 
+ * so documents can be processed in parallel.
+ * <br><br>
+ * The services returned by <code>getDocumentService()</code> and 
+ * <code>getDesktopService()</code> belong to the least loaded process. In order 
+ * to bind a whole unit of work to one process use <code>acquireLease()</code> and 
+ * release the lease afterwards.
+ */
+public interface IPooledOfficeApplication extends IOfficeApplication {
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of office processes managed by the application.
+   * 
+   * @return number of office processes managed by the application
+   */
+  public int getPoolSize();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the office applications of the managed processes.
+   * 
+   * @return office applications of the managed processes
+   */
+  public IOfficeApplication[] getApplications();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Leases the active office process with the fewest outstanding leases.
+   * 
+   * @return lease on the least loaded office process
+   * 
+   * @throws OfficeApplicationException if no office process is active
+   */
+  public IOfficeApplicationLease acquireLease() throws OfficeApplicationException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of outstanding leases of all office processes.
+   * 
+   * @return number of outstanding leases
+   */
+  public int getLeaseCount();
+  //----------------------------------------------------------------------------
+
+}
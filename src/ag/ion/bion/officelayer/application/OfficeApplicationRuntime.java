@@ -39,6 +39,8 @@ package ag.ion.bion.officelayer.application;
 
 import ag.ion.bion.officelayer.internal.application.ApplicationAssistant;
 import ag.ion.bion.officelayer.internal.application.LocalOfficeApplication;
+import ag.ion.bion.officelayer.internal.application.OfficeSupervisor;
+import ag.ion.bion.officelayer.internal.application.PooledOfficeApplication;
 import ag.ion.bion.officelayer.internal.application.RemoteOfficeApplication;
 import java.util.HashMap;
 
@@ -106,6 +108,8 @@ public class OfficeApplicationRuntime {
 
         if (type.toString().equals(IOfficeApplication.LOCAL_APPLICATION)) {
             return new LocalOfficeApplication(configuration);
+        } else if (type.toString().equals(IOfficeApplication.POOLED_APPLICATION)) {
+            return new PooledOfficeApplication(configuration);
         } else {
             return new RemoteOfficeApplication(configuration);
         }
@@ -131,6 +135,25 @@ public class OfficeApplicationRuntime {
         return new LocalOfficeApplication(configuration);
     }
 
+    //----------------------------------------------------------------------------
+    /**
+     * Returns a new supervisor for the submitted office application. The
+     * supervisor must be started.
+     *
+     * @param officeApplication office application to be supervised
+     * @param configuration configuration of the supervisor (can be null)
+     *
+     * @return new supervisor for the submitted office application
+     *
+     * @throws OfficeApplicationException if the configuration is not valid
+     */
+    public static IOfficeSupervisor getSupervisor(IOfficeApplication officeApplication, Map configuration) throws OfficeApplicationException {
+        if (officeApplication == null) {
+            throw new OfficeApplicationException("The submitted office application is not valid.");
+        }
+        return new OfficeSupervisor(officeApplication, configuration);
+    }
+
     //----------------------------------------------------------------------------
     /**
      * Returns office application assistant.
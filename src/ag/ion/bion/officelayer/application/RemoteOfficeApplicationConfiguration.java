@@ -49,6 +49,7 @@ package ag.ion.bion.officelayer.application;
 public class RemoteOfficeApplicationConfiguration extends AbstractOfficeConfiguration {
   
   private String host = null;
+  private String pipe = null;
   
   //----------------------------------------------------------------------------
   /**
@@ -77,5 +78,25 @@ public class RemoteOfficeApplicationConfiguration extends AbstractOfficeConfigur
     return host;
   }
   //----------------------------------------------------------------------------
+  /**
+   * Sets name of the pipe on which a local OpenOffice.org application is listening.
+   * If a pipe is set, the connection does not use a socket.
+   * 
+   * @param pipe name of the pipe (can be null)
+   */
+  public void setPipe(String pipe) {
+    this.pipe = pipe;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns name of the pipe on which a local OpenOffice.org application is listening.
+   * Returns null if the connection uses a socket.
+   * 
+   * @return name of the pipe or null
+   */
+  public String getPipe() {
+    return pipe;
+  }
+  //----------------------------------------------------------------------------
   
 }
\ No newline at end of file
@@ -58,6 +58,9 @@ import com.sun.star.uno.UnoRuntime;
 public abstract class AbstractOfficeConnection implements IOfficeConnection {
 
 	protected XBridge xBridge = null;
+
+  private IOfficeConnectionListener connectionListener = null;
+  private long                      connectTimeout     = -1;
 	
   //----------------------------------------------------------------------------
   /**
@@ -115,4 +118,49 @@ public abstract class AbstractOfficeConnection implements IOfficeConnection {
     }
   }
   //----------------------------------------------------------------------------
+  /**
+   * Sets listener which is informed as soon as the connection is ready to be used.
+   * 
+   * @param connectionListener listener to be used (can be null)
+   */
+  public void setConnectionListener(IOfficeConnectionListener connectionListener) {
+    this.connectionListener = connectionListener;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Sets maximum time in milliseconds to wait until the office accepts the 
+   * connection. A negative value selects the default of the connection.
+   * 
+   * @param connectTimeout maximum time to wait in milliseconds
+   */
+  public void setConnectTimeout(long connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns maximum time in milliseconds to wait until the office accepts the 
+   * connection.
+   * 
+   * @param defaultTimeout timeout to be used if no timeout was set
+   * 
+   * @return maximum time to wait in milliseconds
+   */
+  protected long getConnectTimeout(long defaultTimeout) {
+    if (connectTimeout < 0)
+      return defaultTimeout;
+    return connectTimeout;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Informs the connection listener that the connection is ready to be used.
+   * 
+   * @param readyTime time in milliseconds until the connection was usable
+   * @param attempts number of connection attempts
+   */
+  protected void fireConnectionReady(long readyTime, int attempts) {
+    IOfficeConnectionListener connectionListener = this.connectionListener;
+    if (connectionListener != null)
+      connectionListener.connectionReady(this, readyTime, attempts);
+  }
+  //----------------------------------------------------------------------------
 }
\ No newline at end of file
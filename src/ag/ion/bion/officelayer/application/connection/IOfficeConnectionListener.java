@@ -0,0 +1,44 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.application.connection;
+
+/**
+ * Listener which is informed about established office connections. It can be used 
+ * in order to collect metrics about the startup of office processes.
+ */
+public interface IOfficeConnectionListener {
+
+  //----------------------------------------------------------------------------
+  /**
+   * Is called when the submitted connection is ready to be used.
+   * 
+   * @param officeConnection connection which is ready to be used
+   * @param readyTime time in milliseconds from the first connection attempt (or from
+   * the start of the office process) until the connection was usable
+   * @param attempts number of connection attempts
+   */
+  public void connectionReady(IOfficeConnection officeConnection, long readyTime, int attempts);
+  //----------------------------------------------------------------------------
+
+}
@@ -117,19 +117,8 @@ public class SimpleConnection {
             officeAplication =
                     OfficeApplicationRuntime.getApplication(configuration);
             officeAplication.setConfiguration(configuration);
-            try {
-                officeAplication.activate();
-            } catch (Exception officeApplicationException) {
-                try {
-                    Thread.sleep(6666);
-                } catch (InterruptedException ex) {
-                }
-                try {
-                    officeAplication.activate();
-                } catch (OfficeApplicationException officeApplicationException1) {
-                    Logger.getLogger(SimpleConnection.class.getName()).log(Level.SEVERE, null, officeApplicationException1);
-                }
-            }
+            // the remote connection retries with an exponential backoff until the connect timeout
+            officeAplication.activate();
             documentService =
                     officeAplication.getDocumentService();
             desktopService =
@@ -42,6 +42,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.logging.Logger;
 
 import ag.ion.bion.officelayer.desktop.IFrame;
 import ag.ion.bion.officelayer.event.ICloseListener;
@@ -51,15 +52,20 @@ import ag.ion.bion.officelayer.event.IDocumentModifyListener;
 import ag.ion.bion.officelayer.event.IEvent;
 import ag.ion.bion.officelayer.form.IFormService;
 import ag.ion.bion.officelayer.internal.desktop.Frame;
+import ag.ion.bion.officelayer.internal.desktop.HiddenFramePool;
+import ag.ion.bion.officelayer.internal.document.DocumentRegistry;
 import ag.ion.bion.officelayer.internal.document.PersistenceService;
+import ag.ion.bion.officelayer.internal.event.CloseCompletionListener;
 import ag.ion.bion.officelayer.internal.event.CloseListenerWrapper;
 import ag.ion.bion.officelayer.internal.event.DocumentEvent;
 import ag.ion.bion.officelayer.internal.event.DocumentListenerWrapper;
 import ag.ion.bion.officelayer.internal.event.DocumentModifyListenerWrapper;
 import ag.ion.bion.officelayer.internal.form.FormService;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.noa.NOAException;
 import ag.ion.noa.document.IFilterProvider;
 import ag.ion.noa.internal.document.DefaultFilterProvider;
+import ag.ion.noa.internal.metrics.Instrumentation;
 import ag.ion.noa.internal.printing.PrintService;
 import ag.ion.noa.internal.script.ScriptingService;
 import ag.ion.noa.printing.IPrintService;
@@ -80,6 +86,7 @@ import com.sun.star.frame.XModel;
 import com.sun.star.frame.XStorable;
 import com.sun.star.lang.XComponent;
 import com.sun.star.uno.UnoRuntime;
+import com.sun.star.util.CloseVetoException;
 import com.sun.star.util.XCloseable;
 import com.sun.star.util.XModifiable;
 import com.sun.star.util.XModifyBroadcaster;
@@ -95,6 +102,11 @@ import com.sun.star.view.XSelectionSupplier;
  */
 public abstract class AbstractDocument implements IDocument {
 
+	/** Maximum time in milliseconds to wait for a vetoed close. */
+	public static final long CLOSE_TIMEOUT = 10000;
+
+	private static Logger LOGGER = Logger.getLogger(AbstractDocument.class.getName());
+
 	protected XComponent xComponent = null;
 	private PropertyValue[] initialProperties = null;
 	private IServiceProvider serviceProvider = null;
@@ -107,6 +119,8 @@ public abstract class AbstractDocument implements IDocument {
 	private Hashtable modifyListenerTable = null;
 	private Hashtable closeListeners = null;
 	private boolean isModified = false;
+	private HiddenFramePool hiddenFramePool = null;
+	private XFrame pooledFrame = null;
 
 	// ----------------------------------------------------------------------------
 	/**
@@ -591,7 +605,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @date 01.08.2007
 	 */
 	public XFrame getXFrame() {
-		XModel xModel = (XModel) UnoRuntime.queryInterface(XModel.class,
+		XModel xModel = (XModel) QueryInterfaceCache.queryInterface(XModel.class,
 				getXComponent());
 		XController xController = xModel.getCurrentController();
 		return xController.getFrame();
@@ -607,7 +621,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @date 01.08.2007
 	 */
 	public IFrame getFrame() {
-		XModel xModel = (XModel) UnoRuntime.queryInterface(XModel.class,
+		XModel xModel = (XModel) QueryInterfaceCache.queryInterface(XModel.class,
 				getXComponent());
 		XController xController = xModel.getCurrentController();
 		XFrame xFrame = xController.getFrame();
@@ -624,7 +638,7 @@ public abstract class AbstractDocument implements IDocument {
 	 */
 	public IPersistenceService getPersistenceService() {
 		if (persistenceService == null) {
-			XStorable xStorable = (XStorable) UnoRuntime.queryInterface(
+			XStorable xStorable = (XStorable) QueryInterfaceCache.queryInterface(
 					XStorable.class, xComponent);
 			persistenceService = new PersistenceService(this, xStorable);
 		}
@@ -673,7 +687,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @date 25.01.2007
 	 */
 	public IFormService getFormService() {
-		XDrawPageSupplier drawPageSupplier = ((XDrawPageSupplier) UnoRuntime
+		XDrawPageSupplier drawPageSupplier = ((XDrawPageSupplier) QueryInterfaceCache
 				.queryInterface(XDrawPageSupplier.class, xComponent));
 		if (drawPageSupplier != null) {
 			XDrawPage drawPage = drawPageSupplier.getDrawPage();
@@ -816,7 +830,7 @@ public abstract class AbstractDocument implements IDocument {
 	 */
 	public void setModified(boolean modified) throws DocumentException {
 		try {
-			XModifiable xModifiable = (XModifiable) UnoRuntime.queryInterface(
+			XModifiable xModifiable = (XModifiable) QueryInterfaceCache.queryInterface(
 					XModifiable.class, xComponent);
 			xModifiable.setModified(modified);
 		} catch (Throwable throwable) {
@@ -839,7 +853,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @author Andreas Bröker
 	 */
 	public URL getLocationURL() throws DocumentException {
-		XModel xModel = (XModel) UnoRuntime.queryInterface(XModel.class,
+		XModel xModel = (XModel) QueryInterfaceCache.queryInterface(XModel.class,
 				xComponent);
 		String documentURL = xModel.getURL();
 		if (documentURL == null) {
@@ -871,7 +885,7 @@ public abstract class AbstractDocument implements IDocument {
 			closeListeners = new Hashtable();
 		}
 
-		XCloseable xCloseable = (XCloseable) UnoRuntime.queryInterface(
+		XCloseable xCloseable = (XCloseable) QueryInterfaceCache.queryInterface(
 				XCloseable.class, xComponent);
 		if (xCloseable != null) {
 			CloseListenerWrapper closeListenerWrapper = new CloseListenerWrapper(
@@ -904,7 +918,7 @@ public abstract class AbstractDocument implements IDocument {
 			CloseListenerWrapper closeListenerWrapper = (CloseListenerWrapper) closeListeners
 					.get(closeListener);
 			if (closeListenerWrapper != null) {
-				XCloseable xCloseable = (XCloseable) UnoRuntime.queryInterface(
+				XCloseable xCloseable = (XCloseable) QueryInterfaceCache.queryInterface(
 						XCloseable.class, xComponent);
 				if (xCloseable != null) {
 					xCloseable.removeCloseListener(closeListenerWrapper);
@@ -924,7 +938,7 @@ public abstract class AbstractDocument implements IDocument {
 	public boolean isOpen() {
 		if (xComponent != null) {
 			try {
-				XModel xModel = (XModel) UnoRuntime.queryInterface(
+				XModel xModel = (XModel) QueryInterfaceCache.queryInterface(
 						XModel.class, xComponent);
 				if (xModel != null) {
 					xModel.getURL();
@@ -948,100 +962,134 @@ public abstract class AbstractDocument implements IDocument {
 	 * @author Markus Krüger
 	 */
 	public void close() {
-		long millis = 50l;
-		/*
-		 * geht nur für Writer und nicht für alle anderen.... XRefreshable
-		 * refresh = null; refresh =
-		 * (XRefreshable)UnoRuntime.queryInterface(XRefreshable.class,
-		 * xComponent); refresh.refresh();
-		 */
+		long methodStart = Instrumentation.start();
 		removeDocumentListeners();
 		removeModifyListeners();
 
 		if (xComponent != null) {
-			// System.gc();
 			try {
-				Thread.sleep(millis);
-				// Check supported functionality of the document (model or
-				// controller).
-
-				com.sun.star.frame.XModel xModel = (com.sun.star.frame.XModel) UnoRuntime
-						.queryInterface(com.sun.star.frame.XModel.class,
-								xComponent);
-				if (xModel != null) {
-					// It's a full featured office document.
-					// Reset the modify state of it and close it.
-					// Note: Model can disgree by throwing a veto exception.
-					Thread.sleep(millis);
-					com.sun.star.util.XModifiable xModify = (com.sun.star.util.XModifiable) UnoRuntime
-							.queryInterface(
-									com.sun.star.util.XModifiable.class, xModel);
-					Thread.sleep(millis);
-					if (xModify.isModified()) {
-						xModify.setModified(false);
+				// Reset the modify state, otherwise the office asks to save
+				// the document. Note: Model can disagree by throwing a veto
+				// exception.
+				XModifiable xModifiable = (XModifiable) QueryInterfaceCache
+						.queryInterface(XModifiable.class, xComponent);
+				if (xModifiable != null && xModifiable.isModified()) {
+					xModifiable.setModified(false);
+				}
+				XCloseable xCloseable = (XCloseable) QueryInterfaceCache
+						.queryInterface(XCloseable.class, xComponent);
+				if (xCloseable != null) {
+					// A vetoed document keeps its frame, the frame must not be
+					// reused by another document.
+					if (closeCloseable(xCloseable)) {
+						releasePooledFrame();
 					}
+				} else if (QueryInterfaceCache.queryInterface(XModel.class,
+						xComponent) != null) {
 					xComponent.dispose();
-					Thread.sleep(millis);
+					releasePooledFrame();
 				} else {
 					// It's a document which supports a controller .. or may by
-					// a pure
-					// window only. If it's at least a controller - we can try
-					// to
-					// suspend him. But - he can disagree with that!
-					com.sun.star.frame.XController xController = (com.sun.star.frame.XController) UnoRuntime
-							.queryInterface(
-									com.sun.star.frame.XController.class,
-									xComponent);
-					Thread.sleep(millis);
-					if (xController != null) {
-						if (xController.suspend(true) == true) {
-							// Note: Don't dispose the controller - destroy the
-							// frame
-							// to make it right!
-							com.sun.star.frame.XFrame xFrame = xController
-									.getFrame();
-							Thread.sleep(millis);
-							xFrame.dispose();
-						}
+					// a pure window only. If it's at least a controller - we
+					// can try to suspend him. But - he can disagree with that!
+					XController xController = (XController) QueryInterfaceCache
+							.queryInterface(XController.class, xComponent);
+					if (xController != null && xController.suspend(true)) {
+						// Note: Don't dispose the controller - destroy the
+						// frame to make it right!
+						xController.getFrame().dispose();
 					}
 				}
 			} catch (com.sun.star.beans.PropertyVetoException exVeto) {
-				// Can be thrown by "setModified()" call on model.
-				// He disagree with our request.
-				// But there is nothing to do then. Following "dispose()" call
-				// wasn't
-				// never called (because we catch it before). Closing failed
-				// -that's it.
-				// TODO handel veto exception
+				// Can be thrown by "setModified()" call on model. He disagree
+				// with our request. Closing failed - that's it.
 			} catch (com.sun.star.lang.DisposedException exDisposed) {
-				// If an UNO object was already disposed before - he throw this
-				// special
-				// runtime exception. Of course every UNO call must be look for
-				// that -
-				// but it's a question of error handling.
-				// For demonstration this exception is handled here.
-				// TODO handel veto exception
+				// The document was already disposed before - nothing to do.
 			} catch (com.sun.star.uno.RuntimeException exRuntime) {
 				// Every uno call can throw that.
 				// Do nothing - closing failed - that's it.
-				// TODO handel veto exception
-			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
 			}
 		}
-		try {
-			Thread.sleep(millis);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
 		try {
 			removeCloseListeners();
 		} catch (Exception ex) {
-			System.out.println("Exception in 'removeCloseListener()' geworfen");
+			// The document is already closed.
 		}
+		DocumentRegistry.documentClosed(serviceProvider, xComponent);
+		QueryInterfaceCache.remove(xComponent);
+		Instrumentation.recordMethod("AbstractDocument.close", methodStart); //$NON-NLS-1$
+	}
 
-		// System.out.println("removeCloseLiseners ok");
+	// ----------------------------------------------------------------------------
+	/**
+	 * Sets the hidden frame pool the frame of the document is returned to when
+	 * the document is closed. Used by the document service only.
+	 * 
+	 * @param hiddenFramePool
+	 *            frame pool to be used
+	 * @param pooledFrame
+	 *            pooled frame of the document
+	 */
+	public void setPooledFrame(HiddenFramePool hiddenFramePool,
+			XFrame pooledFrame) {
+		this.hiddenFramePool = hiddenFramePool;
+		this.pooledFrame = pooledFrame;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the pooled frame of the closed document to the pool. Frames
+	 * which were closed together with the document are dropped by the pool.
+	 */
+	private void releasePooledFrame() {
+		if (hiddenFramePool == null || pooledFrame == null) {
+			return;
+		}
+		hiddenFramePool.release(pooledFrame);
+		hiddenFramePool = null;
+		pooledFrame = null;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Closes the submitted closeable and waits until the close was completed.
+	 * If a close listener vetoes, it gets the ownership and has to close the
+	 * document later, so the close is awaited at most {@link #CLOSE_TIMEOUT}
+	 * milliseconds.
+	 * 
+	 * @param xCloseable
+	 *            OpenOffice.org XCloseable interface to be closed
+	 * 
+	 * @return information whether the document was closed
+	 */
+	private boolean closeCloseable(XCloseable xCloseable) {
+		CloseCompletionListener closeCompletionListener = new CloseCompletionListener();
+		xCloseable.addCloseListener(closeCompletionListener);
+		try {
+			long start = Instrumentation.start();
+			xCloseable.close(true);
+			Instrumentation.recordUnoCall("XCloseable.close", start); //$NON-NLS-1$
+			return true;
+		} catch (CloseVetoException closeVetoException) {
+			// The vetoing listener got the ownership and closes the document
+			// as soon as possible.
+			try {
+				if (!closeCompletionListener.await(CLOSE_TIMEOUT)) {
+					LOGGER.warning("The document was not closed within " + CLOSE_TIMEOUT + " ms after a close veto."); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (closeCompletionListener.isClosed()) {
+			return true;
+		}
+		try {
+			xCloseable.removeCloseListener(closeCompletionListener);
+		} catch (com.sun.star.uno.RuntimeException runtimeException) {
+			// The document was closed in the meantime.
+		}
+		return false;
 	}
 
 	// ----------------------------------------------------------------------------
@@ -1053,7 +1101,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @author Sebastian Rösgen
 	 */
 	private void addModifyListener(XModifyListener xModifyListener) {
-		XModifyBroadcaster xModifyBroadcaster = (XModifyBroadcaster) UnoRuntime
+		XModifyBroadcaster xModifyBroadcaster = (XModifyBroadcaster) QueryInterfaceCache
 				.queryInterface(XModifyBroadcaster.class, xComponent);
 		if (xModifyBroadcaster != null) {
 			xModifyBroadcaster.addModifyListener(xModifyListener);
@@ -1070,7 +1118,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @author Sebastian Rösgen
 	 */
 	private void removeModifyListener(XModifyListener modifyListener) {
-		XModifyBroadcaster xModifyBroadcaster = (XModifyBroadcaster) UnoRuntime
+		XModifyBroadcaster xModifyBroadcaster = (XModifyBroadcaster) QueryInterfaceCache
 				.queryInterface(XModifyBroadcaster.class, xComponent);
 		if (xModifyBroadcaster != null) {
 			if (modifyListener != null) {
@@ -1089,7 +1137,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @author Andreas Bröker
 	 */
 	private void addEventListener(XEventListener xEventListener) {
-		XEventBroadcaster xEventBroadcaster = (XEventBroadcaster) UnoRuntime
+		XEventBroadcaster xEventBroadcaster = (XEventBroadcaster) QueryInterfaceCache
 				.queryInterface(XEventBroadcaster.class, xComponent);
 		if (xEventBroadcaster != null) {
 			xEventBroadcaster.addEventListener(xEventListener);
@@ -1106,7 +1154,7 @@ public abstract class AbstractDocument implements IDocument {
 	 * @author Andreas Bröker
 	 */
 	private void removeEventListener(XEventListener xEventListener) {
-		XEventBroadcaster xEventBroadcaster = (XEventBroadcaster) UnoRuntime
+		XEventBroadcaster xEventBroadcaster = (XEventBroadcaster) QueryInterfaceCache
 				.queryInterface(XEventBroadcaster.class, xComponent);
 		if (xEventBroadcaster != null) {
 			xEventBroadcaster.removeEventListener(xEventListener);
@@ -1372,11 +1420,11 @@ public abstract class AbstractDocument implements IDocument {
 	 */
 	protected void setXInterfaceObjectSelection(
 			IXInterfaceObjectSelection interfaceObject) throws NOAException {
-		XModel xModel = (XModel) UnoRuntime.queryInterface(XModel.class,
+		XModel xModel = (XModel) QueryInterfaceCache.queryInterface(XModel.class,
 				xComponent);
 		if (xModel != null) {
 			XController xController = xModel.getCurrentController();
-			XSelectionSupplier selectionSupplier = (XSelectionSupplier) UnoRuntime
+			XSelectionSupplier selectionSupplier = (XSelectionSupplier) QueryInterfaceCache
 					.queryInterface(XSelectionSupplier.class, xController);
 			if (selectionSupplier != null) {
 				try {
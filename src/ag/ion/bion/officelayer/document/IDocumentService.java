@@ -38,6 +38,7 @@
  */
 package ag.ion.bion.officelayer.document;
 
+import java.io.File;
 import java.io.InputStream;
 
 import ag.ion.bion.officelayer.IDisposeable;
@@ -205,6 +206,54 @@ public interface IDocumentService extends IDisposeable {
   public IDocument loadDocument(IOfficeProgressMonitor officeProgressMonitor,
       InputStream inputStream, IDocumentDescriptor documentDescriptor) throws DocumentException;
 
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted bytes. The bytes are streamed to the office 
+   * without being copied, so they must not be modified until the document is loaded.
+   * 
+   * @param content bytes of the document
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  public IDocument loadDocument(byte[] content, IDocumentDescriptor documentDescriptor)
+      throws DocumentException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted local file. The file is mapped into memory and 
+   * streamed to the office, so this works with remote offices as well. The file must 
+   * not be modified until the document is closed.
+   * 
+   * @param file file to be used
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  public IDocument loadDocument(File file, IDocumentDescriptor documentDescriptor)
+      throws DocumentException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted local file. The file is mapped into memory and 
+   * streamed to the office, so this works with remote offices as well. The file must 
+   * not be modified until the document is closed.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used
+   * @param file file to be used
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  public IDocument loadDocument(IOfficeProgressMonitor officeProgressMonitor, File file,
+      IDocumentDescriptor documentDescriptor) throws DocumentException;
+
   //----------------------------------------------------------------------------
   /**
    * Loads document on the basis of the submitted stream. 
@@ -44,6 +44,8 @@ import ag.ion.noa.NOAException;
 
 import java.io.OutputStream;
 
+import java.util.Map;
+
 import java.net.URL;
 
 /**
@@ -152,5 +154,17 @@ public interface IPersistenceService {
    */
   public void export(OutputStream outputStream, IFilter filter) throws NOAException;
   //----------------------------------------------------------------------------
+  /**
+   * Exports document into several output streams in one pass. The keys of the submitted 
+   * map are the filters to be used, the values the output streams to be filled. The 
+   * save-as events are fired once for the whole pass. A failed export does not stop the 
+   * remaining exports, the first failure is reported after all exports were done.
+   * 
+   * @param filterStreams map of <code>IFilter</code> to <code>OutputStream</code> objects
+   * 
+   * @throws NOAException if the document can not be exported to one of the filters
+   */
+  public void exportAll(Map filterStreams) throws NOAException;
+  //----------------------------------------------------------------------------
   
 }
\ No newline at end of file
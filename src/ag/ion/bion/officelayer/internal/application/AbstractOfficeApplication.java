@@ -38,19 +38,34 @@
  */
 package ag.ion.bion.officelayer.internal.application;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import ag.ion.bion.officelayer.application.IApplicationInfo;
+import ag.ion.bion.officelayer.application.IAsyncOfficeApplication;
+import ag.ion.bion.officelayer.application.IMeteredOfficeApplication;
 import ag.ion.bion.officelayer.application.IOfficeApplication;
 import ag.ion.bion.officelayer.application.IOfficeApplicationConfiguration;
 import ag.ion.bion.officelayer.application.OfficeApplicationException;
+import ag.ion.bion.officelayer.application.connection.AbstractOfficeConnection;
 import ag.ion.bion.officelayer.application.connection.IOfficeConnection;
+import ag.ion.bion.officelayer.application.connection.IOfficeConnectionListener;
 import ag.ion.bion.officelayer.desktop.IDesktopService;
+import ag.ion.bion.officelayer.document.DocumentException;
 import ag.ion.bion.officelayer.document.IDocumentService;
 import ag.ion.bion.officelayer.event.IEvent;
 import ag.ion.bion.officelayer.event.IEventListener;
 import ag.ion.bion.officelayer.internal.desktop.DesktopService;
+import ag.ion.bion.officelayer.internal.document.DocumentRegistry;
 import ag.ion.bion.officelayer.internal.document.DocumentService;
 import ag.ion.bion.officelayer.runtime.IOfficeProgressMonitor;
+import ag.ion.noa.document.IAsyncDocumentService;
+import ag.ion.noa.internal.document.AsyncDocumentService;
+import ag.ion.noa.internal.metrics.Instrumentation;
 import ag.ion.noa.internal.service.ServiceProvider;
+import ag.ion.noa.metrics.IOfficeMetrics;
 import ag.ion.noa.service.IServiceProvider;
 
 import com.sun.star.frame.XDesktop;
@@ -63,15 +78,37 @@ import com.sun.star.uno.UnoRuntime;
  * @author Markus Krüger
  * @version $Revision: 11684 $
  */
-public abstract class AbstractOfficeApplication implements IOfficeApplication {
+public abstract class AbstractOfficeApplication implements IAsyncOfficeApplication,
+    IMeteredOfficeApplication {
+
+  private static final long               MEMORY_CHECK_INTERVAL          = 5000;
+  private static final long               DRAIN_POLL_INTERVAL            = 100;
+  private static final String             RECYCLER_THREAD_NAME           = "NOA office recycler"; //$NON-NLS-1$
+
+  private static Logger                   LOGGER                         = Logger.getLogger(AbstractOfficeApplication.class.getName());
 
   private IOfficeConnection               officeConnection               = null;
   private IOfficeApplicationConfiguration officeApplicationConfiguration = null;
 
-  private DocumentService                 documentService                = null;
+  private volatile DocumentService        documentService                = null;
   private DesktopService                  desktopService                 = null;
+  private AsyncDocumentService            asyncDocumentService           = null;
+  private AsyncPolicy                     asyncPolicy                    = null;
+  private int                             framePoolSize                  = 0;
 
   private boolean                         active                         = false;
+  private volatile boolean                activationRequested            = false;
+
+  private RecyclePolicy                   recyclePolicy                  = null;
+  private boolean                         recycleOnIdle                  = false;
+  private boolean                         recycling                      = false;
+  private Object                          recycleLock                    = new Object();
+  private long                            activationTime                 = 0;
+  private long                            residentMemory                 = -1;
+  private long                            residentMemoryTime             = 0;
+
+  private IOfficeConnectionListener       connectionListener             = null;
+  private long                            connectTimeout                 = -1;
 
   //----------------------------------------------------------------------------
   /**
@@ -91,8 +128,8 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
      */
     public void disposing(IEvent event) {
       active = false;
-      documentService = null;
       desktopService = null;
+      DocumentRegistry.disposeRegistry(officeConnection);
     }
     //----------------------------------------------------------------------------
 
@@ -114,13 +151,18 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
   public void activate(IOfficeProgressMonitor officeProgressMonitor)
       throws OfficeApplicationException {
     if (isConfigured()) {
+      activationRequested = true;
       openConnection(officeProgressMonitor);
       active = true;
+      activationTime = System.currentTimeMillis();
+      residentMemoryTime = 0;
 
-      //added these two variables to always construct new document and desktop service if an activation is done,
-      //this way the remote bridge error will not appear
-      documentService = null;
+      //always construct a new desktop service if an activation is done and bind the document
+      //service to the new connection, this way the remote bridge error will not appear
       desktopService = null;
+      DocumentService documentService = this.documentService;
+      if (documentService != null)
+        documentService.setConnection(officeConnection, getServiceProvider());
 
       officeConnection.addBridgeEventListener(new ConnectionListener());
     }
@@ -151,8 +193,11 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
    * @author Andreas Bröker
    */
   public void deactivate() throws OfficeApplicationException {
-    if (officeConnection != null)
+    activationRequested = false;
+    if (officeConnection != null) {
+      DocumentRegistry.disposeRegistry(officeConnection);
       officeConnection.closeConnection();
+    }
     active = false;
   }
 
@@ -174,6 +219,18 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
     return active;
   }
 
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the office application was activated and 
+   * was not deactivated or disposed since then. In contrast to {@link #isActive()} 
+   * this information does not depend on the state of the connection.
+   * 
+   * @return information whether the office application should be active
+   */
+  public boolean isActivationRequested() {
+    return activationRequested;
+  }
+
   //----------------------------------------------------------------------------
   /**
    * Returns document service. Return null if the office application 
@@ -189,9 +246,35 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
   public IDocumentService getDocumentService() throws OfficeApplicationException {
     if (officeConnection == null)
       throw new OfficeApplicationException("Application is not active.");
-    if (documentService == null)
-      documentService = new DocumentService(officeConnection, getServiceProvider());
-    return documentService;
+    if (recycleOnIdle && isRecycleDue())
+      scheduleRecycle();
+    return getInternalDocumentService();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the asynchronous document service of the application. The service
+   * runs its tasks on a bounded number of worker threads and is disposed together 
+   * with the application.
+   * 
+   * @return asynchronous document service of the application
+   * 
+   * @throws OfficeApplicationException if the application is not active
+   */
+  public synchronized IAsyncDocumentService getAsyncDocumentService()
+      throws OfficeApplicationException {
+    if (officeConnection == null)
+      throw new OfficeApplicationException("Application is not active.");
+    if (asyncDocumentService == null) {
+      AsyncPolicy asyncPolicy = this.asyncPolicy;
+      if (asyncPolicy == null)
+        asyncPolicy = AsyncPolicy.fromConfiguration(new HashMap());
+      asyncDocumentService = new AsyncDocumentService(this,
+          asyncPolicy.getThreadCount(),
+          asyncPolicy.getQueueCapacity(),
+          asyncPolicy.getTimeout());
+    }
+    return asyncDocumentService;
   }
 
   //----------------------------------------------------------------------------
@@ -223,6 +306,117 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
     }
   }
 
+  //----------------------------------------------------------------------------
+  /**
+   * Restarts the office application. The native office process is terminated 
+   * (if the application owns one), the internal communication bridge is
+   * disposed and a new connection is opened. The document service of the 
+   * application stays valid and uses the new connection, a desktop service
+   * obtained before the restart must not be used anymore.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @throws OfficeApplicationException if the office application can not be activated again
+   */
+  public synchronized void restart(IOfficeProgressMonitor officeProgressMonitor)
+      throws OfficeApplicationException {
+    terminateProcess();
+    try {
+      deactivate();
+    }
+    catch (Throwable throwable) {
+      //the bridge is usually already broken
+    }
+    desktopService = null;
+    activate(officeProgressMonitor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Restarts the office application because its recycle policy is due.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @throws OfficeApplicationException if the office application can not be activated again
+   */
+  public synchronized void recycle(IOfficeProgressMonitor officeProgressMonitor)
+      throws OfficeApplicationException {
+    String reason = getRecycleReason();
+    LOGGER.info("Recycling office process: " + (reason != null ? reason : "requested")); //$NON-NLS-1$ //$NON-NLS-2$
+    restart(officeProgressMonitor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the office process should be recycled on the
+   * basis of the recycle policy of the application.
+   * 
+   * @return information whether the office process should be recycled
+   */
+  public boolean isRecycleDue() {
+    return getRecycleReason() != null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns recycle policy of the application. Returns null if the application 
+   * is never recycled.
+   * 
+   * @return recycle policy of the application or null
+   */
+  public RecyclePolicy getRecyclePolicy() {
+    return recyclePolicy;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of documents which were loaded or constructed since the 
+   * last activation of the application.
+   * 
+   * @return number of documents which were loaded or constructed
+   */
+  public int getLoadedDocumentCount() {
+    DocumentService documentService = this.documentService;
+    if (documentService == null)
+      return 0;
+    return documentService.getLoadedDocumentCount();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns time in milliseconds since the last activation of the application.
+   * Returns 0 if the application is not active.
+   * 
+   * @return time in milliseconds since the last activation
+   */
+  public long getUptime() {
+    if (!active)
+      return 0;
+    return System.currentTimeMillis() - activationTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns resident memory of the native office process in kilobytes. 
+   * Returns -1 if the information is not available.
+   * 
+   * @return resident memory of the native office process in kilobytes or -1
+   */
+  public long getResidentMemory() {
+    return -1;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the native office process of the application
+   * has terminated. Applications which do not own a native process return false.
+   * 
+   * @return information whether the native office process has terminated
+   */
+  public boolean isProcessTerminated() {
+    return false;
+  }
+
   //----------------------------------------------------------------------------
   /**
    * Disposes all allocated resources.
@@ -244,6 +438,12 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
       documentService.dispose();
       documentService = null;
     }
+    synchronized (this) {
+      if (asyncDocumentService != null) {
+        asyncDocumentService.dispose();
+        asyncDocumentService = null;
+      }
+    }
   }
 
   //----------------------------------------------------------------------------
@@ -283,6 +483,28 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
     return null;
   }
 
+  //----------------------------------------------------------------------------
+  /**
+   * Installs a metrics collector which records the duration of the costly NOA
+   * wrapper methods and of the calls into the office.
+   * 
+   * @param officeMetrics metrics collector to be used (null disables the instrumentation)
+   */
+  public void setMetrics(IOfficeMetrics officeMetrics) {
+    Instrumentation.setMetrics(officeMetrics);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the installed metrics collector. Returns null if no collector 
+   * is installed.
+   * 
+   * @return installed metrics collector or null
+   */
+  public IOfficeMetrics getMetrics() {
+    return Instrumentation.getMetrics();
+  }
+
   //----------------------------------------------------------------------------
   /**
    * Opens connection to OpenOffice.org. Subclasses must implement this method in order
@@ -298,6 +520,119 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
   protected abstract void openConnection(IOfficeProgressMonitor officeProgressMonitor)
       throws OfficeApplicationException;
 
+  //----------------------------------------------------------------------------
+  /**
+   * Terminates the native office process of the application. Subclasses which 
+   * own a native office process must override this method. 
+   */
+  protected void terminateProcess() {
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets recycle policy of the application.
+   * 
+   * @param recyclePolicy recycle policy to be used (can be null)
+   * @param recycleOnIdle information whether the application recycles itself as soon 
+   * as the policy is due and no document is open
+   */
+  protected void setRecyclePolicy(RecyclePolicy recyclePolicy, boolean recycleOnIdle) {
+    this.recyclePolicy = recyclePolicy;
+    this.recycleOnIdle = recycleOnIdle;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets the policy of the asynchronous document service of the application.
+   * 
+   * @param asyncPolicy policy to be used (null for the default policy)
+   */
+  protected void setAsyncPolicy(AsyncPolicy asyncPolicy) {
+    this.asyncPolicy = asyncPolicy;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets the number of hidden frames which are kept for reuse by the document
+   * service of the application.
+   * 
+   * @param framePoolSize number of hidden frames (0 for no frame pool)
+   */
+  protected void setFramePoolSize(int framePoolSize) {
+    this.framePoolSize = framePoolSize;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the number of hidden frames of the submitted configuration.
+   * 
+   * @param configuration configuration to be used
+   * 
+   * @return number of hidden frames (0 for no frame pool)
+   * 
+   * @throws OfficeApplicationException if the number is not valid
+   */
+  protected static int getFramePoolSize(Map configuration) throws OfficeApplicationException {
+    Object framePoolSize = configuration.get(IOfficeApplication.APPLICATION_FRAME_POOL_KEY);
+    if (framePoolSize == null)
+      return 0;
+    try {
+      int size = Integer.parseInt(framePoolSize.toString().trim());
+      if (size < 0)
+        throw new OfficeApplicationException("The frame pool size of the office application is not valid.");
+      return size;
+    }
+    catch (NumberFormatException numberFormatException) {
+      throw new OfficeApplicationException("The frame pool size of the office application is not valid.");
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Inits the connection settings of the submitted configuration.
+   * 
+   * @param configuration configuration to be used
+   * 
+   * @throws OfficeApplicationException if a connection setting is not valid
+   */
+  protected void initConnectionConfiguration(Map configuration)
+      throws OfficeApplicationException {
+    Object connectTimeout = configuration.get(IOfficeApplication.APPLICATION_CONNECT_TIMEOUT_KEY);
+    if (connectTimeout != null) {
+      try {
+        this.connectTimeout = Long.parseLong(connectTimeout.toString().trim());
+      }
+      catch (NumberFormatException numberFormatException) {
+        throw new OfficeApplicationException("The connect timeout of the office application is not valid.");
+      }
+    }
+    Object connectionListener = configuration.get(IOfficeApplication.APPLICATION_CONNECTION_LISTENER_KEY);
+    if (connectionListener instanceof IOfficeConnectionListener)
+      this.connectionListener = (IOfficeConnectionListener) connectionListener;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Applies the connection settings of the application to the submitted connection.
+   * 
+   * @param officeConnection connection to be configured
+   */
+  protected void configureConnection(AbstractOfficeConnection officeConnection) {
+    officeConnection.setConnectTimeout(connectTimeout);
+    officeConnection.setConnectionListener(connectionListener);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns office connection. Returns null if the application was never 
+   * activated.
+   * 
+   * @return office connection or null
+   */
+  protected IOfficeConnection getOfficeConnection() {
+    return officeConnection;
+  }
+
   //----------------------------------------------------------------------------
   /**
    * Sets office application configuration configuration.
@@ -322,6 +657,168 @@ public abstract class AbstractOfficeApplication implements IOfficeApplication {
   protected void setOfficeConnection(IOfficeConnection officeConnection) {
     this.officeConnection = officeConnection;
   }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the reason why the office process should be recycled. Returns null
+   * if the office process does not need to be recycled. The resident memory
+   * is read only once within the memory check interval.
+   * 
+   * @return reason for recycling or null
+   */
+  private String getRecycleReason() {
+    RecyclePolicy recyclePolicy = this.recyclePolicy;
+    if (recyclePolicy == null || !active)
+      return null;
+    if (recyclePolicy.isMemoryChecked()) {
+      long time = System.currentTimeMillis();
+      if (time - residentMemoryTime >= MEMORY_CHECK_INTERVAL) {
+        residentMemory = getResidentMemory();
+        residentMemoryTime = time;
+      }
+    }
+    return recyclePolicy.getRecycleReason(getLoadedDocumentCount(), getUptime(), residentMemory);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Recycles the office process in the background if the recycle policy is due 
+   * (see {@link #recycleWhenIdle(IOfficeProgressMonitor)}). Returns immediately.
+   */
+  public void scheduleRecycle() {
+    synchronized (recycleLock) {
+      if (recycling)
+        return;
+    }
+    Thread thread = new Thread(new Runnable() {
+      public void run() {
+        try {
+          recycleWhenIdle(null);
+        }
+        catch (Throwable throwable) {
+          LOGGER.log(Level.WARNING, "Office process can not be recycled.", throwable); //$NON-NLS-1$
+        }
+      }
+    }, RECYCLER_THREAD_NAME);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Recycles the office process if the recycle policy is due. New loads wait 
+   * until the office process is active again. Running loads are finished and 
+   * open documents are awaited up to the drain timeout of the recycle policy,
+   * afterwards the office process is restarted even if documents are still open.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @return information whether the office process was recycled
+   * 
+   * @throws OfficeApplicationException if the office application can not be activated again
+   */
+  public boolean recycleWhenIdle(IOfficeProgressMonitor officeProgressMonitor)
+      throws OfficeApplicationException {
+    synchronized (recycleLock) {
+      if (recycling || !isRecycleDue())
+        return false;
+      recycling = true;
+    }
+    DocumentService documentService = null;
+    try {
+      documentService = getInternalDocumentService();
+      documentService.suspendLoads();
+      RecyclePolicy recyclePolicy = this.recyclePolicy;
+      long timeout = recyclePolicy != null ? recyclePolicy.getDrainTimeout() : 0;
+      try {
+        if (!drain(documentService, timeout))
+          LOGGER.warning("Office process is recycled with open documents after " + timeout + " ms."); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+      catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      recycle(officeProgressMonitor);
+      return true;
+    }
+    finally {
+      if (documentService != null)
+        documentService.resumeLoads();
+      synchronized (recycleLock) {
+        recycling = false;
+      }
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the office process is currently recycled.
+   * 
+   * @return information whether the office process is currently recycled
+   */
+  public boolean isRecycling() {
+    synchronized (recycleLock) {
+      return recycling;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the document service of the application, it is constructed on the first call.
+   * The service is kept across restarts, so callers do not wait for a running restart.
+   * 
+   * @return document service of the application
+   * 
+   * @throws OfficeApplicationException if the application is not active
+   */
+  private DocumentService getInternalDocumentService() throws OfficeApplicationException {
+    DocumentService documentService = this.documentService;
+    if (documentService != null)
+      return documentService;
+    synchronized (this) {
+      if (officeConnection == null)
+        throw new OfficeApplicationException("Application is not active.");
+      if (this.documentService == null) {
+        documentService = new DocumentService(officeConnection, getServiceProvider());
+        documentService.setHiddenFramePoolSize(framePoolSize);
+        this.documentService = documentService;
+      }
+      return this.documentService;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Waits until the submitted document service finished its loads and no document 
+   * is open anymore.
+   * 
+   * @param documentService document service to be used
+   * @param timeout maximum time to wait in milliseconds
+   * 
+   * @return information whether all loads are finished and all documents are closed
+   * 
+   * @throws InterruptedException if the current thread was interrupted
+   */
+  private boolean drain(DocumentService documentService, long timeout)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+    if (!documentService.awaitLoads(timeout))
+      return false;
+    while (true) {
+      try {
+        if (DocumentService.getCurrentDocumentCount(getServiceProvider()) == 0)
+          return true;
+      }
+      catch (DocumentException documentException) {
+        LOGGER.log(Level.FINE, "Open documents can not be counted.", documentException); //$NON-NLS-1$
+        return false;
+      }
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0)
+        return false;
+      Thread.sleep(Math.min(remaining, DRAIN_POLL_INTERVAL));
+    }
+  }
   //----------------------------------------------------------------------------
 
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application;
+
+import java.util.Map;
+
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.application.OfficeApplicationException;
+
+/**
+ * Policy for the worker threads, the queue and the timeout of the asynchronous 
+ * document service of one office process.
+ */
+public class AsyncPolicy {
+
+  /** Default number of worker threads. */
+  public static final int DEFAULT_THREAD_COUNT   = 2;
+  /** Default number of queued tasks. */
+  public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+  private int             threadCount            = DEFAULT_THREAD_COUNT;
+  private int             queueCapacity          = DEFAULT_QUEUE_CAPACITY;
+  private long            timeout                = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new AsyncPolicy.
+   * 
+   * @param threadCount number of worker threads
+   * @param queueCapacity number of tasks which can be queued
+   * @param timeout timeout of a running task in milliseconds (0 for no timeout)
+   */
+  public AsyncPolicy(int threadCount, int queueCapacity, long timeout) {
+    this.threadCount = threadCount;
+    this.queueCapacity = queueCapacity;
+    this.timeout = timeout;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Builds a policy on the basis of the submitted configuration. Settings which 
+   * are not configured get their default values.
+   * 
+   * @param configuration configuration to be used
+   * 
+   * @return policy on the basis of the configuration
+   * 
+   * @throws OfficeApplicationException if a setting is not valid
+   */
+  public static AsyncPolicy fromConfiguration(Map configuration)
+      throws OfficeApplicationException {
+    long threadCount = getSetting(configuration,
+        IOfficeApplication.APPLICATION_ASYNC_THREADS_KEY,
+        DEFAULT_THREAD_COUNT);
+    long queueCapacity = getSetting(configuration,
+        IOfficeApplication.APPLICATION_ASYNC_QUEUE_KEY,
+        DEFAULT_QUEUE_CAPACITY);
+    long timeout = getSetting(configuration, IOfficeApplication.APPLICATION_ASYNC_TIMEOUT_KEY, 0);
+    if (threadCount < 1 || threadCount > Integer.MAX_VALUE)
+      throw new OfficeApplicationException("The number of asynchronous worker threads is not valid.");
+    if (queueCapacity < 1 || queueCapacity > Integer.MAX_VALUE)
+      throw new OfficeApplicationException("The asynchronous queue capacity is not valid.");
+    return new AsyncPolicy((int) threadCount, (int) queueCapacity, timeout);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of worker threads.
+   * 
+   * @return number of worker threads
+   */
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of tasks which can be queued.
+   * 
+   * @return number of tasks which can be queued
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns timeout of a running task in milliseconds. Returns 0 if running 
+   * tasks do not time out.
+   * 
+   * @return timeout of a running task in milliseconds or 0
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the setting stored with the submitted key. Returns the submitted default 
+   * value if the setting is not set.
+   * 
+   * @param configuration configuration to be used
+   * @param key key of the setting
+   * @param defaultValue default value of the setting
+   * 
+   * @return setting stored with the submitted key or the default value
+   * 
+   * @throws OfficeApplicationException if the setting is not valid
+   */
+  private static long getSetting(Map configuration, String key, long defaultValue)
+      throws OfficeApplicationException {
+    Object value = configuration.get(key);
+    if (value == null)
+      return defaultValue;
+    try {
+      long setting = Long.parseLong(value.toString().trim());
+      if (setting < 0)
+        throw new OfficeApplicationException("The asynchronous setting " + key + " is not valid.");
+      return setting;
+    }
+    catch (NumberFormatException numberFormatException) {
+      throw new OfficeApplicationException("The asynchronous setting " + key + " is not valid.");
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -43,12 +43,24 @@ import ag.ion.bion.officelayer.application.IOfficeApplicationConfiguration;
 import ag.ion.bion.officelayer.application.LocalOfficeApplicationConfiguration;
 import ag.ion.bion.officelayer.application.OfficeApplicationException;
 
+import ag.ion.bion.officelayer.application.connection.IOfficeConnection;
+
 import ag.ion.bion.officelayer.internal.application.connection.LocalOfficeConnection;
 
 import ag.ion.bion.officelayer.runtime.IOfficeProgressMonitor;
 
+import ag.ion.noa.document.URLAdapter;
+
+import com.sun.star.comp.helper.Bootstrap;
+
 import java.awt.Toolkit;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * Local OpenOffice.org application.
@@ -58,10 +70,19 @@ import java.util.Map;
  */
 public class LocalOfficeApplication extends AbstractOfficeApplication implements IOfficeApplication {
 
+  private static Logger LOGGER = Logger.getLogger(LocalOfficeApplication.class.getName());
+
+  private static final long PROCESS_TERMINATION_TIMEOUT = 10000;
+  private static final String PROFILE_DIRECTORY_PREFIX = "noa-profile-"; //$NON-NLS-1$
+  private static final String[] HEADLESS_OPTIONS = new String[] {"--headless", "--invisible", "--nolockcheck", "--nofirststartwizard"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
   private LocalOfficeApplicationConfiguration localOfficeApplicationConfiguration = null;
   
   private String home = null;
   private String[] arguments = null;
+  private boolean headless = false;
+  private String profileTemplate = null;
+  private File profileDirectory = null;
      
   private boolean isConfigured = false;
   
@@ -153,9 +174,10 @@ public class LocalOfficeApplication extends AbstractOfficeApplication implements
     try {
       LocalOfficeConnection localOfficeConnection = new LocalOfficeConnection();
       localOfficeConnection.setOfficePath(home);
-      localOfficeConnection.setOfficeArguments(arguments);
+      localOfficeConnection.setOfficeArguments(buildArguments());
       localOfficeConnection.setHost("localhost");
       localOfficeConnection.setUseBridge(true);
+      configureConnection(localOfficeConnection);
       localOfficeConnection.openConnection(officeProgressMonitor);
       setOfficeConnection(localOfficeConnection);
     }
@@ -166,6 +188,147 @@ public class LocalOfficeApplication extends AbstractOfficeApplication implements
     }
   }
   //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the native office process of the application
+   * has terminated.
+   * 
+   * @return information whether the native office process has terminated
+   */
+  public boolean isProcessTerminated() {
+    IOfficeConnection officeConnection = getOfficeConnection();
+    if(officeConnection instanceof LocalOfficeConnection)
+      return ((LocalOfficeConnection)officeConnection).isProcessTerminated();
+    return false;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns resident memory of the native office process in kilobytes. 
+   * Returns -1 if the information is not available.
+   * 
+   * @return resident memory of the native office process in kilobytes or -1
+   */
+  public long getResidentMemory() {
+    IOfficeConnection officeConnection = getOfficeConnection();
+    if(officeConnection instanceof LocalOfficeConnection)
+      return ((LocalOfficeConnection)officeConnection).getProcessResidentMemory();
+    return -1;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Disposes all allocated resources. If the office process uses a profile cloned by 
+   * the application, the process is terminated and the profile is deleted.
+   */
+  public void dispose() {
+    super.dispose();
+    if(getProfileDirectory() != null)
+      terminateProcess();
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Kills the native office process of the application. A profile cloned by the 
+   * application is deleted as soon as the process has terminated, it is cloned again 
+   * on the next activation.
+   */
+  protected void terminateProcess() {
+    IOfficeConnection officeConnection = getOfficeConnection();
+    boolean terminated = true;
+    if(officeConnection instanceof LocalOfficeConnection)
+      terminated = ((LocalOfficeConnection)officeConnection).terminateProcess(PROCESS_TERMINATION_TIMEOUT);
+    if(terminated)
+      deleteProfileDirectory();
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the profile directory cloned by the application or null.
+   * 
+   * @return profile directory cloned by the application or null
+   */
+  private synchronized File getProfileDirectory() {
+    return profileDirectory;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Deletes the profile directory cloned by the application. Must only be called 
+   * when the office process has terminated.
+   */
+  private synchronized void deleteProfileDirectory() {
+    if(profileDirectory == null)
+      return;
+    if(!UserProfile.delete(profileDirectory))
+      LOGGER.warning("The profile " + profileDirectory + " can not be deleted."); //$NON-NLS-1$ //$NON-NLS-2$
+    profileDirectory = null;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Builds the arguments of the office process on the basis of the configured
+   * arguments, the headless mode and the template profile. Clones the template
+   * profile if necessary.
+   * 
+   * @return arguments of the office process
+   * 
+   * @throws IOException if the template profile can not be cloned
+   */
+  private synchronized String[] buildArguments() throws IOException {
+    if(!headless && profileTemplate == null)
+      return arguments;
+    List list = new ArrayList();
+    if(arguments != null)
+      list.addAll(Arrays.asList(arguments));
+    else
+      list.addAll(Arrays.asList(Bootstrap.getDefaultOptions()));
+    if(headless) {
+      for(int i = 0; i < HEADLESS_OPTIONS.length; i++) {
+        if(!containsOption(list, HEADLESS_OPTIONS[i]))
+          list.add(HEADLESS_OPTIONS[i]);
+      }
+    }
+    if(profileTemplate != null) {
+      File directory = UserProfile.getUserInstallation((String[])list.toArray(new String[list.size()]));
+      if(directory == null) {
+        if(profileDirectory == null) {
+          profileDirectory = File.createTempFile(PROFILE_DIRECTORY_PREFIX, ""); //$NON-NLS-1$
+          profileDirectory.delete();
+        }
+        directory = profileDirectory;
+        list.add(UserProfile.USER_INSTALLATION_OPTION + URLAdapter.adaptURL(directory.getAbsolutePath()));
+      }
+      UserProfile.cloneTemplate(new File(profileTemplate), directory);
+    }
+    return (String[])list.toArray(new String[list.size()]);
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted list contains the submitted option. 
+   * Options are compared without their leading dashes.
+   * 
+   * @param list list of options
+   * @param option option to be searched
+   * 
+   * @return information whether the list contains the option
+   */
+  private boolean containsOption(List list, String option) {
+    String name = stripDashes(option);
+    for(int i = 0, n = list.size(); i < n; i++) {
+      if(stripDashes(list.get(i).toString()).equals(name))
+        return true;
+    }
+    return false;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Removes the leading dashes of the submitted option.
+   * 
+   * @param option option to be used
+   * 
+   * @return option without leading dashes
+   */
+  private String stripDashes(String option) {
+    int index = 0;
+    while(index < option.length() && option.charAt(index) == '-')
+      index++;
+    return option.substring(index).trim();
+  }
+  //----------------------------------------------------------------------------
   /**
    * Inits the submitted configuration.
    * 
@@ -186,6 +349,18 @@ public class LocalOfficeApplication extends AbstractOfficeApplication implements
     if(arguments != null) {
       this.arguments = (String[])arguments;      
     }
+    Object headless = configuration.get(IOfficeApplication.APPLICATION_HEADLESS_KEY);
+    if(headless != null) {
+      this.headless = Boolean.valueOf(headless.toString().trim()).booleanValue();
+    }
+    Object profileTemplate = configuration.get(IOfficeApplication.APPLICATION_PROFILE_TEMPLATE_KEY);
+    if(profileTemplate != null) {
+      this.profileTemplate = profileTemplate.toString();
+    }
+    setAsyncPolicy(AsyncPolicy.fromConfiguration(configuration));
+    setFramePoolSize(getFramePoolSize(configuration));
+    setRecyclePolicy(RecyclePolicy.fromConfiguration(configuration), true);
+    initConnectionConfiguration(configuration);
     isConfigured = true;
     //else
       //throw new OfficeApplicationException("The home path to the office application is missing.");
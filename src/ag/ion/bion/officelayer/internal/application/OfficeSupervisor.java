@@ -0,0 +1,408 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.application.IOfficeSupervisor;
+import ag.ion.bion.officelayer.application.IPooledOfficeApplication;
+import ag.ion.bion.officelayer.application.OfficeApplicationException;
+import ag.ion.noa.service.IServiceProvider;
+
+/**
+ * Supervisor of an office application.
+ */
+public class OfficeSupervisor implements IOfficeSupervisor {
+
+  private static Logger              LOGGER                = Logger.getLogger(OfficeSupervisor.class.getName());
+
+  private static final long          DEFAULT_PROBE_INTERVAL = 5000;
+  private static final long          DEFAULT_PROBE_TIMEOUT  = 10000;
+  private static final int           DEFAULT_PROBE_FAILURES = 2;
+  private static final long          PROBE_THREAD_KEEP_ALIVE = 60000;
+
+  private IOfficeApplication         officeApplication     = null;
+
+  private long                       probeInterval         = DEFAULT_PROBE_INTERVAL;
+  private long                       probeTimeout          = DEFAULT_PROBE_TIMEOUT;
+  private int                        probeFailures         = DEFAULT_PROBE_FAILURES;
+
+  private ScheduledExecutorService   scheduler             = null;
+  private ExecutorService            probeExecutor         = null;
+
+  private Map                        failures              = new HashMap();
+  private int                        restartCount          = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Thread factory for the daemon threads of the supervisor.
+   */
+  private static class SupervisorThreadFactory implements ThreadFactory {
+
+    private String name = null;
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new SupervisorThreadFactory.
+     * 
+     * @param name name of the threads
+     */
+    public SupervisorThreadFactory(String name) {
+      this.name = name;
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs a new daemon thread.
+     * 
+     * @param runnable runnable to be executed
+     * 
+     * @return new daemon thread
+     */
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new OfficeSupervisor.
+   * 
+   * @param officeApplication office application to be supervised
+   * @param configuration configuration of the supervisor (can be null)
+   * 
+   * @throws OfficeApplicationException if the configuration is not valid
+   */
+  public OfficeSupervisor(IOfficeApplication officeApplication, Map configuration)
+      throws OfficeApplicationException {
+    if (officeApplication == null)
+      throw new OfficeApplicationException("The submitted office application is not valid.");
+    this.officeApplication = officeApplication;
+    if (configuration != null) {
+      probeInterval = getLong(configuration, PROBE_INTERVAL_KEY, DEFAULT_PROBE_INTERVAL);
+      probeTimeout = getLong(configuration, PROBE_TIMEOUT_KEY, DEFAULT_PROBE_TIMEOUT);
+      probeFailures = (int) getLong(configuration, PROBE_FAILURES_KEY, DEFAULT_PROBE_FAILURES);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Starts the supervision. Every supervised office process gets at most one probe 
+   * thread, so probes which hang in the bridge can not pile up. A probe which finds 
+   * no free thread counts as failed.
+   */
+  public synchronized void start() {
+    if (scheduler != null)
+      return;
+    int probeThreads = 1;
+    if (officeApplication instanceof IPooledOfficeApplication)
+      probeThreads = Math.max(((IPooledOfficeApplication) officeApplication).getPoolSize(), 1);
+    probeExecutor = new ThreadPoolExecutor(0, probeThreads, PROBE_THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+        new SynchronousQueue(), new SupervisorThreadFactory("NOA office probe")); //$NON-NLS-1$
+    scheduler = Executors.newSingleThreadScheduledExecutor(new SupervisorThreadFactory("NOA office supervisor")); //$NON-NLS-1$
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      public void run() {
+        check();
+      }
+    }, probeInterval, probeInterval, TimeUnit.MILLISECONDS);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Stops the supervision. A running probe is finished.
+   */
+  public synchronized void stop() {
+    if (scheduler == null)
+      return;
+    scheduler.shutdown();
+    probeExecutor.shutdownNow();
+    scheduler = null;
+    probeExecutor = null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the supervision is running.
+   * 
+   * @return information whether the supervision is running
+   */
+  public synchronized boolean isRunning() {
+    return scheduler != null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Probes all supervised office processes immediately and restarts the 
+   * processes which do not respond or were terminated, even if they are leased. 
+   * Office applications which were deactivated or disposed, and office processes 
+   * which are currently recycled, are skipped.
+   */
+  public void check() {
+    IOfficeApplication[] applications = null;
+    if (officeApplication instanceof IPooledOfficeApplication)
+      applications = ((IPooledOfficeApplication) officeApplication).getApplications();
+    else
+      applications = new IOfficeApplication[] { officeApplication };
+
+    for (int i = 0; i < applications.length; i++) {
+      if (isRecycling(applications[i]))
+        continue;
+      check(applications[i]);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of office process restarts done by the supervisor.
+   * 
+   * @return number of office process restarts
+   */
+  public synchronized int getRestartCount() {
+    return restartCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Probes the submitted office application and restarts it if necessary.
+   * 
+   * @param application office application to be checked
+   */
+  private void check(IOfficeApplication application) {
+    if (!isSupervised(application)) {
+      synchronized (this) {
+        failures.remove(application);
+      }
+      return;
+    }
+    boolean terminated = application instanceof AbstractOfficeApplication
+        && ((AbstractOfficeApplication) application).isProcessTerminated();
+    if (!terminated && probe(application)) {
+      synchronized (this) {
+        failures.remove(application);
+      }
+      return;
+    }
+
+    synchronized (this) {
+      Integer count = (Integer) failures.get(application);
+      int failureCount = count == null ? 1 : count.intValue() + 1;
+      if (!terminated && failureCount < probeFailures) {
+        failures.put(application, new Integer(failureCount));
+        return;
+      }
+      failures.remove(application);
+    }
+
+    LOGGER.warning("Office process does not respond - restarting it."); //$NON-NLS-1$
+    try {
+      if (!restart(application))
+        return;
+      synchronized (this) {
+        restartCount++;
+      }
+    }
+    catch (Throwable throwable) {
+      LOGGER.log(Level.WARNING, "Office process can not be restarted.", throwable); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Probes the submitted office application with a bridge round trip.
+   * 
+   * @param application office application to be probed
+   * 
+   * @return information whether the office application answered within the 
+   * probe timeout
+   */
+  private boolean probe(final IOfficeApplication application) {
+    ExecutorService executor = null;
+    synchronized (this) {
+      executor = probeExecutor;
+    }
+    if (executor == null)
+      return isAlive(application);
+
+    Future future = null;
+    try {
+      future = executor.submit(new Callable() {
+        public Object call() throws Exception {
+          return Boolean.valueOf(isAlive(application));
+        }
+      });
+      return ((Boolean) future.get(probeTimeout, TimeUnit.MILLISECONDS)).booleanValue();
+    }
+    catch (TimeoutException timeoutException) {
+      future.cancel(true);
+      return false;
+    }
+    catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      return true;
+    }
+    catch (Throwable throwable) {
+      return false;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted office application answers 
+   * bridge calls.
+   * 
+   * @param application office application to be used
+   * 
+   * @return information whether the submitted office application answers 
+   * bridge calls
+   */
+  private boolean isAlive(IOfficeApplication application) {
+    try {
+      if (!application.isActive())
+        return false;
+      IServiceProvider serviceProvider = application.getServiceProvider();
+      if (serviceProvider == null)
+        return false;
+      return serviceProvider.createService("com.sun.star.frame.Desktop") != null; //$NON-NLS-1$
+    }
+    catch (Throwable throwable) {
+      return false;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted office application is currently 
+   * recycled. A recycled office process is restarted on purpose and must not be
+   * probed.
+   * 
+   * @param application office application to be used
+   * 
+   * @return information whether the submitted office application is currently recycled
+   */
+  private boolean isRecycling(IOfficeApplication application) {
+    if (officeApplication instanceof PooledOfficeApplication
+        && ((PooledOfficeApplication) officeApplication).isRecycling(application))
+      return true;
+    return application instanceof AbstractOfficeApplication
+        && ((AbstractOfficeApplication) application).isRecycling();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted office application should be 
+   * supervised, i.e. it was activated and not deactivated or disposed since then.
+   * 
+   * @param application office application to be used
+   * 
+   * @return information whether the submitted office application should be supervised
+   */
+  private boolean isSupervised(IOfficeApplication application) {
+    if (application instanceof AbstractOfficeApplication)
+      return ((AbstractOfficeApplication) application).isActivationRequested();
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Restarts the submitted office application unless it was deactivated or
+   * disposed in the meantime.
+   * 
+   * @param application office application to be restarted
+   * 
+   * @return information whether the office application was restarted
+   * 
+   * @throws OfficeApplicationException if the office application can not be restarted
+   */
+  private boolean restart(IOfficeApplication application) throws OfficeApplicationException {
+    if (application instanceof AbstractOfficeApplication) {
+      AbstractOfficeApplication abstractOfficeApplication = (AbstractOfficeApplication) application;
+      synchronized (abstractOfficeApplication) {
+        if (!abstractOfficeApplication.isActivationRequested())
+          return false;
+        abstractOfficeApplication.restart(null);
+      }
+    }
+    else {
+      try {
+        application.deactivate();
+      }
+      catch (Throwable throwable) {
+        //the bridge is usually already broken
+      }
+      application.activate();
+    }
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns long value of the submitted configuration key.
+   * 
+   * @param configuration configuration to be used
+   * @param key key to be used
+   * @param defaultValue default value to be used
+   * 
+   * @return long value of the submitted configuration key
+   * 
+   * @throws OfficeApplicationException if the value is not valid
+   */
+  private static long getLong(Map configuration, String key, long defaultValue)
+      throws OfficeApplicationException {
+    Object value = configuration.get(key);
+    if (value == null)
+      return defaultValue;
+    try {
+      long longValue = value instanceof Number ? ((Number) value).longValue()
+          : Long.parseLong(value.toString().trim());
+      if (longValue <= 0)
+        throw new OfficeApplicationException("The value of " + key + " is not valid."); //$NON-NLS-1$ //$NON-NLS-2$
+      return longValue;
+    }
+    catch (NumberFormatException numberFormatException) {
+      throw new OfficeApplicationException("The value of " + key + " is not valid."); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,755 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.application.IApplicationInfo;
+import ag.ion.bion.officelayer.application.IAsyncOfficeApplication;
+import ag.ion.bion.officelayer.application.IMeteredOfficeApplication;
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.application.IOfficeApplicationConfiguration;
+import ag.ion.bion.officelayer.application.IOfficeApplicationLease;
+import ag.ion.bion.officelayer.application.IPooledOfficeApplication;
+import ag.ion.bion.officelayer.application.LocalOfficeApplicationConfiguration;
+import ag.ion.bion.officelayer.application.OfficeApplicationException;
+import ag.ion.bion.officelayer.desktop.IDesktopService;
+import ag.ion.bion.officelayer.document.IDocumentService;
+import ag.ion.bion.officelayer.runtime.IOfficeProgressMonitor;
+import ag.ion.noa.document.IAsyncDocumentService;
+import ag.ion.noa.document.URLAdapter;
+import ag.ion.noa.internal.document.AsyncDocumentService;
+import ag.ion.noa.internal.metrics.Instrumentation;
+import ag.ion.noa.metrics.IOfficeMetrics;
+import ag.ion.noa.service.IServiceProvider;
+
+import com.sun.star.comp.helper.Bootstrap;
+
+/**
+ * Pool of local office applications. Every pooled application starts its own
+ * office process with its own accept pipe and its own user profile. If a recycle
+ * policy is configured, processes which are due are not leased anymore and are 
+ * recycled as soon as their outstanding leases have been released.
+ */
+public class PooledOfficeApplication implements IPooledOfficeApplication, IAsyncOfficeApplication,
+    IMeteredOfficeApplication {
+
+  private static final String    PROFILE_DIRECTORY_PREFIX = "noa-pool-";         //$NON-NLS-1$
+  private static final String    INSTANCE_DIRECTORY_NAME  = "instance";          //$NON-NLS-1$
+  private static final String    RECYCLER_THREAD_NAME     = "NOA office recycler";   //$NON-NLS-1$
+
+  private static Logger          LOGGER                   = Logger.getLogger(PooledOfficeApplication.class.getName());
+
+  private LocalOfficeApplication[] applications           = null;
+  private int[]                    leaseCounts            = null;
+  private boolean[]                recycling              = null;
+  private RecyclePolicy            recyclePolicy          = null;
+  private AsyncPolicy              asyncPolicy            = null;
+  private AsyncDocumentService     asyncDocumentService   = null;
+  private Object                   connectTimeout         = null;
+  private Object                   connectionListener     = null;
+  private Object                   headless               = null;
+  private Object                   profileTemplate        = null;
+  private Object                   framePoolSize          = null;
+
+  private String                   home                   = null;
+  private String[]                 arguments              = null;
+  private String                   profilePath            = null;
+  private int                      poolSize               = 0;
+  private int                      nextIndex              = 0;
+
+  private boolean                  isConfigured           = false;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Lease on one pooled office application.
+   */
+  private class Lease implements IOfficeApplicationLease {
+
+    private int     index    = -1;
+    private boolean released = false;
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new Lease.
+     * 
+     * @param index index of the leased office application
+     */
+    public Lease(int index) {
+      this.index = index;
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Returns the office application of the leased process.
+     * 
+     * @return office application of the leased process
+     */
+    public IOfficeApplication getApplication() {
+      return applications[index];
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Returns document service of the leased process.
+     * 
+     * @return document service of the leased process
+     * 
+     * @throws OfficeApplicationException if the document service is not available
+     */
+    public IDocumentService getDocumentService() throws OfficeApplicationException {
+      return getApplication().getDocumentService();
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Returns desktop service of the leased process.
+     * 
+     * @return desktop service of the leased process
+     * 
+     * @throws OfficeApplicationException if the desktop service is not available
+     */
+    public IDesktopService getDesktopService() throws OfficeApplicationException {
+      return getApplication().getDesktopService();
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Returns service provider of the leased process. Returns null if the
+     * process is not active.
+     * 
+     * @return service provider of the leased process or null
+     */
+    public IServiceProvider getServiceProvider() {
+      return getApplication().getServiceProvider();
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Returns information whether the lease was already released.
+     * 
+     * @return information whether the lease was already released
+     */
+    public boolean isReleased() {
+      synchronized (PooledOfficeApplication.this) {
+        return released;
+      }
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Releases the lease. Further calls have no effect.
+     */
+    public void release() {
+      synchronized (PooledOfficeApplication.this) {
+        if (released)
+          return;
+        released = true;
+        if (leaseCounts != null && leaseCounts[index] > 0)
+          leaseCounts[index]--;
+        recycleIdleApplications();
+      }
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new PooledOfficeApplication.
+   * 
+   * @param map configuration map to be used (can be null)
+   */
+  public PooledOfficeApplication(Map map) {
+    if (map != null) {
+      try {
+        initConfiguration(map);
+      }
+      catch (Throwable throwable) {
+        //do not consume
+      }
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets configuration of the office application.
+   * 
+   * @param officeApplicationConfiguration configuration of the office application
+   * 
+   * @throws OfficeApplicationException if the submitted configuration is not valid
+   * 
+   * @deprecated Use setConfiguration(Map configuration) instead.
+   */
+  public void setConfiguration(IOfficeApplicationConfiguration officeApplicationConfiguration)
+      throws OfficeApplicationException {
+    if (officeApplicationConfiguration instanceof LocalOfficeApplicationConfiguration) {
+      Map configuration = new HashMap();
+      configuration.put(IOfficeApplication.APPLICATION_HOME_KEY,
+          ((LocalOfficeApplicationConfiguration) officeApplicationConfiguration).getApplicationHomePath());
+      initConfiguration(configuration);
+    }
+    else
+      throw new OfficeApplicationException("The submitted configuration is not valid for a pooled office application.");
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets configuration of the office application.
+   * 
+   * @param configuration configuration map to be used
+   * 
+   * @throws OfficeApplicationException if the configuration is not complete
+   */
+  public void setConfiguration(Map configuration) throws OfficeApplicationException {
+    initConfiguration(configuration);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the office application is configured or not.
+   * 
+   * @return true, if the office application is configured
+   */
+  public boolean isConfigured() {
+    return isConfigured;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Activates all office processes of the pool. 
+   * 
+   * @throws OfficeApplicationException if no office process can be activated
+   */
+  public void activate() throws OfficeApplicationException {
+    activate(null);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Activates all office processes of the pool. Processes which can not be 
+   * activated are left inactive as long as at least one process is available. 
+   * 
+   * @param officeProgressMonitor office progress monitor to be used
+   * 
+   * @throws OfficeApplicationException if no office process can be activated
+   */
+  public void activate(IOfficeProgressMonitor officeProgressMonitor)
+      throws OfficeApplicationException {
+    if (!isConfigured)
+      throw new OfficeApplicationException("Configuration for office application is missing.");
+
+    synchronized (this) {
+      if (applications == null) {
+        applications = new LocalOfficeApplication[poolSize];
+        leaseCounts = new int[poolSize];
+        recycling = new boolean[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+          applications[i] = new LocalOfficeApplication(buildConfiguration(i));
+          applications[i].setRecyclePolicy(recyclePolicy, false);
+        }
+      }
+    }
+
+    OfficeApplicationException lastException = null;
+    for (int i = 0; i < applications.length; i++) {
+      if (officeProgressMonitor != null && officeProgressMonitor.isCanceled())
+        break;
+      try {
+        if (!applications[i].isActive())
+          applications[i].activate(officeProgressMonitor);
+      }
+      catch (OfficeApplicationException officeApplicationException) {
+        lastException = officeApplicationException;
+      }
+    }
+    if (!isActive()) {
+      if (lastException != null)
+        throw lastException;
+      throw new OfficeApplicationException("No office process of the pool can be activated.");
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Deactivates all office processes of the pool. This call will not terminate
+   * the native office processes - it will only dispose the internal
+   * communication bridges.
+   * 
+   * @throws OfficeApplicationException if an office process can not be deactivated
+   */
+  public void deactivate() throws OfficeApplicationException {
+    if (applications == null)
+      return;
+    OfficeApplicationException lastException = null;
+    for (int i = 0; i < applications.length; i++) {
+      try {
+        applications[i].deactivate();
+      }
+      catch (OfficeApplicationException officeApplicationException) {
+        lastException = officeApplicationException;
+      }
+    }
+    if (lastException != null)
+      throw lastException;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether at least one office process of the pool is active.
+   * 
+   * @return whether at least one office process of the pool is active
+   */
+  public boolean isActive() {
+    if (applications == null)
+      return false;
+    for (int i = 0; i < applications.length; i++) {
+      if (applications[i].isActive())
+        return true;
+    }
+    return false;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns document service of the least loaded office process.
+   * 
+   * @return document service of the least loaded office process
+   * 
+   * @throws OfficeApplicationException if no office process is active
+   */
+  public IDocumentService getDocumentService() throws OfficeApplicationException {
+    return applications[selectApplication()].getDocumentService();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the asynchronous document service of the pool. The number of worker 
+   * threads and queued tasks is multiplied by the pool size, every task uses the 
+   * least loaded office process.
+   * 
+   * @return asynchronous document service of the pool
+   * 
+   * @throws OfficeApplicationException if the pool is not active
+   */
+  public synchronized IAsyncDocumentService getAsyncDocumentService()
+      throws OfficeApplicationException {
+    if (applications == null)
+      throw new OfficeApplicationException("Application is not active.");
+    if (asyncDocumentService == null) {
+      int threadCount = (int) Math.min((long) asyncPolicy.getThreadCount() * poolSize, Integer.MAX_VALUE);
+      int queueCapacity = (int) Math.min((long) asyncPolicy.getQueueCapacity() * poolSize, Integer.MAX_VALUE);
+      asyncDocumentService = new AsyncDocumentService(this,
+          threadCount,
+          queueCapacity,
+          asyncPolicy.getTimeout());
+    }
+    return asyncDocumentService;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns desktop service of the least loaded office process.
+   * 
+   * @return desktop service of the least loaded office process
+   * 
+   * @throws OfficeApplicationException if no office process is active
+   */
+  public IDesktopService getDesktopService() throws OfficeApplicationException {
+    return applications[selectApplication()].getDesktopService();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the application type.
+   * 
+   * @return application type
+   */
+  public String getApplicationType() {
+    return IOfficeApplication.POOLED_APPLICATION;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns service provider of the least loaded office process. Returns null 
+   * if no office process is active.
+   * 
+   * @return service provider or null if no office process is active
+   */
+  public IServiceProvider getServiceProvider() {
+    try {
+      return applications[selectApplication()].getServiceProvider();
+    }
+    catch (OfficeApplicationException officeApplicationException) {
+      return null;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns application info. Returns null if no office process is active.
+   * 
+   * @return application info
+   * 
+   * @throws Exception if return fails
+   */
+  public IApplicationInfo getApplicationInfo() throws Exception {
+    if (applications == null)
+      return null;
+    for (int i = 0; i < applications.length; i++) {
+      if (applications[i].isActive())
+        return applications[i].getApplicationInfo();
+    }
+    return null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Installs a metrics collector which records the duration of the costly NOA
+   * wrapper methods and of the calls into the office.
+   * 
+   * @param officeMetrics metrics collector to be used (null disables the instrumentation)
+   */
+  public void setMetrics(IOfficeMetrics officeMetrics) {
+    Instrumentation.setMetrics(officeMetrics);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the installed metrics collector. Returns null if no collector 
+   * is installed.
+   * 
+   * @return installed metrics collector or null
+   */
+  public IOfficeMetrics getMetrics() {
+    return Instrumentation.getMetrics();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of office processes managed by the application.
+   * 
+   * @return number of office processes managed by the application
+   */
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the office applications of the managed processes.
+   * 
+   * @return office applications of the managed processes
+   */
+  public synchronized IOfficeApplication[] getApplications() {
+    if (applications == null)
+      return new IOfficeApplication[0];
+    IOfficeApplication[] officeApplications = new IOfficeApplication[applications.length];
+    System.arraycopy(applications, 0, officeApplications, 0, applications.length);
+    return officeApplications;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Leases the active office process with the fewest outstanding leases. If the
+   * only available office process is due to be recycled, it is recycled in the 
+   * background; loads of the lease wait until the office process is active again.
+   * 
+   * @return lease on the least loaded office process
+   * 
+   * @throws OfficeApplicationException if no office process is active
+   */
+  public synchronized IOfficeApplicationLease acquireLease() throws OfficeApplicationException {
+    recycleIdleApplications();
+    int index = selectApplication();
+    if (leaseCounts[index] == 0 && applications[index].isRecycleDue())
+      applications[index].scheduleRecycle();
+    leaseCounts[index]++;
+    return new Lease(index);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of outstanding leases of all office processes.
+   * 
+   * @return number of outstanding leases
+   */
+  public synchronized int getLeaseCount() {
+    if (leaseCounts == null)
+      return 0;
+    int count = 0;
+    for (int i = 0; i < leaseCounts.length; i++)
+      count += leaseCounts[i];
+    return count;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted office application of the pool 
+   * is currently recycled.
+   * 
+   * @param officeApplication office application of the pool to be checked
+   * 
+   * @return information whether the office application is recycled
+   */
+  public synchronized boolean isRecycling(IOfficeApplication officeApplication) {
+    if (applications == null)
+      return false;
+    for (int i = 0; i < applications.length; i++) {
+      if (applications[i] == officeApplication)
+        return recycling[i] || applications[i].isRecycling();
+    }
+    return false;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Disposes all allocated resources.
+   */
+  public void dispose() {
+    synchronized (this) {
+      if (asyncDocumentService != null) {
+        asyncDocumentService.dispose();
+        asyncDocumentService = null;
+      }
+    }
+    if (applications == null)
+      return;
+    for (int i = 0; i < applications.length; i++)
+      applications[i].dispose();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns index of the active office application with the fewest outstanding 
+   * leases. Equally loaded applications are selected in turn. Applications which 
+   * are due to be recycled are only selected if no other application is available.
+   * Waits if all applications are currently recycled.
+   * 
+   * @return index of the least loaded active office application
+   * 
+   * @throws OfficeApplicationException if no office process is active
+   */
+  private synchronized int selectApplication() throws OfficeApplicationException {
+    if (applications == null)
+      throw new OfficeApplicationException("Application is not active.");
+    while (true) {
+      int selected = -1;
+      boolean selectedDue = false;
+      boolean waiting = false;
+      for (int i = 0; i < applications.length; i++) {
+        int index = (nextIndex + i) % applications.length;
+        if (recycling[index]) {
+          waiting = true;
+          continue;
+        }
+        if (!applications[index].isActive())
+          continue;
+        boolean due = applications[index].isRecycleDue();
+        if (selected == -1 || (selectedDue && !due)
+            || (selectedDue == due && leaseCounts[index] < leaseCounts[selected])) {
+          selected = index;
+          selectedDue = due;
+        }
+      }
+      if (selected != -1) {
+        nextIndex = (selected + 1) % applications.length;
+        return selected;
+      }
+      if (!waiting)
+        throw new OfficeApplicationException("Application is not active.");
+      try {
+        wait();
+      }
+      catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        throw new OfficeApplicationException("Application is not active.");
+      }
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Recycles all office applications which are due and not leased in the 
+   * background as long as another office application remains available. Running 
+   * loads and open documents of an application are awaited before it is recycled.
+   */
+  private synchronized void recycleIdleApplications() {
+    if (recyclePolicy == null || applications == null)
+      return;
+    for (int i = 0; i < applications.length; i++) {
+      if (recycling[i] || leaseCounts[i] > 0 || applications[i].isRecycling()
+          || !applications[i].isRecycleDue())
+        continue;
+      if (!isOtherApplicationAvailable(i))
+        continue;
+      recycling[i] = true;
+      final int index = i;
+      Thread thread = new Thread(new Runnable() {
+        public void run() {
+          try {
+            applications[index].recycleWhenIdle(null);
+          }
+          catch (Throwable throwable) {
+            LOGGER.log(Level.WARNING, "Office process can not be recycled.", throwable); //$NON-NLS-1$
+          }
+          finally {
+            synchronized (PooledOfficeApplication.this) {
+              recycling[index] = false;
+              PooledOfficeApplication.this.notifyAll();
+            }
+          }
+        }
+      }, RECYCLER_THREAD_NAME);
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether an active office application other than the
+   * one with the submitted index is available.
+   * 
+   * @param index index of the office application to be ignored
+   * 
+   * @return information whether another office application is available
+   */
+  private boolean isOtherApplicationAvailable(int index) {
+    for (int i = 0; i < applications.length; i++) {
+      if (i != index && !recycling[i] && applications[i].isActive())
+        return true;
+    }
+    return false;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Builds the configuration of the pooled office application with the submitted 
+   * index. 
+   * 
+   * @param index index of the pooled office application
+   * 
+   * @return configuration of the pooled office application
+   */
+  private Map buildConfiguration(int index) {
+    Map configuration = new HashMap();
+    configuration.put(IOfficeApplication.APPLICATION_TYPE_KEY, IOfficeApplication.LOCAL_APPLICATION);
+    if (home != null)
+      configuration.put(IOfficeApplication.APPLICATION_HOME_KEY, home);
+    if (connectTimeout != null)
+      configuration.put(IOfficeApplication.APPLICATION_CONNECT_TIMEOUT_KEY, connectTimeout);
+    if (headless != null)
+      configuration.put(IOfficeApplication.APPLICATION_HEADLESS_KEY, headless);
+    if (profileTemplate != null)
+      configuration.put(IOfficeApplication.APPLICATION_PROFILE_TEMPLATE_KEY, profileTemplate);
+    if (connectionListener != null)
+      configuration.put(IOfficeApplication.APPLICATION_CONNECTION_LISTENER_KEY, connectionListener);
+    if (framePoolSize != null)
+      configuration.put(IOfficeApplication.APPLICATION_FRAME_POOL_KEY, framePoolSize);
+
+    List list = new ArrayList();
+    if (arguments != null)
+      list.addAll(Arrays.asList(arguments));
+    else
+      list.addAll(Arrays.asList(Bootstrap.getDefaultOptions()));
+    for (int i = list.size() - 1; i >= 0; i--) {
+      if (list.get(i).toString().startsWith(UserProfile.USER_INSTALLATION_OPTION))
+        list.remove(i);
+    }
+    File profile = new File(profilePath, INSTANCE_DIRECTORY_NAME + index);
+    try {
+      list.add(UserProfile.USER_INSTALLATION_OPTION + URLAdapter.adaptURL(profile.getAbsolutePath()));
+    }
+    catch (Exception exception) {
+      list.add(UserProfile.USER_INSTALLATION_OPTION + profile.toURI().toString());
+    }
+    configuration.put(IOfficeApplication.APPLICATION_ARGUMENTS_KEY,
+        list.toArray(new String[list.size()]));
+    return configuration;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Inits the submitted configuration.
+   * 
+   * @param configuration configuration to be used
+   * 
+   * @throws OfficeApplicationException if the configuration is not valid
+   */
+  private void initConfiguration(Map configuration) throws OfficeApplicationException {
+    if (configuration == null)
+      throw new OfficeApplicationException("The submitted configuration is not valid.");
+    if (applications != null)
+      throw new OfficeApplicationException("The pool was already activated.");
+
+    Object home = configuration.get(IOfficeApplication.APPLICATION_HOME_KEY);
+    if (home != null)
+      this.home = home.toString();
+    Object arguments = configuration.get(IOfficeApplication.APPLICATION_ARGUMENTS_KEY);
+    if (arguments != null)
+      this.arguments = (String[]) arguments;
+
+    Object poolSize = configuration.get(IOfficeApplication.APPLICATION_POOL_SIZE_KEY);
+    if (poolSize != null) {
+      try {
+        this.poolSize = Integer.parseInt(poolSize.toString().trim());
+      }
+      catch (NumberFormatException numberFormatException) {
+        throw new OfficeApplicationException("The pool size of the office application is not valid.");
+      }
+      if (this.poolSize < 1)
+        throw new OfficeApplicationException("The pool size of the office application is not valid.");
+    }
+    else
+      this.poolSize = Runtime.getRuntime().availableProcessors();
+
+    recyclePolicy = RecyclePolicy.fromConfiguration(configuration);
+    asyncPolicy = AsyncPolicy.fromConfiguration(configuration);
+    connectTimeout = configuration.get(IOfficeApplication.APPLICATION_CONNECT_TIMEOUT_KEY);
+    connectionListener = configuration.get(IOfficeApplication.APPLICATION_CONNECTION_LISTENER_KEY);
+    headless = configuration.get(IOfficeApplication.APPLICATION_HEADLESS_KEY);
+    profileTemplate = configuration.get(IOfficeApplication.APPLICATION_PROFILE_TEMPLATE_KEY);
+    framePoolSize = configuration.get(IOfficeApplication.APPLICATION_FRAME_POOL_KEY);
+
+    Object profilePath = configuration.get(IOfficeApplication.APPLICATION_POOL_PROFILE_PATH_KEY);
+    if (profilePath != null)
+      this.profilePath = profilePath.toString();
+    else
+      this.profilePath = new File(System.getProperty("java.io.tmpdir"), //$NON-NLS-1$
+          PROFILE_DIRECTORY_PREFIX + System.getProperty("user.name")).getAbsolutePath(); //$NON-NLS-1$
+    isConfigured = true;
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application;
+
+import java.util.Map;
+
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.application.OfficeApplicationException;
+
+/**
+ * Policy which decides when an office process should be recycled. A limit of 
+ * zero or less is not checked.
+ */
+public class RecyclePolicy {
+
+  private static final long KILOBYTES_PER_MEGABYTE = 1024;
+  private static final long DEFAULT_DRAIN_TIMEOUT  = 60000;
+
+  private int               maxDocuments           = 0;
+  private long              maxUptime              = 0;
+  private long              maxResidentMemory      = 0;
+  private long              drainTimeout           = DEFAULT_DRAIN_TIMEOUT;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new RecyclePolicy.
+   * 
+   * @param maxDocuments maximum number of loaded or constructed documents
+   * @param maxUptime maximum uptime in milliseconds
+   * @param maxResidentMemory maximum resident memory in kilobytes
+   */
+  public RecyclePolicy(int maxDocuments, long maxUptime, long maxResidentMemory) {
+    this.maxDocuments = maxDocuments;
+    this.maxUptime = maxUptime;
+    this.maxResidentMemory = maxResidentMemory;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new RecyclePolicy.
+   * 
+   * @param maxDocuments maximum number of loaded or constructed documents
+   * @param maxUptime maximum uptime in milliseconds
+   * @param maxResidentMemory maximum resident memory in kilobytes
+   * @param drainTimeout maximum time in milliseconds to wait for running loads and 
+   * open documents before the office process is recycled
+   */
+  public RecyclePolicy(int maxDocuments, long maxUptime, long maxResidentMemory,
+      long drainTimeout) {
+    this(maxDocuments, maxUptime, maxResidentMemory);
+    this.drainTimeout = drainTimeout;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Builds a recycle policy on the basis of the submitted configuration. Returns
+   * null if the configuration does not contain any recycle limit.
+   * 
+   * @param configuration configuration to be used
+   * 
+   * @return recycle policy or null
+   * 
+   * @throws OfficeApplicationException if a recycle limit is not valid
+   */
+  public static RecyclePolicy fromConfiguration(Map configuration)
+      throws OfficeApplicationException {
+    long maxDocuments = getLimit(configuration, IOfficeApplication.APPLICATION_RECYCLE_DOCUMENTS_KEY);
+    long maxUptime = getLimit(configuration, IOfficeApplication.APPLICATION_RECYCLE_UPTIME_KEY);
+    long maxMemory = getLimit(configuration, IOfficeApplication.APPLICATION_RECYCLE_MEMORY_KEY);
+    if (maxDocuments <= 0 && maxUptime <= 0 && maxMemory <= 0)
+      return null;
+    if (maxDocuments > Integer.MAX_VALUE)
+      maxDocuments = Integer.MAX_VALUE;
+    long drainTimeout = getLimit(configuration, IOfficeApplication.APPLICATION_RECYCLE_DRAIN_TIMEOUT_KEY);
+    return new RecyclePolicy((int) maxDocuments,
+        maxUptime,
+        maxMemory * KILOBYTES_PER_MEGABYTE,
+        drainTimeout > 0 ? drainTimeout : DEFAULT_DRAIN_TIMEOUT);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns maximum number of loaded or constructed documents.
+   * 
+   * @return maximum number of loaded or constructed documents
+   */
+  public int getMaxDocuments() {
+    return maxDocuments;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns maximum uptime in milliseconds.
+   * 
+   * @return maximum uptime in milliseconds
+   */
+  public long getMaxUptime() {
+    return maxUptime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns maximum resident memory in kilobytes.
+   * 
+   * @return maximum resident memory in kilobytes
+   */
+  public long getMaxResidentMemory() {
+    return maxResidentMemory;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns maximum time in milliseconds to wait for running loads and open documents
+   * before the office process is recycled.
+   * 
+   * @return maximum time in milliseconds to wait before the office process is recycled
+   */
+  public long getDrainTimeout() {
+    return drainTimeout;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the resident memory must be checked.
+   * 
+   * @return information whether the resident memory must be checked
+   */
+  public boolean isMemoryChecked() {
+    return maxResidentMemory > 0;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the reason why an office process with the submitted state should be 
+   * recycled. Returns null if the office process does not need to be recycled.
+   * 
+   * @param documents number of loaded or constructed documents
+   * @param uptime uptime in milliseconds
+   * @param residentMemory resident memory in kilobytes (-1 if not available)
+   * 
+   * @return reason for recycling or null
+   */
+  public String getRecycleReason(int documents, long uptime, long residentMemory) {
+    if (maxDocuments > 0 && documents >= maxDocuments)
+      return documents + " documents processed"; //$NON-NLS-1$
+    if (maxUptime > 0 && uptime >= maxUptime)
+      return "uptime of " + uptime + " ms reached"; //$NON-NLS-1$ //$NON-NLS-2$
+    if (maxResidentMemory > 0 && residentMemory >= maxResidentMemory)
+      return "resident memory of " + residentMemory + " kB reached"; //$NON-NLS-1$ //$NON-NLS-2$
+    return null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the limit stored with the submitted key. Returns 0 if the limit
+   * is not set.
+   * 
+   * @param configuration configuration to be used
+   * @param key key of the limit
+   * 
+   * @return limit stored with the submitted key or 0
+   * 
+   * @throws OfficeApplicationException if the limit is not valid
+   */
+  private static long getLimit(Map configuration, String key) throws OfficeApplicationException {
+    Object value = configuration.get(key);
+    if (value == null)
+      return 0;
+    try {
+      long limit = Long.parseLong(value.toString().trim());
+      if (limit < 0)
+        throw new OfficeApplicationException("The recycle limit " + key + " is not valid.");
+      return limit;
+    }
+    catch (NumberFormatException numberFormatException) {
+      throw new OfficeApplicationException("The recycle limit " + key + " is not valid.");
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
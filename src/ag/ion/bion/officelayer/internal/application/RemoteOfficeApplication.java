@@ -61,6 +61,7 @@ public class RemoteOfficeApplication extends AbstractOfficeApplication implement
   
   private String host = null;
   private String port = null;
+  private String pipe = null;
   
   private boolean isConfigured = false;
   
@@ -100,6 +101,7 @@ public class RemoteOfficeApplication extends AbstractOfficeApplication implement
      setOfficeApplicationConfiguration(remoteOfficeApplicationConfiguration);
      host = remoteOfficeApplicationConfiguration.getHost();
      port = remoteOfficeApplicationConfiguration.getPort();
+     pipe = remoteOfficeApplicationConfiguration.getPipe();
      isConfigured = true;
    }
    else
@@ -144,6 +146,8 @@ public class RemoteOfficeApplication extends AbstractOfficeApplication implement
      RemoteOfficeConnection remoteOfficeConnection = new RemoteOfficeConnection();
      remoteOfficeConnection.setPort(port);
      remoteOfficeConnection.setHost(host);
+     remoteOfficeConnection.setPipe(pipe);
+     configureConnection(remoteOfficeConnection);
      remoteOfficeConnection.openConnection(officeProgressMonitor);
      setOfficeConnection(remoteOfficeConnection);
    }
@@ -169,16 +173,23 @@ public class RemoteOfficeApplication extends AbstractOfficeApplication implement
       throw new OfficeApplicationException("The submitted configuration is not valid.");
     Object host = configuration.get(IOfficeApplication.APPLICATION_HOST_KEY);
     Object port = configuration.get(IOfficeApplication.APPLICATION_PORT_KEY);
+    Object pipe = configuration.get(IOfficeApplication.APPLICATION_PIPE_KEY);
+    if(pipe != null)
+      this.pipe = pipe.toString();
+    
     if(host != null)
       this.host = host.toString();      
-    else
+    else if(this.pipe == null)
       throw new OfficeApplicationException("The host of the office application is missing.");
     
     if(port != null)
       this.port = port.toString();
-    else
+    else if(this.pipe == null)
       throw new OfficeApplicationException("The port of the office application is missing.");
     
+    setAsyncPolicy(AsyncPolicy.fromConfiguration(configuration));
+    setFramePoolSize(getFramePoolSize(configuration));
+    initConnectionConfiguration(configuration);
     isConfigured = true;
   }  
   //----------------------------------------------------------------------------
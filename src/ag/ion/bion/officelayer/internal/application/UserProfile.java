@@ -0,0 +1,184 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+
+/**
+ * Helper for office user profiles. A user profile can be cloned from a template
+ * profile, so that new office processes do not have to build their profile on the
+ * first start.
+ */
+public class UserProfile {
+
+  /** Command line option which selects the user profile of an office process. */
+  public static final String  USER_INSTALLATION_OPTION = "-env:UserInstallation="; //$NON-NLS-1$
+
+  private static final String USER_DIRECTORY_NAME      = "user";                  //$NON-NLS-1$
+  private static final String LOCK_FILE_NAME           = ".lock";                 //$NON-NLS-1$
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the user profile directory selected by the submitted office arguments. 
+   * Returns null if the arguments do not select a user profile.
+   * 
+   * @param arguments office arguments to be used (can be null)
+   * 
+   * @return user profile directory or null
+   */
+  public static File getUserInstallation(String[] arguments) {
+    if (arguments == null)
+      return null;
+    for (int i = 0; i < arguments.length; i++) {
+      if (arguments[i] == null || !arguments[i].startsWith(USER_INSTALLATION_OPTION))
+        continue;
+      String url = arguments[i].substring(USER_INSTALLATION_OPTION.length());
+      try {
+        return new File(new URI(url.replaceAll(" ", "%20"))); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+      catch (Exception exception) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted directory contains an office user profile.
+   * 
+   * @param directory directory to be checked
+   * 
+   * @return information whether the directory contains an office user profile
+   */
+  public static boolean exists(File directory) {
+    return new File(directory, USER_DIRECTORY_NAME).isDirectory();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Clones the submitted template profile into the submitted directory if the
+   * directory does not already contain a user profile. Lock files of the template 
+   * are not copied.
+   * 
+   * @param template directory of the template profile
+   * @param directory directory of the user profile to be constructed
+   * 
+   * @return information whether the profile was cloned
+   * 
+   * @throws IOException if the profile can not be cloned
+   */
+  public static boolean cloneTemplate(File template, File directory) throws IOException {
+    if (exists(directory))
+      return false;
+    if (!exists(template))
+      throw new IOException("The template profile " + template + " does not exist."); //$NON-NLS-1$ //$NON-NLS-2$
+    copyDirectory(template, directory);
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Deletes the submitted user profile recursively. The profile must not be used by 
+   * a running office process.
+   * 
+   * @param directory directory of the user profile to be deleted
+   * 
+   * @return information whether the profile was deleted completely
+   */
+  public static boolean delete(File directory) {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (int i = 0; i < files.length; i++) {
+        if (files[i].isDirectory())
+          delete(files[i]);
+        else
+          files[i].delete();
+      }
+    }
+    return directory.delete() || !directory.exists();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Copies the submitted directory recursively.
+   * 
+   * @param source directory to be copied
+   * @param target target directory
+   * 
+   * @throws IOException if the directory can not be copied
+   */
+  private static void copyDirectory(File source, File target) throws IOException {
+    if (!target.isDirectory() && !target.mkdirs())
+      throw new IOException("The directory " + target + " can not be created."); //$NON-NLS-1$ //$NON-NLS-2$
+    File[] files = source.listFiles();
+    if (files == null)
+      return;
+    for (int i = 0; i < files.length; i++) {
+      File file = new File(target, files[i].getName());
+      if (files[i].isDirectory())
+        copyDirectory(files[i], file);
+      else if (!files[i].getName().equals(LOCK_FILE_NAME))
+        copyFile(files[i], file);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Copies the submitted file.
+   * 
+   * @param source file to be copied
+   * @param target target file
+   * 
+   * @throws IOException if the file can not be copied
+   */
+  private static void copyFile(File source, File target) throws IOException {
+    FileInputStream inputStream = new FileInputStream(source);
+    try {
+      FileOutputStream outputStream = new FileOutputStream(target);
+      try {
+        FileChannel sourceChannel = inputStream.getChannel();
+        FileChannel targetChannel = outputStream.getChannel();
+        long size = sourceChannel.size();
+        long position = 0;
+        while (position < size)
+          position += sourceChannel.transferTo(position, size - position, targetChannel);
+      }
+      finally {
+        outputStream.close();
+      }
+    }
+    finally {
+      inputStream.close();
+    }
+    target.setLastModified(source.lastModified());
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application.connection;
+
+/**
+ * Exponential backoff for repeated connection attempts. The delay between two 
+ * attempts starts with the initial delay, is doubled after every attempt up to the 
+ * maximum delay and never exceeds the remaining time until the timeout.
+ */
+public class ConnectBackoff {
+
+  /** Default delay before the second connection attempt in milliseconds. */
+  public static final long DEFAULT_INITIAL_DELAY = 50;
+  /** Default maximum delay between two connection attempts in milliseconds. */
+  public static final long DEFAULT_MAX_DELAY     = 1000;
+
+  private long             initialDelay          = 0;
+  private long             maxDelay              = 0;
+  private long             timeout               = 0;
+  private long             startTime             = 0;
+  private long             delay                 = 0;
+  private int              retries               = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConnectBackoff with the default delays. The timeout starts 
+   * with the construction.
+   * 
+   * @param timeout timeout in milliseconds
+   */
+  public ConnectBackoff(long timeout) {
+    this(DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY, timeout);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConnectBackoff. The timeout starts with the construction.
+   * 
+   * @param initialDelay delay before the second connection attempt in milliseconds
+   * @param maxDelay maximum delay between two connection attempts in milliseconds
+   * @param timeout timeout in milliseconds
+   */
+  public ConnectBackoff(long initialDelay, long maxDelay, long timeout) {
+    this.initialDelay = Math.max(1, initialDelay);
+    this.maxDelay = Math.max(this.initialDelay, maxDelay);
+    this.timeout = timeout;
+    startTime = System.currentTimeMillis();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the delay before the next connection attempt in milliseconds. Returns -1
+   * if the timeout is reached.
+   * 
+   * @return delay before the next connection attempt or -1
+   */
+  public long nextDelay() {
+    long remaining = timeout - getElapsedTime();
+    if (remaining <= 0)
+      return -1;
+    if (delay == 0)
+      delay = initialDelay;
+    else
+      delay = Math.min(delay * 2, maxDelay);
+    retries++;
+    return Math.min(delay, remaining);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Waits until the next connection attempt. Returns false if the timeout is reached.
+   * 
+   * @return false if the timeout is reached
+   * 
+   * @throws InterruptedException if the current thread was interrupted
+   */
+  public boolean await() throws InterruptedException {
+    long delay = nextDelay();
+    if (delay < 0)
+      return false;
+    Thread.sleep(delay);
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of connection attempts including the current one.
+   * 
+   * @return number of connection attempts
+   */
+  public int getAttempts() {
+    return retries + 1;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns time in milliseconds since the construction of the backoff.
+   * 
+   * @return time in milliseconds since the construction of the backoff
+   */
+  public long getElapsedTime() {
+    return System.currentTimeMillis() - startTime;
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -81,6 +81,8 @@ public class LocalOfficeConnection extends AbstractOfficeConnection {
                                                           .getLogger(LocalOfficeConnection.class
                                                               .getName());
 
+  private static final long          DEFAULT_STARTUP_TIMEOUT = 60000;
+
   private LocalOfficeConnectionGhost officeConnection = null;
 
   private String                     officePath       = null;
@@ -204,9 +206,13 @@ public class LocalOfficeConnection extends AbstractOfficeConnection {
       officeConnection = new LocalOfficeConnectionGhost(officeProgressMonitor);
       if(officeArguments != null && officeArguments.length > 0)
     	  officeConnection.setOfficeArguments(officeArguments); //$NON-NLS-1$
+      officeConnection.setStartupTimeout(getConnectTimeout(DEFAULT_STARTUP_TIMEOUT));
       if(officeProgressMonitor != null)
         officeProgressMonitor.worked(1);
-      officeConnection.getComponentContext();
+      if(officeConnection.getComponentContext() != null) {
+        LOGGER.fine("Local OpenOffice.org connection ready after " + officeConnection.getReadyTime() + " ms."); //$NON-NLS-1$ //$NON-NLS-2$
+        fireConnectionReady(officeConnection.getReadyTime(), officeConnection.getConnectAttempts());
+      }
 
       if(officeProgressMonitor != null) {
         if(officeProgressMonitor.needsDone())
@@ -271,6 +277,44 @@ public class LocalOfficeConnection extends AbstractOfficeConnection {
     }
   }
   //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the native office process started by this
+   * connection has terminated.
+   * 
+   * @return information whether the native office process has terminated
+   */
+  public boolean isProcessTerminated() {
+    if(officeConnection == null)
+      return false;
+    return officeConnection.isProcessTerminated();
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Kills the native office process started by this connection.
+   * 
+   * @param timeout maximum time to wait for the termination in milliseconds
+   * 
+   * @return information whether the native office process has terminated
+   */
+  public boolean terminateProcess(long timeout) {
+    if(officeConnection == null)
+      return true;
+    return officeConnection.terminateProcess(timeout);
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns resident memory of the native office process started by this
+   * connection in kilobytes. Returns -1 if the value is not available on this 
+   * platform.
+   * 
+   * @return resident memory of the native office process in kilobytes or -1
+   */
+  public long getProcessResidentMemory() {
+    if(officeConnection == null)
+      return -1;
+    return ProcessStatus.getResidentMemory(officeConnection.getProcessId());
+  }
+  //----------------------------------------------------------------------------
   /**
    * Returns XComponentContext.
    * 
@@ -40,11 +40,14 @@ package ag.ion.bion.officelayer.internal.application.connection;
 
 import java.awt.Container;
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.Vector;
 
 import org.eclipse.swt.widgets.Composite;
@@ -56,10 +59,14 @@ import com.sun.star.comp.beans.ContainerFactory;
 import com.sun.star.comp.beans.LocalOfficeWindow;
 import com.sun.star.comp.beans.OfficeConnection;
 import com.sun.star.comp.beans.OfficeWindow;
+import com.sun.star.bridge.XUnoUrlResolver;
 import com.sun.star.comp.helper.Bootstrap;
+import com.sun.star.comp.helper.BootstrapException;
+import com.sun.star.connection.NoConnectException;
 import com.sun.star.lang.XEventListener;
 import com.sun.star.lib.uno.helper.UnoUrl;
 import com.sun.star.lib.util.NativeLibraryLoader;
+import com.sun.star.uno.UnoRuntime;
 import com.sun.star.uno.XComponentContext;
 
 /**
@@ -75,9 +82,15 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 	// TODO: adapt to modifications of OpenOffice.org !
 
 	private static final String OFFICE_APP_NAME = "soffice"; //$NON-NLS-1$
+	private static final String OFFICE_BIN_NAME = "soffice.bin"; //$NON-NLS-1$
 	private static final String OFFICE_LIB_NAME = "officebean"; //$NON-NLS-1$
 	private static final String OFFICE_ID_SUFFIX = "_Office"; //$NON-NLS-1$
 
+	private static final long DEFAULT_STARTUP_TIMEOUT = 60000;
+	private static final long TERMINATE_POLL_INTERVAL = 100;
+
+	private static final Random RANDOM = new Random();
+
 	private static boolean msvcrLoaded = false;
 	private static boolean uwinapiLoaded = false;
 	private static boolean jawtLoaded = false;
@@ -87,6 +100,10 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 	private String[] officeArguments = null;
 
 	private Process process = null;
+	private long startupTimeout = DEFAULT_STARTUP_TIMEOUT;
+	private long readyTime = -1;
+	private int connectAttempts = 0;
+	private OfficeService officeService = null;
 	private ContainerFactory containerFactory = null;
 	private XComponentContext context = null;
 
@@ -259,58 +276,64 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 
 	// ----------------------------------------------------------------------------
 
-	// //----------------------------------------------------------------------------
-	// /**
-	// * Internal stream processor.
-	// *
-	// * @author Andreas Bröker
-	// */
-	// private class StreamProcessor extends Thread {
-	//
-	// private java.io.InputStream inputStream = null;
-	// private java.io.PrintStream printStream = null;
-	//
-	// //----------------------------------------------------------------------------
-	// /**
-	// * Constructs new StreamProcessor.
-	// *
-	// * @param inputStream input stream to be used
-	// * @param printStream print stream to be used
-	// *
-	// * @author Andreas Bröker
-	// */
-	// public StreamProcessor(final java.io.InputStream inputStream, final
-	// java.io.PrintStream printStream) {
-	// this.inputStream = inputStream;
-	// this.printStream = printStream;
-	// start();
-	// }
-	// //----------------------------------------------------------------------------
-	// /**
-	// * Processes streams.
-	// *
-	// * @author Andreas Bröker
-	// */
-	// public void run() {
-	// java.io.BufferedReader bufferedReader = new java.io.BufferedReader(new
-	// java.io.InputStreamReader(inputStream));
-	// try {
-	// for (;;) {
-	// String string = bufferedReader.readLine();
-	// if (string == null) {
-	// break;
-	// }
-	// printStream.println(string);
-	// }
-	// }
-	// catch (java.io.IOException ioException) {
-	// ioException.printStackTrace(System.err);
-	// }
-	// }
-	// //----------------------------------------------------------------------------
-	//
-	// }
-	// //----------------------------------------------------------------------------
+	// ----------------------------------------------------------------------------
+	/**
+	 * Internal stream processor. Drains the output of the office process so
+	 * that the process never blocks on a full pipe.
+	 * 
+	 * @author Andreas Bröker
+	 */
+	private class StreamProcessor extends Thread {
+
+		private java.io.InputStream inputStream = null;
+		private java.io.PrintStream printStream = null;
+
+		// ----------------------------------------------------------------------------
+		/**
+		 * Constructs new StreamProcessor.
+		 * 
+		 * @param inputStream
+		 *            input stream to be used
+		 * @param printStream
+		 *            print stream to be used (can be null)
+		 * 
+		 * @author Andreas Bröker
+		 */
+		public StreamProcessor(final java.io.InputStream inputStream,
+				final java.io.PrintStream printStream) {
+			this.inputStream = inputStream;
+			this.printStream = printStream;
+			setDaemon(true);
+			start();
+		}
+
+		// ----------------------------------------------------------------------------
+		/**
+		 * Processes streams.
+		 * 
+		 * @author Andreas Bröker
+		 */
+		public void run() {
+			java.io.BufferedReader bufferedReader = new java.io.BufferedReader(
+					new java.io.InputStreamReader(inputStream));
+			try {
+				for (;;) {
+					String string = bufferedReader.readLine();
+					if (string == null) {
+						break;
+					}
+					if (printStream != null)
+						printStream.println(string);
+				}
+			} catch (java.io.IOException ioException) {
+				// process was terminated
+			}
+		}
+		// ----------------------------------------------------------------------------
+
+	}
+
+	// ----------------------------------------------------------------------------
 
 	// ----------------------------------------------------------------------------
 	/**
@@ -343,7 +366,6 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 		 * @author Andreas Bröker
 		 */
 		public void startupService() throws java.io.IOException {
-			int nSizeCmdArray = 5;
 			String sOption = null;
 			// examine if user specified command-line options in system
 			// properties.
@@ -358,47 +380,77 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 			// passed on to the Runtime.exec call.
 			try {
 				sOption = System.getProperty("com.sun.star.officebean.Options"); //$NON-NLS-1$
-				if (sOption != null)
-					nSizeCmdArray++;
 			} catch (java.lang.SecurityException securityException) {
 				securityException.printStackTrace();
 			}
 			// create call with arguments
-			String[] cmdArray = new String[nSizeCmdArray];
-			cmdArray[0] = (new File(getProgramPath(), OFFICE_APP_NAME))
-					.getPath();
-			cmdArray[1] = "-nologo"; //$NON-NLS-1$
-			cmdArray[2] = "-nodefault"; //$NON-NLS-1$
-			cmdArray[3] = "-norestore"; //$NON-NLS-1$
-			if (connType.equals("pipe")) //$NON-NLS-1$
-				cmdArray[4] = "-accept=pipe,name=" + getIdentifier() + ";" + protocol //$NON-NLS-1$ //$NON-NLS-2$
-						+ ";" + initialObject; //$NON-NLS-1$
-			else if (connType.equals("socket")) //$NON-NLS-1$
-				cmdArray[4] = "-accept=socket,port=" + port + ";urp"; //$NON-NLS-1$ //$NON-NLS-2$
-			else
+			List cmdList = new ArrayList();
+			cmdList.add(getOfficeExecutable());
+			String acceptString = getAcceptString();
+			if (acceptString == null)
 				throw new java.io.IOException("No connection specified"); //$NON-NLS-1$
+			cmdList.add("-accept=" + acceptString); //$NON-NLS-1$
+
+			if (officeArguments != null && officeArguments.length > 0)
+				cmdList.addAll(Arrays.asList(officeArguments));
+			else
+				cmdList.addAll(Arrays.asList(Bootstrap.getDefaultOptions()));
 
 			if (sOption != null)
-				cmdArray[5] = sOption;
+				cmdList.add(sOption);
+
+			String[] cmdArray = (String[]) cmdList.toArray(new String[cmdList
+					.size()]);
 
 			// start process
 			process = Runtime.getRuntime().exec(cmdArray);
 			if (process == null)
-				throw new RuntimeException("Cannot start soffice: " + cmdArray); //$NON-NLS-1$
-			// new StreamProcessor(process.getInputStream(), System.out);
-			// new StreamProcessor(process.getErrorStream(), System.err);
+				throw new RuntimeException("Cannot start soffice: " + cmdList); //$NON-NLS-1$
+			new StreamProcessor(process.getInputStream(), null);
+			new StreamProcessor(process.getErrorStream(), null);
+		}
+
+		// ----------------------------------------------------------------------------
+		/**
+		 * Retrives the connection description the office process accepts.
+		 * 
+		 * @return connection description or null if no connection is
+		 *         specified
+		 */
+		public String getAcceptString() {
+			if ("pipe".equals(connType)) //$NON-NLS-1$
+				return "pipe,name=" + getIdentifier() + ";" + protocol //$NON-NLS-1$ //$NON-NLS-2$
+						+ ";" + initialObject; //$NON-NLS-1$
+			if ("socket".equals(connType)) //$NON-NLS-1$
+				return "socket,port=" + port + ";urp"; //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+
+		// ----------------------------------------------------------------------------
+		/**
+		 * Retrives the UNO URL in order to connect to the started office
+		 * process.
+		 * 
+		 * @return UNO URL of the office component context
+		 */
+		public String getConnectUrl() {
+			if (connType.equals("socket")) //$NON-NLS-1$
+				return "uno:socket,host=localhost,port=" + port //$NON-NLS-1$
+						+ ";urp;StarOffice.ComponentContext"; //$NON-NLS-1$
+			return "uno:pipe,name=" + getIdentifier() //$NON-NLS-1$
+					+ ";urp;StarOffice.ComponentContext"; //$NON-NLS-1$
 		}
 
 		// ----------------------------------------------------------------------------
 		/**
 		 * Retrives the ammount of time to wait for the startup.
 		 * 
-		 * @return the ammount of time to wait in seconds(?)
+		 * @return the ammount of time to wait in seconds
 		 * 
 		 * @author Andreas Bröker
 		 */
 		public int getStartupTime() {
-			return 60;
+			return (int) ((startupTimeout + 999) / 1000);
 		}
 		// ----------------------------------------------------------------------------
 
@@ -426,7 +478,8 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 		loadNativeLibraries();
 		this.officeProgressMonitor = officeProgressMonitor;
 		try {
-			setUnoUrl("uno:pipe,name=" + getPipeName() //$NON-NLS-1$
+			setUnoUrl("uno:pipe,name=" + getPipeName() + "_" //$NON-NLS-1$ //$NON-NLS-2$
+					+ Long.toString(RANDOM.nextLong() & Long.MAX_VALUE, 36)
 					+ ";urp;StarOffice.ServiceManager"); //$NON-NLS-1$
 		} catch (java.net.MalformedURLException malformedURLException) {
 			// do not consume
@@ -439,6 +492,40 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 		return new LocalOfficeWindowWrapper(officeConnectionWrapper);
 	}
 
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the connection description the started office process accepts,
+	 * for example <code>pipe,name=user_Office_x;urp;StarOffice.ServiceManager</code>.
+	 * 
+	 * @return connection description or null if no connection is specified
+	 */
+	public String getAcceptString() {
+		return getOfficeService().getAcceptString();
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the UNO URL which is used to connect to the started office
+	 * process.
+	 * 
+	 * @return UNO URL of the office component context
+	 */
+	public String getConnectUrl() {
+		return getOfficeService().getConnectUrl();
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the service which starts the office process.
+	 * 
+	 * @return service which starts the office process
+	 */
+	private OfficeService getOfficeService() {
+		if (officeService == null)
+			officeService = new OfficeService();
+		return officeService;
+	}
+
 	// ----------------------------------------------------------------------------
 	/**
 	 * Sets a connection URL.
@@ -473,7 +560,10 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 				UnoUrl aURL = UnoUrl.parseUnoUrl(url);
 				mProgramPath = null;
 				connType = aURL.getConnection();
-				pipe = (String) aURL.getConnectionParameters().get("pipe"); //$NON-NLS-1$
+				// the parameter of a pipe connection is called name
+				pipe = (String) aURL.getConnectionParameters().get("name"); //$NON-NLS-1$
+				if (pipe == null)
+					pipe = (String) aURL.getConnectionParameters().get("pipe"); //$NON-NLS-1$
 				port = (String) aURL.getConnectionParameters().get("port"); //$NON-NLS-1$
 				protocol = aURL.getProtocol();
 				initialObject = aURL.getRootOid();
@@ -636,12 +726,55 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 						.beginSubTask(Messages
 								.getString("LocalOfficeConnectionGhost_monitor_constructing_initial_context_message")); //$NON-NLS-1$
 
-			XComponentContext xContext = null;
-			if (officeArguments != null && officeArguments.length > 0)
-				xContext = Bootstrap.bootstrap(officeArguments);
-			else
-				xContext = Bootstrap.bootstrap();
-			return xContext;
+			XComponentContext xLocalContext = Bootstrap
+					.createInitialComponentContext(null);
+			Object urlResolver = xLocalContext.getServiceManager()
+					.createInstanceWithContext(
+							"com.sun.star.bridge.UnoUrlResolver", xLocalContext); //$NON-NLS-1$
+			XUnoUrlResolver xUrlResolver = (XUnoUrlResolver) UnoRuntime
+					.queryInterface(XUnoUrlResolver.class, urlResolver);
+
+			if (officeProgressMonitor != null)
+				officeProgressMonitor
+						.beginSubTask(Messages
+								.getString("LocalOfficeConnectionGhost_monitor_starting_native_service_message")); //$NON-NLS-1$
+			OfficeService officeService = getOfficeService();
+			ConnectBackoff connectBackoff = new ConnectBackoff(startupTimeout);
+			officeService.startupService();
+
+			if (officeProgressMonitor != null)
+				officeProgressMonitor
+						.beginSubTask(Messages
+								.getString("LocalOfficeConnectionGhost_monitor_constructing_context_message")); //$NON-NLS-1$
+			String connectUrl = officeService.getConnectUrl();
+			for (;;) {
+				try {
+					Object object = xUrlResolver.resolve(connectUrl);
+					XComponentContext xContext = (XComponentContext) UnoRuntime
+							.queryInterface(XComponentContext.class, object);
+					if (xContext == null)
+						throw new BootstrapException("no component context!"); //$NON-NLS-1$
+					// the started process handed the request over to an
+					// already running office and terminated
+					if (getExitValue() != null)
+						process = null;
+					readyTime = connectBackoff.getElapsedTime();
+					connectAttempts = connectBackoff.getAttempts();
+					return xContext;
+				} catch (NoConnectException noConnectException) {
+					Integer exitValue = getExitValue();
+					if (exitValue != null && exitValue.intValue() != 0)
+						throw new BootstrapException(
+								"The office process terminated with exit code " //$NON-NLS-1$
+										+ exitValue + "."); //$NON-NLS-1$
+					if (officeProgressMonitor != null
+							&& officeProgressMonitor.isCanceled())
+						throw new BootstrapException(
+								"The office start was canceled."); //$NON-NLS-1$
+					if (!connectBackoff.await())
+						throw new BootstrapException(noConnectException);
+				}
+			}
 		} catch (java.lang.Exception exception) {
 			System.out.println("java.lang.Exception: "); //$NON-NLS-1$
 			System.out.println(exception);
@@ -651,6 +784,147 @@ public class LocalOfficeConnectionGhost implements OfficeConnection {
 		}
 	}
 
+	// ----------------------------------------------------------------------------
+	/**
+	 * Sets the maximum time to wait until the started office process accepts
+	 * the connection.
+	 * 
+	 * @param startupTimeout
+	 *            maximum time to wait in milliseconds
+	 */
+	public void setStartupTimeout(long startupTimeout) {
+		this.startupTimeout = startupTimeout;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the time in milliseconds from the start of the office process
+	 * until the connection was usable. Returns -1 if no connection was
+	 * established.
+	 * 
+	 * @return time until the connection was usable or -1
+	 */
+	public long getReadyTime() {
+		return readyTime;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the number of attempts which were necessary in order to
+	 * establish the connection.
+	 * 
+	 * @return number of connection attempts
+	 */
+	public int getConnectAttempts() {
+		return connectAttempts;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns information whether the office process started by this
+	 * connection has terminated. Returns false if the process is still
+	 * running or if the connection does not own an office process.
+	 * 
+	 * @return information whether the office process has terminated
+	 */
+	public boolean isProcessTerminated() {
+		return getExitValue() != null;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Kills the office process started by this connection and waits at most
+	 * the submitted time for its termination. Does nothing if the connection
+	 * does not own an office process.
+	 * 
+	 * @param timeout
+	 *            maximum time to wait for the termination in milliseconds
+	 * 
+	 * @return information whether the process has terminated
+	 */
+	public boolean terminateProcess(long timeout) {
+		Process process = this.process;
+		if (process == null)
+			return true;
+		process.destroy();
+		long deadline = System.currentTimeMillis() + timeout;
+		while (getExitValue() == null) {
+			if (System.currentTimeMillis() >= deadline)
+				return false;
+			try {
+				Thread.sleep(TERMINATE_POLL_INTERVAL);
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		this.process = null;
+		return true;
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns the operating system process id of the office process started
+	 * by this connection. Returns -1 if no process was started or the id is
+	 * not available on this platform.
+	 * 
+	 * @return process id of the office process or -1
+	 */
+	public int getProcessId() {
+		Process process = this.process;
+		if (process == null)
+			return -1;
+		try {
+			Method method = Process.class.getMethod("pid"); //$NON-NLS-1$
+			return ((Number) method.invoke(process)).intValue();
+		} catch (Throwable throwable) {
+			// not available before Java 9
+		}
+		try {
+			Field field = process.getClass().getDeclaredField("pid"); //$NON-NLS-1$
+			field.setAccessible(true);
+			return field.getInt(process);
+		} catch (Throwable throwable) {
+			return -1;
+		}
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Returns exit value of the office process or null if the process is
+	 * still running or no process was started.
+	 * 
+	 * @return exit value of the office process or null
+	 */
+	private Integer getExitValue() {
+		Process process = this.process;
+		if (process == null)
+			return null;
+		try {
+			return new Integer(process.exitValue());
+		} catch (IllegalThreadStateException illegalThreadStateException) {
+			return null;
+		}
+	}
+
+	// ----------------------------------------------------------------------------
+	/**
+	 * Retrives the path of the office executable. On UNIX systems the office
+	 * binary is started directly if available, so that the started process
+	 * is the office itself and not the launcher.
+	 * 
+	 * @return path of the office executable
+	 */
+	private String getOfficeExecutable() {
+		String programPath = getProgramPath();
+		if (!OSHelper.IS_WINDOWS) {
+			File file = new File(programPath, OFFICE_BIN_NAME);
+			if (file.isFile())
+				return file.getPath();
+		}
+		return (new File(programPath, OFFICE_APP_NAME)).getPath();
+	}
+
 	// ----------------------------------------------------------------------------
 	/**
 	 * Retrives a path to the office program folder.
@@ -0,0 +1,211 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application.connection;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads status information of native processes from the proc file system.
+ * On systems without a proc file system no information is available.
+ */
+public class ProcessStatus {
+
+  private static final File   PROC_DIRECTORY = new File("/proc");  //$NON-NLS-1$
+  private static final String RSS_PREFIX     = "VmRSS:";           //$NON-NLS-1$
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns resident memory of the submitted process and all of its descendant
+   * processes in kilobytes. Returns -1 if the information is not available.
+   * 
+   * @param pid process id to be used
+   * 
+   * @return resident memory in kilobytes or -1
+   */
+  public static long getResidentMemory(int pid) {
+    if (pid <= 0 || !PROC_DIRECTORY.isDirectory())
+      return -1;
+    long residentMemory = readResidentMemory(pid);
+    if (residentMemory < 0)
+      return -1;
+    List pids = getDescendants(pid);
+    for (int i = 0, n = pids.size(); i < n; i++) {
+      long value = readResidentMemory(((Integer) pids.get(i)).intValue());
+      if (value > 0)
+        residentMemory += value;
+    }
+    return residentMemory;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns ids of all descendant processes of the submitted process.
+   * 
+   * @param pid process id to be used
+   * 
+   * @return ids of all descendant processes
+   */
+  private static List getDescendants(int pid) {
+    List parents = new ArrayList();
+    List children = new ArrayList();
+    String[] names = PROC_DIRECTORY.list();
+    if (names == null)
+      return children;
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].length() == 0 || !Character.isDigit(names[i].charAt(0)))
+        continue;
+      try {
+        int child = Integer.parseInt(names[i]);
+        int parent = readParentId(child);
+        if (parent > 0) {
+          parents.add(new Integer(parent));
+          children.add(new Integer(child));
+        }
+      }
+      catch (NumberFormatException numberFormatException) {
+        //no process directory
+      }
+    }
+
+    List descendants = new ArrayList();
+    List queue = new ArrayList();
+    queue.add(new Integer(pid));
+    while (!queue.isEmpty()) {
+      Object current = queue.remove(0);
+      for (int i = 0, n = parents.size(); i < n; i++) {
+        if (parents.get(i).equals(current) && !descendants.contains(children.get(i))) {
+          descendants.add(children.get(i));
+          queue.add(children.get(i));
+        }
+      }
+    }
+    return descendants;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads the parent process id of the submitted process.
+   * 
+   * @param pid process id to be used
+   * 
+   * @return parent process id or -1
+   */
+  private static int readParentId(int pid) {
+    String stat = readFirstLine(new File(new File(PROC_DIRECTORY, String.valueOf(pid)), "stat")); //$NON-NLS-1$
+    if (stat == null)
+      return -1;
+    // the command name is enclosed in brackets and may contain blanks
+    int index = stat.lastIndexOf(')');
+    if (index < 0)
+      return -1;
+    String[] fields = stat.substring(index + 1).trim().split("\\s+"); //$NON-NLS-1$
+    if (fields.length < 2)
+      return -1;
+    try {
+      return Integer.parseInt(fields[1]);
+    }
+    catch (NumberFormatException numberFormatException) {
+      return -1;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads resident memory of the submitted process in kilobytes.
+   * 
+   * @param pid process id to be used
+   * 
+   * @return resident memory in kilobytes or -1
+   */
+  private static long readResidentMemory(int pid) {
+    File file = new File(new File(PROC_DIRECTORY, String.valueOf(pid)), "status"); //$NON-NLS-1$
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new FileReader(file));
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(RSS_PREFIX)) {
+          String value = line.substring(RSS_PREFIX.length()).trim();
+          int index = value.indexOf(' ');
+          if (index > 0)
+            value = value.substring(0, index);
+          return Long.parseLong(value);
+        }
+      }
+      return -1;
+    }
+    catch (Exception exception) {
+      return -1;
+    }
+    finally {
+      close(reader);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads the first line of the submitted file.
+   * 
+   * @param file file to be read
+   * 
+   * @return first line of the file or null
+   */
+  private static String readFirstLine(File file) {
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new FileReader(file));
+      return reader.readLine();
+    }
+    catch (IOException ioException) {
+      return null;
+    }
+    finally {
+      close(reader);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted reader.
+   * 
+   * @param reader reader to be closed (can be null)
+   */
+  private static void close(BufferedReader reader) {
+    if (reader == null)
+      return;
+    try {
+      reader.close();
+    }
+    catch (IOException ioException) {
+      //do not consume
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -53,6 +53,7 @@ import com.sun.star.beans.XPropertySet;
 
 import com.sun.star.comp.helper.Bootstrap;
 
+import com.sun.star.connection.NoConnectException;
 import com.sun.star.connection.XConnector;
 import com.sun.star.connection.XConnection;
 
@@ -67,12 +68,15 @@ import com.sun.star.bridge.XBridgeFactory;
  */
 public class RemoteOfficeConnection extends AbstractOfficeConnection {  
     
+  private static final long DEFAULT_CONNECT_TIMEOUT = 10000;
+
   private XMultiComponentFactory  xMultiComponentFactory  = null;
   private XMultiServiceFactory    xMultiServiceFactory    = null;
   private XComponentContext       xRemoteContext          = null;
   
   private String host = null;
   private String port = null;
+  private String pipe = null;
   
   private boolean isConnectionEstablished = false;
   //----------------------------------------------------------------------------
@@ -111,6 +115,16 @@ public class RemoteOfficeConnection extends AbstractOfficeConnection {
     this.port = port;
   }
   //----------------------------------------------------------------------------
+  /**
+   * Sets name of the pipe where Office instance is listening. If a pipe is set,
+   * host and port are not used.
+   * 
+   * @param pipe name of the pipe where Office instance is listening (can be null)
+   */  
+  public void setPipe(String pipe) {
+    this.pipe = pipe;
+  }
+  //----------------------------------------------------------------------------
   /**
    * Opens connection to OpenOffice.org.
    * 
@@ -132,7 +146,7 @@ public class RemoteOfficeConnection extends AbstractOfficeConnection {
    * @throws Exception if any error occurs
    */
   public boolean openConnection() throws Exception {
-    String unoUrl = "uno:socket,host=" + host + ",port=" + port +";urp;StarOffice.ServiceManager";
+    String unoUrl = getUnoUrl();
     XComponentContext xLocalContext = Bootstrap.createInitialComponentContext(null);
     Object connector = xLocalContext.getServiceManager().createInstanceWithContext("com.sun.star.connection.Connector", xLocalContext);
     XConnector xConnector = (XConnector) UnoRuntime.queryInterface(XConnector.class, connector);
@@ -142,7 +156,17 @@ public class RemoteOfficeConnection extends AbstractOfficeConnection {
       throw new com.sun.star.uno.Exception("Couldn't parse UNO URL "+ unoUrl);
     }
     
-    XConnection connection = xConnector.connect(url[0]);
+    ConnectBackoff connectBackoff = new ConnectBackoff(getConnectTimeout(DEFAULT_CONNECT_TIMEOUT));
+    XConnection connection = null;
+    while(connection == null) {
+      try {
+        connection = xConnector.connect(url[0]);
+      }
+      catch(NoConnectException noConnectException) {
+        if(!connectBackoff.await())
+          throw noConnectException;
+      }
+    }
     Object bridgeFactory = xLocalContext.getServiceManager().createInstanceWithContext("com.sun.star.bridge.BridgeFactory", xLocalContext);
     XBridgeFactory xBridgeFactory = (XBridgeFactory) UnoRuntime.queryInterface(XBridgeFactory.class, bridgeFactory);
     xBridge = xBridgeFactory.createBridge("", url[1], connection ,null);
@@ -153,6 +177,7 @@ public class RemoteOfficeConnection extends AbstractOfficeConnection {
     xRemoteContext = (XComponentContext) UnoRuntime.queryInterface(XComponentContext.class, remoteContext);
     xMultiServiceFactory = (XMultiServiceFactory)UnoRuntime.queryInterface(XMultiServiceFactory.class, xMultiComponentFactory);
     isConnectionEstablished = true;
+    fireConnectionReady(connectBackoff.getElapsedTime(), connectBackoff.getAttempts());
     return true;      
   }
   //----------------------------------------------------------------------------
@@ -230,6 +255,27 @@ public class RemoteOfficeConnection extends AbstractOfficeConnection {
   	return port;
   }  
   //----------------------------------------------------------------------------
+  /**
+   * Returns name of the pipe of the connection. Returns null if the connection
+   * uses a socket.
+   * 
+   * @return name of the pipe of the connection or null
+   */
+  public String getPipe() {
+    return pipe;
+  }  
+  //----------------------------------------------------------------------------
+  /**
+   * Returns UNO URL of the connection.
+   * 
+   * @return UNO URL of the connection
+   */
+  private String getUnoUrl() {
+    if(pipe != null)
+      return "uno:pipe,name=" + pipe + ";urp;StarOffice.ServiceManager";
+    return "uno:socket,host=" + host + ",port=" + port +";urp;StarOffice.ServiceManager";
+  }
+  //----------------------------------------------------------------------------
   /**
    * Converts UNO url to string array.
    * 
@@ -0,0 +1,55 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application.connection.test;
+
+import ag.ion.bion.officelayer.internal.application.connection.ConnectBackoff;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class ConnectBackoffTest extends TestCase {
+
+  public void testNextDelay() {
+    ConnectBackoff connectBackoff = new ConnectBackoff(50, 300, 60000);
+    Assert.assertEquals(1, connectBackoff.getAttempts());
+    Assert.assertEquals(50, connectBackoff.nextDelay());
+    Assert.assertEquals(100, connectBackoff.nextDelay());
+    Assert.assertEquals(200, connectBackoff.nextDelay());
+    Assert.assertEquals(300, connectBackoff.nextDelay());
+    Assert.assertEquals(300, connectBackoff.nextDelay());
+    Assert.assertEquals(6, connectBackoff.getAttempts());
+  }
+
+  public void testTimeout() throws Exception {
+    ConnectBackoff connectBackoff = new ConnectBackoff(0);
+    Assert.assertEquals(-1, connectBackoff.nextDelay());
+    Assert.assertFalse(connectBackoff.await());
+    Assert.assertEquals(1, connectBackoff.getAttempts());
+
+    connectBackoff = new ConnectBackoff(1000, 1000, 200);
+    long delay = connectBackoff.nextDelay();
+    Assert.assertTrue(delay > 0 && delay <= 200);
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application.connection.test;
+
+import ag.ion.bion.officelayer.internal.application.connection.LocalOfficeConnectionGhost;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class LocalOfficeConnectionGhostTest extends TestCase {
+
+  public void testUniquePipes() {
+    LocalOfficeConnectionGhost first = new LocalOfficeConnectionGhost(null);
+    LocalOfficeConnectionGhost second = new LocalOfficeConnectionGhost(null);
+
+    Assert.assertFalse(first.getAcceptString().equals(second.getAcceptString()));
+    Assert.assertFalse(first.getConnectUrl().equals(second.getConnectUrl()));
+  }
+
+  public void testPipeName() throws Exception {
+    LocalOfficeConnectionGhost connection = new LocalOfficeConnectionGhost(null);
+    connection.setUnoUrl("uno:pipe,name=noa_test_pipe;urp;StarOffice.ServiceManager");
+
+    Assert.assertEquals("pipe,name=noa_test_pipe;urp;StarOffice.ServiceManager",
+        connection.getAcceptString());
+    Assert.assertEquals("uno:pipe,name=noa_test_pipe;urp;StarOffice.ComponentContext",
+        connection.getConnectUrl());
+  }
+
+}
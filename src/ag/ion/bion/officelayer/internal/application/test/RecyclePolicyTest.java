@@ -0,0 +1,76 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.application.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.application.OfficeApplicationException;
+import ag.ion.bion.officelayer.internal.application.RecyclePolicy;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class RecyclePolicyTest extends TestCase {
+
+  public void testFromConfiguration() throws Exception {
+    Map configuration = new HashMap();
+    Assert.assertNull(RecyclePolicy.fromConfiguration(configuration));
+
+    configuration.put(IOfficeApplication.APPLICATION_RECYCLE_DOCUMENTS_KEY, new Integer(100));
+    configuration.put(IOfficeApplication.APPLICATION_RECYCLE_MEMORY_KEY, " 512 ");
+    RecyclePolicy recyclePolicy = RecyclePolicy.fromConfiguration(configuration);
+    Assert.assertEquals(100, recyclePolicy.getMaxDocuments());
+    Assert.assertEquals(0, recyclePolicy.getMaxUptime());
+    Assert.assertEquals(512 * 1024, recyclePolicy.getMaxResidentMemory());
+    Assert.assertTrue(recyclePolicy.isMemoryChecked());
+    Assert.assertEquals(60000, recyclePolicy.getDrainTimeout());
+
+    configuration.put(IOfficeApplication.APPLICATION_RECYCLE_DRAIN_TIMEOUT_KEY, "5000");
+    Assert.assertEquals(5000, RecyclePolicy.fromConfiguration(configuration).getDrainTimeout());
+
+    configuration.put(IOfficeApplication.APPLICATION_RECYCLE_UPTIME_KEY, "-1");
+    try {
+      RecyclePolicy.fromConfiguration(configuration);
+      Assert.fail();
+    }
+    catch (OfficeApplicationException officeApplicationException) {
+      //expected
+    }
+  }
+
+  public void testGetRecycleReason() {
+    RecyclePolicy recyclePolicy = new RecyclePolicy(10, 60000, 0);
+    Assert.assertNull(recyclePolicy.getRecycleReason(9, 59999, 1000000));
+    Assert.assertNotNull(recyclePolicy.getRecycleReason(10, 0, -1));
+    Assert.assertNotNull(recyclePolicy.getRecycleReason(0, 60000, -1));
+
+    recyclePolicy = new RecyclePolicy(0, 0, 1024);
+    Assert.assertNull(recyclePolicy.getRecycleReason(1000, 1000000, -1));
+    Assert.assertNull(recyclePolicy.getRecycleReason(1000, 1000000, 1023));
+    Assert.assertNotNull(recyclePolicy.getRecycleReason(0, 0, 1024));
+  }
+
+}
@@ -38,12 +38,22 @@
  */
 package ag.ion.bion.officelayer.internal.beans;
 
+import com.sun.star.beans.PropertyVetoException;
+import com.sun.star.beans.UnknownPropertyException;
+import com.sun.star.beans.XMultiPropertySet;
 import com.sun.star.beans.XPropertySet;
+import com.sun.star.lang.WrappedTargetException;
+
+import java.util.Arrays;
 
 import ag.ion.bion.officelayer.OfficeException;
 
 import ag.ion.bion.officelayer.beans.IProperties;
 
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
+
+import ag.ion.noa.internal.metrics.Instrumentation;
+
 /**
  * Abstract properties.
  * 
@@ -90,8 +100,54 @@ public abstract class AbstractProperties implements IProperties {
     return xPropertySet;
   }
   //----------------------------------------------------------------------------
+  /**
+   * Returns the value of the submitted property. Every property read of the wrappers
+   * passes this method, therefore it is reported as one round trip to the office.
+   * 
+   * @param name name of the property
+   * 
+   * @return value of the property
+   * 
+   * @throws UnknownPropertyException if the property does not exist
+   * @throws WrappedTargetException if the office failed to read the property
+   */
+  protected Object getPropertyValue(String name) throws UnknownPropertyException, WrappedTargetException {
+    long start = Instrumentation.start();
+    try {
+      return xPropertySet.getPropertyValue(name);
+    }
+    finally {
+      Instrumentation.recordUnoCall("XPropertySet.getPropertyValue", start); //$NON-NLS-1$
+    }
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Sets the value of the submitted property. Every property write of the wrappers
+   * passes this method, therefore it is reported as one round trip to the office.
+   * 
+   * @param name name of the property
+   * @param value value to be set
+   * 
+   * @throws UnknownPropertyException if the property does not exist
+   * @throws PropertyVetoException if the property is read only
+   * @throws com.sun.star.lang.IllegalArgumentException if the value is not valid
+   * @throws WrappedTargetException if the office failed to set the property
+   */
+  protected void setPropertyValue(String name, Object value) throws UnknownPropertyException,
+      PropertyVetoException, com.sun.star.lang.IllegalArgumentException, WrappedTargetException {
+    long start = Instrumentation.start();
+    try {
+      xPropertySet.setPropertyValue(name, value);
+    }
+    finally {
+      Instrumentation.recordUnoCall("XPropertySet.setPropertyValue", start); //$NON-NLS-1$
+    }
+  }
+  //----------------------------------------------------------------------------
   /**
    * Copies the properties for the given keys of this properties into the given properties.
+   * All values are copied with one call of the XMultiPropertySet of both property sets 
+   * if it is supported, otherwise the properties are copied one by one.
    * 
    * @param propertyKeys the keys of the properties to be copied
    * @param properties the properties to copy properties into
@@ -102,10 +158,32 @@ public abstract class AbstractProperties implements IProperties {
    */
   public void copyTo(String[] propertyKeys, IProperties properties) throws OfficeException {
     XPropertySet foreignPropertySet = properties.getXPropertySet();
+    XMultiPropertySet xMultiPropertySet = (XMultiPropertySet)QueryInterfaceCache.queryInterface(XMultiPropertySet.class, xPropertySet);
+    XMultiPropertySet foreignMultiPropertySet = (XMultiPropertySet)QueryInterfaceCache.queryInterface(XMultiPropertySet.class, foreignPropertySet);
+    if(xMultiPropertySet != null && foreignMultiPropertySet != null && propertyKeys.length > 0) {
+      //the names must be sorted for the XMultiPropertySet
+      String[] sortedKeys = (String[])propertyKeys.clone();
+      Arrays.sort(sortedKeys);
+      try {
+        long start = Instrumentation.start();
+        Object[] values = xMultiPropertySet.getPropertyValues(sortedKeys);
+        Instrumentation.recordUnoCall("XMultiPropertySet.getPropertyValues", start); //$NON-NLS-1$
+        start = Instrumentation.start();
+        foreignMultiPropertySet.setPropertyValues(sortedKeys, values);
+        Instrumentation.recordUnoCall("XMultiPropertySet.setPropertyValues", start); //$NON-NLS-1$
+        return;
+      }
+      catch(Exception exception) {
+        //copy the properties one by one in order to report the failing property
+      }
+    }
     for(int i = 0; i < propertyKeys.length; i++) {
       try {  
         String key = propertyKeys[i];      
-        foreignPropertySet.setPropertyValue(key,xPropertySet.getPropertyValue(key));
+        Object value = getPropertyValue(key);
+        long start = Instrumentation.start();
+        foreignPropertySet.setPropertyValue(key,value);
+        Instrumentation.recordUnoCall("XPropertySet.setPropertyValue", start); //$NON-NLS-1$
       }
       catch(Exception exception) {
         OfficeException officeException = new OfficeException(exception.getMessage());
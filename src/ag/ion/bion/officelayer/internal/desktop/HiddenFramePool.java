@@ -0,0 +1,236 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.desktop;
+
+import java.util.LinkedList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.noa.NOAException;
+import ag.ion.noa.service.IServiceProvider;
+
+import com.sun.star.beans.NamedValue;
+import com.sun.star.frame.XFrame;
+import com.sun.star.lang.XComponent;
+import com.sun.star.lang.XSingleServiceFactory;
+import com.sun.star.uno.UnoRuntime;
+import com.sun.star.util.XCloseable;
+
+/**
+ * Pool of hidden OpenOffice.org frames of one office process. Hidden documents are loaded 
+ * into a pooled frame and the frame is returned to the pool when the document is closed, 
+ * so the office does not have to build a new frame and container window for every document.
+ */
+public class HiddenFramePool {
+
+  private static final String FRAME_NAME_PREFIX = "noa_hidden_";                               //$NON-NLS-1$
+
+  private static Logger       LOGGER            = Logger.getLogger(HiddenFramePool.class.getName());
+
+  private static int          frameCounter      = 0;
+
+  private IServiceProvider    serviceProvider   = null;
+  private int                 maximumSize       = 0;
+  private LinkedList          idleFrames        = new LinkedList();
+  private boolean             disposed          = false;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new HiddenFramePool.
+   * 
+   * @param serviceProvider service provider of the office process
+   * @param maximumSize maximum number of idle frames which are kept
+   * 
+   * @throws IllegalArgumentException if the submitted service provider or size is not valid
+   */
+  public HiddenFramePool(IServiceProvider serviceProvider, int maximumSize)
+      throws IllegalArgumentException {
+    if (serviceProvider == null)
+      throw new IllegalArgumentException("The submitted service provider is not valid."); //$NON-NLS-1$
+    if (maximumSize < 1)
+      throw new IllegalArgumentException("The submitted pool size is not valid."); //$NON-NLS-1$
+    this.serviceProvider = serviceProvider;
+    this.maximumSize = maximumSize;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns an idle hidden frame of the pool or constructs a new one.
+   * 
+   * @return hidden frame
+   * 
+   * @throws NOAException if a new frame can not be constructed or the pool was disposed
+   */
+  public XFrame acquire() throws NOAException {
+    while (true) {
+      XFrame xFrame = null;
+      synchronized (this) {
+        if (disposed)
+          throw new NOAException("The frame pool was disposed."); //$NON-NLS-1$
+        if (idleFrames.isEmpty())
+          break;
+        xFrame = (XFrame) idleFrames.removeLast();
+      }
+      if (isAlive(xFrame))
+        return xFrame;
+    }
+    return constructFrame();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Detaches the document of the submitted frame and returns the frame to the pool. 
+   * The frame is closed if it can not be detached or the pool is full.
+   * 
+   * @param xFrame frame to be returned
+   */
+  public void release(XFrame xFrame) {
+    if (xFrame == null)
+      return;
+    try {
+      if (xFrame.getController() != null && !xFrame.setComponent(null, null)) {
+        closeFrame(xFrame);
+        return;
+      }
+    }
+    catch (Throwable throwable) {
+      closeFrame(xFrame);
+      return;
+    }
+    if (!isAlive(xFrame))
+      return;
+    synchronized (this) {
+      if (!disposed && idleFrames.size() < maximumSize) {
+        idleFrames.add(xFrame);
+        return;
+      }
+    }
+    closeFrame(xFrame);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of idle frames.
+   * 
+   * @return number of idle frames
+   */
+  public synchronized int getIdleFrameCount() {
+    return idleFrames.size();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes all idle frames. Frames which are released later are closed as well.
+   */
+  public void dispose() {
+    Object[] frames = null;
+    synchronized (this) {
+      disposed = true;
+      frames = idleFrames.toArray();
+      idleFrames.clear();
+    }
+    for (int i = 0; i < frames.length; i++)
+      closeFrame((XFrame) frames[i]);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs a new hidden frame by the task creator of the office.
+   * 
+   * @return new hidden frame
+   * 
+   * @throws NOAException if the frame can not be constructed
+   */
+  private XFrame constructFrame() throws NOAException {
+    try {
+      Object taskCreator = serviceProvider.createServiceWithContext("com.sun.star.frame.TaskCreator"); //$NON-NLS-1$
+      XSingleServiceFactory xSingleServiceFactory = (XSingleServiceFactory) UnoRuntime.queryInterface(XSingleServiceFactory.class,
+          taskCreator);
+      Object[] arguments = new Object[] {
+          new NamedValue("FrameName", getNextFrameName()), //$NON-NLS-1$
+          new NamedValue("MakeVisible", Boolean.FALSE), //$NON-NLS-1$
+          new NamedValue("SupportPersistentWindowState", Boolean.FALSE) //$NON-NLS-1$
+      };
+      XFrame xFrame = (XFrame) UnoRuntime.queryInterface(XFrame.class,
+          xSingleServiceFactory.createInstanceWithArguments(arguments));
+      if (xFrame == null)
+        throw new NOAException("The hidden frame can not be constructed."); //$NON-NLS-1$
+      return xFrame;
+    }
+    catch (NOAException noaException) {
+      throw noaException;
+    }
+    catch (Exception exception) {
+      throw new NOAException(exception);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted frame can still be used.
+   * 
+   * @param xFrame frame to be checked
+   * 
+   * @return information whether the submitted frame can still be used
+   */
+  private boolean isAlive(XFrame xFrame) {
+    try {
+      return xFrame.getContainerWindow() != null;
+    }
+    catch (Throwable throwable) {
+      return false;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted frame.
+   * 
+   * @param xFrame frame to be closed
+   */
+  private void closeFrame(XFrame xFrame) {
+    try {
+      XCloseable xCloseable = (XCloseable) UnoRuntime.queryInterface(XCloseable.class, xFrame);
+      if (xCloseable != null)
+        xCloseable.close(true);
+      else
+        ((XComponent) UnoRuntime.queryInterface(XComponent.class, xFrame)).dispose();
+    }
+    catch (Throwable throwable) {
+      LOGGER.log(Level.FINE, "Hidden frame can not be closed.", throwable); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a unique name for a new frame.
+   * 
+   * @return unique name for a new frame
+   */
+  private static synchronized String getNextFrameName() {
+    return FRAME_NAME_PREFIX + (++frameCounter);
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,291 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.document;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.noa.internal.metrics.Instrumentation;
+
+import com.sun.star.io.BufferSizeExceededException;
+import com.sun.star.io.NotConnectedException;
+import com.sun.star.io.XOutputStream;
+import com.sun.star.lib.uno.helper.ComponentBase;
+
+/**
+ * XOutputStream which collects the small chunks written by the office in a large 
+ * buffer before they are passed to the target stream. The buffers are reused by 
+ * following exports. If the target is a file, the buffer is written directly to 
+ * its file channel. The throughput of the stream is logged and reported to the 
+ * installed metrics collector.
+ */
+public class BufferedXOutputStreamAdapter extends ComponentBase implements XOutputStream {
+
+  /** Size of the buffer in bytes. */
+  public static final int     BUFFER_SIZE        = 256 * 1024;
+
+  private static final int    MAX_POOLED_BUFFERS = 4;
+  private static final long   NANOS_PER_SECOND   = 1000000000L;
+
+  private static Logger       LOGGER             = Logger.getLogger(BufferedXOutputStreamAdapter.class.getName());
+  private static LinkedList   bufferPool         = new LinkedList();
+
+  private OutputStream        outputStream       = null;
+  private FileChannel         fileChannel        = null;
+  private String              name               = null;
+
+  private byte[]              buffer             = null;
+  private int                 count              = 0;
+  private long                byteCount          = 0;
+  private long                startTime          = 0;
+  private long                duration           = -1;
+  private long                metricsStart       = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new BufferedXOutputStreamAdapter.
+   * 
+   * @param outputStream target stream
+   * @param name name of the method which uses the stream, for example 
+   * <code>PersistenceService.export</code>
+   */
+  public BufferedXOutputStreamAdapter(OutputStream outputStream, String name) {
+    this.outputStream = outputStream;
+    this.name = name;
+    if (outputStream instanceof FileOutputStream)
+      fileChannel = ((FileOutputStream) outputStream).getChannel();
+    startTime = System.nanoTime();
+    metricsStart = Instrumentation.start();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Writes the submitted bytes.
+   * 
+   * @param bytes bytes to be written
+   * 
+   * @throws NotConnectedException if the stream was already closed
+   * @throws BufferSizeExceededException if the buffer size was exceeded
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public void writeBytes(byte[] bytes) throws NotConnectedException,
+      BufferSizeExceededException, com.sun.star.io.IOException {
+    if (outputStream == null)
+      throw new NotConnectedException("The stream was already closed."); //$NON-NLS-1$
+    try {
+      if (buffer == null)
+        buffer = acquireBuffer();
+      if (count + bytes.length > buffer.length)
+        flushBuffer();
+      if (bytes.length >= buffer.length)
+        write(bytes, bytes.length);
+      else {
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+      }
+      byteCount += bytes.length;
+    }
+    catch (IOException ioException) {
+      throw new com.sun.star.io.IOException(ioException.getMessage());
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Writes the buffered bytes to the target stream and flushes it.
+   * 
+   * @throws NotConnectedException if the stream was already closed
+   * @throws BufferSizeExceededException if the buffer size was exceeded
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public void flush() throws NotConnectedException, BufferSizeExceededException,
+      com.sun.star.io.IOException {
+    if (outputStream == null)
+      throw new NotConnectedException("The stream was already closed."); //$NON-NLS-1$
+    try {
+      flushBuffer();
+      outputStream.flush();
+    }
+    catch (IOException ioException) {
+      throw new com.sun.star.io.IOException(ioException.getMessage());
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Writes the buffered bytes and closes the target stream.
+   * 
+   * @throws NotConnectedException if the stream was already closed
+   * @throws BufferSizeExceededException if the buffer size was exceeded
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public void closeOutput() throws NotConnectedException, BufferSizeExceededException,
+      com.sun.star.io.IOException {
+    if (outputStream == null)
+      throw new NotConnectedException("The stream was already closed."); //$NON-NLS-1$
+    try {
+      complete();
+      outputStream.close();
+    }
+    catch (IOException ioException) {
+      throw new com.sun.star.io.IOException(ioException.getMessage());
+    }
+    finally {
+      outputStream = null;
+      fileChannel = null;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Writes the buffered bytes to the target stream and reports the throughput. The 
+   * target stream is not closed. Must be called when the office finished writing, 
+   * the throughput is only reported by the first call.
+   * 
+   * @throws IOException if the buffered bytes can not be written
+   */
+  public void complete() throws IOException {
+    boolean completed = duration >= 0;
+    try {
+      if (outputStream != null) {
+        flushBuffer();
+        outputStream.flush();
+      }
+    }
+    finally {
+      release();
+    }
+    if (completed)
+      return;
+    Instrumentation.recordTransfer(name, byteCount, metricsStart);
+    if (LOGGER.isLoggable(Level.FINE))
+      LOGGER.fine(name + " streamed " + byteCount + " bytes with " + getBytesPerSecond() + " bytes/s."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Releases the buffer without writing the buffered bytes. Used if the office 
+   * failed to write the stream.
+   */
+  public void release() {
+    if (duration < 0)
+      duration = System.nanoTime() - startTime;
+    if (buffer != null) {
+      releaseBuffer(buffer);
+      buffer = null;
+      count = 0;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of bytes written by the office.
+   * 
+   * @return number of bytes written by the office
+   */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the throughput of the stream in bytes per second. The duration is 
+   * measured from the construction until the stream is completed.
+   * 
+   * @return throughput of the stream in bytes per second
+   */
+  public long getBytesPerSecond() {
+    long duration = this.duration >= 0 ? this.duration : System.nanoTime() - startTime;
+    if (duration <= 0)
+      return 0;
+    return (long) (byteCount * ((double) NANOS_PER_SECOND / duration));
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Writes the buffered bytes to the target.
+   * 
+   * @throws IOException if the bytes can not be written
+   */
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      write(buffer, count);
+      count = 0;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Writes the submitted bytes to the target.
+   * 
+   * @param bytes bytes to be written
+   * @param length number of bytes to be written
+   * 
+   * @throws IOException if the bytes can not be written
+   */
+  private void write(byte[] bytes, int length) throws IOException {
+    if (fileChannel != null) {
+      ByteBuffer byteBuffer = ByteBuffer.wrap(bytes, 0, length);
+      while (byteBuffer.hasRemaining())
+        fileChannel.write(byteBuffer);
+    }
+    else
+      outputStream.write(bytes, 0, length);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a buffer of the pool or a new buffer.
+   * 
+   * @return buffer to be used
+   */
+  private static byte[] acquireBuffer() {
+    synchronized (bufferPool) {
+      if (!bufferPool.isEmpty())
+        return (byte[]) bufferPool.removeFirst();
+    }
+    return new byte[BUFFER_SIZE];
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the submitted buffer to the pool.
+   * 
+   * @param buffer buffer to be returned
+   */
+  private static void releaseBuffer(byte[] buffer) {
+    synchronized (bufferPool) {
+      if (bufferPool.size() < MAX_POOLED_BUFFERS)
+        bufferPool.addFirst(buffer);
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
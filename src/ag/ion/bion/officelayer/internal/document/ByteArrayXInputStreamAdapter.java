@@ -58,16 +58,12 @@ import java.io.InputStream;
  */
 public class ByteArrayXInputStreamAdapter extends ComponentBase implements XInputStream, XSeekable {
    
-  private IOfficeProgressMonitor officeProgressMonitor = null;
+  private StreamProgressReporter progressReporter = null;
   
   private byte[] bytes = null;;
  
   private int length        = -1;
   private int pos           = -1;
-  private int counter       = 0;  
-  private int buildCounter  = 0;
-  
-  private boolean showBuildInformation = false;
   
   //----------------------------------------------------------------------------
   /**
@@ -115,10 +111,7 @@ public class ByteArrayXInputStreamAdapter extends ComponentBase implements XInpu
     length = bytes.length;
     pos = 0;
     
-    this.officeProgressMonitor = officeProgressMonitor;
-    if(officeProgressMonitor != null) {
-      officeProgressMonitor.beginTask(Messages.getString("ByteArrayXInputStreamAdapter_monitor_task_name"), length); //$NON-NLS-1$
-    }
+    progressReporter = new StreamProgressReporter(officeProgressMonitor, length, "ByteArrayXInputStreamAdapter.readBytes"); //$NON-NLS-1$
   }
   //----------------------------------------------------------------------------
   /**
@@ -146,6 +139,8 @@ public class ByteArrayXInputStreamAdapter extends ComponentBase implements XInpu
    * @author Andreas Bröker
    */
   public void closeInput() throws com.sun.star.io.IOException {
+    if(bytes != null)
+      progressReporter.complete();
     bytes = null;
   }
   //----------------------------------------------------------------------------
@@ -169,29 +164,8 @@ public class ByteArrayXInputStreamAdapter extends ComponentBase implements XInpu
       if(buffer[0] == null)              
         buffer[0] = new byte[size];
       System.arraycopy(bytes, pos, buffer[0], 0, size);
-      
-      if(pos >= counter) {
-        counter+=size;
-      }
-      else {
-        int difference = counter-pos;
-        counter+= size-difference;
-      }
-      
       pos+= size;
-      
-      if(officeProgressMonitor != null) {
-        if(!showBuildInformation) {
-          officeProgressMonitor.worked(size);
-          officeProgressMonitor.beginSubTask(Messages.getString("ByteArrayXInputStreamAdapter_monitor_sub_task", new Object[] {new Integer(counter), new Integer(length)})); //$NON-NLS-1$
-        }
-        else {
-          officeProgressMonitor.beginSubTask(Messages.getString("ByteArrayXInputStreamAdapter__monitor_integrating", new Integer(buildCounter++))); //$NON-NLS-1$
-        }
-        
-        if(counter >= length)
-          showBuildInformation = true;
-      }
+      progressReporter.read(pos, size);
       return size;
     }
     catch (ArrayIndexOutOfBoundsException arrayIndexOutOfBoundsException) {
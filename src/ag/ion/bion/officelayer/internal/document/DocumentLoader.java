@@ -50,6 +50,7 @@ import ag.ion.bion.officelayer.internal.text.GlobalTextDocument;
 import ag.ion.bion.officelayer.internal.text.TextDocument;
 import ag.ion.bion.officelayer.internal.web.WebDocument;
 import ag.ion.noa.internal.db.DatabaseDocument;
+import ag.ion.noa.internal.metrics.Instrumentation;
 import ag.ion.noa.service.IServiceProvider;
 
 import com.sun.star.awt.XWindow;
@@ -223,10 +224,12 @@ public class DocumentLoader {
       XComponentLoader xComponentLoader, String URL, String targetFrameName, int searchFlags,
       PropertyValue[] properties) throws Exception, IOException {
     DocumentService.checkMaxOpenDocuments(serviceProvider);
+    long start = Instrumentation.start();
     XComponent xComponent = xComponentLoader.loadComponentFromURL(URL,
         targetFrameName,
         searchFlags,
         properties);
+    Instrumentation.recordUnoCall("XComponentLoader.loadComponentFromURL", start); //$NON-NLS-1$
     if (xComponent != null) {
       return getDocument(xComponent, serviceProvider, properties);
     }
@@ -318,6 +321,7 @@ public class DocumentLoader {
           break;
         }
       }
+      DocumentRegistry.documentOpened(serviceProvider, xComponent, document);
     }
     return document;
   }
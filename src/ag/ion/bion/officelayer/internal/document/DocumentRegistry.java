@@ -0,0 +1,430 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.document;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.application.connection.IOfficeConnection;
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.noa.NOAException;
+import ag.ion.noa.internal.service.ServiceProvider;
+import ag.ion.noa.service.IServiceProvider;
+
+import com.sun.star.container.XEnumeration;
+import com.sun.star.document.XEventBroadcaster;
+import com.sun.star.frame.XDesktop;
+import com.sun.star.lang.EventObject;
+import com.sun.star.lang.XComponent;
+import com.sun.star.lang.XEventListener;
+import com.sun.star.uno.Any;
+import com.sun.star.uno.UnoRuntime;
+
+/**
+ * Registry of the documents which are open in an office process. The registry is filled
+ * once from the desktop and then kept up to date by the documents NOA loads and by the
+ * global document events of the office, so counting and listing the open documents does 
+ * not need calls to the office. A registry lives as long as the office connection it was 
+ * built for and has to be disposed with {@link #disposeRegistry(IOfficeConnection)} before 
+ * the connection is closed. Documents which NOA keeps open for internal purposes, for
+ * example spare instances of templates, can be excluded from the open documents.
+ */
+public class DocumentRegistry {
+
+  private static final String EVENT_ON_NEW    = "OnNew";                                                      //$NON-NLS-1$
+  private static final String EVENT_ON_LOAD   = "OnLoad";                                                     //$NON-NLS-1$
+  private static final String EVENT_ON_UNLOAD = "OnUnload";                                                   //$NON-NLS-1$
+
+  private static Logger       LOGGER          = Logger.getLogger(DocumentRegistry.class.getName());
+
+  private static Map          registries      = new WeakHashMap();
+
+  private LinkedHashMap       documents           = new LinkedHashMap();
+  private HashSet             excluded            = new HashSet();
+  private XEventListener      disposeListener     = null;
+
+  private XEventBroadcaster   xEventBroadcaster   = null;
+  private GlobalEventListener globalEventListener = null;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Listener for the global document events of the office.
+   */
+  private class GlobalEventListener implements com.sun.star.document.XEventListener {
+
+    //----------------------------------------------------------------------------
+    /**
+     * Is called whenever a global document event occurs.
+     * 
+     * @param eventObject source of the event
+     */
+    public void notifyEvent(com.sun.star.document.EventObject eventObject) {
+      XComponent xComponent = (XComponent) UnoRuntime.queryInterface(XComponent.class,
+          eventObject.Source);
+      if (xComponent == null)
+        return;
+      if (EVENT_ON_NEW.equals(eventObject.EventName) || EVENT_ON_LOAD.equals(eventObject.EventName))
+        register(xComponent, null);
+      else if (EVENT_ON_UNLOAD.equals(eventObject.EventName))
+        unregister(xComponent);
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Is called when the office shuts down.
+     * 
+     * @param eventObject source of the event
+     */
+    public void disposing(EventObject eventObject) {
+      clear();
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Listener which removes disposed documents from the registry.
+   */
+  private class DisposeListener implements XEventListener {
+
+    //----------------------------------------------------------------------------
+    /**
+     * Is called when a registered document is disposed.
+     * 
+     * @param eventObject source of the event
+     */
+    public void disposing(EventObject eventObject) {
+      XComponent xComponent = (XComponent) UnoRuntime.queryInterface(XComponent.class,
+          eventObject.Source);
+      if (xComponent != null)
+        unregister(xComponent);
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new DocumentRegistry.
+   */
+  private DocumentRegistry() {
+    disposeListener = new DisposeListener();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the registry of the office process of the submitted service provider. The 
+   * registry is filled from the desktop when it is requested the first time.
+   * 
+   * @param serviceProvider service provider to be used
+   * 
+   * @return registry of the office process
+   * 
+   * @throws NOAException if the registry can not be filled
+   */
+  public static DocumentRegistry getRegistry(IServiceProvider serviceProvider)
+      throws NOAException {
+    Object key = getKey(serviceProvider);
+    synchronized (registries) {
+      DocumentRegistry documentRegistry = (DocumentRegistry) registries.get(key);
+      if (documentRegistry == null) {
+        documentRegistry = new DocumentRegistry();
+        documentRegistry.initialize(serviceProvider);
+        registries.put(key, documentRegistry);
+      }
+      return documentRegistry;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Disposes the registry of the submitted office connection. The listener for the 
+   * global document events is removed from the office, so this has to be called 
+   * while the connection is still open.
+   * 
+   * @param officeConnection office connection to be used
+   */
+  public static void disposeRegistry(IOfficeConnection officeConnection) {
+    if (officeConnection == null)
+      return;
+    DocumentRegistry documentRegistry = null;
+    synchronized (registries) {
+      documentRegistry = (DocumentRegistry) registries.remove(officeConnection);
+    }
+    if (documentRegistry != null)
+      documentRegistry.dispose();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Registers the submitted document in the registry of the office process of the 
+   * submitted service provider.
+   * 
+   * @param serviceProvider service provider to be used
+   * @param xComponent OpenOffice.org XComponent interface of the document
+   * @param document document to be registered
+   */
+  public static void documentOpened(IServiceProvider serviceProvider, XComponent xComponent,
+      IDocument document) {
+    if (serviceProvider == null || xComponent == null)
+      return;
+    try {
+      getRegistry(serviceProvider).register(xComponent, document);
+    }
+    catch (Throwable throwable) {
+      LOGGER.log(Level.FINE, "Document can not be registered.", throwable); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes the submitted document from the registry of the office process of the 
+   * submitted service provider.
+   * 
+   * @param serviceProvider service provider to be used
+   * @param xComponent OpenOffice.org XComponent interface of the document
+   */
+  public static void documentClosed(IServiceProvider serviceProvider, XComponent xComponent) {
+    if (serviceProvider == null || xComponent == null)
+      return;
+    DocumentRegistry documentRegistry = null;
+    synchronized (registries) {
+      documentRegistry = (DocumentRegistry) registries.get(getKey(serviceProvider));
+    }
+    if (documentRegistry != null)
+      documentRegistry.unregister(xComponent);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Excludes the submitted document from the open documents of its office process or 
+   * includes it again. Excluded documents are neither counted nor listed, so they do not 
+   * keep an idle office process from being recycled.
+   * 
+   * @param document document to be used
+   * @param exclude information whether the document is excluded
+   */
+  public static void setExcluded(IDocument document, boolean exclude) {
+    if (document == null || document.getServiceProvider() == null || document.getXComponent() == null)
+      return;
+    DocumentRegistry documentRegistry = null;
+    synchronized (registries) {
+      documentRegistry = (DocumentRegistry) registries.get(getKey(document.getServiceProvider()));
+    }
+    if (documentRegistry == null)
+      return;
+    synchronized (documentRegistry) {
+      XComponent xComponent = document.getXComponent();
+      if (!exclude)
+        documentRegistry.excluded.remove(xComponent);
+      else if (documentRegistry.documents.containsKey(xComponent))
+        documentRegistry.excluded.add(xComponent);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of open documents.
+   * 
+   * @return number of open documents
+   */
+  public synchronized int getDocumentCount() {
+    return documents.size() - excluded.size();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns open documents. Documents which were not opened by NOA are constructed 
+   * on the first request.
+   * 
+   * @param serviceProvider service provider to be used for constructed documents
+   * 
+   * @return open documents
+   */
+  public IDocument[] getDocuments(IServiceProvider serviceProvider) {
+    List unknownComponents = new ArrayList();
+    synchronized (this) {
+      for (Iterator iterator = documents.entrySet().iterator(); iterator.hasNext();) {
+        Map.Entry entry = (Map.Entry) iterator.next();
+        if (entry.getValue() == null && !excluded.contains(entry.getKey()))
+          unknownComponents.add(entry.getKey());
+      }
+    }
+    for (int i = 0, n = unknownComponents.size(); i < n; i++) {
+      XComponent xComponent = (XComponent) unknownComponents.get(i);
+      IDocument document = DocumentLoader.getDocument(xComponent, serviceProvider, null);
+      synchronized (this) {
+        if (documents.containsKey(xComponent) && documents.get(xComponent) == null)
+          documents.put(xComponent, document);
+      }
+    }
+    synchronized (this) {
+      List list = new ArrayList(documents.size());
+      for (Iterator iterator = documents.entrySet().iterator(); iterator.hasNext();) {
+        Map.Entry entry = (Map.Entry) iterator.next();
+        if (entry.getValue() != null && !excluded.contains(entry.getKey()))
+          list.add(entry.getValue());
+      }
+      return (IDocument[]) list.toArray(new IDocument[list.size()]);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Registers the submitted document.
+   * 
+   * @param xComponent OpenOffice.org XComponent interface of the document
+   * @param document document to be registered (can be null if it was not 
+   * constructed yet)
+   */
+  private void register(XComponent xComponent, IDocument document) {
+    synchronized (this) {
+      if (documents.containsKey(xComponent)) {
+        if (documents.get(xComponent) == null && document != null)
+          documents.put(xComponent, document);
+        return;
+      }
+      documents.put(xComponent, document);
+    }
+    try {
+      xComponent.addEventListener(disposeListener);
+    }
+    catch (com.sun.star.uno.RuntimeException runtimeException) {
+      unregister(xComponent);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes the submitted document.
+   * 
+   * @param xComponent OpenOffice.org XComponent interface of the document
+   */
+  private synchronized void unregister(XComponent xComponent) {
+    documents.remove(xComponent);
+    excluded.remove(xComponent);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes all documents.
+   */
+  private synchronized void clear() {
+    documents.clear();
+    excluded.clear();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Stops listening to the global document events and removes all documents.
+   */
+  private void dispose() {
+    XEventBroadcaster xEventBroadcaster = null;
+    GlobalEventListener globalEventListener = null;
+    synchronized (this) {
+      xEventBroadcaster = this.xEventBroadcaster;
+      globalEventListener = this.globalEventListener;
+      this.xEventBroadcaster = null;
+      this.globalEventListener = null;
+      documents.clear();
+      excluded.clear();
+    }
+    if (xEventBroadcaster == null)
+      return;
+    try {
+      xEventBroadcaster.removeEventListener(globalEventListener);
+    }
+    catch (Throwable throwable) {
+      LOGGER.log(Level.FINE, "Global event listener can not be removed.", throwable); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the key of the registry of the submitted service provider. Service providers 
+   * are constructed on demand, so the registry is kept for their office connection.
+   * 
+   * @param serviceProvider service provider to be used
+   * 
+   * @return key of the registry
+   */
+  private static Object getKey(IServiceProvider serviceProvider) {
+    if (serviceProvider instanceof ServiceProvider)
+      return ((ServiceProvider) serviceProvider).getOfficeConnection();
+    return serviceProvider;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Fills the registry from the desktop and listens to the global document events.
+   * 
+   * @param serviceProvider service provider to be used
+   * 
+   * @throws NOAException if the registry can not be filled
+   */
+  private void initialize(IServiceProvider serviceProvider) throws NOAException {
+    try {
+      Object globalEventBroadcaster = serviceProvider.createService("com.sun.star.frame.GlobalEventBroadcaster"); //$NON-NLS-1$
+      XEventBroadcaster xEventBroadcaster = (XEventBroadcaster) UnoRuntime.queryInterface(XEventBroadcaster.class,
+          globalEventBroadcaster);
+      if (xEventBroadcaster != null) {
+        GlobalEventListener globalEventListener = new GlobalEventListener();
+        xEventBroadcaster.addEventListener(globalEventListener);
+        synchronized (this) {
+          this.xEventBroadcaster = xEventBroadcaster;
+          this.globalEventListener = globalEventListener;
+        }
+      }
+
+      Object desktop = serviceProvider.createService("com.sun.star.frame.Desktop"); //$NON-NLS-1$
+      XDesktop xDesktop = (XDesktop) UnoRuntime.queryInterface(XDesktop.class, desktop);
+      XEnumeration xEnumeration = xDesktop.getComponents().createEnumeration();
+      while (xEnumeration.hasMoreElements()) {
+        Object element = xEnumeration.nextElement();
+        if (element instanceof Any)
+          element = ((Any) element).getObject();
+        XComponent xComponent = (XComponent) UnoRuntime.queryInterface(XComponent.class,
+            element);
+        if (xComponent != null)
+          register(xComponent, null);
+      }
+    }
+    catch (NOAException noaException) {
+      throw noaException;
+    }
+    catch (Exception exception) {
+      throw new NOAException(exception);
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -38,19 +38,23 @@
  */
 package ag.ion.bion.officelayer.internal.document;
 
+import java.io.File;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import ag.ion.bion.officelayer.application.connection.IOfficeConnection;
 import ag.ion.bion.officelayer.desktop.IFrame;
+import ag.ion.bion.officelayer.document.AbstractDocument;
 import ag.ion.bion.officelayer.document.DocumentDescriptor;
 import ag.ion.bion.officelayer.document.DocumentException;
 import ag.ion.bion.officelayer.document.IDocument;
 import ag.ion.bion.officelayer.document.IDocumentDescriptor;
 import ag.ion.bion.officelayer.document.IDocumentService;
+import ag.ion.bion.officelayer.internal.desktop.HiddenFramePool;
 import ag.ion.bion.officelayer.runtime.IOfficeProgressMonitor;
 import ag.ion.noa.NOAException;
+import ag.ion.noa.internal.metrics.Instrumentation;
 import ag.ion.noa.db.IDatabaseDocument;
 import ag.ion.noa.document.URLAdapter;
 import ag.ion.noa.internal.db.DatabaseDocument;
@@ -59,14 +63,13 @@ import ag.ion.noa.service.IServiceProvider;
 import com.sun.star.beans.PropertyState;
 import com.sun.star.beans.PropertyValue;
 import com.sun.star.beans.XPropertySet;
-import com.sun.star.container.XEnumeration;
 import com.sun.star.frame.FrameSearchFlag;
 import com.sun.star.frame.XComponentLoader;
-import com.sun.star.frame.XDesktop;
+import com.sun.star.frame.XFrame;
+import com.sun.star.io.XInputStream;
 import com.sun.star.lang.XComponent;
 import com.sun.star.sdb.XDocumentDataSource;
 import com.sun.star.sdb.XOfficeDatabaseDocument;
-import com.sun.star.uno.Any;
 import com.sun.star.uno.UnoRuntime;
 
 /**
@@ -85,10 +88,19 @@ public class DocumentService implements IDocumentService {
   private static final String WEB_FACTORY_URL     = "private:factory/swriter/web";           //$NON-NLS-1$
   private static final String GLOBAL_FACTORY_URL  = "private:factory/swriter/GlobalDocument"; //$NON-NLS-1$
 
+  private static Logger       LOGGER              = Logger.getLogger(DocumentService.class.getName());
+
   private IOfficeConnection   officeConnection    = null;
   private IServiceProvider    serviceProvider     = null;
   private XComponentLoader    xComponentLoader    = null;
 
+  private HiddenFramePool     hiddenFramePool     = null;
+  private int                 hiddenFramePoolSize = 0;
+
+  private int                 loadedDocumentCount = 0;
+  private int                 pendingLoadCount    = 0;
+  private boolean             loadsSuspended      = false;
+
   //----------------------------------------------------------------------------
   /**
    * Constructs new DocumentService.
@@ -154,6 +166,8 @@ public class DocumentService implements IDocumentService {
    */
   public IDocument constructNewDocument(IFrame frame, String documentType,
       IDocumentDescriptor documentDescriptor) throws NOAException {
+    long methodStart = Instrumentation.start();
+    beginLoad();
     try {
       if (xComponentLoader == null)
         xComponentLoader = constructComponentLoader();
@@ -180,23 +194,41 @@ public class DocumentService implements IDocumentService {
 
       XComponent xComponent = null;
       PropertyValue[] props = DocumentDescriptorTransformer.documentDescriptor2PropertyValues(documentDescriptor);
-      if (frame != null) {
-        xComponent = xComponentLoader.loadComponentFromURL(factoryURL,
-            frame.getXFrame().getName(),
-            FrameSearchFlag.ALL,
-            props); //$NON-NLS-1$ //$NON-NLS-2$
+      XFrame pooledFrame = acquirePooledFrame(frame, documentDescriptor);
+      IDocument document = null;
+      try {
+        long start = Instrumentation.start();
+        if (frame != null) {
+          xComponent = xComponentLoader.loadComponentFromURL(factoryURL,
+              frame.getXFrame().getName(),
+              FrameSearchFlag.ALL,
+              props); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        else if (pooledFrame != null) {
+          xComponent = getComponentLoader(pooledFrame).loadComponentFromURL(factoryURL,
+              "_self", 0, props); //$NON-NLS-1$
+        }
+        else {
+          xComponent = xComponentLoader.loadComponentFromURL(factoryURL, "_blank", 0, props); //$NON-NLS-1$
+        }
+        Instrumentation.recordUnoCall("XComponentLoader.loadComponentFromURL", start); //$NON-NLS-1$
+        document = DocumentLoader.getDocument(xComponent, serviceProvider, props);
       }
-      else {
-        xComponent = xComponentLoader.loadComponentFromURL(factoryURL, "_blank", 0, props); //$NON-NLS-1$
+      finally {
+        attachPooledFrame(document, pooledFrame);
       }
-      IDocument document = DocumentLoader.getDocument(xComponent, serviceProvider, props);
       if (document == null)
         throw new DocumentException("The new document can not be constructed."); //$NON-NLS-1$
+      documentLoaded();
+      Instrumentation.recordMethod("DocumentService.constructNewDocument", methodStart); //$NON-NLS-1$
       return document;
     }
     catch (Throwable throwable) {
       throw new NOAException(throwable);
     }
+    finally {
+      endLoad();
+    }
   }
 
   //----------------------------------------------------------------------------
@@ -241,11 +273,16 @@ public class DocumentService implements IDocumentService {
    * @author Andreas Bröker
    */
   public IDocument loadDocument(String url) throws DocumentException {
+    long methodStart = Instrumentation.start();
+    beginLoad();
     try {
       url = URLAdapter.adaptURL(url);
       IDocument document = DocumentLoader.loadDocument(serviceProvider, url);
-      if (document != null)
+      if (document != null) {
+        documentLoaded();
+        Instrumentation.recordMethod("DocumentService.loadDocument", methodStart); //$NON-NLS-1$
         return document;
+      }
       else
         throw new DocumentException(Messages.getString("DocumentService_exception_url_invalid")); //$NON-NLS-1$
     }
@@ -254,6 +291,9 @@ public class DocumentService implements IDocumentService {
       documentException.initCause(throwable);
       throw documentException;
     }
+    finally {
+      endLoad();
+    }
   }
 
   //----------------------------------------------------------------------------
@@ -273,18 +313,26 @@ public class DocumentService implements IDocumentService {
    */
   public IDocument loadDocument(String url, IDocumentDescriptor documentDescriptor)
       throws NOAException {
+    beginLoad();
     try {
+      long methodStart = Instrumentation.start();
       PropertyValue[] propertyValues = DocumentDescriptorTransformer.documentDescriptor2PropertyValues(documentDescriptor);
       url = URLAdapter.adaptURL(url);
       IDocument document = DocumentLoader.loadDocument(serviceProvider, url, propertyValues);
-      if (document != null)
+      if (document != null) {
+        documentLoaded();
+        Instrumentation.recordMethod("DocumentService.loadDocument", methodStart); //$NON-NLS-1$
         return document;
+      }
       else
         throw new NOAException(Messages.getString("DocumentService_exception_url_invalid")); //$NON-NLS-1$
     }
     catch (Throwable throwable) {
       throw new NOAException(throwable);
     }
+    finally {
+      endLoad();
+    }
   }
 
   //----------------------------------------------------------------------------
@@ -377,48 +425,161 @@ public class DocumentService implements IDocumentService {
    */
   public IDocument loadDocument(IOfficeProgressMonitor officeProgressMonitor, IFrame frame,
       InputStream inputStream, IDocumentDescriptor documentDescriptor) throws DocumentException {
-    XComponent xComponent = null;
-    PropertyValue[] properties = new PropertyValue[1];
+    if (inputStream == null)
+      throw new DocumentException("The submitted input stream is not valid."); //$NON-NLS-1$
+    return loadStreamDocument(officeProgressMonitor,
+        frame,
+        inputStream,
+        null,
+        null,
+        documentDescriptor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted bytes. The bytes are streamed to the office 
+   * without being copied, so they must not be modified until the document is loaded.
+   * 
+   * @param content bytes of the document
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  public IDocument loadDocument(byte[] content, IDocumentDescriptor documentDescriptor)
+      throws DocumentException {
+    if (content == null)
+      throw new DocumentException("The submitted content is not valid."); //$NON-NLS-1$
+    return loadStreamDocument(null, null, null, null, content, documentDescriptor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted local file. The file is mapped into memory and 
+   * streamed to the office, so this works with remote offices as well. The file must 
+   * not be modified until the document is closed.
+   * 
+   * @param file file to be used
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  public IDocument loadDocument(File file, IDocumentDescriptor documentDescriptor)
+      throws DocumentException {
+    return loadDocument(null, file, documentDescriptor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted local file. The file is mapped into memory and 
+   * streamed to the office, so this works with remote offices as well. The file must 
+   * not be modified until the document is closed.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used
+   * @param file file to be used
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  public IDocument loadDocument(IOfficeProgressMonitor officeProgressMonitor, File file,
+      IDocumentDescriptor documentDescriptor) throws DocumentException {
+    if (file == null || !file.isFile())
+      throw new DocumentException("The submitted file is not valid."); //$NON-NLS-1$
+    return loadStreamDocument(officeProgressMonitor, null, null, file, null, documentDescriptor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document on the basis of the submitted stream, file or bytes. Exactly 
+   * one of them has to be submitted.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * @param frame frame to be used for the document (can be null)
+   * @param inputStream input stream to be used (can be null)
+   * @param file file to be used (can be null)
+   * @param content bytes to be used (can be null)
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return loaded document
+   * 
+   * @throws DocumentException if the document can not be loaded
+   */
+  private IDocument loadStreamDocument(IOfficeProgressMonitor officeProgressMonitor, IFrame frame,
+      InputStream inputStream, File file, byte[] content, IDocumentDescriptor documentDescriptor)
+      throws DocumentException {
+    beginLoad();
     try {
-      if (inputStream == null)
-        throw new DocumentException("The submitted input stream is not valid."); //$NON-NLS-1$
+      long methodStart = Instrumentation.start();
+      XComponent xComponent = null;
+      XFrame pooledFrame = null;
+      PropertyValue[] properties = new PropertyValue[1];
+      try {
 
-      if (xComponentLoader == null || !officeConnection.isConnected())
-        xComponentLoader = constructComponentLoader();
+        if (xComponentLoader == null || !officeConnection.isConnected())
+          xComponentLoader = constructComponentLoader();
 
-      checkMaxOpenDocuments(serviceProvider);
+        checkMaxOpenDocuments(serviceProvider);
 
-      //begin task is done in class ByteArrayXInputStreamAdapter
-      //if(officeProgressMonitor != null)
-      //  officeProgressMonitor.beginTask(Messages.getString("DocumentService_monitor_message_preparing_loading"), IOfficeProgressMonitor.WORK_UNKNOWN); //$NON-NLS-1$
+        //begin task is done in class FileXInputStreamAdapter or ByteArrayXInputStreamAdapter
+        //if(officeProgressMonitor != null)
+        //  officeProgressMonitor.beginTask(Messages.getString("DocumentService_monitor_message_preparing_loading"), IOfficeProgressMonitor.WORK_UNKNOWN); //$NON-NLS-1$
 
-      ByteArrayXInputStreamAdapter byteArrayToXInputStreamAdapter = new ByteArrayXInputStreamAdapter(inputStream,
-          officeProgressMonitor);
-      properties[0] = new PropertyValue("InputStream", -1, byteArrayToXInputStreamAdapter, PropertyState.DIRECT_VALUE); //$NON-NLS-1$
-      properties = DocumentDescriptorTransformer.documentDescriptor2PropertyValues(properties,
-          documentDescriptor);
+        XInputStream xInputStream = null;
+        if (file != null)
+          xInputStream = new FileXInputStreamAdapter(file, officeProgressMonitor);
+        else if (content != null)
+          xInputStream = new ByteArrayXInputStreamAdapter(officeProgressMonitor, content);
+        else
+          xInputStream = FileXInputStreamAdapter.createXInputStream(inputStream,
+              officeProgressMonitor);
+        properties[0] = new PropertyValue("InputStream", -1, xInputStream, PropertyState.DIRECT_VALUE); //$NON-NLS-1$
+        properties = DocumentDescriptorTransformer.documentDescriptor2PropertyValues(properties,
+            documentDescriptor);
 
-      if (frame == null)
-        xComponent = xComponentLoader.loadComponentFromURL("private:stream", "_blank", 0, properties); //$NON-NLS-1$ //$NON-NLS-2$
-      else
-        xComponent = xComponentLoader.loadComponentFromURL("private:stream", frame.getXFrame().getName(), FrameSearchFlag.ALL, properties); //$NON-NLS-1$
+        pooledFrame = acquirePooledFrame(frame, documentDescriptor);
+        long start = Instrumentation.start();
+        if (frame != null)
+          xComponent = xComponentLoader.loadComponentFromURL("private:stream", frame.getXFrame().getName(), FrameSearchFlag.ALL, properties); //$NON-NLS-1$
+        else if (pooledFrame != null)
+          xComponent = getComponentLoader(pooledFrame).loadComponentFromURL("private:stream", "_self", 0, properties); //$NON-NLS-1$ //$NON-NLS-2$
+        else
+          xComponent = xComponentLoader.loadComponentFromURL("private:stream", "_blank", 0, properties); //$NON-NLS-1$ //$NON-NLS-2$
+        Instrumentation.recordUnoCall("XComponentLoader.loadComponentFromURL", start); //$NON-NLS-1$
 
-    }
-    catch (Throwable throwable) {
-      throw new DocumentException(throwable);
-    }
+      }
+      catch (Throwable throwable) {
+        attachPooledFrame(null, pooledFrame);
+        throw new DocumentException(throwable);
+      }
 
-    if (officeProgressMonitor != null)
-      officeProgressMonitor.beginSubTask(Messages.getString("DocumentService_monitor_investigating")); //$NON-NLS-1$
-    IDocument document = DocumentLoader.getDocument(xComponent, serviceProvider, properties);
-    if (document != null) {
-      if (officeProgressMonitor != null) {
-        officeProgressMonitor.beginSubTask(Messages.getString("DocumentService_monitor_loading_completed")); //$NON-NLS-1$
-        officeProgressMonitor.done();
+      if (officeProgressMonitor != null)
+        officeProgressMonitor.beginSubTask(Messages.getString("DocumentService_monitor_investigating")); //$NON-NLS-1$
+      IDocument document = null;
+      try {
+        document = DocumentLoader.getDocument(xComponent, serviceProvider, properties);
       }
-      return document;
+      finally {
+        attachPooledFrame(document, pooledFrame);
+      }
+      if (document != null) {
+        documentLoaded();
+        if (officeProgressMonitor != null) {
+          officeProgressMonitor.beginSubTask(Messages.getString("DocumentService_monitor_loading_completed")); //$NON-NLS-1$
+          officeProgressMonitor.done();
+        }
+        Instrumentation.recordMethod("DocumentService.loadDocument", methodStart); //$NON-NLS-1$
+        return document;
+      }
+      throw new DocumentException("The document can not be loaded."); //$NON-NLS-1$
+    }
+    finally {
+      endLoad();
     }
-    throw new DocumentException("The document can not be loaded."); //$NON-NLS-1$
   }
 
   //----------------------------------------------------------------------------
@@ -459,10 +620,25 @@ public class DocumentService implements IDocumentService {
     if (url == null)
       throw new DocumentException("The submitted url is not valid."); //$NON-NLS-1$
 
+    long methodStart = Instrumentation.start();
+    beginLoad();
     try {
       url = URLAdapter.adaptURL(url);
       IDocument document = null;
-      if (frame == null) {
+      XFrame pooledFrame = acquirePooledFrame(frame, documentDescriptor);
+      if (pooledFrame != null) {
+        try {
+          document = DocumentLoader.loadDocument(serviceProvider,
+              pooledFrame,
+              url,
+              FrameSearchFlag.ALL,
+              DocumentDescriptorTransformer.documentDescriptor2PropertyValues(documentDescriptor));
+        }
+        finally {
+          attachPooledFrame(document, pooledFrame);
+        }
+      }
+      else if (frame == null) {
         document = DocumentLoader.loadDocument(serviceProvider,
             url,
             DocumentDescriptorTransformer.documentDescriptor2PropertyValues(documentDescriptor));
@@ -474,8 +650,11 @@ public class DocumentService implements IDocumentService {
             FrameSearchFlag.ALL,
             DocumentDescriptorTransformer.documentDescriptor2PropertyValues(documentDescriptor));
       }
-      if (document != null)
+      if (document != null) {
+        documentLoaded();
+        Instrumentation.recordMethod("DocumentService.loadDocument", methodStart); //$NON-NLS-1$
         return document;
+      }
       else
         throw new DocumentException(Messages.getString("DocumentService_exception_url_invalid")); //$NON-NLS-1$
     }
@@ -484,6 +663,9 @@ public class DocumentService implements IDocumentService {
       documentException.initCause(exception);
       throw documentException;
     }
+    finally {
+      endLoad();
+    }
   }
 
   //----------------------------------------------------------------------------
@@ -517,7 +699,19 @@ public class DocumentService implements IDocumentService {
 
   //----------------------------------------------------------------------------
   /**
-   * Returns current documents of an application.
+   * Returns number of documents which were loaded or constructed by this 
+   * document service.
+   * 
+   * @return number of documents which were loaded or constructed
+   */
+  public synchronized int getLoadedDocumentCount() {
+    return loadedDocumentCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns current documents of an application. The documents are provided by the
+   * document registry of the office process.
    * 
    * @return documents of an application
    * 
@@ -531,17 +725,7 @@ public class DocumentService implements IDocumentService {
     try {
       if (serviceProvider == null)
         return new IDocument[0];
-      Object desktop = serviceProvider.createService("com.sun.star.frame.Desktop"); //$NON-NLS-1$
-      XDesktop xDesktop = (XDesktop) UnoRuntime.queryInterface(XDesktop.class, desktop);
-      XEnumeration aktComponents = xDesktop.getComponents().createEnumeration();
-      List arrayList = new ArrayList();
-      while (aktComponents.hasMoreElements()) {
-        Any a = (Any) aktComponents.nextElement();
-        arrayList.add(DocumentLoader.getDocument((XComponent) a.getObject(), serviceProvider, null));
-      }
-      IDocument[] documents = new IDocument[arrayList.size()];
-      documents = (IDocument[]) arrayList.toArray(documents);
-      return documents;
+      return DocumentRegistry.getRegistry(serviceProvider).getDocuments(serviceProvider);
     }
     catch (Exception exception) {
       throw new DocumentException(exception);
@@ -550,7 +734,8 @@ public class DocumentService implements IDocumentService {
 
   //----------------------------------------------------------------------------
   /**
-   * Returns current number of documents of an application.
+   * Returns current number of documents of an application. The number is provided
+   * by the document registry of the office process.
    * 
    * @param serviceProvider the serviceProvider to be used
    * 
@@ -562,17 +747,9 @@ public class DocumentService implements IDocumentService {
   public static int getCurrentDocumentCount(IServiceProvider serviceProvider)
       throws DocumentException {
     try {
-      int i = 0;
       if (serviceProvider == null)
-        return i;
-      Object desktop = serviceProvider.createService("com.sun.star.frame.Desktop"); //$NON-NLS-1$
-      XDesktop xDesktop = (XDesktop) UnoRuntime.queryInterface(XDesktop.class, desktop);
-      XEnumeration aktComponents = xDesktop.getComponents().createEnumeration();
-      while (aktComponents.hasMoreElements()) {
-        aktComponents.nextElement();
-        i++;
-      }
-      return i;
+        return 0;
+      return DocumentRegistry.getRegistry(serviceProvider).getDocumentCount();
     }
     catch (Exception exception) {
       throw new DocumentException(exception);
@@ -592,14 +769,10 @@ public class DocumentService implements IDocumentService {
    * @date 11.11.2008
    */
   public static void checkMaxOpenDocuments(IServiceProvider serviceProvider) throws NOAException {
-    try {
-      if (serviceProvider != null && getCurrentDocumentCount(serviceProvider) >= IDocumentService.MAX_OPENED_DOCS)
-        throw new NOAException("The maximum number of opend documents was reached (Maximum number is " + IDocumentService.MAX_OPENED_DOCS //$NON-NLS-1$
-            + ")."); //$NON-NLS-1$
-    }
-    catch (DocumentException documentException) {
-      throw new NOAException(documentException);
-    }
+    if (serviceProvider != null
+        && DocumentRegistry.getRegistry(serviceProvider).getDocumentCount() >= IDocumentService.MAX_OPENED_DOCS)
+      throw new NOAException("The maximum number of opend documents was reached (Maximum number is " + IDocumentService.MAX_OPENED_DOCS //$NON-NLS-1$
+          + ")."); //$NON-NLS-1$
   }
 
   //----------------------------------------------------------------------------
@@ -609,6 +782,117 @@ public class DocumentService implements IDocumentService {
    * @author Markus Krüger
    */
   public void dispose() {
+    HiddenFramePool hiddenFramePool = null;
+    synchronized (this) {
+      hiddenFramePool = this.hiddenFramePool;
+      this.hiddenFramePool = null;
+    }
+    if (hiddenFramePool != null)
+      hiddenFramePool.dispose();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Binds the document service to the submitted connection after the office 
+   * process was restarted. The hidden frame pool is rebuilt and the number of
+   * loaded documents starts again with 0.
+   * 
+   * @param officeConnection office connection to be used
+   * @param serviceProvider the service provider to be used
+   * 
+   * @throws IllegalArgumentException if the submitted office connection is not valid
+   */
+  public void setConnection(IOfficeConnection officeConnection, IServiceProvider serviceProvider)
+      throws IllegalArgumentException {
+    if (officeConnection == null)
+      throw new IllegalArgumentException("The submitted office connection is not valid."); //$NON-NLS-1$
+    HiddenFramePool hiddenFramePool = null;
+    synchronized (this) {
+      hiddenFramePool = this.hiddenFramePool;
+      this.officeConnection = officeConnection;
+      this.serviceProvider = serviceProvider;
+      xComponentLoader = null;
+      loadedDocumentCount = 0;
+      this.hiddenFramePool = hiddenFramePoolSize > 0 && serviceProvider != null ? new HiddenFramePool(serviceProvider,
+          hiddenFramePoolSize)
+          : null;
+    }
+    if (hiddenFramePool != null)
+      hiddenFramePool.dispose();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets the number of hidden frames which are kept for reuse. Hidden documents 
+   * without a target frame are loaded into a pooled frame, which is returned to 
+   * the pool when the document is closed.
+   * 
+   * @param size number of hidden frames which are kept for reuse (0 for no frame pool)
+   */
+  public void setHiddenFramePoolSize(int size) {
+    HiddenFramePool hiddenFramePool = null;
+    synchronized (this) {
+      hiddenFramePool = this.hiddenFramePool;
+      hiddenFramePoolSize = size;
+      this.hiddenFramePool = size > 0 && serviceProvider != null ? new HiddenFramePool(serviceProvider,
+          size) : null;
+    }
+    if (hiddenFramePool != null)
+      hiddenFramePool.dispose();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a pooled hidden frame for a document without target frame. Returns null 
+   * if no frame pool is used, the document is not hidden or no frame is available.
+   * 
+   * @param frame target frame of the document (can be null)
+   * @param documentDescriptor document descriptor to be used (can be null)
+   * 
+   * @return pooled hidden frame or null
+   */
+  private XFrame acquirePooledFrame(IFrame frame, IDocumentDescriptor documentDescriptor) {
+    HiddenFramePool hiddenFramePool = this.hiddenFramePool;
+    if (frame != null || hiddenFramePool == null || documentDescriptor == null
+        || !documentDescriptor.getHidden())
+      return null;
+    try {
+      return hiddenFramePool.acquire();
+    }
+    catch (NOAException noaException) {
+      LOGGER.log(Level.FINE, "No pooled frame available.", noaException); //$NON-NLS-1$
+      return null;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Attaches the submitted pooled frame to the submitted document. If the document 
+   * was not loaded the frame is returned to the pool.
+   * 
+   * @param document loaded document (can be null)
+   * @param pooledFrame pooled frame of the document (can be null)
+   */
+  private void attachPooledFrame(IDocument document, XFrame pooledFrame) {
+    HiddenFramePool hiddenFramePool = this.hiddenFramePool;
+    if (pooledFrame == null || hiddenFramePool == null)
+      return;
+    if (document instanceof AbstractDocument)
+      ((AbstractDocument) document).setPooledFrame(hiddenFramePool, pooledFrame);
+    else if (document == null)
+      hiddenFramePool.release(pooledFrame);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns component loader of the submitted frame.
+   * 
+   * @param xFrame frame to be used
+   * 
+   * @return component loader of the submitted frame
+   */
+  private XComponentLoader getComponentLoader(XFrame xFrame) {
+    return (XComponentLoader) UnoRuntime.queryInterface(XComponentLoader.class, xFrame);
   }
 
   //----------------------------------------------------------------------------
@@ -655,5 +939,92 @@ public class DocumentService implements IDocumentService {
   }
 
   //----------------------------------------------------------------------------
+  /**
+   * Suspends loading and constructing of documents. Loads which are already running
+   * are finished, further loads wait until {@link #resumeLoads()} is called.
+   */
+  public synchronized void suspendLoads() {
+    loadsSuspended = true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Waits until no document is loaded or constructed anymore.
+   * 
+   * @param timeout maximum time to wait in milliseconds
+   * 
+   * @return information whether all loads are finished
+   * 
+   * @throws InterruptedException if the current thread was interrupted
+   */
+  public synchronized boolean awaitLoads(long timeout) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+    while (pendingLoadCount > 0) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0)
+        return false;
+      wait(remaining);
+    }
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Resumes loading and constructing of documents after {@link #suspendLoads()}.
+   */
+  public synchronized void resumeLoads() {
+    loadsSuspended = false;
+    notifyAll();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of documents which are currently loaded or constructed.
+   * 
+   * @return number of documents which are currently loaded or constructed
+   */
+  public synchronized int getPendingLoadCount() {
+    return pendingLoadCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Registers a load which is about to start. Waits as long as loads are suspended,
+   * which lasts only while the office process is recycled.
+   */
+  private synchronized void beginLoad() {
+    boolean interrupted = false;
+    while (loadsSuspended) {
+      try {
+        wait();
+      }
+      catch (InterruptedException interruptedException) {
+        interrupted = true;
+      }
+    }
+    pendingLoadCount++;
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Unregisters a finished load.
+   */
+  private synchronized void endLoad() {
+    pendingLoadCount--;
+    if (pendingLoadCount == 0)
+      notifyAll();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Counts a loaded or constructed document.
+   */
+  private synchronized void documentLoaded() {
+    loadedDocumentCount++;
+  }
+
+  //----------------------------------------------------------------------------
 
 }
\ No newline at end of file
@@ -0,0 +1,419 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.document;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import ag.ion.bion.officelayer.runtime.IOfficeProgressMonitor;
+
+import com.sun.star.io.XInputStream;
+import com.sun.star.io.XSeekable;
+import com.sun.star.lib.uno.helper.ComponentBase;
+
+/**
+ * Seekable XInputStream which reads lazily from a file. Streams are only copied into a 
+ * byte array up to a small threshold, larger streams are spooled into a temporary file, 
+ * so the heap does not grow with the size of the document. The office reads the stream 
+ * in chunks and seeks in it, each read is served by a positional read of the file channel.
+ * Files of the caller are mapped into memory, so reads and seeks are served straight 
+ * out of the mapping without any system call.
+ */
+public class FileXInputStreamAdapter extends ComponentBase implements XInputStream, XSeekable {
+
+  /** Streams up to this size are held in memory. */
+  public static final int        MEMORY_THRESHOLD      = 1024 * 1024;
+
+  private static final int       COPY_BUFFER_SIZE      = 64 * 1024;
+  private static final String    TEMP_FILE_PREFIX      = "noa-stream";  //$NON-NLS-1$
+  private static final String    TEMP_FILE_SUFFIX      = ".tmp";        //$NON-NLS-1$
+
+  private RandomAccessFile       randomAccessFile      = null;
+  private FileChannel            fileChannel           = null;
+  private MappedByteBuffer       mappedBuffer          = null;
+  private File                   tempFile              = null;
+
+  private long                   length                = 0;
+  private long                   position              = 0;
+
+  private StreamProgressReporter progressReporter      = null;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new FileXInputStreamAdapter. The file is mapped into memory if it is
+   * not larger than 2 GB. The file must not be truncated while it is mapped.
+   * 
+   * @param file file to be read
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @throws IOException if the file can not be opened
+   */
+  public FileXInputStreamAdapter(File file, IOfficeProgressMonitor officeProgressMonitor)
+      throws IOException {
+    this(file, false, officeProgressMonitor);
+    if (length <= Integer.MAX_VALUE) {
+      try {
+        mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      }
+      catch (IOException ioException) {
+        closeFile(randomAccessFile);
+        throw ioException;
+      }
+      catch (RuntimeException runtimeException) {
+        closeFile(randomAccessFile);
+        throw runtimeException;
+      }
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new FileXInputStreamAdapter.
+   * 
+   * @param file file to be read
+   * @param isTempFile information whether the file is deleted by the adapter
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @throws IOException if the file can not be opened
+   */
+  private FileXInputStreamAdapter(File file, boolean isTempFile,
+      IOfficeProgressMonitor officeProgressMonitor) throws IOException {
+    randomAccessFile = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+    fileChannel = randomAccessFile.getChannel();
+    try {
+      length = fileChannel.size();
+    }
+    catch (IOException ioException) {
+      closeFile(randomAccessFile);
+      throw ioException;
+    }
+    if (isTempFile) {
+      //an opened file can be deleted on UNIX systems, otherwise it is deleted on close
+      if (!file.delete())
+        tempFile = file;
+    }
+    progressReporter = new StreamProgressReporter(officeProgressMonitor, length,
+        "FileXInputStreamAdapter.readBytes"); //$NON-NLS-1$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Builds a seekable XInputStream for the submitted input stream. Small streams are 
+   * held in memory, larger streams are spooled into a temporary file which is deleted 
+   * when the stream is closed. The submitted stream is read completely but not closed.
+   * 
+   * @param inputStream input stream to be used
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @return seekable XInputStream for the submitted input stream
+   * 
+   * @throws IOException if the input stream can not be read or spooled
+   */
+  public static XInputStream createXInputStream(InputStream inputStream,
+      IOfficeProgressMonitor officeProgressMonitor) throws IOException {
+    if (inputStream instanceof FileInputStream) {
+      FileChannel fileChannel = ((FileInputStream) inputStream).getChannel();
+      if (fileChannel.size() - fileChannel.position() >= MEMORY_THRESHOLD)
+        return spool(null, 0, inputStream, officeProgressMonitor);
+    }
+
+    byte[] bytes = new byte[COPY_BUFFER_SIZE];
+    int count = 0;
+    int read = 0;
+    while (count < bytes.length || bytes.length < MEMORY_THRESHOLD) {
+      if (count == bytes.length) {
+        byte[] newBytes = new byte[bytes.length * 2];
+        System.arraycopy(bytes, 0, newBytes, 0, count);
+        bytes = newBytes;
+      }
+      read = inputStream.read(bytes, count, bytes.length - count);
+      if (read == -1) {
+        byte[] content = new byte[count];
+        System.arraycopy(bytes, 0, content, 0, count);
+        return new ByteArrayXInputStreamAdapter(officeProgressMonitor, content);
+      }
+      count += read;
+    }
+    return spool(bytes, count, inputStream, officeProgressMonitor);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads number of available bytes.
+   * 
+   * @return number of available bytes
+   * 
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public int available() throws com.sun.star.io.IOException {
+    checkOpen();
+    long available = length - position;
+    if (available > Integer.MAX_VALUE)
+      return Integer.MAX_VALUE;
+    return (int) available;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the stream.
+   * 
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public void closeInput() throws com.sun.star.io.IOException {
+    if (randomAccessFile == null)
+      return;
+    progressReporter.complete();
+    try {
+      randomAccessFile.close();
+    }
+    catch (IOException ioException) {
+      throw new com.sun.star.io.IOException(ioException.getMessage());
+    }
+    finally {
+      randomAccessFile = null;
+      fileChannel = null;
+      //the mapping is released by the garbage collector
+      mappedBuffer = null;
+      if (tempFile != null && !tempFile.delete())
+        tempFile.deleteOnExit();
+      tempFile = null;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads bytes from the stream.
+   * 
+   * @param buffer byte array to be used
+   * @param size number of bytes to be fetched
+   * 
+   * @return number of fetched bytes
+   * 
+   * @throws com.sun.star.io.BufferSizeExceededException if the buffer size was exceeded
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public int readBytes(byte[][] buffer, int size)
+      throws com.sun.star.io.BufferSizeExceededException, com.sun.star.io.IOException {
+    checkOpen();
+    if (size < 0)
+      throw new com.sun.star.io.BufferSizeExceededException("Buffer overflow."); //$NON-NLS-1$
+    long remain = length - position;
+    if (size > remain)
+      size = (int) remain;
+    if (buffer[0] == null || buffer[0].length != size)
+      buffer[0] = new byte[size];
+    if (mappedBuffer != null) {
+      ByteBuffer view = mappedBuffer.duplicate();
+      view.position((int) position);
+      view.get(buffer[0], 0, size);
+      position += size;
+      progressReporter.read(position, size);
+      return size;
+    }
+    try {
+      ByteBuffer byteBuffer = ByteBuffer.wrap(buffer[0], 0, size);
+      while (byteBuffer.hasRemaining()) {
+        if (fileChannel.read(byteBuffer, position + byteBuffer.position()) < 0)
+          throw new com.sun.star.io.IOException("Unexpected end of file."); //$NON-NLS-1$
+      }
+    }
+    catch (IOException ioException) {
+      throw new com.sun.star.io.IOException(ioException.getMessage());
+    }
+    position += size;
+    progressReporter.read(position, size);
+    return size;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads bytes from the stream.
+   * 
+   * @param buffer byte array to be used
+   * @param size number of bytes to be fetched
+   * 
+   * @return number of fetched bytes
+   * 
+   * @throws com.sun.star.io.BufferSizeExceededException if the buffer size was exceeded
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public int readSomeBytes(byte[][] buffer, int size)
+      throws com.sun.star.io.BufferSizeExceededException, com.sun.star.io.IOException {
+    return readBytes(buffer, size);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Skips bytes.
+   * 
+   * @param size number of bytes to be skipped
+   * 
+   * @throws com.sun.star.io.BufferSizeExceededException if the buffer size was exceeded
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public void skipBytes(int size)
+      throws com.sun.star.io.BufferSizeExceededException, com.sun.star.io.IOException {
+    checkOpen();
+    if (size < 0 || size > length - position)
+      throw new com.sun.star.io.BufferSizeExceededException("Buffer overflow."); //$NON-NLS-1$
+    position += size;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns length of the stream.
+   *
+   * @return length of the stream
+   *
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public long getLength() throws com.sun.star.io.IOException {
+    checkOpen();
+    return length;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns current position.
+   *
+   * @return current position
+   *
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public long getPosition() throws com.sun.star.io.IOException {
+    checkOpen();
+    return position;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Seeks position.
+   *
+   * @param position position to be used
+   *
+   * @throws com.sun.star.lang.IllegalArgumentException if the seek position is invalid
+   * @throws com.sun.star.io.IOException if any I/O related exception occurs
+   */
+  public void seek(long position) throws com.sun.star.lang.IllegalArgumentException,
+      com.sun.star.io.IOException {
+    checkOpen();
+    if (position < 0 || position > length)
+      throw new com.sun.star.lang.IllegalArgumentException("Invalid seek position."); //$NON-NLS-1$
+    this.position = position;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Checks whether the stream is open.
+   * 
+   * @throws com.sun.star.io.IOException if the stream was closed
+   */
+  private void checkOpen() throws com.sun.star.io.IOException {
+    if (fileChannel == null)
+      throw new com.sun.star.io.IOException("The stream was closed."); //$NON-NLS-1$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Spools the submitted bytes and the rest of the submitted input stream into a
+   * temporary file.
+   * 
+   * @param bytes bytes which were already read from the input stream (can be null)
+   * @param count number of bytes which were already read from the input stream
+   * @param inputStream input stream to be spooled
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * 
+   * @return XInputStream of the temporary file
+   * 
+   * @throws IOException if the input stream can not be spooled
+   */
+  private static XInputStream spool(byte[] bytes, int count, InputStream inputStream,
+      IOfficeProgressMonitor officeProgressMonitor) throws IOException {
+    File file = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+    boolean spooled = false;
+    try {
+      FileOutputStream fileOutputStream = new FileOutputStream(file);
+      try {
+        if (bytes != null)
+          fileOutputStream.write(bytes, 0, count);
+        if (inputStream instanceof FileInputStream) {
+          FileChannel source = ((FileInputStream) inputStream).getChannel();
+          FileChannel target = fileOutputStream.getChannel();
+          long size = source.size() - source.position();
+          long transferred = 0;
+          while (transferred < size) {
+            long chunk = source.transferTo(source.position() + transferred,
+                size - transferred,
+                target);
+            if (chunk <= 0)
+              break;
+            transferred += chunk;
+          }
+          source.position(source.position() + transferred);
+        }
+        else {
+          byte[] buffer = new byte[COPY_BUFFER_SIZE];
+          int read = 0;
+          while ((read = inputStream.read(buffer)) != -1)
+            fileOutputStream.write(buffer, 0, read);
+        }
+      }
+      finally {
+        fileOutputStream.close();
+      }
+      XInputStream xInputStream = new FileXInputStreamAdapter(file, true, officeProgressMonitor);
+      spooled = true;
+      return xInputStream;
+    }
+    finally {
+      if (!spooled)
+        file.delete();
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted file after the adapter could not be constructed.
+   * 
+   * @param randomAccessFile file to be closed
+   */
+  private static void closeFile(RandomAccessFile randomAccessFile) {
+    try {
+      randomAccessFile.close();
+    }
+    catch (IOException ioException) {
+      //the original exception is reported
+    }
+  }
+
+  //----------------------------------------------------------------------------
+
+}
@@ -40,6 +40,8 @@ package ag.ion.bion.officelayer.internal.document;
 
 import java.io.OutputStream;
 import java.net.URL;
+import java.util.Iterator;
+import java.util.Map;
 
 import ag.ion.bion.officelayer.document.DocumentException;
 import ag.ion.bion.officelayer.document.IDocument;
@@ -49,11 +51,11 @@ import ag.ion.bion.officelayer.filter.PDFFilter;
 import ag.ion.noa.ErrorCodeTranslator;
 import ag.ion.noa.NOAException;
 import ag.ion.noa.document.URLAdapter;
+import ag.ion.noa.internal.metrics.Instrumentation;
 
 import com.sun.star.beans.PropertyState;
 import com.sun.star.beans.PropertyValue;
 import com.sun.star.frame.XStorable;
-import com.sun.star.lib.uno.adapter.OutputStreamToXOutputStreamAdapter;
 import com.sun.star.task.ErrorCodeIOException;
 
 /**
@@ -151,7 +153,9 @@ public class PersistenceService implements IPersistenceService {
    */
   public void store() throws DocumentException {
     try {
+      long start = Instrumentation.start();
       xStorable.store();
+      Instrumentation.recordUnoCall("XStorable.store", start); //$NON-NLS-1$
     }
     catch (Throwable throwable) {
       String message = throwable.getMessage();
@@ -179,6 +183,7 @@ public class PersistenceService implements IPersistenceService {
     if (url == null)
       throw new DocumentException(Messages.getString("PersistenceService.error_url_invalid_message")); //$NON-NLS-1$
 
+    long methodStart = Instrumentation.start();
     try {
       url = URLAdapter.adaptURL(url);
       PropertyValue[] initialPropertyValues = document.getInitialProperties();
@@ -188,6 +193,7 @@ public class PersistenceService implements IPersistenceService {
           filterDefinition = initialPropertyValues[i].Value.toString();
       }
       boolean useFilter = filterDefinition != null && filterDefinition.length() > 0;
+      long start = Instrumentation.start();
       if (useFilter) {
         PropertyValue[] propertyValues = new PropertyValue[1];
         propertyValues[0] = new PropertyValue();
@@ -198,7 +204,9 @@ public class PersistenceService implements IPersistenceService {
       else {
         xStorable.storeAsURL(url, new PropertyValue[0]);
       }
+      Instrumentation.recordUnoCall("XStorable.storeAsURL", start); //$NON-NLS-1$
       document.setModified(false);
+      Instrumentation.recordMethod("PersistenceService.store", methodStart); //$NON-NLS-1$
     }
     catch (Throwable throwable) {
       String message = throwable.getMessage();
@@ -225,6 +233,7 @@ public class PersistenceService implements IPersistenceService {
    * @date 07.09.2006
    */
   public void store(OutputStream outputStream) throws DocumentException {
+    long methodStart = Instrumentation.start();
     document.fireDocumentEvent(IDocument.EVENT_ON_SAVE);
     try {
       storeInternal(outputStream);
@@ -241,6 +250,7 @@ public class PersistenceService implements IPersistenceService {
     }
     document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_DONE);
     document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_FINISHED);
+    Instrumentation.recordMethod("PersistenceService.store", methodStart); //$NON-NLS-1$
   }
 
   //----------------------------------------------------------------------------
@@ -256,6 +266,7 @@ public class PersistenceService implements IPersistenceService {
    * @date 07.09.2006
    */
   public void storeAs(OutputStream outputStream) throws NOAException {
+    long methodStart = Instrumentation.start();
     document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS);
     try {
       storeInternal(outputStream);
@@ -271,6 +282,7 @@ public class PersistenceService implements IPersistenceService {
       throw new NOAException(message, throwable);
     }
     document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS_DONE);
+    Instrumentation.recordMethod("PersistenceService.storeAs", methodStart); //$NON-NLS-1$
   }
 
   //----------------------------------------------------------------------------
@@ -285,6 +297,7 @@ public class PersistenceService implements IPersistenceService {
    * @author Andreas Bröker
    */
   public void export(String url, IFilter filter) throws DocumentException {
+    long methodStart = Instrumentation.start();
     if (url == null)
       throw new DocumentException(Messages.getString("PersistenceService.error_url_invalid_message")); //$NON-NLS-1$
 
@@ -312,7 +325,9 @@ public class PersistenceService implements IPersistenceService {
       document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS);
     try {
       url = URLAdapter.adaptURL(url);
+      long start = Instrumentation.start();
       xStorable.storeToURL(url, properties);
+      Instrumentation.recordUnoCall("XStorable.storeToURL", start); //$NON-NLS-1$
     }
     catch (Throwable throwable) {
       String message = throwable.getMessage();
@@ -327,6 +342,7 @@ public class PersistenceService implements IPersistenceService {
     }
     if (!filter.isExternalFilter())
       document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS_DONE);
+    Instrumentation.recordMethod("PersistenceService.export", methodStart); //$NON-NLS-1$
   }
 
   //----------------------------------------------------------------------------
@@ -342,46 +358,139 @@ public class PersistenceService implements IPersistenceService {
    * @date 25.08.2006
    */
   public void export(OutputStream outputStream, IFilter filter) throws NOAException {
+    long methodStart = Instrumentation.start();
     if (outputStream == null)
       throw new NOAException(Messages.getString("PersistenceService_error_message_invalid_output_stream")); //$NON-NLS-1$
 
     if (filter == null || !filter.isSupported(document))
       throw new NOAException(Messages.getString("PersistenceService.error_filter_invalid_message")); //$NON-NLS-1$
 
-    String filterDefinition = filter.getFilterDefinition(document);
-    OutputStreamToXOutputStreamAdapter streamAdapter = new OutputStreamToXOutputStreamAdapter(outputStream);
+    BufferedXOutputStreamAdapter streamAdapter = new BufferedXOutputStreamAdapter(outputStream,
+        "PersistenceService.export"); //$NON-NLS-1$
+    PropertyValue[] properties = createStreamExportProperties(filter);
+    properties[1].Value = streamAdapter;
+
+    if (!filter.isExternalFilter())
+      document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS);
+    try {
+      long start = Instrumentation.start();
+      xStorable.storeToURL("private:stream", properties); //$NON-NLS-1$
+      Instrumentation.recordUnoCall("XStorable.storeToURL", start); //$NON-NLS-1$
+      streamAdapter.complete();
+    }
+    catch (Throwable throwable) {
+      streamAdapter.release();
+      throw new NOAException(getExportErrorMessage(throwable), throwable);
+    }
+    if (!filter.isExternalFilter())
+      document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS_DONE);
+    Instrumentation.recordMethod("PersistenceService.export", methodStart); //$NON-NLS-1$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Exports document into several output streams in one pass. The keys of the submitted 
+   * map are the filters to be used, the values the output streams to be filled. The 
+   * save-as events are fired once for the whole pass. A failed export does not stop the 
+   * remaining exports, the first failure is reported after all exports were done.
+   * 
+   * @param filterStreams map of <code>IFilter</code> to <code>OutputStream</code> objects
+   * 
+   * @throws NOAException if the document can not be exported to one of the filters
+   */
+  public void exportAll(Map filterStreams) throws NOAException {
+    long methodStart = Instrumentation.start();
+    if (filterStreams == null || filterStreams.isEmpty())
+      throw new NOAException(Messages.getString("PersistenceService_error_message_invalid_output_stream")); //$NON-NLS-1$
 
+    int size = filterStreams.size();
+    OutputStream[] outputStreams = new OutputStream[size];
+    PropertyValue[][] properties = new PropertyValue[size][];
+    boolean fireEvents = false;
+    int index = 0;
+    for (Iterator iterator = filterStreams.entrySet().iterator(); iterator.hasNext(); index++) {
+      Map.Entry entry = (Map.Entry) iterator.next();
+      IFilter filter = (IFilter) entry.getKey();
+      outputStreams[index] = (OutputStream) entry.getValue();
+      if (outputStreams[index] == null)
+        throw new NOAException(Messages.getString("PersistenceService_error_message_invalid_output_stream")); //$NON-NLS-1$
+      if (filter == null || !filter.isSupported(document))
+        throw new NOAException(Messages.getString("PersistenceService.error_filter_invalid_message")); //$NON-NLS-1$
+      properties[index] = createStreamExportProperties(filter);
+      if (!filter.isExternalFilter())
+        fireEvents = true;
+    }
+
+    if (fireEvents)
+      document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS);
+    Throwable failure = null;
+    for (int i = 0; i < size; i++) {
+      BufferedXOutputStreamAdapter streamAdapter = new BufferedXOutputStreamAdapter(outputStreams[i],
+          "PersistenceService.exportAll"); //$NON-NLS-1$
+      properties[i][1].Value = streamAdapter;
+      try {
+        long start = Instrumentation.start();
+        xStorable.storeToURL("private:stream", properties[i]); //$NON-NLS-1$
+        Instrumentation.recordUnoCall("XStorable.storeToURL", start); //$NON-NLS-1$
+        streamAdapter.complete();
+      }
+      catch (Throwable throwable) {
+        streamAdapter.release();
+        if (failure == null)
+          failure = throwable;
+      }
+      properties[i][1].Value = null;
+    }
+    if (failure != null)
+      throw new NOAException(getExportErrorMessage(failure), failure);
+    if (fireEvents)
+      document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS_DONE);
+    Instrumentation.recordMethod("PersistenceService.exportAll", methodStart); //$NON-NLS-1$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Builds the properties for an export into a stream with the submitted filter. The
+   * output stream property is at index 1 and has to be set by the caller.
+   * 
+   * @param filter filter to be used
+   * 
+   * @return properties for an export into a stream
+   */
+  private PropertyValue[] createStreamExportProperties(IFilter filter) {
     PropertyValue[] properties = filter instanceof PDFFilter ? new PropertyValue[3]
         : new PropertyValue[2];
 
     properties[0] = new PropertyValue();
     properties[0].Name = "FilterName"; //$NON-NLS-1$
-    properties[0].Value = filterDefinition;
-    properties[1] = new PropertyValue("OutputStream", -1, streamAdapter, PropertyState.DIRECT_VALUE); //$NON-NLS-1$
+    properties[0].Value = filter.getFilterDefinition(document);
+    properties[1] = new PropertyValue("OutputStream", -1, null, PropertyState.DIRECT_VALUE); //$NON-NLS-1$
     if (filter instanceof PDFFilter) {
       properties[2] = new PropertyValue();
       properties[2].Name = "FilterData";
       properties[2].Value = ((PDFFilter) filter).getPDFFilterProperties().toPropertyValues();
     }
+    return properties;
+  }
 
-    if (!filter.isExternalFilter())
-      document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS);
-    try {
-      xStorable.storeToURL("private:stream", properties); //$NON-NLS-1$
-    }
-    catch (Throwable throwable) {
-      String message = throwable.getMessage();
-      if (throwable instanceof ErrorCodeIOException) {
-        message = ErrorCodeTranslator.getErrorCodeMessage(((ErrorCodeIOException) throwable).ErrCode);
-        if (message == null)
-          message = Messages.getString("PersistenceService.error_io_message", String.valueOf(((ErrorCodeIOException) throwable).ErrCode)); //$NON-NLS-1$
-      }
-      else if (message == null || message.length() == 0)
-        message = ERROR_MESSAGE;
-      throw new NOAException(message, throwable);
+  //----------------------------------------------------------------------------
+  /**
+   * Returns message for the submitted export failure.
+   * 
+   * @param throwable failure of the export
+   * 
+   * @return message for the submitted export failure
+   */
+  private String getExportErrorMessage(Throwable throwable) {
+    String message = throwable.getMessage();
+    if (throwable instanceof ErrorCodeIOException) {
+      message = ErrorCodeTranslator.getErrorCodeMessage(((ErrorCodeIOException) throwable).ErrCode);
+      if (message == null)
+        message = Messages.getString("PersistenceService.error_io_message", String.valueOf(((ErrorCodeIOException) throwable).ErrCode)); //$NON-NLS-1$
     }
-    if (!filter.isExternalFilter())
-      document.fireDocumentEvent(IDocument.EVENT_ON_SAVE_AS_DONE);
+    else if (message == null || message.length() == 0)
+      message = ERROR_MESSAGE;
+    return message;
   }
 
   //----------------------------------------------------------------------------
@@ -399,7 +508,8 @@ public class PersistenceService implements IPersistenceService {
     if (outputStream == null)
       return;
 
-    OutputStreamToXOutputStreamAdapter stream = new OutputStreamToXOutputStreamAdapter(outputStream);
+    BufferedXOutputStreamAdapter stream = new BufferedXOutputStreamAdapter(outputStream,
+        "PersistenceService.store"); //$NON-NLS-1$
 
     PropertyValue[] initialPropertyValues = document.getInitialProperties();
     String filterDefinition = null;
@@ -423,7 +533,15 @@ public class PersistenceService implements IPersistenceService {
       propertyValues[2].Value = filterDefinition;
     }
 
-    xStorable.storeToURL("private:stream", propertyValues); //$NON-NLS-1$
+    try {
+      long start = Instrumentation.start();
+      xStorable.storeToURL("private:stream", propertyValues); //$NON-NLS-1$
+      Instrumentation.recordUnoCall("XStorable.storeToURL", start); //$NON-NLS-1$
+      stream.complete();
+    }
+    finally {
+      stream.release();
+    }
     document.setModified(false);
   }
   //----------------------------------------------------------------------------
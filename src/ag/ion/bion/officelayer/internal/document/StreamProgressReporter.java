@@ -0,0 +1,154 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.document;
+
+import ag.ion.bion.officelayer.runtime.IOfficeProgressMonitor;
+
+import ag.ion.noa.internal.metrics.Instrumentation;
+
+/**
+ * Progress channel of the input streams which are read by the office. The office reads 
+ * a stream in many small chunks, therefore the progress monitor is only updated after 
+ * a number of bytes or an interval and the text of the monitor is only formatted for 
+ * these updates. The streamed bytes are recorded as transfer when the stream is closed.
+ */
+class StreamProgressReporter {
+
+  /** Minimal number of bytes between two updates of the progress monitor. */
+  public static final int        REPORT_BYTES          = 256 * 1024;
+  /** Minimal number of milliseconds between two updates of the progress monitor. */
+  public static final int        REPORT_INTERVAL       = 100;
+
+  private IOfficeProgressMonitor officeProgressMonitor = null;
+  private String                 name                  = null;
+
+  private long                   length                = 0;
+  private long                   counter               = 0;
+  private long                   reported              = 0;
+  private long                   reportTime            = 0;
+  private long                   byteCount             = 0;
+  private int                    buildCounter          = 0;
+  private long                   metricsStart          = 0;
+  private boolean                completed             = false;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new StreamProgressReporter and begins the task of the submitted progress 
+   * monitor.
+   * 
+   * @param officeProgressMonitor office progress monitor to be used (can be null)
+   * @param length length of the stream
+   * @param name name of the stream for the transfer metrics, for example 
+   * <code>FileXInputStreamAdapter.readBytes</code>
+   */
+  public StreamProgressReporter(IOfficeProgressMonitor officeProgressMonitor, long length,
+      String name) {
+    this.officeProgressMonitor = officeProgressMonitor;
+    this.length = length;
+    this.name = name;
+    metricsStart = Instrumentation.start();
+    if (officeProgressMonitor != null) {
+      int totalWork = length > Integer.MAX_VALUE ? IOfficeProgressMonitor.WORK_UNKNOWN
+          : (int) length;
+      officeProgressMonitor.beginTask(Messages.getString("ByteArrayXInputStreamAdapter_monitor_task_name"), totalWork); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reports a read of the stream. Bytes which are read again after a seek are not 
+   * counted twice by the progress monitor.
+   * 
+   * @param position position of the stream after the read
+   * @param size number of read bytes
+   */
+  public void read(long position, int size) {
+    byteCount += size;
+    if (officeProgressMonitor == null)
+      return;
+    if (position > counter) {
+      counter = position;
+      if (counter - reported >= REPORT_BYTES || counter >= length || isIntervalElapsed())
+        reportWork();
+    }
+    else if (counter >= length) {
+      buildCounter++;
+      if (isIntervalElapsed())
+        officeProgressMonitor.beginSubTask(Messages.getString("ByteArrayXInputStreamAdapter__monitor_integrating", new Integer(buildCounter))); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reports the pending progress and records the streamed bytes. Must be called when 
+   * the stream is closed, only the first call is recorded.
+   */
+  public void complete() {
+    if (completed)
+      return;
+    completed = true;
+    if (officeProgressMonitor != null && counter > reported)
+      reportWork();
+    Instrumentation.recordTransfer(name, byteCount, metricsStart);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of bytes which were read by the office, including bytes which 
+   * were read again after a seek.
+   * 
+   * @return number of bytes which were read by the office
+   */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reports the bytes which were read since the last update to the progress monitor.
+   */
+  private void reportWork() {
+    officeProgressMonitor.worked((int) (counter - reported));
+    reported = counter;
+    reportTime = System.currentTimeMillis();
+    officeProgressMonitor.beginSubTask(Messages.getString("ByteArrayXInputStreamAdapter_monitor_sub_task", new Object[] {new Long(counter), new Long(length)})); //$NON-NLS-1$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the report interval elapsed since the last update of 
+   * the progress monitor. Restarts the interval if it elapsed.
+   * 
+   * @return information whether the report interval elapsed
+   */
+  private boolean isIntervalElapsed() {
+    long time = System.currentTimeMillis();
+    if (time - reportTime < REPORT_INTERVAL)
+      return false;
+    reportTime = time;
+    return true;
+  }
+  //----------------------------------------------------------------------------
+
+}
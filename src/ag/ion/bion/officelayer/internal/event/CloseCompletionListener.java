@@ -0,0 +1,100 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.event;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.star.lang.EventObject;
+import com.sun.star.util.CloseVetoException;
+import com.sun.star.util.XCloseListener;
+
+/**
+ * Close listener which signals that the listened object was closed or disposed. It is 
+ * used in order to wait for a close which was vetoed and is completed later by the 
+ * owner of the object.
+ */
+public class CloseCompletionListener implements XCloseListener {
+
+  private CountDownLatch closed = new CountDownLatch(1);
+
+  //----------------------------------------------------------------------------
+  /**
+   * Is called when somewhere tries to close listened object.
+   * 
+   * @param eventObject source event object
+   * @param getsOwnership information about the ownership
+   * 
+   * @throws CloseVetoException never
+   */
+  public void queryClosing(EventObject eventObject, boolean getsOwnership)
+      throws CloseVetoException {
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Is called when the listened object is closed really.
+   * 
+   * @param eventObject event object
+   */
+  public void notifyClosing(EventObject eventObject) {
+    closed.countDown();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Is called when the listened object is disposed.
+   * 
+   * @param eventObject event object
+   */
+  public void disposing(EventObject eventObject) {
+    closed.countDown();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the listened object was closed or disposed.
+   * 
+   * @return information whether the listened object was closed or disposed
+   */
+  public boolean isClosed() {
+    return closed.getCount() == 0;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Waits until the listened object is closed or disposed.
+   * 
+   * @param timeout maximum time to wait in milliseconds
+   * 
+   * @return information whether the listened object was closed or disposed
+   * 
+   * @throws InterruptedException if the current thread was interrupted
+   */
+  public boolean await(long timeout) throws InterruptedException {
+    return closed.await(timeout, TimeUnit.MILLISECONDS);
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -59,6 +59,8 @@ public class Bookmark extends TextRange implements IBookmark, ITextRange {
 
   private XNamed        name         = null;
 
+  private BookmarkService bookmarkService = null;
+
   //----------------------------------------------------------------------------
   /**
    * Constructs new TextRange.
@@ -75,6 +77,21 @@ public class Bookmark extends TextRange implements IBookmark, ITextRange {
     name = bookmarkName;
   }
 
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new Bookmark which belongs to the submitted bookmark service.
+   * 
+   * @param textDocument text document to be used
+   * @param xTextRange OpenOffice.org XTextRange interface
+   * @param bookmarkName the name of the bookmark to be used
+   * @param bookmarkService bookmark service which indexed the bookmark
+   */
+  Bookmark(ITextDocument textDocument, XTextRange xTextRange, XNamed bookmarkName,
+      BookmarkService bookmarkService) {
+    this(textDocument, xTextRange, bookmarkName);
+    this.bookmarkService = bookmarkService;
+  }
+
   //----------------------------------------------------------------------------
   /**
    * Returns the name of the bookmark.
@@ -99,6 +116,8 @@ public class Bookmark extends TextRange implements IBookmark, ITextRange {
    */
   public void setName(String newName) {
     name.setName(newName);
+    if (bookmarkService != null)
+      bookmarkService.invalidate();
   }
 
   //----------------------------------------------------------------------------
@@ -38,9 +38,12 @@
  */
 package ag.ion.bion.officelayer.internal.text;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import ag.ion.bion.officelayer.event.IDocumentModifyListener;
+import ag.ion.bion.officelayer.event.IEvent;
 import ag.ion.bion.officelayer.text.IBookmark;
 import ag.ion.bion.officelayer.text.IBookmarkService;
 import ag.ion.bion.officelayer.text.ITextDocument;
@@ -53,14 +56,20 @@ import com.sun.star.text.XTextRange;
 import com.sun.star.uno.UnoRuntime;
 
 /**
- * Bookmark service of a text document.
+ * Bookmark service of a text document. The bookmarks are indexed by their names on the 
+ * first access. The index is dropped if the document reports a modification or a bookmark
+ * is renamed by NOA, and it is checked against the names of the bookmarks of the document
+ * whenever all bookmarks are requested.
  * 
  * @author Markus Krüger
  * @version $Revision: 11664 $
  */
 public class BookmarkService implements IBookmarkService {
 
-  private ITextDocument textDocument = null;
+  private ITextDocument           textDocument   = null;
+  private IDocumentModifyListener modifyListener = null;
+
+  private volatile Map            bookmarkIndex  = null;
 
   //----------------------------------------------------------------------------
   /**
@@ -86,7 +95,7 @@ public class BookmarkService implements IBookmarkService {
    * 
    * @author Markus Krüger
    */
-  public IBookmark[] getBookmarks() {
+  public synchronized IBookmark[] getBookmarks() {
     try {
       XBookmarksSupplier xBookmarksSupplier = (XBookmarksSupplier) UnoRuntime.queryInterface(XBookmarksSupplier.class,
           textDocument.getXTextDocument());
@@ -94,22 +103,8 @@ public class BookmarkService implements IBookmarkService {
         return new IBookmark[0];
       XNameAccess nameAccess = xBookmarksSupplier.getBookmarks();
       String[] names = nameAccess.getElementNames();
-      if (names.length < 1)
-        return new IBookmark[0];
-      List bookmarks = new ArrayList();
-      for (int i = 0; i < names.length; i++) {
-        Object bookmark = nameAccess.getByName(names[i]);
-        XTextContent xBookmarkContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
-            bookmark);
-        XNamed xNamed = (XNamed) UnoRuntime.queryInterface(XNamed.class, bookmark);
-        if (xBookmarkContent == null)
-          continue;
-        XTextRange xBookmarkRange = xBookmarkContent.getAnchor();
-        if (xBookmarkRange == null)
-          continue;
-        bookmarks.add(new Bookmark(textDocument, xBookmarkRange, xNamed));
-      }
-      return (IBookmark[]) bookmarks.toArray(new IBookmark[bookmarks.size()]);
+      Map index = updateBookmarkIndex(nameAccess, names);
+      return (IBookmark[]) index.values().toArray(new IBookmark[index.size()]);
     }
     catch (Exception exception) {
       return new IBookmark[0];
@@ -126,28 +121,127 @@ public class BookmarkService implements IBookmarkService {
    * 
    * @author Markus Krüger
    */
-  public IBookmark getBookmark(String name) {
+  public synchronized IBookmark getBookmark(String name) {
+    if (name == null)
+      return null;
+    Map bookmarkIndex = this.bookmarkIndex;
+    if (bookmarkIndex != null) {
+      IBookmark bookmark = (IBookmark) bookmarkIndex.get(name);
+      if (bookmark != null)
+        return bookmark;
+    }
     try {
-      if (name == null)
-        return null;
       XBookmarksSupplier xBookmarksSupplier = (XBookmarksSupplier) UnoRuntime.queryInterface(XBookmarksSupplier.class,
           textDocument.getXTextDocument());
       if (xBookmarksSupplier == null)
         return null;
-      Object bookmark = xBookmarksSupplier.getBookmarks().getByName(name);
-      XTextContent xBookmarkContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
-          bookmark);
-      XNamed xNamed = (XNamed) UnoRuntime.queryInterface(XNamed.class, bookmark);
-      if (xBookmarkContent == null)
-        return null;
-      XTextRange xBookmarkRange = xBookmarkContent.getAnchor();
-      if (xBookmarkRange == null)
-        return null;
-      return new Bookmark(textDocument, xBookmarkRange, xNamed);
+      XNameAccess nameAccess = xBookmarksSupplier.getBookmarks();
+      Map index = updateBookmarkIndex(nameAccess, nameAccess.getElementNames());
+      return (IBookmark) index.get(name);
     }
     catch (Exception exception) {
       return null;
     }
   }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Drops the index of the bookmarks. Called whenever NOA changes a bookmark.
+   */
+  void invalidate() {
+    bookmarkIndex = null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Brings the index of the bookmarks up to date with the submitted names of the bookmarks
+   * of the document. Indexed bookmarks are kept, only bookmarks which are missing in the 
+   * index are constructed.
+   * 
+   * @param nameAccess bookmarks of the document
+   * @param names names of the bookmarks of the document
+   * 
+   * @return index of all bookmarks by their names
+   * 
+   * @throws Exception if a bookmark can not be constructed
+   */
+  private Map updateBookmarkIndex(XNameAccess nameAccess, String[] names) throws Exception {
+    Map bookmarkIndex = this.bookmarkIndex;
+    if (bookmarkIndex != null && matches(bookmarkIndex, names))
+      return bookmarkIndex;
+    registerModifyListener();
+    Map index = new LinkedHashMap(names.length * 2);
+    for (int i = 0; i < names.length; i++) {
+      IBookmark bookmark = bookmarkIndex != null ? (IBookmark) bookmarkIndex.get(names[i]) : null;
+      if (bookmark == null)
+        bookmark = createBookmark(nameAccess.getByName(names[i]));
+      if (bookmark != null)
+        index.put(names[i], bookmark);
+    }
+    this.bookmarkIndex = index;
+    return index;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted index contains exactly the submitted names 
+   * in the same order.
+   * 
+   * @param index index of the bookmarks
+   * @param names names of the bookmarks of the document
+   * 
+   * @return information whether the index matches the names
+   */
+  private boolean matches(Map index, String[] names) {
+    if (index.size() != names.length)
+      return false;
+    Iterator iterator = index.keySet().iterator();
+    for (int i = 0; i < names.length; i++) {
+      if (!names[i].equals(iterator.next()))
+        return false;
+    }
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Registers the listener which drops the index if the document is modified. The 
+   * listener is removed by the document when it is closed.
+   */
+  private void registerModifyListener() {
+    if (modifyListener != null)
+      return;
+    modifyListener = new IDocumentModifyListener() {
+      public void reactOnUnspecificEvent(IEvent event) {
+        invalidate();
+      }
+
+      public void disposing(IEvent event) {
+        invalidate();
+        modifyListener = null;
+      }
+    };
+    textDocument.addDocumentModifyListener(modifyListener);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs the wrapper of the submitted bookmark.
+   * 
+   * @param bookmark OpenOffice.org bookmark
+   * 
+   * @return wrapper of the submitted bookmark or null if the bookmark has no anchor
+   */
+  private IBookmark createBookmark(Object bookmark) {
+    XTextContent xBookmarkContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+        bookmark);
+    if (xBookmarkContent == null)
+      return null;
+    XTextRange xBookmarkRange = xBookmarkContent.getAnchor();
+    if (xBookmarkRange == null)
+      return null;
+    XNamed xNamed = (XNamed) UnoRuntime.queryInterface(XNamed.class, bookmark);
+    return new Bookmark(textDocument, xBookmarkRange, xNamed, this);
+  }
   //----------------------------------------------------------------------------
-}
\ No newline at end of file
+}
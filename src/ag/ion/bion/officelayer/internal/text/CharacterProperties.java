@@ -151,7 +151,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public float getFontSize() throws TextException {
 		try {
-      return ((Float)getXPropertySet().getPropertyValue("CharHeight")).floatValue();
+      return ((Float)getPropertyValue("CharHeight")).floatValue();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -171,7 +171,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public void setFontSize(float fontSize) throws TextException {
 		try {
-      getXPropertySet().setPropertyValue("CharHeight",new Float(fontSize));
+      setPropertyValue("CharHeight",new Float(fontSize));
 		}
 		catch(Exception excep) {
       TextException textException = new TextException(excep.getMessage());
@@ -191,7 +191,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public boolean isFontBold() throws TextException {
 		try {
-			float help =  ((Float)getXPropertySet().getPropertyValue("CharWeight")).floatValue();
+			float help =  ((Float)getPropertyValue("CharWeight")).floatValue();
       if(help == FontWeight.BOLD) {
       	return true;
       }
@@ -218,7 +218,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	public void setFontBold(boolean param) throws TextException {
 		try {
 			float weight = param ? FontWeight.BOLD : (float)100.0;
-      getXPropertySet().setPropertyValue("CharWeight",new Float(weight));
+      setPropertyValue("CharWeight",new Float(weight));
 		}
 		catch(Exception excep) {
       TextException textException = new TextException(excep.getMessage());
@@ -238,7 +238,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public boolean isFontItalic() throws TextException {
 		try {
-			FontSlant help =  (FontSlant)getXPropertySet().getPropertyValue("CharPosture");
+			FontSlant help =  (FontSlant)getPropertyValue("CharPosture");
 		
 			if(help == FontSlant.ITALIC) {
       	return true;
@@ -266,10 +266,10 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	public void setFontItalic(boolean param) throws TextException {
 		try {
 			if (param) {
-        getXPropertySet().setPropertyValue("CharPosture", FontSlant.ITALIC);
+        setPropertyValue("CharPosture", FontSlant.ITALIC);
 			}
 			else {
-        getXPropertySet().setPropertyValue("CharPosture", FontSlant.NONE);
+        setPropertyValue("CharPosture", FontSlant.NONE);
 			}
 	  }
 	  catch(Exception exception) {
@@ -290,7 +290,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public boolean isFontUnderlined() throws TextException {
 		try {
-      short help =  ((Short)getXPropertySet().getPropertyValue("CharUnderline")).shortValue();
+      short help =  ((Short)getPropertyValue("CharUnderline")).shortValue();
       if(help == 0) {
       	return false;
       }
@@ -317,7 +317,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	public void setFontUnderline(boolean param) throws TextException  {
 		short help = (short)(param ? 1 : 0);
 		try {
-      getXPropertySet().setPropertyValue("CharUnderline",new Short(help));
+      setPropertyValue("CharUnderline",new Short(help));
 		}
 		catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -337,7 +337,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public int getFontColor() throws TextException {
 		try {
-      return ((Integer)getXPropertySet().getPropertyValue("CharColor")).intValue();
+      return ((Integer)getPropertyValue("CharColor")).intValue();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -357,7 +357,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
 	 */
 	public void setFontColor(int color)  throws TextException {
 		try {
-      getXPropertySet().setPropertyValue("CharColor",new Integer(color));
+      setPropertyValue("CharColor",new Integer(color));
 		}
 		catch(Exception excep) {
       TextException textException = new TextException(excep.getMessage());
@@ -378,7 +378,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
    */
   public String getFontName() throws TextException {
     try {
-      return getXPropertySet().getPropertyValue("CharFontName").toString();
+      return getPropertyValue("CharFontName").toString();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -399,7 +399,7 @@ public class CharacterProperties extends AbstractProperties implements ICharacte
    */
   public void setFontName(String font)  throws TextException {
     try {
-      getXPropertySet().setPropertyValue("CharFontName",font);
+      setPropertyValue("CharFontName",font);
     }
     catch(Exception excep) {
       TextException textException = new TextException(excep.getMessage());
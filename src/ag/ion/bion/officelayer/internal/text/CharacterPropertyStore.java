@@ -39,9 +39,14 @@
 package ag.ion.bion.officelayer.internal.text;
 
 import com.sun.star.awt.FontSlant;
+import com.sun.star.awt.FontUnderline;
+import com.sun.star.awt.FontWeight;
+import com.sun.star.beans.XMultiPropertySet;
+import com.sun.star.beans.XPropertySet;
 
 import ag.ion.bion.officelayer.beans.IProperties;
 import ag.ion.bion.officelayer.internal.beans.AbstractPropertyStore;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.bion.officelayer.text.ICharacterProperties;
 import ag.ion.bion.officelayer.text.ICharacterPropertyStore;
 import ag.ion.bion.officelayer.text.IParagraph;
@@ -59,6 +64,22 @@ import ag.ion.bion.officelayer.text.TextException;
  */
 public class CharacterPropertyStore extends AbstractPropertyStore implements ICharacterPropertyStore{
 	
+  /** Names of the stored properties, sorted for the XMultiPropertySet. */
+  private static final String[] PROPERTY_NAMES = new String[] {
+      "CharColor",
+      "CharFontName",
+      "CharHeight",
+      "CharPosture",
+      "CharUnderline",
+      "CharWeight",
+  };
+  
+  private static final int COLOR     = 0;
+  private static final int FONT_NAME = 1;
+  private static final int HEIGHT    = 2;
+  private static final int POSTURE   = 3;
+  private static final int UNDERLINE = 4;
+  private static final int WEIGHT    = 5;
 	
 	private float fontSize = -1;
 	private boolean fontBold = false;
@@ -68,6 +89,8 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
   private String fontName = null;
   
   private IProperties properties = null;
+  
+  private boolean[] changed = new boolean[PROPERTY_NAMES.length];
 	
 	//----------------------------------------------------------------------------	
 	/**
@@ -80,9 +103,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 	 * @author Sebastian Rösgen
 	 */
 	public CharacterPropertyStore(IParagraph origin) throws TextException {
-    ICharacterProperties characterProperties = origin.getCharacterProperties();
-    this.properties = characterProperties;
-		fillStorage(characterProperties);
+    this(origin.getCharacterProperties());
 	}
 	//----------------------------------------------------------------------------
 	/**
@@ -96,11 +117,21 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
    * @author Markus Krüger
 	 */
 	public CharacterPropertyStore(ITextCursor origin) throws TextException{
-    ICharacterProperties characterProperties = origin.getCharacterProperties();
-    this.properties = characterProperties;
-    fillStorage(characterProperties);
+    this(origin.getCharacterProperties());
 	}
 	//----------------------------------------------------------------------------
+  /**
+   * Constructor for a character property store.
+   * 
+   * @param characterProperties the character properties to be stored
+   * 
+   * @throws TextException if any error occurs
+   */
+  public CharacterPropertyStore(ICharacterProperties characterProperties) throws TextException {
+    this.properties = characterProperties;
+    fillStorage(characterProperties);
+  }
+  //----------------------------------------------------------------------------
   /**
    * Returns the properties.
    * 
@@ -136,6 +167,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 	 */
 	public void setFontSize(float fontSize) throws TextException {
 		this.fontSize = fontSize;
+		changed[HEIGHT] = true;
 	}
   //----------------------------------------------------------------------------
 	/**
@@ -162,6 +194,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 	 */
 	public void setFontBold(boolean param) throws TextException {
 		fontBold = param;
+		changed[WEIGHT] = true;
 	}
   //----------------------------------------------------------------------------
 	/**
@@ -175,7 +208,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 	 */
 	public boolean isFontItalic() throws TextException {
 		if (fontItalic != null) {
-			if (fontItalic == FontSlant.ITALIC) {
+			if (fontItalic.getValue() == FontSlant.ITALIC_value) {
 				return true;
 			}
 			else {
@@ -203,6 +236,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 		else {
 			fontItalic = FontSlant.NONE;
 		}
+		changed[POSTURE] = true;
 	}
   //----------------------------------------------------------------------------
 	/**
@@ -229,6 +263,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 	 */
 	public void setFontUnderline(boolean param) throws TextException  {
 		this.fontUnderlined = param;
+		changed[UNDERLINE] = true;
 	}
   //----------------------------------------------------------------------------
 	/**
@@ -255,6 +290,7 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
 	 */
 	public void setFontColor(int color)  throws TextException {
 		this.fontColor = color;
+		changed[COLOR] = true;
 	}
   //----------------------------------------------------------------------------
   /**
@@ -283,16 +319,123 @@ public class CharacterPropertyStore extends AbstractPropertyStore implements ICh
    */
   public void setFontName(String fontName)  throws TextException {
     this.fontName = fontName;
+    changed[FONT_NAME] = true;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Applies the attributes which were set on this store to the submitted character 
+   * properties, for example of a text cursor or paragraph. All attributes are applied 
+   * with one call, so a store can be used to format many text ranges in the same way.
+   * 
+   * @param characterProperties character properties to be formatted
+   * 
+   * @throws TextException if the attributes can not be applied
+   */
+  public void applyTo(ICharacterProperties characterProperties) throws TextException {
+    if(characterProperties == null)
+      throw new TextException("The submitted character properties are not valid.");
+    int count = 0;
+    for(int i=0; i<changed.length; i++) {
+      if(changed[i])
+        count++;
+    }
+    if(count == 0)
+      return;
+    String[] names = new String[count];
+    Object[] values = new Object[count];
+    for(int i=0, j=0; i<changed.length; i++) {
+      if(changed[i]) {
+        names[j] = PROPERTY_NAMES[i];
+        values[j++] = getValue(i);
+      }
+    }
+    XMultiPropertySet xMultiPropertySet = getXMultiPropertySet(characterProperties);
+    if(xMultiPropertySet != null) {
+      try {
+        xMultiPropertySet.setPropertyValues(names, values);
+        return;
+      }
+      catch(Exception exception) {
+        //set the attributes one by one in order to report the failing attribute
+      }
+    }
+    if(changed[COLOR])
+      characterProperties.setFontColor(fontColor);
+    if(changed[FONT_NAME])
+      characterProperties.setFontName(fontName);
+    if(changed[HEIGHT])
+      characterProperties.setFontSize(fontSize);
+    if(changed[POSTURE])
+      characterProperties.setFontItalic(fontItalic.getValue() == FontSlant.ITALIC_value);
+    if(changed[UNDERLINE])
+      characterProperties.setFontUnderline(fontUnderlined);
+    if(changed[WEIGHT])
+      characterProperties.setFontBold(fontBold);
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the UNO value of the stored property with the submitted index.
+   * 
+   * @param index index of the property
+   * 
+   * @return UNO value of the property
+   */
+  private Object getValue(int index) {
+    switch(index) {
+      case COLOR:
+        return new Integer(fontColor);
+      case FONT_NAME:
+        return fontName;
+      case HEIGHT:
+        return new Float(fontSize);
+      case POSTURE:
+        return fontItalic;
+      case UNDERLINE:
+        return new Short(fontUnderlined ? FontUnderline.SINGLE : FontUnderline.NONE);
+      default:
+        return new Float(fontBold ? FontWeight.BOLD : FontWeight.NORMAL);
+    }
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the XMultiPropertySet of the submitted character properties or null.
+   * 
+   * @param characterProperties character properties to be used
+   * 
+   * @return XMultiPropertySet of the submitted character properties or null
+   */
+  private static XMultiPropertySet getXMultiPropertySet(ICharacterProperties characterProperties) {
+    XPropertySet xPropertySet = characterProperties.getXPropertySet();
+    if(xPropertySet == null)
+      return null;
+    return (XMultiPropertySet)QueryInterfaceCache.queryInterface(XMultiPropertySet.class, xPropertySet);
   }
   //----------------------------------------------------------------------------
 	/**
-	 * Reads in the properties and stores them
+	 * Reads in the properties and stores them. All properties are read with one call 
+	 * if the XMultiPropertySet is supported.
 	 * 
 	 * @param properties the character properties that will be stored
      * 
      * @throws TextException if the property can not be set
 	 */
 	private void fillStorage(ICharacterProperties properties) throws TextException{
+    XMultiPropertySet xMultiPropertySet = getXMultiPropertySet(properties);
+    if(xMultiPropertySet != null) {
+      try {
+        Object[] values = xMultiPropertySet.getPropertyValues(PROPERTY_NAMES);
+        fontColor = ((Integer)values[COLOR]).intValue();
+        fontName = values[FONT_NAME].toString();
+        fontSize = ((Float)values[HEIGHT]).floatValue();
+        fontItalic = ((FontSlant)values[POSTURE]).getValue() == FontSlant.ITALIC_value ? FontSlant.ITALIC : FontSlant.NONE;
+        fontUnderlined = ((Short)values[UNDERLINE]).shortValue() != 0;
+        fontBold = ((Float)values[WEIGHT]).floatValue() == FontWeight.BOLD;
+        return;
+      }
+      catch(Exception exception) {
+        //read the properties one by one in order to report the failing property
+      }
+    }
 		fontColor = properties.getFontColor();
 		fontBold = properties.isFontBold();
 		boolean isItalic = properties.isFontItalic();
@@ -128,7 +128,7 @@ public class PageStyleProperties extends AbstractProperties implements IPageStyl
    */
   public void setIsLandscape(boolean isLandscape) throws TextException {
     try {
-      getXPropertySet().setPropertyValue("IsLandscape", new Boolean(isLandscape));
+      setPropertyValue("IsLandscape", new Boolean(isLandscape));
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -148,7 +148,7 @@ public class PageStyleProperties extends AbstractProperties implements IPageStyl
    */
   public boolean getIsLandscape() throws TextException {
     try {
-      return ((Boolean)getXPropertySet().getPropertyValue("IsLandscape")).booleanValue();
+      return ((Boolean)getPropertyValue("IsLandscape")).booleanValue();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -146,11 +146,11 @@ public class ParagraphProperties extends AbstractProperties implements IParagrap
   public void setBreakType(short breakType) throws TextException {
     try {
       if(breakType == IParagraphProperties.BREAK_TYPE_PAGE_AFTER)   
-        getXPropertySet().setPropertyValue("BreakType", BreakType.PAGE_AFTER);
+        setPropertyValue("BreakType", BreakType.PAGE_AFTER);
       else if(breakType == IParagraphProperties.BREAK_TYPE_PAGE_BEFORE)
-        getXPropertySet().setPropertyValue("BreakType", BreakType.PAGE_BEFORE);
+        setPropertyValue("BreakType", BreakType.PAGE_BEFORE);
       else if(breakType == IParagraphProperties.BREAK_TYPE_PAGE_BOTH)
-        getXPropertySet().setPropertyValue("BreakType", BreakType.PAGE_BOTH);
+        setPropertyValue("BreakType", BreakType.PAGE_BOTH);
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -170,7 +170,7 @@ public class ParagraphProperties extends AbstractProperties implements IParagrap
    */
   public short getBreakType() throws TextException {
     try {
-      BreakType breakType = (BreakType)getXPropertySet().getPropertyValue("BreakType");
+      BreakType breakType = (BreakType)getPropertyValue("BreakType");
       if(breakType == BreakType.PAGE_AFTER) 
         return IParagraphProperties.BREAK_TYPE_PAGE_AFTER;
       else if(breakType == BreakType.PAGE_BEFORE) 
@@ -197,7 +197,7 @@ public class ParagraphProperties extends AbstractProperties implements IParagrap
    */
   public short getParaAdjust() throws TextException {
   	try {
-      short paragraphAdjust = ((Short)getXPropertySet().getPropertyValue("ParaAdjust")).shortValue();
+      short paragraphAdjust = ((Short)getPropertyValue("ParaAdjust")).shortValue();
       if(paragraphAdjust == ParagraphAdjust.RIGHT_value) 
         return IParagraphProperties.ALIGN_RIGHT;
       else if(paragraphAdjust == ParagraphAdjust.LEFT_value) 
@@ -224,7 +224,7 @@ public class ParagraphProperties extends AbstractProperties implements IParagrap
    */
   public void setParaAdjust(short adjustValue) throws TextException {
   	try {
-      getXPropertySet().setPropertyValue("ParaAdjust",new Short(adjustValue));
+      setPropertyValue("ParaAdjust",new Short(adjustValue));
   	}
   	catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -247,7 +247,7 @@ public class ParagraphProperties extends AbstractProperties implements IParagrap
     if(name == null)
       return;
     try {
-      getXPropertySet().setPropertyValue("ParaStyleName", name);
+      setPropertyValue("ParaStyleName", name);
     }
     catch(Throwable throwable) {
       throw new NOAException(throwable);
@@ -264,7 +264,7 @@ public class ParagraphProperties extends AbstractProperties implements IParagrap
    */
   public String getParaStyleName() throws NOAException {
     try {
-      return (String)getXPropertySet().getPropertyValue("ParaStyleName");
+      return (String)getPropertyValue("ParaStyleName");
     }
     catch(Throwable throwable) {
       throw new NOAException(throwable);
@@ -49,12 +49,12 @@ import com.sun.star.container.XEnumeration;
 import com.sun.star.container.XEnumerationAccess;
 
 import com.sun.star.lang.IllegalArgumentException;
+import com.sun.star.lang.XServiceInfo;
 
 import com.sun.star.text.XTextContent;
 import com.sun.star.text.XTextCursor;
 import com.sun.star.text.XTextField;
 import com.sun.star.text.XTextRange;
-import com.sun.star.text.XTextRangeCompare;
 
 import com.sun.star.uno.Any;
 import com.sun.star.uno.UnoRuntime;
@@ -69,6 +69,11 @@ import java.util.ArrayList;
  */
 public class TextContentEnumeration implements ITextContentEnumeration {
 
+  private static final String PARAGRAPH_SERVICE          = "com.sun.star.text.Paragraph"; //$NON-NLS-1$
+  private static final String TEXT_PORTION_TYPE_PROPERTY = "TextPortionType"; //$NON-NLS-1$
+  private static final String TEXT_FIELD_PORTION         = "TextField"; //$NON-NLS-1$
+  private static final String TEXT_FIELD_PROPERTY        = "TextField"; //$NON-NLS-1$
+
   private ITextDocument textDocument = null;
   
   private XTextRange xTextRange = null;
@@ -98,7 +103,10 @@ public class TextContentEnumeration implements ITextContentEnumeration {
   }
   //----------------------------------------------------------------------------
   /**
-   * Returns all available text fields.
+   * Returns all available text fields in the order of the text. The paragraphs of the 
+   * range and their text portions are enumerated, so the costs depend on the number of 
+   * portions and not on the number of characters. Fields in text tables and frames are 
+   * not part of the range.
    * 
    * @return all available text fields
    * 
@@ -106,17 +114,27 @@ public class TextContentEnumeration implements ITextContentEnumeration {
    */
   public ITextField[] getTextFields() {
     ArrayList arrayList = new ArrayList();    
-    XTextCursor textCursor = xTextRange.getText().createTextCursorByRange(xTextRange.getStart());
-    XTextRangeCompare xTextRangeCompare = (XTextRangeCompare)UnoRuntime.queryInterface(XTextRangeCompare.class, xTextRange.getText());
     try {      
-      while(xTextRangeCompare.compareRegionEnds(textCursor.getStart(), xTextRange.getEnd()) != -1) {
-        XPropertySet propertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, textCursor);
-        Any any = (Any)propertySet.getPropertyValue("TextField");
-        XTextField xTextField = (XTextField)any.getObject();  
-        if(xTextField != null)
-          arrayList.add(new TextField(textDocument, xTextField));
-        if(!textCursor.goRight((short)1, false)) 
-          break;
+      XTextCursor textCursor = xTextRange.getText().createTextCursorByRange(xTextRange);
+      XEnumerationAccess paragraphAccess = (XEnumerationAccess)UnoRuntime.queryInterface(XEnumerationAccess.class, textCursor);
+      XEnumeration paragraphs = paragraphAccess.createEnumeration();
+      while(paragraphs.hasMoreElements()) {
+        Object paragraph = unwrap(paragraphs.nextElement());
+        XServiceInfo xServiceInfo = (XServiceInfo)UnoRuntime.queryInterface(XServiceInfo.class, paragraph);
+        if(xServiceInfo == null || !xServiceInfo.supportsService(PARAGRAPH_SERVICE))
+          continue;
+        XEnumerationAccess portionAccess = (XEnumerationAccess)UnoRuntime.queryInterface(XEnumerationAccess.class, paragraph);
+        if(portionAccess == null)
+          continue;
+        XEnumeration portions = portionAccess.createEnumeration();
+        while(portions.hasMoreElements()) {
+          XPropertySet propertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, portions.nextElement());
+          if(!TEXT_FIELD_PORTION.equals(propertySet.getPropertyValue(TEXT_PORTION_TYPE_PROPERTY)))
+            continue;
+          XTextField xTextField = (XTextField)UnoRuntime.queryInterface(XTextField.class, unwrap(propertySet.getPropertyValue(TEXT_FIELD_PROPERTY)));
+          if(xTextField != null)
+            arrayList.add(new TextField(textDocument, xTextField));
+        }
       }
     }
     catch(Exception exception) {
@@ -153,5 +171,18 @@ public class TextContentEnumeration implements ITextContentEnumeration {
     return (IParagraph[])arrayList.toArray(paragraphs);
   }
   //----------------------------------------------------------------------------
+  /**
+   * Returns the object of the submitted value if it is an UNO Any, otherwise the value.
+   * 
+   * @param value value to be used
+   * 
+   * @return object of the submitted value
+   */
+  private static Object unwrap(Object value) {
+    if(value instanceof Any)
+      return ((Any)value).getObject();
+    return value;
+  }
+  //----------------------------------------------------------------------------
   
 }
\ No newline at end of file
@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 
 import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.bion.officelayer.text.IParagraph;
 import ag.ion.bion.officelayer.text.ITextContent;
 import ag.ion.bion.officelayer.text.ITextContentService;
@@ -76,7 +77,6 @@ import com.sun.star.text.XTextRangeCompare;
 import com.sun.star.text.XTextTable;
 import com.sun.star.uno.Any;
 import com.sun.star.uno.AnyConverter;
-import com.sun.star.uno.UnoRuntime;
 
 /**
  * Content service implementation of a text document.
@@ -139,7 +139,7 @@ public class TextContentService implements ITextContentService {
       if (xMultiServiceFactory == null)
         throw new TextException("OpenOffice.org XMultiServiceFactory inteface not valid.");
       Object object = xMultiServiceFactory.createInstance("com.sun.star.text.Paragraph");
-      XTextContent xTextContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+      XTextContent xTextContent = (XTextContent) QueryInterfaceCache.queryInterface(XTextContent.class,
           object);
 
       return new Paragraph(textDocument, xTextContent);
@@ -170,13 +170,13 @@ public class TextContentService implements ITextContentService {
         throw new TextException("OpenOffice.org XMultiServiceFactory inteface not valid.");
 
       if (xBitmapContainer == null)
-        xBitmapContainer = (XNameContainer) UnoRuntime.queryInterface(XNameContainer.class,
+        xBitmapContainer = (XNameContainer) QueryInterfaceCache.queryInterface(XNameContainer.class,
             xMultiServiceFactory.createInstance("com.sun.star.drawing.BitmapTable"));
 
-      XTextContent xImage = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+      XTextContent xImage = (XTextContent) QueryInterfaceCache.queryInterface(XTextContent.class,
           xMultiServiceFactory.createInstance("com.sun.star.text.TextGraphicObject"));
 
-      XPropertySet xProps = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class, xImage);
+      XPropertySet xProps = (XPropertySet) QueryInterfaceCache.queryInterface(XPropertySet.class, xImage);
 
       String tempId = "tempImageId" + System.currentTimeMillis();
       xBitmapContainer.insertByName(tempId, graphicInfo.getUrl());
@@ -216,20 +216,20 @@ public class TextContentService implements ITextContentService {
         throw new TextException("OpenOffice.org XMultiServiceFactory interface not valid.");
 
       if (xTextShapeContainer == null)
-        xTextShapeContainer = (XNameContainer) UnoRuntime.queryInterface(XNameContainer.class,
+        xTextShapeContainer = (XNameContainer) QueryInterfaceCache.queryInterface(XNameContainer.class,
             xMultiServiceFactory.createInstance("com.sun.star.drawing.MarkerTable"));
 
       Object textShape = xMultiServiceFactory.createInstance("com.sun.star.text.TextFrame");
 
-      XTextContent xTextShape = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+      XTextContent xTextShape = (XTextContent) QueryInterfaceCache.queryInterface(XTextContent.class,
           textShape);
 
-      XPropertySet xProps = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class, xTextShape);
+      XPropertySet xProps = (XPropertySet) QueryInterfaceCache.queryInterface(XPropertySet.class, xTextShape);
 
       String tempId = "tempTextShapeId" + System.currentTimeMillis();
       xTextShapeContainer.insertByName(tempId, textInfo.getName());
 
-      XNamed xNamed = (XNamed) UnoRuntime.queryInterface(XNamed.class, xTextShape);
+      XNamed xNamed = (XNamed) QueryInterfaceCache.queryInterface(XNamed.class, xTextShape);
       xNamed.setName(textInfo.getName());
 
       xProps.setPropertyValue("AnchorType", textInfo.getAnchor());
@@ -271,7 +271,7 @@ public class TextContentService implements ITextContentService {
           textInfo);
 
       ////////
-      XText xShapeText = (XText) UnoRuntime.queryInterface(XText.class, textShape);
+      XText xShapeText = (XText) QueryInterfaceCache.queryInterface(XText.class, textShape);
       textDocumentTextShape.setXText(xShapeText);
       ////////
 
@@ -368,10 +368,10 @@ public class TextContentService implements ITextContentService {
         IParagraph paragraph = (IParagraph) textContent;
         IParagraph[] oldParagraphsBeforeInsert = getRealParagraphs();
         Object object = xMultiServiceFactory.createInstance("com.sun.star.text.TextTable");
-        XTextTable xTable = (XTextTable) UnoRuntime.queryInterface(XTextTable.class, object);
+        XTextTable xTable = (XTextTable) QueryInterfaceCache.queryInterface(XTextTable.class, object);
         xTable.initialize(1, 1);
         xText.insertTextContent(textRange.getXTextRange(), xTable, false);
-        XRelativeTextContentInsert xRelativeTextContentInsert = (XRelativeTextContentInsert) UnoRuntime.queryInterface(XRelativeTextContentInsert.class,
+        XRelativeTextContentInsert xRelativeTextContentInsert = (XRelativeTextContentInsert) QueryInterfaceCache.queryInterface(XRelativeTextContentInsert.class,
             xText);
         xRelativeTextContentInsert.insertTextContentAfter(paragraph.getXTextContent(), xTable);
         xText.removeTextContent(xTable);
@@ -407,7 +407,7 @@ public class TextContentService implements ITextContentService {
   public void insertTextContentBefore(ITextContent newTextContent, ITextContent textContent)
       throws TextException {
     try {
-      XRelativeTextContentInsert xRelativeTextContentInsert = (XRelativeTextContentInsert) UnoRuntime.queryInterface(XRelativeTextContentInsert.class,
+      XRelativeTextContentInsert xRelativeTextContentInsert = (XRelativeTextContentInsert) QueryInterfaceCache.queryInterface(XRelativeTextContentInsert.class,
           xText);
       IParagraph[] oldParagraphsBeforeInsert = getRealParagraphs();
       if (newTextContent instanceof ITextTable) {
@@ -455,7 +455,7 @@ public class TextContentService implements ITextContentService {
   public void insertTextContentAfter(ITextContent newTextContent, ITextContent textContent)
       throws TextException {
     try {
-      XRelativeTextContentInsert xRelativeTextContentInsert = (XRelativeTextContentInsert) UnoRuntime.queryInterface(XRelativeTextContentInsert.class,
+      XRelativeTextContentInsert xRelativeTextContentInsert = (XRelativeTextContentInsert) QueryInterfaceCache.queryInterface(XRelativeTextContentInsert.class,
           xText);
       IParagraph[] oldParagraphsBeforeInsert = getRealParagraphs();
       if (newTextContent instanceof ITextTable) {
@@ -479,7 +479,7 @@ public class TextContentService implements ITextContentService {
         }
         else {
           Object object = xMultiServiceFactory.createInstance("com.sun.star.text.TextTable");
-          XTextTable xTable = (XTextTable) UnoRuntime.queryInterface(XTextTable.class, object);
+          XTextTable xTable = (XTextTable) QueryInterfaceCache.queryInterface(XTextTable.class, object);
           xTable.initialize(1, 1);
           xText.insertTextContent(textContent.getXTextContent().getAnchor(), xTable, false);
           xRelativeTextContentInsert.insertTextContentAfter(newTextContent.getXTextContent(),
@@ -517,7 +517,7 @@ public class TextContentService implements ITextContentService {
    */
   public void convertLinkedImagesToEmbeded() throws TextException {
     try {
-      XTextGraphicObjectsSupplier graphicObjSupplier = (XTextGraphicObjectsSupplier) UnoRuntime.queryInterface(XTextGraphicObjectsSupplier.class,
+      XTextGraphicObjectsSupplier graphicObjSupplier = (XTextGraphicObjectsSupplier) QueryInterfaceCache.queryInterface(XTextGraphicObjectsSupplier.class,
           textDocument.getXTextDocument());
       XNameAccess nameAccess = graphicObjSupplier.getGraphicObjects();
       String[] names = nameAccess.getElementNames();
@@ -525,17 +525,17 @@ public class TextContentService implements ITextContentService {
         Any xImageAny = (Any) nameAccess.getByName(names[i]);
         Object xImageObject = xImageAny.getObject();
         XTextContent xImage = (XTextContent) xImageObject;
-        XServiceInfo xInfo = (XServiceInfo) UnoRuntime.queryInterface(XServiceInfo.class, xImage);
+        XServiceInfo xInfo = (XServiceInfo) QueryInterfaceCache.queryInterface(XServiceInfo.class, xImage);
         if (xInfo.supportsService("com.sun.star.text.TextGraphicObject")) {
-          XPropertySet xPropSet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+          XPropertySet xPropSet = (XPropertySet) QueryInterfaceCache.queryInterface(XPropertySet.class,
               xImage);
           String name = xPropSet.getPropertyValue("LinkDisplayName").toString();
           String graphicURL = xPropSet.getPropertyValue("GraphicURL").toString();
           //only ones that are not embedded
           if (graphicURL.indexOf("vnd.sun.") == -1) {
-            XMultiServiceFactory multiServiceFactory = (XMultiServiceFactory) UnoRuntime.queryInterface(XMultiServiceFactory.class,
+            XMultiServiceFactory multiServiceFactory = (XMultiServiceFactory) QueryInterfaceCache.queryInterface(XMultiServiceFactory.class,
                 textDocument.getXTextDocument());
-            XNameContainer xBitmapContainer = (XNameContainer) UnoRuntime.queryInterface(XNameContainer.class,
+            XNameContainer xBitmapContainer = (XNameContainer) QueryInterfaceCache.queryInterface(XNameContainer.class,
                 multiServiceFactory.createInstance("com.sun.star.drawing.BitmapTable"));
             if (!xBitmapContainer.hasByName(name)) {
               xBitmapContainer.insertByName(name, graphicURL);
@@ -634,7 +634,7 @@ public class TextContentService implements ITextContentService {
 
         XText text = newParagraph.getXTextContent().getAnchor().getText();
         text = textDocument.getTextService().getText().getXText();
-        XTextRangeCompare comparator = (XTextRangeCompare) UnoRuntime.queryInterface(XTextRangeCompare.class,
+        XTextRangeCompare comparator = (XTextRangeCompare) QueryInterfaceCache.queryInterface(XTextRangeCompare.class,
             text);
 
         if (comparator.compareRegionStarts(newParagraph.getXTextContent().getAnchor().getStart(),
@@ -653,14 +653,14 @@ public class TextContentService implements ITextContentService {
 
   // ----------------------------------------------------------------------------
   private IParagraph[] getRealParagraphs() throws Exception {
-    XEnumerationAccess xEnumerationAccess = (XEnumerationAccess) UnoRuntime.queryInterface(XEnumerationAccess.class,
+    XEnumerationAccess xEnumerationAccess = (XEnumerationAccess) QueryInterfaceCache.queryInterface(XEnumerationAccess.class,
         textDocument.getTextService().getText().getXText());
     XEnumeration xParagraphEnumeration = xEnumerationAccess.createEnumeration();
     List<IParagraph> realParagraphs = new ArrayList<IParagraph>();
     while (xParagraphEnumeration.hasMoreElements()) {
-      XTextContent xTextContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+      XTextContent xTextContent = (XTextContent) QueryInterfaceCache.queryInterface(XTextContent.class,
           xParagraphEnumeration.nextElement());
-      XServiceInfo xServiceInfo = (XServiceInfo) UnoRuntime.queryInterface(XServiceInfo.class,
+      XServiceInfo xServiceInfo = (XServiceInfo) QueryInterfaceCache.queryInterface(XServiceInfo.class,
           xTextContent);
       if (xServiceInfo.supportsService("com.sun.star.text.Paragraph")) {
         realParagraphs.add(new Paragraph(textDocument, xTextContent));
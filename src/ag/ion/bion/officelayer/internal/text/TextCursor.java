@@ -39,13 +39,15 @@
 package ag.ion.bion.officelayer.internal.text;
 
 import ag.ion.bion.officelayer.filter.IFilter;
-import ag.ion.bion.officelayer.internal.document.ByteArrayXInputStreamAdapter;
+import ag.ion.bion.officelayer.internal.document.FileXInputStreamAdapter;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.bion.officelayer.text.ICharacterProperties;
 import ag.ion.bion.officelayer.text.IPageCursor;
 import ag.ion.bion.officelayer.text.ITextCursor;
 import ag.ion.bion.officelayer.text.ITextDocument;
 import ag.ion.bion.officelayer.text.ITextRange;
 import ag.ion.bion.officelayer.text.IViewCursor;
+import ag.ion.bion.officelayer.text.TextException;
 
 import ag.ion.noa.NOAException;
 
@@ -65,7 +67,6 @@ import com.sun.star.text.XSentenceCursor;
 import com.sun.star.text.XTextCursor;
 import com.sun.star.text.XWordCursor;
 
-import com.sun.star.uno.UnoRuntime;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -119,9 +120,22 @@ public class TextCursor implements ITextCursor {
 	 * @author Miriam Sutter
 	 */
 	public ICharacterProperties getCharacterProperties() {
-		 XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xTextCursor);
+		 XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xTextCursor);
 	   return new CharacterProperties(xPropertySet);
 	}
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a store of the character properties of the cursor. The store is filled 
+   * with one call and can be applied to other cursors (see 
+   * {@link CharacterPropertyStore#applyTo(ICharacterProperties)}).
+   * 
+   * @return store of the character properties of the cursor
+   * 
+   * @throws TextException if the character properties can not be read
+   */
+  public CharacterPropertyStore getCharacterPropertyStore() throws TextException {
+    return new CharacterPropertyStore(this);
+  }
   //----------------------------------------------------------------------------
 	/**
 	 * Sets the cursor to the end position (wherever it is currently)
@@ -278,8 +292,8 @@ public class TextCursor implements ITextCursor {
    */
   public void insertPageBreak() throws NOAException {
     try {
-      XCell xCell = (XCell)UnoRuntime.queryInterface(XCell.class, xTextCursor.getText());
-      XPropertySet propertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xTextCursor);
+      XCell xCell = (XCell)QueryInterfaceCache.queryInterface(XCell.class, xTextCursor.getText());
+      XPropertySet propertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xTextCursor);
       propertySet.setPropertyValue("BreakType", BreakType.PAGE_AFTER);
       if(xCell == null) {
         xTextCursor.getText().insertControlCharacter(xTextCursor, ControlCharacter.PARAGRAPH_BREAK, false);
@@ -304,7 +318,7 @@ public class TextCursor implements ITextCursor {
     if(url == null)
       return;
     try {
-      XDocumentInsertable xDocumentInsertable = (XDocumentInsertable)UnoRuntime.queryInterface(XDocumentInsertable.class, xTextCursor);
+      XDocumentInsertable xDocumentInsertable = (XDocumentInsertable)QueryInterfaceCache.queryInterface(XDocumentInsertable.class, xTextCursor);
       if(xDocumentInsertable != null)
         xDocumentInsertable.insertDocumentFromURL(URLAdapter.adaptURL(url), new PropertyValue[0]);
     }
@@ -330,7 +344,7 @@ public class TextCursor implements ITextCursor {
     FileOutputStream outputStream = null;
     File tempFile = null;
     try {
-      XDocumentInsertable xDocumentInsertable = (XDocumentInsertable)UnoRuntime.queryInterface(XDocumentInsertable.class, xTextCursor);
+      XDocumentInsertable xDocumentInsertable = (XDocumentInsertable)QueryInterfaceCache.queryInterface(XDocumentInsertable.class, xTextCursor);
       if(xDocumentInsertable != null) {
         boolean useOld = true;
         if(useOld) {
@@ -347,7 +361,7 @@ public class TextCursor implements ITextCursor {
           PropertyValue[] loadProps = new PropertyValue[2]; 
           loadProps[0] = new PropertyValue();
           loadProps[0].Name = "InputStream";  //$NON-NLS-1$
-          loadProps[0].Value = new ByteArrayXInputStreamAdapter(inputStream,null);
+          loadProps[0].Value = FileXInputStreamAdapter.createXInputStream(inputStream,null);
   
           loadProps[1] = new PropertyValue(); 
           loadProps[1].Name = "FilterName";  //$NON-NLS-1$
@@ -393,7 +407,7 @@ public class TextCursor implements ITextCursor {
   public boolean supportsWordCursor() {
     if(this.xWordCursor != null)
       return true;
-    XWordCursor xWordCursor = (XWordCursor)UnoRuntime.queryInterface(XWordCursor.class, xTextCursor);
+    XWordCursor xWordCursor = (XWordCursor)QueryInterfaceCache.queryInterface(XWordCursor.class, xTextCursor);
     if(xWordCursor != null) {
       this.xWordCursor = xWordCursor;
       return true;
@@ -520,7 +534,7 @@ public class TextCursor implements ITextCursor {
   public boolean supportsSentenceCursor() {
     if(this.xSentenceCursor != null)
       return true;
-    XSentenceCursor xSentenceCursor = (XSentenceCursor)UnoRuntime.queryInterface(XSentenceCursor.class, xTextCursor);
+    XSentenceCursor xSentenceCursor = (XSentenceCursor)QueryInterfaceCache.queryInterface(XSentenceCursor.class, xTextCursor);
     if(xSentenceCursor != null) {
       this.xSentenceCursor = xSentenceCursor;
       return true;
@@ -643,7 +657,7 @@ public class TextCursor implements ITextCursor {
   public boolean supportsParagraphCursor() {
     if(this.xParagraphCursor != null)
       return true;
-    XParagraphCursor xParagraphCursor = (XParagraphCursor)UnoRuntime.queryInterface(XParagraphCursor.class, xTextCursor);
+    XParagraphCursor xParagraphCursor = (XParagraphCursor)QueryInterfaceCache.queryInterface(XParagraphCursor.class, xTextCursor);
     if(xParagraphCursor != null) {
       this.xParagraphCursor = xParagraphCursor;
       return true;
@@ -42,6 +42,7 @@ import ag.ion.bion.officelayer.document.AbstractDocument;
 import ag.ion.bion.officelayer.document.DocumentException;
 import ag.ion.bion.officelayer.document.IDocument;
 import ag.ion.bion.officelayer.internal.util.NumberFormatService;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.bion.officelayer.text.IPageService;
 import ag.ion.bion.officelayer.text.ITextDocument;
 import ag.ion.bion.officelayer.text.ITextFieldService;
@@ -61,7 +62,6 @@ import com.sun.star.frame.XModel;
 import com.sun.star.lang.XComponent;
 import com.sun.star.lang.XMultiServiceFactory;
 import com.sun.star.text.XTextDocument;
-import com.sun.star.uno.UnoRuntime;
 import com.sun.star.util.XNumberFormatsSupplier;
 import com.sun.star.util.XRefreshable;
 import com.sun.star.util.XSearchable;
@@ -100,10 +100,10 @@ public class TextDocument extends AbstractDocument implements ITextDocument {
    */
   public TextDocument(XTextDocument xTextDocument, PropertyValue[] initialProperties)
       throws IllegalArgumentException {
-    super((XComponent) UnoRuntime.queryInterface(XComponent.class, xTextDocument),
+    super((XComponent) QueryInterfaceCache.queryInterface(XComponent.class, xTextDocument),
         initialProperties);
     this.xTextDocument = xTextDocument;
-    this.xMultiServiceFactory = (XMultiServiceFactory) UnoRuntime.queryInterface(XMultiServiceFactory.class,
+    this.xMultiServiceFactory = (XMultiServiceFactory) QueryInterfaceCache.queryInterface(XMultiServiceFactory.class,
         xTextDocument);
   }
 
@@ -141,7 +141,7 @@ public class TextDocument extends AbstractDocument implements ITextDocument {
    * @throws Exception if any error occurs
    */
   public XMultiServiceFactory getMultiServiceFactory() throws Exception {
-    XMultiServiceFactory multiServiceFactory = (XMultiServiceFactory) UnoRuntime.queryInterface(XMultiServiceFactory.class,
+    XMultiServiceFactory multiServiceFactory = (XMultiServiceFactory) QueryInterfaceCache.queryInterface(XMultiServiceFactory.class,
         xTextDocument);
     return multiServiceFactory;
   }
@@ -226,7 +226,7 @@ public class TextDocument extends AbstractDocument implements ITextDocument {
    */
   public INumberFormatService getNumberFormatService() {
     if (numberFormatService == null) {
-      XNumberFormatsSupplier xNumberFormatsSupplier = (XNumberFormatsSupplier) UnoRuntime.queryInterface(XNumberFormatsSupplier.class,
+      XNumberFormatsSupplier xNumberFormatsSupplier = (XNumberFormatsSupplier) QueryInterfaceCache.queryInterface(XNumberFormatsSupplier.class,
           xTextDocument);
       numberFormatService = new NumberFormatService(this, xNumberFormatsSupplier);
 
@@ -260,7 +260,7 @@ public class TextDocument extends AbstractDocument implements ITextDocument {
    * @date 11.02.2008
    */
   public void update() {
-    ((XRefreshable) UnoRuntime.queryInterface(XRefreshable.class, xTextDocument)).refresh();
+    ((XRefreshable) QueryInterfaceCache.queryInterface(XRefreshable.class, xTextDocument)).refresh();
   }
 
   //----------------------------------------------------------------------------
@@ -273,7 +273,7 @@ public class TextDocument extends AbstractDocument implements ITextDocument {
    * @date 09.07.2006
    */
   public ISearchService getSearchService() {
-    XSearchable searchable = (XSearchable) UnoRuntime.queryInterface(XSearchable.class, xComponent);
+    XSearchable searchable = (XSearchable) QueryInterfaceCache.queryInterface(XSearchable.class, xComponent);
     return new SearchService(this, searchable);
   }
 
@@ -315,13 +315,13 @@ public class TextDocument extends AbstractDocument implements ITextDocument {
       if (zoomType == DocumentZoomType.BY_VALUE && (zoomValue < 20 || zoomValue > 600))
         throw new DocumentException("Invalid zoom value. Use values between 20 and 600.");
 
-      XModel xModel = (XModel) UnoRuntime.queryInterface(XModel.class, getXComponent());
+      XModel xModel = (XModel) QueryInterfaceCache.queryInterface(XModel.class, getXComponent());
       if (xModel != null) {
         XController xController = xModel.getCurrentController();
-        XSelectionSupplier selectionSupplier = (XSelectionSupplier) UnoRuntime.queryInterface(XSelectionSupplier.class,
+        XSelectionSupplier selectionSupplier = (XSelectionSupplier) QueryInterfaceCache.queryInterface(XSelectionSupplier.class,
             xController);
         if (selectionSupplier != null) {
-          XViewSettingsSupplier viewSettingsSupplier = (XViewSettingsSupplier) UnoRuntime.queryInterface(XViewSettingsSupplier.class,
+          XViewSettingsSupplier viewSettingsSupplier = (XViewSettingsSupplier) QueryInterfaceCache.queryInterface(XViewSettingsSupplier.class,
               xController);
           if (viewSettingsSupplier != null) {
             XPropertySet propertySet = viewSettingsSupplier.getViewSettings();
@@ -40,6 +40,7 @@ package ag.ion.bion.officelayer.internal.text;
 
 import ag.ion.bion.officelayer.event.IElementDisposedListener;
 import ag.ion.bion.officelayer.internal.event.ElementDisposeListenerWrapper;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 
 import ag.ion.bion.officelayer.text.AbstractTextComponent;
 import ag.ion.bion.officelayer.text.ITextDocument;
@@ -109,7 +110,7 @@ public class TextField extends AbstractTextComponent implements ITextField {
   public TextField(ITextDocument textDocument, XTextField xTextField) throws IllegalArgumentException {
     super(textDocument);
 
-    xDependentTextField = (XDependentTextField)UnoRuntime.queryInterface(XDependentTextField.class, xTextField);
+    xDependentTextField = (XDependentTextField)QueryInterfaceCache.queryInterface(XDependentTextField.class, xTextField);
     if(xDependentTextField == null)
       throw new IllegalArgumentException("The submitted OpenOffice.org XTextField interface is not valid");
   }  
@@ -200,7 +201,7 @@ public class TextField extends AbstractTextComponent implements ITextField {
    * @author Sebastian Rösgen
    */
   private void addEventListener(XEventListener xEventListener) {
-    XTextField xTextField = (XTextField)UnoRuntime.queryInterface(XTextField.class, xDependentTextField);
+    XTextField xTextField = (XTextField)QueryInterfaceCache.queryInterface(XTextField.class, xDependentTextField);
     xTextField.addEventListener(wrapper);
   }
   //----------------------------------------------------------------------------  
@@ -212,7 +213,7 @@ public class TextField extends AbstractTextComponent implements ITextField {
    * @author Sebastian Rösgen
    */
   private void removeEventListener(XEventListener xEventListener) {
-    XTextField xTextField = (XTextField)UnoRuntime.queryInterface(XTextField.class, xDependentTextField);
+    XTextField xTextField = (XTextField)QueryInterfaceCache.queryInterface(XTextField.class, xDependentTextField);
     xTextField.removeEventListener(wrapper);
   }
   //----------------------------------------------------------------------------
@@ -246,9 +247,9 @@ public class TextField extends AbstractTextComponent implements ITextField {
       else {   
         boolean stop = false;
         while(!stop) {
-          XPropertySet propertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xTextCursor);
+          XPropertySet propertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xTextCursor);
           Any value = (Any) propertySet.getPropertyValue("TextField");        
-          XDependentTextField tmpDependentTextField = (XDependentTextField)UnoRuntime.queryInterface(XDependentTextField.class, value);
+          XDependentTextField tmpDependentTextField = (XDependentTextField)QueryInterfaceCache.queryInterface(XDependentTextField.class, value);
           if(tmpDependentTextField != null) {
             Object master2 = tmpDependentTextField.getTextFieldMaster();
             if(UnoRuntime.areSame(master1,master2)) {
@@ -262,7 +263,7 @@ public class TextField extends AbstractTextComponent implements ITextField {
       xTextCursor.goRight((short)1,true);
       
       XController viewController = xTextDocument.getCurrentController();
-      XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)UnoRuntime.queryInterface(XTextViewCursorSupplier.class, viewController);
+      XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)QueryInterfaceCache.queryInterface(XTextViewCursorSupplier.class, viewController);
       XTextViewCursor xTextViewCursor = xTextViewCursorSupplier.getViewCursor();
       xTextViewCursor.gotoRange( xTextCursor, false );  */
     }
@@ -47,6 +47,7 @@ import ag.ion.bion.officelayer.text.ITextFieldMaster;
 import ag.ion.bion.officelayer.text.ITextFieldService;
 import ag.ion.bion.officelayer.text.IVariableTextFieldMaster;
 import ag.ion.bion.officelayer.text.TextException;
+import ag.ion.noa.internal.metrics.Instrumentation;
 
 import com.sun.star.beans.PropertyValue;
 import com.sun.star.beans.XPropertySet;
@@ -117,6 +118,7 @@ public class TextFieldService implements ITextFieldService {
 	 */
 	public ITextFieldMaster getUserTextFieldMaster(String name)
 			throws TextException {
+		long methodStart = Instrumentation.start();
 		try {
 			XTextFieldsSupplier xTextFieldsSupplier = (XTextFieldsSupplier) UnoRuntime
 					.queryInterface(XTextFieldsSupplier.class,
@@ -125,14 +127,17 @@ public class TextFieldService implements ITextFieldService {
 			Any any = null;
 
 			try {
+				long start = Instrumentation.start();
 				any = (Any) xNameAccess.getByName(USER_TEXTFIELD_MASTER_PREFIX
 						+ name);
+				Instrumentation.recordUnoCall("XNameAccess.getByName", start); //$NON-NLS-1$
 			} catch (NoSuchElementException noSuchElementException) {
 				return null;
 			}
 
 			XPropertySet xPropertySet = (XPropertySet) UnoRuntime
 					.queryInterface(XPropertySet.class, any);
+			Instrumentation.recordMethod("TextFieldService.getUserTextFieldMaster", methodStart); //$NON-NLS-1$
 			if (xPropertySet != null) {
 				return new TextFieldMaster(textDocument, xPropertySet);
 			} else {
@@ -39,6 +39,7 @@
 package ag.ion.bion.officelayer.internal.text;
 
 import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 
 import ag.ion.bion.officelayer.text.IPageStyle;
 import ag.ion.bion.officelayer.text.ITextDocument;
@@ -125,9 +126,9 @@ public class TextRange implements ITextRange {
     if(document == null || !(document instanceof ITextDocument))
     	throw new TextException("Text style not available");
   	try {
-      XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xTextRange);
+      XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xTextRange);
       String pageStyleName = xPropertySet.getPropertyValue("PageStyleName").toString();
-      XStyleFamiliesSupplier xStyleFamiliesSupplier = (XStyleFamiliesSupplier)UnoRuntime.queryInterface(XStyleFamiliesSupplier.class, ((ITextDocument)document).getXTextDocument());
+      XStyleFamiliesSupplier xStyleFamiliesSupplier = (XStyleFamiliesSupplier)QueryInterfaceCache.queryInterface(XStyleFamiliesSupplier.class, ((ITextDocument)document).getXTextDocument());
       XNameAccess xNameAccess = xStyleFamiliesSupplier.getStyleFamilies();
       Any any = (Any)xNameAccess.getByName("PageStyles");
       XNameContainer xNameContainer = (XNameContainer)any.getObject();
@@ -167,7 +168,7 @@ public class TextRange implements ITextRange {
   	if(document == null || !(document instanceof ITextDocument))
     	return null;
   	
-    XCell xCell = (XCell)UnoRuntime.queryInterface(XCell.class, xTextRange.getText());
+    XCell xCell = (XCell)QueryInterfaceCache.queryInterface(XCell.class, xTextRange.getText());
     if(xCell == null)
       return null;
     return new TextTableCell((ITextDocument)document, xCell);
@@ -196,17 +197,17 @@ public class TextRange implements ITextRange {
         ITextTableCell textRangeToCompareCell = textRangeToCompare.getCell();
         if(thisCompareRangeCell != null && textRangeToCompareCell == null) {
           XTextContent textTable = thisCompareRangeCell.getTextTable().getXTextContent();   
-          XSelectionSupplier selectionSupplier = (XSelectionSupplier)UnoRuntime.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
+          XSelectionSupplier selectionSupplier = (XSelectionSupplier)QueryInterfaceCache.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
           selectionSupplier.select(textTable);
-          XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)UnoRuntime.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
+          XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)QueryInterfaceCache.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
           xTextViewCursorSupplier.getViewCursor().goLeft((short)1,false);
           thisCompareRange = textDocument.getViewCursorService().getViewCursor().getTextCursorFromEnd().getEnd();
         }
         else if(textRangeToCompareCell != null && thisCompareRangeCell == null) {
           XTextContent textTable = textRangeToCompareCell.getTextTable().getXTextContent();   
-          XSelectionSupplier selectionSupplier = (XSelectionSupplier)UnoRuntime.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
+          XSelectionSupplier selectionSupplier = (XSelectionSupplier)QueryInterfaceCache.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
           selectionSupplier.select(textTable);
-          XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)UnoRuntime.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
+          XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)QueryInterfaceCache.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
           xTextViewCursorSupplier.getViewCursor().goLeft((short)1,false);
           textRangeToCompare = textDocument.getViewCursorService().getViewCursor().getTextCursorFromEnd().getEnd();
         }
@@ -234,22 +235,22 @@ public class TextRange implements ITextRange {
             }
           }
           else {
-            XSelectionSupplier selectionSupplier = (XSelectionSupplier)UnoRuntime.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
+            XSelectionSupplier selectionSupplier = (XSelectionSupplier)QueryInterfaceCache.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
             selectionSupplier.select(thisCompareRangeTable);
-            XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)UnoRuntime.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
+            XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier)QueryInterfaceCache.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
             xTextViewCursorSupplier.getViewCursor().goLeft((short)1,false);
             thisCompareRange = textDocument.getViewCursorService().getViewCursor().getTextCursorFromEnd().getEnd();
              
-            selectionSupplier = (XSelectionSupplier)UnoRuntime.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
+            selectionSupplier = (XSelectionSupplier)QueryInterfaceCache.queryInterface(XSelectionSupplier.class, textDocument.getXTextDocument().getCurrentController());
             selectionSupplier.select(textRangeToCompareTable);
-            xTextViewCursorSupplier = (XTextViewCursorSupplier)UnoRuntime.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
+            xTextViewCursorSupplier = (XTextViewCursorSupplier)QueryInterfaceCache.queryInterface(XTextViewCursorSupplier.class, textDocument.getXTextDocument().getCurrentController());
             xTextViewCursorSupplier.getViewCursor().goLeft((short)1,false);
             textRangeToCompare = textDocument.getViewCursorService().getViewCursor().getTextCursorFromEnd().getEnd();
           }
         }
       }
       XText text = thisCompareRange.getXTextRange().getText();    
-      XTextRangeCompare comparator = (XTextRangeCompare) UnoRuntime.queryInterface(XTextRangeCompare.class, text);
+      XTextRangeCompare comparator = (XTextRangeCompare) QueryInterfaceCache.queryInterface(XTextRangeCompare.class, text);
       try {
         return comparator.compareRegionStarts(thisCompareRange.getXTextRange().getStart(), textRangeToCompare.getXTextRange().getStart());
       }
@@ -46,6 +46,7 @@ import ag.ion.bion.officelayer.clone.ICloneService;
 import ag.ion.bion.officelayer.internal.text.table.TextTableCellRangeName;
 import ag.ion.bion.officelayer.internal.text.table.TextTableCloneService;
 import ag.ion.bion.officelayer.internal.text.table.TextTablePropertyStore;
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.bion.officelayer.text.AbstractTextComponent;
 import ag.ion.bion.officelayer.text.ITextDocument;
 import ag.ion.bion.officelayer.text.ITextRange;
@@ -61,6 +62,7 @@ import ag.ion.bion.officelayer.text.table.IFormulaService;
 import ag.ion.bion.officelayer.text.table.ITextTableCellRangeName;
 import ag.ion.bion.officelayer.text.table.ITextTablePropertyStore;
 import ag.ion.bion.officelayer.text.table.TextTableCellNameHelper;
+import ag.ion.noa.internal.metrics.Instrumentation;
 import ag.ion.noa.text.XInterfaceObjectSelection;
 
 import com.sun.star.beans.XPropertySet;
@@ -74,7 +76,6 @@ import com.sun.star.text.XTextSection;
 import com.sun.star.text.XTextTable;
 import com.sun.star.text.XTextTableCursor;
 import com.sun.star.text.XTextViewCursorSupplier;
-import com.sun.star.uno.UnoRuntime;
 
 /**
  * Table of an OpenOffice.org text document.
@@ -145,7 +146,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
   public ITextRange getTextRange() throws Exception {
     XTextContent textContent = getXTextContent();
     textDocument.setSelection(new XInterfaceObjectSelection(textContent));
-    XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier) UnoRuntime.queryInterface(XTextViewCursorSupplier.class,
+    XTextViewCursorSupplier xTextViewCursorSupplier = (XTextViewCursorSupplier) QueryInterfaceCache.queryInterface(XTextViewCursorSupplier.class,
         textDocument.getXTextDocument().getCurrentController());
     xTextViewCursorSupplier.getViewCursor().goLeft((short) 1, false);
     return textDocument.getViewCursorService().getViewCursor().getTextCursorFromEnd().getEnd();
@@ -160,7 +161,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    * @author Andreas Bröker
    */
   public ITextTableProperties getProperties() {
-    XPropertySet xPropertySet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+    XPropertySet xPropertySet = (XPropertySet) QueryInterfaceCache.queryInterface(XPropertySet.class,
         xTextTable);
     return new TextTableProperties(xPropertySet);
   }
@@ -174,7 +175,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    * @author Andreas Bröker
    */
   public String getName() {
-    XNamed xNamed = (XNamed) UnoRuntime.queryInterface(XNamed.class, xTextTable);
+    XNamed xNamed = (XNamed) QueryInterfaceCache.queryInterface(XNamed.class, xTextTable);
     return xNamed.getName();
   }
 
@@ -191,7 +192,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    */
   public void setCellData(String cellName, XTextContent xTextContent) throws Exception {
     XCell xCell = xTextTable.getCellByName(cellName);
-    XText xText = (XText) UnoRuntime.queryInterface(XText.class, xCell);
+    XText xText = (XText) QueryInterfaceCache.queryInterface(XText.class, xCell);
     xText.setString("");
     xText.insertTextContent(xText.getStart(), xTextContent, true);
   }
@@ -209,7 +210,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    */
   public void addCellData(String cellName, XTextContent xTextContent) throws Exception {
     XCell xCell = xTextTable.getCellByName(cellName);
-    XText xText = (XText) UnoRuntime.queryInterface(XText.class, xCell);
+    XText xText = (XText) QueryInterfaceCache.queryInterface(XText.class, xCell);
     xText.insertTextContent(xText.getEnd(), xTextContent, true);
   }
 
@@ -226,7 +227,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    */
   public void setCellData(String cellName, String content) throws Exception {
     XCell xCell = xTextTable.getCellByName(cellName);
-    XText xText = (XText) UnoRuntime.queryInterface(XText.class, xCell);
+    XText xText = (XText) QueryInterfaceCache.queryInterface(XText.class, xCell);
     xText.setString(content);
   }
 
@@ -243,7 +244,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    */
   public void addCellData(String cellName, String content) throws Exception {
     XCell xCell = xTextTable.getCellByName(cellName);
-    XText xText = (XText) UnoRuntime.queryInterface(XText.class, xCell);
+    XText xText = (XText) QueryInterfaceCache.queryInterface(XText.class, xCell);
     xText.getEnd().setString(content);
   }
 
@@ -509,7 +510,9 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    */
   public ITextTableCell getCell(String name) throws TextException {
     try {
+      long start = Instrumentation.start();
       XCell xCell = xTextTable.getCellByName(name);
+      Instrumentation.recordUnoCall("XTextTable.getCellByName", start); //$NON-NLS-1$
       if (xCell != null)
         return new TextTableCell(textDocument, xCell);
       else
@@ -579,7 +582,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
         lastRowIndex);
     try {
       if (xCellRange == null)
-        xCellRange = (XCellRange) UnoRuntime.queryInterface(XCellRange.class, xTextTable);
+        xCellRange = (XCellRange) QueryInterfaceCache.queryInterface(XCellRange.class, xTextTable);
       XCellRange newXCellRange = xCellRange.getCellRangeByPosition(firstColumnIndex,
           firstRowIndex,
           lastColumnIndex,
@@ -613,7 +616,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
   public ITextTableCellRange getCellRange(String cellRangeName) throws TextException {
     /*try {
       if(xCellRange == null)
-        xCellRange = (XCellRange)UnoRuntime.queryInterface(XCellRange.class, xTextTable);
+        xCellRange = (XCellRange)QueryInterfaceCache.queryInterface(XCellRange.class, xTextTable);
       XCellRange newXCellRange = xCellRange.getCellRangeByName(cellRangeName);
       TextTableCellRangeName textTableCellRangeName = new TextTableCellRangeName(cellRangeName);
       TextTableCellRange textTableCellRange = new TextTableCellRange(textDocument,newXCellRange, textTableCellRangeName);
@@ -640,13 +643,16 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    * @author Markus Krüger
    */
   public ITextTableRow[] getRows() {
+    long methodStart = Instrumentation.start();
     ITextTableRow[] textTableRow = new ITextTableRow[getRowCount()];
+    long start = Instrumentation.start();
     String[] cellNames = xTextTable.getCellNames();
+    Instrumentation.recordUnoCall("XTextTable.getCellNames", start); //$NON-NLS-1$
     int lastRowIndex = 0;
     String rangeName = "A1";
     String oldCellName = rangeName;
     if (xCellRange == null)
-      xCellRange = (XCellRange) UnoRuntime.queryInterface(XCellRange.class, xTextTable);
+      xCellRange = (XCellRange) QueryInterfaceCache.queryInterface(XCellRange.class, xTextTable);
     for (int i = 0; i < cellNames.length; i++) {
       int thisRowIndex = TextTableCellNameHelper.getRowIndex(cellNames[i]);
       if (thisRowIndex != lastRowIndex) {
@@ -670,6 +676,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
         textTableCellRangeName);
     textTableRow[lastRowIndex] = new TextTableRow(textTableCellRange);
 
+    Instrumentation.recordMethod("TextTable.getRows", methodStart); //$NON-NLS-1$
     return textTableRow;
   }
 
@@ -700,11 +707,14 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
    * @author Markus Krüger
    */
   public ITextTableRow getRow(int index) {
+    long methodStart = Instrumentation.start();
     if (xCellRange == null)
-      xCellRange = (XCellRange) UnoRuntime.queryInterface(XCellRange.class, xTextTable);
+      xCellRange = (XCellRange) QueryInterfaceCache.queryInterface(XCellRange.class, xTextTable);
     ITextTableRow textTableRow = null;
     try {
+      long start = Instrumentation.start();
       String[] cellNames = xTextTable.getCellNames();
+      Instrumentation.recordUnoCall("XTextTable.getCellNames", start); //$NON-NLS-1$
       String endCellName = "A" + (index + 1);
       for (int i = 0; i < cellNames.length; i++) {
         if (TextTableCellNameHelper.getRowIndex(cellNames[i]) == index) {
@@ -723,6 +733,7 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
     catch (Exception exception) {
       //do nothing      
     }
+    Instrumentation.recordMethod("TextTable.getRow", methodStart); //$NON-NLS-1$
     return textTableRow;
   }
 
@@ -891,15 +902,15 @@ public class TextTable extends AbstractTextComponent implements ITextTable {
         ITextDocument textDocument = getTextDocument();
         if (textDocument.isOpen()) {
           XCell cell = getXTextTable().getCellByName(firstCell);
-          XPropertySet xPropertySet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+          XPropertySet xPropertySet = (XPropertySet) QueryInterfaceCache.queryInterface(XPropertySet.class,
               cell);
           if (xPropertySet != null) {
             Object value = xPropertySet.getPropertyValue("TextSection");
             boolean select = true;
-            XTextSection xTextSection = (XTextSection) UnoRuntime.queryInterface(XTextSection.class,
+            XTextSection xTextSection = (XTextSection) QueryInterfaceCache.queryInterface(XTextSection.class,
                 value);
             if (xTextSection != null) {
-              XPropertySet xTextSectionPropertySet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+              XPropertySet xTextSectionPropertySet = (XPropertySet) QueryInterfaceCache.queryInterface(XPropertySet.class,
                   xTextSection);
               if (xTextSectionPropertySet != null) {
                 Boolean visible = (Boolean) xTextSectionPropertySet.getPropertyValue("IsVisible");
@@ -38,6 +38,7 @@
  */
 package ag.ion.bion.officelayer.internal.text;
 
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
 import ag.ion.bion.officelayer.text.AbstractTextComponent;
 import ag.ion.bion.officelayer.text.ICharacterProperties;
 import ag.ion.bion.officelayer.text.ICharacterPropertyStore;
@@ -73,7 +74,6 @@ import com.sun.star.text.XText;
 import com.sun.star.text.XTextTable;
 
 import com.sun.star.uno.Any;
-import com.sun.star.uno.UnoRuntime;
 
 /**
  * Cell of a table in a text document.
@@ -143,7 +143,7 @@ public class TextTableCell extends AbstractTextComponent implements ITextTableCe
    */
   public ITextTableCellName getName() {
   	if(textTableCellName == null) {
-	    XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xCell);
+	    XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xCell);
 	    try {        
 	      textTableCellName = new TextTableCellName(xPropertySet.getPropertyValue("CellName").toString());
 	    }
@@ -167,8 +167,8 @@ public class TextTableCell extends AbstractTextComponent implements ITextTableCe
   public ITextTable getTextTable() throws TextException {
     if(textTable == null) {
       try {
-        XText xText = (XText)UnoRuntime.queryInterface(XText.class, xCell);
-        XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xText.getStart());
+        XText xText = (XText)QueryInterfaceCache.queryInterface(XText.class, xCell);
+        XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xText.getStart());
         Any any = (Any)xPropertySet.getPropertyValue("TextTable");
         XTextTable xTextTable = (XTextTable)any.getObject();
         textTable =  new TextTable(textDocument, xTextTable);
@@ -198,7 +198,7 @@ public class TextTableCell extends AbstractTextComponent implements ITextTableCe
     double value = xCell.getValue();
     if(value != 0)
       return ITextTableCell.TYPE_VALUE;
-    XText xText = (XText)UnoRuntime.queryInterface(XText.class, xCell);
+    XText xText = (XText)QueryInterfaceCache.queryInterface(XText.class, xCell);
     String content = xText.getString();
     if(content.length() == 0)
       return ITextTableCell.TYPE_EMPTY;
@@ -222,9 +222,9 @@ public class TextTableCell extends AbstractTextComponent implements ITextTableCe
    */
   public ITextService getTextService() {
     if(textService == null) {
-      XText xText = (XText)UnoRuntime.queryInterface(XText.class, xCell);
+      XText xText = (XText)QueryInterfaceCache.queryInterface(XText.class, xCell);
       XMultiServiceFactory xMultiServiceFactory = 
-        (XMultiServiceFactory)UnoRuntime.queryInterface(
+        (XMultiServiceFactory)QueryInterfaceCache.queryInterface(
             XMultiServiceFactory.class, getTextDocument().getXTextDocument());
       textService = new TextService(textDocument, xMultiServiceFactory, xText);
     }
@@ -240,7 +240,7 @@ public class TextTableCell extends AbstractTextComponent implements ITextTableCe
    */
   public ITextTableCellProperties getProperties() {
     if(textTableCellProperties == null) {
-      XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, xCell);
+      XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, xCell);
       textTableCellProperties = new TextTableCellProperties(xPropertySet);
     }
     return textTableCellProperties;
@@ -287,7 +287,7 @@ public class TextTableCell extends AbstractTextComponent implements ITextTableCe
    */
   public IPageStyle getPageStyle() throws TextException {
     if(textRange == null) {
-      XText xText = (XText)UnoRuntime.queryInterface(XText.class, xCell);
+      XText xText = (XText)QueryInterfaceCache.queryInterface(XText.class, xCell);
       textRange = new TextRange(textDocument, xText.getStart());
     }
     return textRange.getPageStyle();
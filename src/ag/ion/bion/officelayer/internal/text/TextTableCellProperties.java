@@ -168,7 +168,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
   public String getCellStyle() throws TextException {
     try {
-      return getXPropertySet().getPropertyValue("CellStyle").toString();
+      return getPropertyValue("CellStyle").toString();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -188,7 +188,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
   public void setNumberFormat(int numberFormat) throws TextException {
     try {
-      getXPropertySet().setPropertyValue("NumberFormat", new Integer(numberFormat));
+      setPropertyValue("NumberFormat", new Integer(numberFormat));
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -208,7 +208,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
   public int getNumberFormat() throws TextException {
     try {
-      return ((Integer)getXPropertySet().getPropertyValue("NumberFormat")).intValue();
+      return ((Integer)getPropertyValue("NumberFormat")).intValue();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -228,7 +228,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
   public int getBackColor() throws TextException {
   	try {
-      return ((Integer)getXPropertySet().getPropertyValue("BackColor")).intValue();
+      return ((Integer)getPropertyValue("BackColor")).intValue();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -248,7 +248,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
   public short getVertOrient() throws TextException {
   	try {
-		  short verticalAlignment = ((Short)getXPropertySet().getPropertyValue("VertOrient")).shortValue();
+		  short verticalAlignment = ((Short)getPropertyValue("VertOrient")).shortValue();
 		  if(verticalAlignment == VertOrientation.CENTER) {
 		  	return ALIGN_CENTER; 
 		  }
@@ -280,7 +280,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
 	public void setBackColor(int color) throws TextException {
 		try {
-      getXPropertySet().setPropertyValue("BackColor", new Integer(color));
+      setPropertyValue("BackColor", new Integer(color));
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -300,7 +300,7 @@ public class TextTableCellProperties extends AbstractProperties implements IText
    */
 	public void setVertOrient(short align) throws TextException {
 		try {
-      getXPropertySet().setPropertyValue("VertOrient", new Short(align));
+      setPropertyValue("VertOrient", new Short(align));
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -155,7 +155,7 @@ public class TextTableProperties extends AbstractProperties implements ITextTabl
    */
   public void setRepeatHeadline(boolean repeatHeadline) throws TextException {
     try {
-      getXPropertySet().setPropertyValue("RepeatHeadline", new Boolean(repeatHeadline));
+      setPropertyValue("RepeatHeadline", new Boolean(repeatHeadline));
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -177,7 +177,7 @@ public class TextTableProperties extends AbstractProperties implements ITextTabl
    */
   public boolean repeatHeadline() throws TextException {
     try {
-      return ((Boolean)getXPropertySet().getPropertyValue("RepeatHeadline")).booleanValue();
+      return ((Boolean)getPropertyValue("RepeatHeadline")).booleanValue();
     }
     catch(Exception exception) {
       TextException textException = new TextException(exception.getMessage());
@@ -198,7 +198,7 @@ public class TextTableProperties extends AbstractProperties implements ITextTabl
   public int[] getCellWidths() throws TextException {
   	int widths[] = null;
   	try {
-  		TableColumnSeparator[] columnSeparator = (TableColumnSeparator[])getXPropertySet().getPropertyValue("TableColumnSeparators");
+  		TableColumnSeparator[] columnSeparator = (TableColumnSeparator[])getPropertyValue("TableColumnSeparators");
   		widths = new int[columnSeparator.length+1];
   		widths[0] =  columnSeparator[0].Position;
   		for(int i = 1; i < columnSeparator.length;i++) {
@@ -225,7 +225,7 @@ public class TextTableProperties extends AbstractProperties implements ITextTabl
    */
   public long getWidth() throws TextException  {
   	try {
-  		width = new Long(getXPropertySet().getPropertyValue("TableColumnRelativeSum").toString()).longValue();
+  		width = new Long(getPropertyValue("TableColumnRelativeSum").toString()).longValue();
   		return width;
   		
     }
@@ -247,7 +247,7 @@ public class TextTableProperties extends AbstractProperties implements ITextTabl
    */
   public TextTableColumnsSeparator[] getTableColumnSeparators() throws TextException {
     try {
-    	TableColumnSeparator[] tableColumnSeparators = (TableColumnSeparator[])getXPropertySet().getPropertyValue("TableColumnSeparators");
+    	TableColumnSeparator[] tableColumnSeparators = (TableColumnSeparator[])getPropertyValue("TableColumnSeparators");
 	  
     	TextTableColumnsSeparator[] textTableColumnsSeparators = new TextTableColumnsSeparator[tableColumnSeparators.length];
     	
@@ -283,7 +283,7 @@ public class TextTableProperties extends AbstractProperties implements ITextTabl
     	  tableColumnSeparators[i] = tableColumnSeparator;
     	}
       
-      getXPropertySet().setPropertyValue("TableColumnSeparators", tableColumnSeparators);
+      setPropertyValue("TableColumnSeparators", tableColumnSeparators);
 	  }
 	  catch(Exception exception) {
 	    TextException textException = new TextException(exception.getMessage());
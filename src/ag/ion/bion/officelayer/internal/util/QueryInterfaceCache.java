@@ -0,0 +1,150 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.bion.officelayer.internal.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ag.ion.noa.internal.metrics.Instrumentation;
+
+import com.sun.star.uno.UnoRuntime;
+
+/**
+ * Cache for the interfaces returned by <code>UnoRuntime.queryInterface</code>. The 
+ * wrappers of NOA query the same interfaces of the same UNO objects again and again, 
+ * every lookup which is not answered by the local proxy is a round trip over the bridge. 
+ * The cache is weakly keyed by the queried object and holds the queried interfaces as 
+ * long as the object is alive; the interfaces of a document are removed when it is 
+ * closed. Unsupported interfaces are cached as well, because the interfaces 
+ * supported by an UNO object do not change. The objects are spread over several 
+ * independently locked maps, so concurrent lookups rarely wait for each other.
+ */
+public class QueryInterfaceCache {
+
+  private static final Object NOT_SUPPORTED = new Object();
+
+  private static final int    STRIPE_COUNT  = 16;
+
+  private static Map[]        stripes       = createStripes();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the submitted interface of the submitted object, or null if the 
+   * object does not support the interface.
+   * 
+   * @param type interface to be queried
+   * @param object object to be queried
+   * 
+   * @return interface of the object or null
+   */
+  public static Object queryInterface(Class type, Object object) {
+    if (object == null)
+      return null;
+    if (type.isInstance(object))
+      return object;
+
+    Map cache = getStripe(object);
+    synchronized (cache) {
+      Map interfaces = (Map) cache.get(object);
+      if (interfaces != null) {
+        Object value = interfaces.get(type);
+        if (value == NOT_SUPPORTED)
+          return null;
+        if (value != null)
+          return value;
+      }
+    }
+
+    long start = Instrumentation.start();
+    Object queriedInterface = UnoRuntime.queryInterface(type, object);
+    Instrumentation.recordUnoCall("XInterface.queryInterface", start); //$NON-NLS-1$
+
+    synchronized (cache) {
+      Map interfaces = (Map) cache.get(object);
+      if (interfaces == null) {
+        interfaces = new HashMap(4);
+        cache.put(object, interfaces);
+      }
+      interfaces.put(type, queriedInterface == null ? NOT_SUPPORTED : queriedInterface);
+    }
+    return queriedInterface;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes all cached interfaces of the submitted object.
+   * 
+   * @param object object to be removed
+   */
+  public static void remove(Object object) {
+    if (object == null)
+      return;
+    Map cache = getStripe(object);
+    synchronized (cache) {
+      cache.remove(object);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes all cached interfaces.
+   */
+  public static void clear() {
+    for (int i = 0; i < stripes.length; i++) {
+      synchronized (stripes[i]) {
+        stripes[i].clear();
+      }
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the map which holds the interfaces of the submitted object.
+   * 
+   * @param object object to be used
+   * 
+   * @return map which holds the interfaces of the submitted object
+   */
+  private static Map getStripe(Object object) {
+    int hash = object.hashCode();
+    hash ^= hash >>> 16;
+    return stripes[(hash & 0x7fffffff) % STRIPE_COUNT];
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs the maps of the cache.
+   * 
+   * @return maps of the cache
+   */
+  private static Map[] createStripes() {
+    Map[] stripes = new Map[STRIPE_COUNT];
+    for (int i = 0; i < stripes.length; i++)
+      stripes[i] = new WeakHashMap();
+    return stripes;
+  }
+  //----------------------------------------------------------------------------
+
+}
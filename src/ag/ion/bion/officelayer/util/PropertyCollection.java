@@ -38,14 +38,19 @@
  */
 package ag.ion.bion.officelayer.util;
 
+import ag.ion.bion.officelayer.internal.util.QueryInterfaceCache;
+
+import ag.ion.noa.internal.metrics.Instrumentation;
+
+import com.sun.star.beans.XMultiPropertySet;
 import com.sun.star.beans.XPropertySet;
 import com.sun.star.beans.XPropertySetInfo;
 import com.sun.star.beans.Property;
-
-import com.sun.star.uno.UnoRuntime;
+import com.sun.star.beans.PropertyAttribute;
 
 import com.sun.star.i18n.NumberFormatIndex;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.ArrayList;
@@ -139,7 +144,7 @@ public class PropertyCollection {
    */
   public static PropertyCollection getPropertyCollection(Object object) {
   	try {
-      XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, object);
+      XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, object);
       if(xPropertySet != null) {
         return getPropertyCollection(xPropertySet);
       }
@@ -163,17 +168,11 @@ public class PropertyCollection {
     try {
       XPropertySetInfo xPropertySetInfo = xPropertySet.getPropertySetInfo();
       Property[] property = xPropertySetInfo.getProperties();
-      PropertyCollection propertyCollection = new PropertyCollection(property.length);      
+      String[] names = new String[property.length];
       for(int i=0; i<property.length; i++) {
-        String name = property[i].Name; 
-        try {
-        	propertyCollection.addProperty(name, xPropertySet.getPropertyValue(name));
-        }
-        catch(Exception exception) {
-          //ignore
-        }
+        names[i] = property[i].Name;
       }
-      return propertyCollection;
+      return readProperties(xPropertySet, names);
     }
     catch(Exception exception){
       return null;
@@ -191,18 +190,7 @@ public class PropertyCollection {
   public static PropertyCollection getPropertyCollection(XPropertySet xPropertySet, String[] names) {
     try {
       if(names != null) {
-        
-        PropertyCollection propertyCollection = new PropertyCollection(names.length);      
-        for(int i=0; i<names.length; i++) {
-          String name = names[i]; 
-          try {
-            propertyCollection.addProperty(name, xPropertySet.getPropertyValue(name));
-          }
-          catch(Exception exception) {
-            //ignore
-          }
-        }
-        return propertyCollection;
+        return readProperties(xPropertySet, (String[])names.clone());
       }
       return null;
     }
@@ -219,7 +207,7 @@ public class PropertyCollection {
    */
   public static void setPropertyCollection(PropertyCollection propertyCollection, Object object) {
     try {
-      XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, object);
+      XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, object);
       if(xPropertySet != null) {
       	setPropertyCollection(propertyCollection, xPropertySet, null, null);
       }
@@ -238,7 +226,7 @@ public class PropertyCollection {
    */
   public static void setPropertyCollection(PropertyCollection propertyCollection, Object object, String[] orderProperties) {
     try {
-      XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, object);
+      XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, object);
       if(xPropertySet != null) {
         setPropertyCollection(propertyCollection, xPropertySet, orderProperties, null);
       }
@@ -258,7 +246,7 @@ public class PropertyCollection {
    */
   public static void setPropertyCollection(PropertyCollection propertyCollection, Object object, String[] orderProperties, String[] excludeProperties) {
     try {
-      XPropertySet xPropertySet = (XPropertySet)UnoRuntime.queryInterface(XPropertySet.class, object);
+      XPropertySet xPropertySet = (XPropertySet)QueryInterfaceCache.queryInterface(XPropertySet.class, object);
       if(xPropertySet != null) {
         setPropertyCollection(propertyCollection, xPropertySet, orderProperties, excludeProperties);
       }
@@ -293,7 +281,9 @@ public class PropertyCollection {
         order = new ArrayList(orderProperties.length);
       	for(int i=0; i<orderProperties.length; i++) {
           try {
+            long start = Instrumentation.start();
           	xPropertySet.setPropertyValue(orderProperties[i], propertyCollection.getPropertyValue(orderProperties[i]));
+            Instrumentation.recordUnoCall("XPropertySet.setPropertyValue", start); //$NON-NLS-1$
             order.add(orderProperties[i]);
           }
           catch(Exception exception) {
@@ -303,8 +293,9 @@ public class PropertyCollection {
       }      
       
       Property[] property = xPropertySetInfo.getProperties();      
+      ArrayList names = new ArrayList(property.length);
       for(int i=0; i<property.length; i++) {
-        boolean useProperty = true;
+        boolean useProperty = (property[i].Attributes & PropertyAttribute.READONLY) == 0;
         String name = property[i].Name;          
         if(order != null) {
         	if(order.contains(name)) {
@@ -318,29 +309,46 @@ public class PropertyCollection {
           }
         }
         
-        if(useProperty) {
-          try {
-            if(propertyCollection.containesProperty(name)) {
-              if(name.equalsIgnoreCase("NumberFormat")) {
-              	if(((Integer)propertyCollection.getPropertyValue("NumberFormat")).intValue() == 256) {
-                  /** 
-                   * Hack - OpenOffice.org uses the constant 256 for text format in table cells. But in order
-                   * to set the text format in a table cell OpenOffice.org expected the contstant NumberFormatIndex.TEXT.
-                   */
-                  xPropertySet.setPropertyValue(name, new Integer(NumberFormatIndex.TEXT));
-                }
-                else {
-                  xPropertySet.setPropertyValue(name, propertyCollection.getPropertyValue(name)); 
-                }
-              }
-              else {
-              	xPropertySet.setPropertyValue(name, propertyCollection.getPropertyValue(name)); 
-              }
-            }
-          }
-          catch(Exception exception) {
-            //ignore
-          }
+        if(useProperty && propertyCollection.containesProperty(name)) {
+          names.add(name);
+        }
+      }
+      
+      String[] sortedNames = (String[])names.toArray(new String[names.size()]);
+      Arrays.sort(sortedNames);
+      Object[] values = new Object[sortedNames.length];
+      for(int i=0; i<sortedNames.length; i++) {
+        values[i] = propertyCollection.getPropertyValue(sortedNames[i]);
+        if(sortedNames[i].equalsIgnoreCase("NumberFormat") && values[i] instanceof Integer //$NON-NLS-1$
+            && ((Integer)values[i]).intValue() == 256) {
+          /** 
+           * Hack - OpenOffice.org uses the constant 256 for text format in table cells. But in order
+           * to set the text format in a table cell OpenOffice.org expected the contstant NumberFormatIndex.TEXT.
+           */
+          values[i] = new Integer(NumberFormatIndex.TEXT);
+        }
+      }
+      
+      XMultiPropertySet xMultiPropertySet = (XMultiPropertySet)QueryInterfaceCache.queryInterface(XMultiPropertySet.class, xPropertySet);
+      if(xMultiPropertySet != null && sortedNames.length > 0) {
+        try {
+          long start = Instrumentation.start();
+          xMultiPropertySet.setPropertyValues(sortedNames, values);
+          Instrumentation.recordUnoCall("XMultiPropertySet.setPropertyValues", start); //$NON-NLS-1$
+          return;
+        }
+        catch(Exception exception) {
+          //set the properties one by one in order to skip the failing properties
+        }
+      }
+      for(int i=0; i<sortedNames.length; i++) {
+        try {
+          long start = Instrumentation.start();
+          xPropertySet.setPropertyValue(sortedNames[i], values[i]);
+          Instrumentation.recordUnoCall("XPropertySet.setPropertyValue", start); //$NON-NLS-1$
+        }
+        catch(Exception exception) {
+          //ignore
         }
       }
     }
@@ -349,4 +357,50 @@ public class PropertyCollection {
     }
   }
   //----------------------------------------------------------------------------
+  /**
+   * Reads the properties with the submitted names from the submitted OpenOffice.org 
+   * XPropertySet. All values are read with one call of the XMultiPropertySet if it is 
+   * supported, otherwise or if one of the properties can not be read the values are 
+   * read one by one and failing properties are skipped.
+   * 
+   * @param xPropertySet OpenOffice.org XPropertySet
+   * @param names names of the properties, the array will be sorted
+   * 
+   * @return property collection with the read properties
+   */
+  private static PropertyCollection readProperties(XPropertySet xPropertySet, String[] names) {
+    PropertyCollection propertyCollection = new PropertyCollection(names.length);
+    XMultiPropertySet xMultiPropertySet = (XMultiPropertySet)QueryInterfaceCache.queryInterface(XMultiPropertySet.class, xPropertySet);
+    if(xMultiPropertySet != null && names.length > 0) {
+      //the names must be sorted for the XMultiPropertySet
+      Arrays.sort(names);
+      try {
+        long start = Instrumentation.start();
+        Object[] values = xMultiPropertySet.getPropertyValues(names);
+        Instrumentation.recordUnoCall("XMultiPropertySet.getPropertyValues", start); //$NON-NLS-1$
+        if(values != null && values.length == names.length) {
+          for(int i=0; i<names.length; i++) {
+            propertyCollection.addProperty(names[i], values[i]);
+          }
+          return propertyCollection;
+        }
+      }
+      catch(Exception exception) {
+        //read the properties one by one in order to skip the failing properties
+      }
+    }
+    for(int i=0; i<names.length; i++) {
+      try {
+        long start = Instrumentation.start();
+        Object value = xPropertySet.getPropertyValue(names[i]);
+        Instrumentation.recordUnoCall("XPropertySet.getPropertyValue", start); //$NON-NLS-1$
+        propertyCollection.addProperty(names[i], value);
+      }
+      catch(Exception exception) {
+        //ignore
+      }
+    }
+    return propertyCollection;
+  }
+  //----------------------------------------------------------------------------
 }
@@ -0,0 +1,568 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.conversion;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.application.IAsyncOfficeApplication;
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.application.IPooledOfficeApplication;
+import ag.ion.bion.officelayer.application.OfficeApplicationException;
+import ag.ion.bion.officelayer.document.DocumentDescriptor;
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.document.IDocumentDescriptor;
+import ag.ion.bion.officelayer.filter.IFilter;
+import ag.ion.noa.NOAException;
+import ag.ion.noa.document.IAsyncDocumentService;
+
+/**
+ * Converts many documents with one filter. The documents pass the stages load, export 
+ * and close on the asynchronous document service of the application, so that the 
+ * next document is loaded while the current one is exported and the previous one is 
+ * closed. With a pooled application the documents are spread over all office processes.
+ * An optional {@link ConversionCache} serves repeated conversions of local files without
+ * the office.
+ */
+public class BatchConverter {
+
+  /** Number of documents in flight per office process. */
+  public static final int     DOCUMENTS_PER_PROCESS = 3;
+
+  private static final long   POLL_INTERVAL         = 10;
+
+  private static final int    STAGE_LOAD            = 0;
+  private static final int    STAGE_EXPORT          = 1;
+  private static final int    STAGE_CLOSE           = 2;
+
+  private static Logger       LOGGER                = Logger.getLogger(BatchConverter.class.getName());
+
+  private IOfficeApplication  officeApplication     = null;
+  private IDocumentDescriptor documentDescriptor    = DocumentDescriptor.DEFAULT_HIDDEN;
+  private int                 windowSize            = 0;
+  private ConversionCache     conversionCache       = null;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Document which is converted.
+   */
+  private static class Item {
+
+    private ConversionTask conversionTask = null;
+    private int            index          = 0;
+    private int            stage          = STAGE_LOAD;
+    private Future         future         = null;
+    private IDocument      document       = null;
+    private Throwable      exception      = null;
+    private long           stageStart     = 0;
+    private long[]         stageTimes     = new long[3];
+    private boolean        cached         = false;
+    private String         cacheKey       = null;
+    private File           cacheTarget    = null;
+
+    private ConversionCache.EntryOutputStream cacheEntry = null;
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new Item.
+     * 
+     * @param conversionTask task to be converted
+     * @param index index of the task within the batch
+     */
+    public Item(ConversionTask conversionTask, int index) {
+      this.conversionTask = conversionTask;
+      this.index = index;
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new BatchConverter.
+   * 
+   * @param officeApplication office application to be used
+   */
+  public BatchConverter(IOfficeApplication officeApplication) {
+    this.officeApplication = officeApplication;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets document descriptor to be used for loading. Default is a hidden document.
+   * 
+   * @param documentDescriptor document descriptor to be used
+   */
+  public void setDocumentDescriptor(IDocumentDescriptor documentDescriptor) {
+    if (documentDescriptor != null)
+      this.documentDescriptor = documentDescriptor;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets the number of documents which are converted at the same time. By default
+   * three documents per office process are in flight, one per stage.
+   * 
+   * @param windowSize number of documents which are converted at the same time
+   */
+  public void setWindowSize(int windowSize) {
+    this.windowSize = windowSize;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets conversion cache to be used (can be null). Only tasks with a local source
+   * file use the cache, the targets of the task have to be a local file or a stream.
+   * 
+   * @param conversionCache conversion cache to be used
+   */
+  public void setConversionCache(ConversionCache conversionCache) {
+    this.conversionCache = conversionCache;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Converts all submitted tasks with the submitted filter. A failed document does 
+   * not stop the batch, its exception is reported in its result.
+   * 
+   * @param tasks iterator of <code>ConversionTask</code> objects to be converted
+   * @param filter filter to be used
+   * @param conversionListener listener to be informed about every document (can be null)
+   * 
+   * @return summary of the batch conversion
+   * 
+   * @throws NOAException if the asynchronous document service is not available or
+   * the conversion was interrupted
+   */
+  public ConversionSummary convert(Iterator tasks, IFilter filter,
+      IConversionListener conversionListener) throws NOAException {
+    if (tasks == null)
+      throw new NOAException("The submitted tasks are not valid.");
+    if (filter == null)
+      throw new NOAException("The submitted filter is not valid.");
+    if (!(officeApplication instanceof IAsyncOfficeApplication))
+      throw new NOAException("The office application does not provide an asynchronous document service.");
+    IAsyncDocumentService asyncDocumentService = null;
+    try {
+      asyncDocumentService = ((IAsyncOfficeApplication) officeApplication).getAsyncDocumentService();
+    }
+    catch (OfficeApplicationException officeApplicationException) {
+      throw new NOAException(officeApplicationException);
+    }
+
+    int windowSize = getWindowSize();
+    ConversionSummary conversionSummary = new ConversionSummary();
+    LinkedList items = new LinkedList();
+    long startTime = System.currentTimeMillis();
+    int index = 0;
+    try {
+      while (tasks.hasNext() || !items.isEmpty()) {
+        while (items.size() < windowSize && tasks.hasNext()) {
+          Item item = new Item((ConversionTask) tasks.next(), index++);
+          if (conversionCache != null && serveFromCache(item, filter)) {
+            finish(item, conversionSummary, conversionListener);
+            continue;
+          }
+          submit(asyncDocumentService, item, filter);
+          items.add(item);
+        }
+
+        boolean advanced = false;
+        for (Iterator iterator = items.iterator(); iterator.hasNext();) {
+          Item item = (Item) iterator.next();
+          if (item.future != null && !item.future.isDone())
+            continue;
+          advanced = true;
+          if (advance(asyncDocumentService, item, filter)) {
+            iterator.remove();
+            finish(item, conversionSummary, conversionListener);
+          }
+        }
+        if (!advanced)
+          await(((Item) items.getFirst()).future);
+      }
+    }
+    catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      abort(asyncDocumentService, items);
+      throw new NOAException("The batch conversion was interrupted.", interruptedException);
+    }
+    conversionSummary.setElapsedTime(System.currentTimeMillis() - startTime);
+    return conversionSummary;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reports the submitted finished item.
+   * 
+   * @param item finished item
+   * @param conversionSummary summary to be filled
+   * @param conversionListener listener to be informed (can be null)
+   */
+  private void finish(Item item, ConversionSummary conversionSummary,
+      IConversionListener conversionListener) {
+    if (item.cacheEntry != null)
+      item.cacheEntry.discard();
+    ConversionResult conversionResult = new ConversionResult(item.conversionTask,
+        item.index,
+        item.exception,
+        item.stageTimes[STAGE_LOAD],
+        item.stageTimes[STAGE_EXPORT],
+        item.stageTimes[STAGE_CLOSE],
+        item.cached);
+    conversionSummary.add(conversionResult);
+    if (conversionListener != null)
+      conversionListener.conversionDone(conversionResult);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Serves the submitted item from the conversion cache. If the cache does not contain 
+   * the conversion the item is prepared to fill the cache after its export.
+   * 
+   * @param item item to be served
+   * @param filter filter to be used
+   * 
+   * @return information whether the item was served from the cache
+   */
+  private boolean serveFromCache(Item item, IFilter filter) {
+    ConversionTask conversionTask = item.conversionTask;
+    File source = toFile(conversionTask.getSourceURL());
+    if (source == null || !source.isFile())
+      return false;
+    File target = null;
+    if (conversionTask.getTargetURL() != null) {
+      target = toFile(conversionTask.getTargetURL());
+      if (target == null)
+        return false;
+    }
+    String cacheKey = null;
+    try {
+      cacheKey = ConversionCache.createKey(source, filter);
+    }
+    catch (IOException ioException) {
+      LOGGER.log(Level.WARNING, "Conversion cache could not be used.", ioException); //$NON-NLS-1$
+      return false;
+    }
+    try {
+      if (target != null ? conversionCache.copyTo(cacheKey, target)
+          : conversionCache.copyTo(cacheKey, conversionTask.getOutputStream())) {
+        item.cached = true;
+        if (target == null)
+          conversionTask.getOutputStream().close();
+        return true;
+      }
+    }
+    catch (IOException ioException) {
+      item.cached = true;
+      item.exception = ioException;
+      return true;
+    }
+    item.cacheKey = cacheKey;
+    item.cacheTarget = target;
+    if (target == null) {
+      try {
+        item.cacheEntry = conversionCache.createEntry(cacheKey, conversionTask.getOutputStream());
+      }
+      catch (IOException ioException) {
+        LOGGER.log(Level.WARNING, "Conversion cache could not be used.", ioException); //$NON-NLS-1$
+      }
+    }
+    return false;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Adds the export result of the submitted item to the conversion cache.
+   * 
+   * @param item exported item
+   */
+  private void fillCache(Item item) {
+    try {
+      if (item.cacheEntry != null) {
+        item.cacheEntry.commit();
+        item.cacheEntry = null;
+      }
+      else if (item.cacheTarget != null)
+        conversionCache.put(item.cacheKey, item.cacheTarget);
+    }
+    catch (IOException ioException) {
+      LOGGER.log(Level.WARNING, "Conversion result could not be cached.", ioException); //$NON-NLS-1$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the local file of the submitted URL. Returns null if the URL does
+   * not denote a local file.
+   * 
+   * @param url URL to be used
+   * 
+   * @return local file of the submitted URL or null
+   */
+  private File toFile(String url) {
+    if (url == null)
+      return null;
+    if (!url.startsWith("file:")) //$NON-NLS-1$
+      return url.indexOf(':') > 1 ? null : new File(url);
+    try {
+      return new File(new URI(url));
+    }
+    catch (Exception exception) {
+      return null;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of documents which are converted at the same time.
+   * 
+   * @return number of documents which are converted at the same time
+   */
+  private int getWindowSize() {
+    if (windowSize > 0)
+      return windowSize;
+    int processCount = 1;
+    if (officeApplication instanceof IPooledOfficeApplication)
+      processCount = ((IPooledOfficeApplication) officeApplication).getPoolSize();
+    return DOCUMENTS_PER_PROCESS * Math.max(processCount, 1);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Submits the current stage of the submitted item.
+   * 
+   * @param asyncDocumentService asynchronous document service to be used
+   * @param item item to be submitted
+   * @param filter filter to be used
+   */
+  private void submit(IAsyncDocumentService asyncDocumentService, Item item, IFilter filter) {
+    ConversionTask conversionTask = item.conversionTask;
+    item.stageStart = System.currentTimeMillis();
+    try {
+      switch (item.stage) {
+        case STAGE_LOAD:
+          if (conversionTask.getSourceURL() != null)
+            item.future = asyncDocumentService.loadDocumentAsync(conversionTask.getSourceURL(),
+                documentDescriptor);
+          else
+            item.future = asyncDocumentService.loadDocumentAsync(conversionTask.getInputStream(),
+                documentDescriptor);
+          break;
+        case STAGE_EXPORT:
+          if (conversionTask.getTargetURL() != null)
+            item.future = asyncDocumentService.exportAsync(item.document,
+                conversionTask.getTargetURL(),
+                filter);
+          else
+            item.future = asyncDocumentService.exportAsync(item.document,
+                item.cacheEntry != null ? item.cacheEntry : conversionTask.getOutputStream(),
+                filter);
+          break;
+        default:
+          item.future = asyncDocumentService.closeAsync(item.document);
+      }
+    }
+    catch (NOAException noaException) {
+      item.future = null;
+      if (item.exception == null)
+        item.exception = noaException;
+      if (item.stage != STAGE_LOAD && item.stage != STAGE_CLOSE) {
+        item.stage = STAGE_CLOSE;
+        submit(asyncDocumentService, item, filter);
+      }
+      else if (item.stage == STAGE_CLOSE)
+        closeDocument(item.document);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Moves the submitted item to its next stage.
+   * 
+   * @param asyncDocumentService asynchronous document service to be used
+   * @param item item to be moved
+   * @param filter filter to be used
+   * 
+   * @return information whether the item is finished
+   * 
+   * @throws InterruptedException if the current thread was interrupted
+   */
+  private boolean advance(IAsyncDocumentService asyncDocumentService, Item item, IFilter filter)
+      throws InterruptedException {
+    if (item.future == null)
+      return true;
+    Object value = null;
+    try {
+      value = item.future.get();
+    }
+    catch (ExecutionException executionException) {
+      if (item.exception == null)
+        item.exception = executionException.getCause();
+    }
+    catch (CancellationException cancellationException) {
+      if (item.exception == null)
+        item.exception = cancellationException;
+    }
+    item.stageTimes[item.stage] = System.currentTimeMillis() - item.stageStart;
+
+    if (item.stage == STAGE_LOAD) {
+      if (!(value instanceof IDocument))
+        return true;
+      item.document = (IDocument) value;
+      item.stage = item.exception == null ? STAGE_EXPORT : STAGE_CLOSE;
+    }
+    else if (item.stage == STAGE_EXPORT) {
+      if (item.exception == null && conversionCache != null)
+        fillCache(item);
+      item.stage = STAGE_CLOSE;
+    }
+    else
+      return true;
+    submit(asyncDocumentService, item, filter);
+    return item.future == null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Waits until the submitted future is done or the poll interval elapsed.
+   * 
+   * @param future future to be awaited
+   * 
+   * @throws InterruptedException if the current thread was interrupted
+   */
+  private void await(Future future) throws InterruptedException {
+    try {
+      future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+    catch (TimeoutException timeoutException) {
+      //poll again
+    }
+    catch (ExecutionException executionException) {
+      //handled by advance
+    }
+    catch (CancellationException cancellationException) {
+      //handled by advance
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Cancels all submitted items and closes their loaded documents. A load which 
+   * could not be cancelled because it is already finished provides the document
+   * to be closed. An export which is already running is awaited, as the document 
+   * must not be closed while it is exported.
+   * 
+   * @param asyncDocumentService asynchronous document service to be used
+   * @param items items to be cancelled
+   */
+  private void abort(IAsyncDocumentService asyncDocumentService, LinkedList items) {
+    for (Iterator iterator = items.iterator(); iterator.hasNext();) {
+      Item item = (Item) iterator.next();
+      if (item.stage == STAGE_LOAD) {
+        if (item.future != null && !item.future.cancel(true)) {
+          Object value = getUninterruptibly(item.future);
+          if (value instanceof IDocument)
+            item.document = (IDocument) value;
+        }
+      }
+      else if (item.stage == STAGE_EXPORT && item.future != null
+          && !item.future.cancel(false))
+        getUninterruptibly(item.future);
+      if (item.cacheEntry != null)
+        item.cacheEntry.discard();
+      if (item.document != null && item.stage != STAGE_CLOSE) {
+        try {
+          asyncDocumentService.closeAsync(item.document);
+        }
+        catch (NOAException noaException) {
+          closeDocument(item.document);
+        }
+      }
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Waits until the submitted future is done, even if the current thread is 
+   * interrupted. The interrupted state of the thread is restored afterwards. The 
+   * tasks of the asynchronous document service are bounded by its timeout.
+   * 
+   * @param future future to be awaited
+   * 
+   * @return value of the future or null if it failed or was cancelled
+   */
+  private Object getUninterruptibly(Future future) {
+    boolean interrupted = Thread.interrupted();
+    try {
+      while (true) {
+        try {
+          return future.get();
+        }
+        catch (InterruptedException interruptedException) {
+          interrupted = true;
+        }
+        catch (ExecutionException executionException) {
+          return null;
+        }
+        catch (CancellationException cancellationException) {
+          return null;
+        }
+      }
+    }
+    finally {
+      if (interrupted)
+        Thread.currentThread().interrupt();
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted document on the current thread.
+   * 
+   * @param document document to be closed (can be null)
+   */
+  private void closeDocument(IDocument document) {
+    if (document == null)
+      return;
+    try {
+      document.close();
+    }
+    catch (Throwable throwable) {
+      LOGGER.log(Level.WARNING, "Document of the batch conversion could not be closed.", throwable); //$NON-NLS-1$
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
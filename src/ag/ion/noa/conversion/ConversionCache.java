@@ -0,0 +1,635 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.conversion;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.filter.IFilter;
+import ag.ion.bion.officelayer.filter.PDFFilter;
+
+import com.sun.star.beans.PropertyValue;
+
+/**
+ * Content addressed cache for conversion results on disk. The key of an entry is a hash 
+ * of the source bytes, the filter definitions and the filter properties, so a repeated
+ * conversion of the same source with the same filter can be served without the office. 
+ * The cache is bounded by size, the least recently used entries are evicted first. 
+ * All methods can be used concurrently.
+ */
+public class ConversionCache {
+
+  private static final String ENTRY_SUFFIX      = ".cache";                                    //$NON-NLS-1$
+  private static final String TEMP_SUFFIX       = ".tmp";                                      //$NON-NLS-1$
+  private static final String DIGEST_ALGORITHM  = "SHA-256";                                   //$NON-NLS-1$
+  private static final int    BUFFER_SIZE       = 64 * 1024;
+  private static final long   STALE_TEMP_AGE    = 60 * 60 * 1000;
+
+  private static final char[] HEX_DIGITS        = "0123456789abcdef".toCharArray();            //$NON-NLS-1$
+
+  private static final String[] DOCUMENT_TYPES  = new String[] { IDocument.WRITER,
+      IDocument.CALC, IDocument.IMPRESS, IDocument.DRAW, IDocument.MATH, IDocument.WEB,
+      IDocument.BASE, IDocument.GLOBAL             };
+
+  private static Logger       LOGGER            = Logger.getLogger(ConversionCache.class.getName());
+
+  private File                directory         = null;
+  private long                maximumSize       = 0;
+  private long                size              = 0;
+  private long                hitCount          = 0;
+  private long                missCount         = 0;
+  private LinkedHashMap       entries           = new LinkedHashMap(16, 0.75f, true);
+
+  //----------------------------------------------------------------------------
+  /**
+   * Output stream which writes into a new cache entry and optionally into a target stream. 
+   * The entry is added to the cache by {@link #commit()}.
+   */
+  public class EntryOutputStream extends FilterOutputStream {
+
+    private String  key       = null;
+    private File    tempFile  = null;
+    private OutputStream target = null;
+    private boolean closed    = false;
+    private boolean done      = false;
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new EntryOutputStream.
+     * 
+     * @param key key of the entry
+     * @param tempFile temporary file of the entry
+     * @param target target stream to be filled as well (can be null)
+     * 
+     * @throws IOException if the temporary file can not be opened
+     */
+    private EntryOutputStream(String key, File tempFile, OutputStream target) throws IOException {
+      super(new FileOutputStream(tempFile));
+      this.key = key;
+      this.tempFile = tempFile;
+      this.target = target;
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Writes the submitted byte.
+     * 
+     * @param b byte to be written
+     * 
+     * @throws IOException if the byte can not be written
+     */
+    public void write(int b) throws IOException {
+      out.write(b);
+      if (target != null)
+        target.write(b);
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Writes the submitted bytes.
+     * 
+     * @param bytes bytes to be written
+     * @param offset offset of the first byte
+     * @param length number of bytes to be written
+     * 
+     * @throws IOException if the bytes can not be written
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      out.write(bytes, offset, length);
+      if (target != null)
+        target.write(bytes, offset, length);
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Flushes the entry and the target stream.
+     * 
+     * @throws IOException if the streams can not be flushed
+     */
+    public void flush() throws IOException {
+      out.flush();
+      if (target != null)
+        target.flush();
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Closes the entry and the target stream. The entry is not added to the cache
+     * before {@link #commit()} is called.
+     * 
+     * @throws IOException if the streams can not be closed
+     */
+    public void close() throws IOException {
+      if (closed)
+        return;
+      closed = true;
+      try {
+        out.close();
+      }
+      finally {
+        if (target != null)
+          target.close();
+      }
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Closes the stream and adds the written entry to the cache.
+     * 
+     * @throws IOException if the entry can not be added
+     */
+    public void commit() throws IOException {
+      if (done)
+        return;
+      done = true;
+      try {
+        close();
+      }
+      catch (IOException ioException) {
+        tempFile.delete();
+        throw ioException;
+      }
+      addEntry(key, tempFile);
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Closes the stream and discards the written entry.
+     */
+    public void discard() {
+      if (done)
+        return;
+      done = true;
+      try {
+        close();
+      }
+      catch (IOException ioException) {
+        //nothing to do
+      }
+      tempFile.delete();
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionCache. Entries which are already in the submitted directory 
+   * are reused, the least recently used entries are evicted if the directory exceeds 
+   * the submitted size.
+   * 
+   * @param directory directory of the cache
+   * @param maximumSize maximum size of all entries in bytes
+   * 
+   * @throws IOException if the directory can not be created
+   * @throws IllegalArgumentException if the submitted maximum size is not valid
+   */
+  public ConversionCache(File directory, long maximumSize) throws IOException,
+      IllegalArgumentException {
+    if (directory == null)
+      throw new IOException("The submitted directory is not valid."); //$NON-NLS-1$
+    if (maximumSize <= 0)
+      throw new IllegalArgumentException("The submitted maximum size is not valid."); //$NON-NLS-1$
+    if (!directory.isDirectory() && !directory.mkdirs())
+      throw new IOException("The cache directory " + directory + " can not be created."); //$NON-NLS-1$ //$NON-NLS-2$
+    this.directory = directory;
+    this.maximumSize = maximumSize;
+    loadEntries();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the key for the conversion of the submitted file with the submitted filter.
+   * 
+   * @param source file to be converted
+   * @param filter filter to be used
+   * 
+   * @return key for the conversion
+   * 
+   * @throws IOException if the file can not be read
+   */
+  public static String createKey(File source, IFilter filter) throws IOException {
+    MessageDigest messageDigest = createMessageDigest();
+    InputStream inputStream = new FileInputStream(source);
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1)
+        messageDigest.update(buffer, 0, read);
+    }
+    finally {
+      inputStream.close();
+    }
+    return createKey(messageDigest, filter);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the key for the conversion of the submitted bytes with the submitted filter.
+   * 
+   * @param source bytes to be converted
+   * @param filter filter to be used
+   * 
+   * @return key for the conversion
+   */
+  public static String createKey(byte[] source, IFilter filter) {
+    MessageDigest messageDigest = createMessageDigest();
+    messageDigest.update(source);
+    return createKey(messageDigest, filter);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Copies the entry of the submitted key into the submitted stream. The stream 
+   * will not be closed.
+   * 
+   * @param key key of the entry
+   * @param outputStream output stream to be filled
+   * 
+   * @return information whether the entry was available
+   * 
+   * @throws IOException if the entry can not be copied
+   */
+  public boolean copyTo(String key, OutputStream outputStream) throws IOException {
+    InputStream inputStream = openEntry(key);
+    if (inputStream == null)
+      return false;
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1)
+        outputStream.write(buffer, 0, read);
+    }
+    finally {
+      inputStream.close();
+    }
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Copies the entry of the submitted key into the submitted file.
+   * 
+   * @param key key of the entry
+   * @param file file to be written
+   * 
+   * @return information whether the entry was available
+   * 
+   * @throws IOException if the entry can not be copied
+   */
+  public boolean copyTo(String key, File file) throws IOException {
+    InputStream inputStream = openEntry(key);
+    if (inputStream == null)
+      return false;
+    try {
+      OutputStream outputStream = new FileOutputStream(file);
+      try {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1)
+          outputStream.write(buffer, 0, read);
+      }
+      finally {
+        outputStream.close();
+      }
+    }
+    finally {
+      inputStream.close();
+    }
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Adds a copy of the submitted file as entry of the submitted key.
+   * 
+   * @param key key of the entry
+   * @param file file to be added
+   * 
+   * @throws IOException if the file can not be added
+   */
+  public void put(String key, File file) throws IOException {
+    InputStream inputStream = new FileInputStream(file);
+    try {
+      EntryOutputStream entryOutputStream = createEntry(key, null);
+      try {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1)
+          entryOutputStream.write(buffer, 0, read);
+        entryOutputStream.commit();
+      }
+      finally {
+        entryOutputStream.discard();
+      }
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Creates a new entry for the submitted key. The bytes written into the returned 
+   * stream are written into the submitted target stream as well, so a conversion 
+   * result can be cached while it is delivered.
+   * 
+   * @param key key of the entry
+   * @param target target stream to be filled as well (can be null)
+   * 
+   * @return stream of the new entry
+   * 
+   * @throws IOException if the entry can not be created
+   */
+  public EntryOutputStream createEntry(String key, OutputStream target) throws IOException {
+    File tempFile = File.createTempFile("noa", TEMP_SUFFIX, directory); //$NON-NLS-1$
+    return new EntryOutputStream(key, tempFile, target);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether an entry is available for the submitted key.
+   * 
+   * @param key key of the entry
+   * 
+   * @return information whether an entry is available
+   */
+  public synchronized boolean contains(String key) {
+    return entries.containsKey(key);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes all entries.
+   */
+  public synchronized void clear() {
+    for (Iterator iterator = entries.keySet().iterator(); iterator.hasNext();)
+      getEntryFile((String) iterator.next()).delete();
+    entries.clear();
+    size = 0;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns size of all entries in bytes.
+   * 
+   * @return size of all entries in bytes
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of entries.
+   * 
+   * @return number of entries
+   */
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of requests which were served by the cache.
+   * 
+   * @return number of requests which were served by the cache
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of requests which were not served by the cache.
+   * 
+   * @return number of requests which were not served by the cache
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Opens the entry of the submitted key. Returns null if no entry is available.
+   * 
+   * @param key key of the entry
+   * 
+   * @return opened entry or null
+   */
+  private synchronized InputStream openEntry(String key) {
+    if (entries.get(key) == null) {
+      missCount++;
+      return null;
+    }
+    File file = getEntryFile(key);
+    try {
+      InputStream inputStream = new FileInputStream(file);
+      file.setLastModified(System.currentTimeMillis());
+      hitCount++;
+      return inputStream;
+    }
+    catch (IOException ioException) {
+      Long length = (Long) entries.remove(key);
+      size -= length.longValue();
+      missCount++;
+      return null;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Moves the submitted temporary file into the cache and evicts the least recently 
+   * used entries if the cache exceeds its maximum size.
+   * 
+   * @param key key of the entry
+   * @param tempFile temporary file of the entry
+   * 
+   * @throws IOException if the file can not be moved into the cache
+   */
+  private synchronized void addEntry(String key, File tempFile) throws IOException {
+    long length = tempFile.length();
+    if (length > maximumSize) {
+      tempFile.delete();
+      return;
+    }
+    File file = getEntryFile(key);
+    Long previous = (Long) entries.remove(key);
+    if (previous != null) {
+      size -= previous.longValue();
+      file.delete();
+    }
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("The cache entry " + file + " can not be written."); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    entries.put(key, new Long(length));
+    size += length;
+    evict();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Evicts the least recently used entries until the cache does not exceed its 
+   * maximum size.
+   */
+  private void evict() {
+    for (Iterator iterator = entries.entrySet().iterator(); size > maximumSize
+        && iterator.hasNext();) {
+      Map.Entry entry = (Map.Entry) iterator.next();
+      iterator.remove();
+      size -= ((Long) entry.getValue()).longValue();
+      File file = getEntryFile((String) entry.getKey());
+      if (!file.delete() && LOGGER.isLoggable(Level.FINE))
+        LOGGER.fine("Evicted cache entry " + file + " could not be deleted."); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads the entries which are already in the cache directory and removes stale 
+   * temporary files.
+   */
+  private void loadEntries() {
+    File[] files = directory.listFiles();
+    if (files == null)
+      return;
+    Arrays.sort(files, new Comparator() {
+      public int compare(Object object1, Object object2) {
+        long modified1 = ((File) object1).lastModified();
+        long modified2 = ((File) object2).lastModified();
+        return modified1 < modified2 ? -1 : (modified1 == modified2 ? 0 : 1);
+      }
+    });
+    long staleTime = System.currentTimeMillis() - STALE_TEMP_AGE;
+    for (int i = 0; i < files.length; i++) {
+      String name = files[i].getName();
+      if (name.endsWith(ENTRY_SUFFIX)) {
+        long length = files[i].length();
+        entries.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), new Long(length));
+        size += length;
+      }
+      else if (name.endsWith(TEMP_SUFFIX) && files[i].lastModified() < staleTime)
+        files[i].delete();
+    }
+    evict();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns file of the entry with the submitted key.
+   * 
+   * @param key key of the entry
+   * 
+   * @return file of the entry
+   */
+  private File getEntryFile(String key) {
+    return new File(directory, key + ENTRY_SUFFIX);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a new message digest for the keys.
+   * 
+   * @return new message digest
+   */
+  private static MessageDigest createMessageDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    }
+    catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+      throw new IllegalStateException(noSuchAlgorithmException.getMessage());
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Adds the submitted filter to the submitted message digest and returns the key. The 
+   * document type is defined by the source bytes, so the filter definitions of all 
+   * document types are digested.
+   * 
+   * @param messageDigest message digest which contains the source bytes
+   * @param filter filter to be used
+   * 
+   * @return key for the conversion
+   */
+  private static String createKey(MessageDigest messageDigest, IFilter filter) {
+    StringBuffer buffer = new StringBuffer();
+    buffer.append('\0').append(filter.getClass().getName());
+    for (int i = 0; i < DOCUMENT_TYPES.length; i++)
+      buffer.append('\0').append(filter.getFilterDefinition(DOCUMENT_TYPES[i]));
+    if (filter instanceof PDFFilter)
+      appendPropertyValues(buffer, ((PDFFilter) filter).getPDFFilterProperties().toPropertyValues());
+    try {
+      messageDigest.update(buffer.toString().getBytes("UTF-8")); //$NON-NLS-1$
+    }
+    catch (IOException ioException) {
+      throw new IllegalStateException(ioException.getMessage());
+    }
+    byte[] digest = messageDigest.digest();
+    char[] key = new char[digest.length * 2];
+    for (int i = 0; i < digest.length; i++) {
+      key[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0F];
+      key[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0F];
+    }
+    return new String(key);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Appends the submitted property values to the submitted buffer.
+   * 
+   * @param buffer buffer to be used
+   * @param propertyValues property values to be appended
+   */
+  private static void appendPropertyValues(StringBuffer buffer, PropertyValue[] propertyValues) {
+    for (int i = 0; i < propertyValues.length; i++) {
+      buffer.append('\0').append(propertyValues[i].Name).append('=');
+      Object value = propertyValues[i].Value;
+      if (value instanceof PropertyValue[])
+        appendPropertyValues(buffer, (PropertyValue[]) value);
+      else if (value instanceof Object[])
+        buffer.append(Arrays.asList((Object[]) value));
+      else
+        buffer.append(value);
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.conversion;
+
+/**
+ * Result of one document of a batch conversion.
+ */
+public class ConversionResult {
+
+  private ConversionTask conversionTask = null;
+  private int            index          = 0;
+  private Throwable      exception      = null;
+  private long           loadTime       = 0;
+  private long           exportTime     = 0;
+  private long           closeTime      = 0;
+  private boolean        cached         = false;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionResult.
+   * 
+   * @param conversionTask converted task
+   * @param index index of the task within the batch
+   * @param exception exception of the conversion (null if the conversion succeeded)
+   * @param loadTime time to load the document in milliseconds
+   * @param exportTime time to export the document in milliseconds
+   * @param closeTime time to close the document in milliseconds
+   */
+  public ConversionResult(ConversionTask conversionTask, int index, Throwable exception,
+      long loadTime, long exportTime, long closeTime) {
+    this.conversionTask = conversionTask;
+    this.index = index;
+    this.exception = exception;
+    this.loadTime = loadTime;
+    this.exportTime = exportTime;
+    this.closeTime = closeTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionResult.
+   * 
+   * @param conversionTask converted task
+   * @param index index of the task within the batch
+   * @param exception exception of the conversion (null if the conversion succeeded)
+   * @param loadTime time to load the document in milliseconds
+   * @param exportTime time to export the document in milliseconds
+   * @param closeTime time to close the document in milliseconds
+   * @param cached information whether the result was served by a conversion cache
+   */
+  public ConversionResult(ConversionTask conversionTask, int index, Throwable exception,
+      long loadTime, long exportTime, long closeTime, boolean cached) {
+    this(conversionTask, index, exception, loadTime, exportTime, closeTime);
+    this.cached = cached;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the converted task.
+   * 
+   * @return converted task
+   */
+  public ConversionTask getConversionTask() {
+    return conversionTask;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns index of the task within the batch.
+   * 
+   * @return index of the task within the batch
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the document was converted.
+   * 
+   * @return information whether the document was converted
+   */
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns exception of the conversion. Returns null if the conversion succeeded.
+   * 
+   * @return exception of the conversion or null
+   */
+  public Throwable getException() {
+    return exception;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns time to load the document in milliseconds.
+   * 
+   * @return time to load the document in milliseconds
+   */
+  public long getLoadTime() {
+    return loadTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns time to export the document in milliseconds.
+   * 
+   * @return time to export the document in milliseconds
+   */
+  public long getExportTime() {
+    return exportTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns time to close the document in milliseconds.
+   * 
+   * @return time to close the document in milliseconds
+   */
+  public long getCloseTime() {
+    return closeTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the result was served by a conversion cache
+   * without the office.
+   * 
+   * @return information whether the result was served by a conversion cache
+   */
+  public boolean isCached() {
+    return cached;
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.conversion;
+
+/**
+ * Aggregated result of a batch conversion.
+ */
+public class ConversionSummary {
+
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  private int                 convertedCount    = 0;
+  private int                 failedCount       = 0;
+  private int                 cachedCount       = 0;
+  private long                elapsedTime       = 0;
+  private long                loadTime          = 0;
+  private long                exportTime        = 0;
+  private long                closeTime         = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Adds the submitted result.
+   * 
+   * @param conversionResult result to be added
+   */
+  public void add(ConversionResult conversionResult) {
+    if (conversionResult.isSuccessful())
+      convertedCount++;
+    else
+      failedCount++;
+    if (conversionResult.isCached())
+      cachedCount++;
+    loadTime += conversionResult.getLoadTime();
+    exportTime += conversionResult.getExportTime();
+    closeTime += conversionResult.getCloseTime();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets elapsed time of the batch conversion in milliseconds.
+   * 
+   * @param elapsedTime elapsed time in milliseconds
+   */
+  public void setElapsedTime(long elapsedTime) {
+    this.elapsedTime = elapsedTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of converted documents.
+   * 
+   * @return number of converted documents
+   */
+  public int getConvertedCount() {
+    return convertedCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of documents which could not be converted.
+   * 
+   * @return number of documents which could not be converted
+   */
+  public int getFailedCount() {
+    return failedCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of documents which were served by a conversion cache.
+   * 
+   * @return number of documents which were served by a conversion cache
+   */
+  public int getCachedCount() {
+    return cachedCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns elapsed time of the batch conversion in milliseconds.
+   * 
+   * @return elapsed time of the batch conversion in milliseconds
+   */
+  public long getElapsedTime() {
+    return elapsedTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the number of documents converted per second. Failed documents
+   * are not counted.
+   * 
+   * @return number of documents converted per second
+   */
+  public double getDocumentsPerSecond() {
+    if (elapsedTime <= 0)
+      return 0;
+    return convertedCount * MILLIS_PER_SECOND / elapsedTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the sum of all load times in milliseconds. The sum exceeds the elapsed
+   * time if documents were loaded in parallel.
+   * 
+   * @return sum of all load times in milliseconds
+   */
+  public long getLoadTime() {
+    return loadTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the sum of all export times in milliseconds.
+   * 
+   * @return sum of all export times in milliseconds
+   */
+  public long getExportTime() {
+    return exportTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the sum of all close times in milliseconds.
+   * 
+   * @return sum of all close times in milliseconds
+   */
+  public long getCloseTime() {
+    return closeTime;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a description of the summary.
+   * 
+   * @return description of the summary
+   */
+  public String toString() {
+    return "converted=" + convertedCount //$NON-NLS-1$
+        + " failed=" + failedCount //$NON-NLS-1$
+        + " cached=" + cachedCount //$NON-NLS-1$
+        + " elapsed=" + elapsedTime //$NON-NLS-1$
+        + "ms documents/s=" + ((long) (getDocumentsPerSecond() * 100)) / 100.0; //$NON-NLS-1$
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.conversion;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * One document of a batch conversion. The source is either an URL or an input stream,
+ * the target is either an URL or an output stream.
+ */
+public class ConversionTask {
+
+  private String       sourceURL    = null;
+  private InputStream  inputStream  = null;
+  private String       targetURL    = null;
+  private OutputStream outputStream = null;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionTask.
+   * 
+   * @param sourceURL URL of the source document
+   * @param targetURL URL of the converted document
+   * 
+   * @throws IllegalArgumentException if the source or the target is not valid
+   */
+  public ConversionTask(String sourceURL, String targetURL) throws IllegalArgumentException {
+    this(sourceURL, null, targetURL, null);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionTask.
+   * 
+   * @param sourceURL URL of the source document
+   * @param outputStream output stream of the converted document
+   * 
+   * @throws IllegalArgumentException if the source or the target is not valid
+   */
+  public ConversionTask(String sourceURL, OutputStream outputStream)
+      throws IllegalArgumentException {
+    this(sourceURL, null, null, outputStream);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionTask.
+   * 
+   * @param inputStream input stream of the source document
+   * @param targetURL URL of the converted document
+   * 
+   * @throws IllegalArgumentException if the source or the target is not valid
+   */
+  public ConversionTask(InputStream inputStream, String targetURL)
+      throws IllegalArgumentException {
+    this(null, inputStream, targetURL, null);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionTask.
+   * 
+   * @param inputStream input stream of the source document
+   * @param outputStream output stream of the converted document
+   * 
+   * @throws IllegalArgumentException if the source or the target is not valid
+   */
+  public ConversionTask(InputStream inputStream, OutputStream outputStream)
+      throws IllegalArgumentException {
+    this(null, inputStream, null, outputStream);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new ConversionTask.
+   * 
+   * @param sourceURL URL of the source document (can be null)
+   * @param inputStream input stream of the source document (can be null)
+   * @param targetURL URL of the converted document (can be null)
+   * @param outputStream output stream of the converted document (can be null)
+   * 
+   * @throws IllegalArgumentException if the source or the target is not valid
+   */
+  private ConversionTask(String sourceURL, InputStream inputStream, String targetURL,
+      OutputStream outputStream) throws IllegalArgumentException {
+    if (sourceURL == null && inputStream == null)
+      throw new IllegalArgumentException("The submitted source is not valid."); //$NON-NLS-1$
+    if (targetURL == null && outputStream == null)
+      throw new IllegalArgumentException("The submitted target is not valid."); //$NON-NLS-1$
+    this.sourceURL = sourceURL;
+    this.inputStream = inputStream;
+    this.targetURL = targetURL;
+    this.outputStream = outputStream;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns URL of the source document. Returns null if the source is an input stream.
+   * 
+   * @return URL of the source document or null
+   */
+  public String getSourceURL() {
+    return sourceURL;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns input stream of the source document. Returns null if the source is an URL.
+   * 
+   * @return input stream of the source document or null
+   */
+  public InputStream getInputStream() {
+    return inputStream;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns URL of the converted document. Returns null if the target is an output 
+   * stream.
+   * 
+   * @return URL of the converted document or null
+   */
+  public String getTargetURL() {
+    return targetURL;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns output stream of the converted document. Returns null if the target is 
+   * an URL.
+   * 
+   * @return output stream of the converted document or null
+   */
+  public OutputStream getOutputStream() {
+    return outputStream;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a description of the task.
+   * 
+   * @return description of the task
+   */
+  public String toString() {
+    String source = sourceURL != null ? sourceURL : "<stream>"; //$NON-NLS-1$
+    String target = targetURL != null ? targetURL : "<stream>"; //$NON-NLS-1$
+    return source + " -> " + target; //$NON-NLS-1$
+  }
+  //----------------------------------------------------------------------------
+
+}
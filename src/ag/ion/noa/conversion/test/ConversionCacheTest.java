@@ -0,0 +1,113 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.conversion.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import ag.ion.bion.officelayer.filter.PDFFilter;
+import ag.ion.noa.conversion.ConversionCache;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class ConversionCacheTest extends TestCase {
+
+  private File directory = null;
+
+  protected void setUp() throws Exception {
+    directory = File.createTempFile("noa-cache", "");
+    directory.delete();
+  }
+
+  protected void tearDown() throws Exception {
+    File[] files = directory.listFiles();
+    for (int i = 0; files != null && i < files.length; i++)
+      files[i].delete();
+    directory.delete();
+  }
+
+  public void testPutAndCopy() throws IOException {
+    ConversionCache cache = new ConversionCache(directory, 1000);
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    Assert.assertFalse(cache.copyTo("a", target));
+
+    ConversionCache.EntryOutputStream entry = cache.createEntry("a", target);
+    entry.write(new byte[] { 1, 2, 3 });
+    entry.commit();
+    Assert.assertEquals(3, target.size());
+    Assert.assertEquals(3, cache.getSize());
+
+    ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    Assert.assertTrue(cache.copyTo("a", copy));
+    Assert.assertEquals(3, copy.size());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(1, cache.getMissCount());
+
+    ConversionCache.EntryOutputStream discarded = cache.createEntry("b", null);
+    discarded.write(4);
+    discarded.discard();
+    Assert.assertFalse(cache.contains("b"));
+
+    Assert.assertTrue(new ConversionCache(directory, 1000).contains("a"));
+  }
+
+  public void testEviction() throws IOException {
+    ConversionCache cache = new ConversionCache(directory, 10);
+    put(cache, "a", 4);
+    put(cache, "b", 4);
+    cache.copyTo("a", new ByteArrayOutputStream());
+    put(cache, "c", 4);
+    Assert.assertTrue(cache.contains("a"));
+    Assert.assertFalse(cache.contains("b"));
+    Assert.assertTrue(cache.contains("c"));
+    Assert.assertEquals(8, cache.getSize());
+
+    put(cache, "d", 11);
+    Assert.assertFalse(cache.contains("d"));
+    Assert.assertEquals(2, cache.getEntryCount());
+  }
+
+  public void testCreateKey() {
+    PDFFilter filter = new PDFFilter();
+    String key = ConversionCache.createKey(new byte[] { 1 }, filter);
+    Assert.assertEquals(64, key.length());
+    Assert.assertEquals(key, ConversionCache.createKey(new byte[] { 1 }, filter));
+    Assert.assertFalse(key.equals(ConversionCache.createKey(new byte[] { 2 }, filter)));
+    filter.getPDFFilterProperties().setPageRange("1");
+    Assert.assertFalse(key.equals(ConversionCache.createKey(new byte[] { 1 }, filter)));
+  }
+
+  private void put(ConversionCache cache, String key, int length) throws IOException {
+    File file = new File(directory.getParentFile(), "noa-cache-" + key + ".bin");
+    FileOutputStream outputStream = new FileOutputStream(file);
+    outputStream.write(new byte[length]);
+    outputStream.close();
+    cache.put(key, file);
+    file.delete();
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.document;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Future;
+
+import ag.ion.bion.officelayer.IDisposeable;
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.document.IDocumentDescriptor;
+import ag.ion.bion.officelayer.filter.IFilter;
+import ag.ion.noa.NOAException;
+
+/**
+ * Asynchronous document service. The tasks are executed by a bounded number of 
+ * worker threads, a task which can not be queued anymore is rejected. The returned 
+ * futures can be cancelled, a task which exceeds the configured timeout is cancelled 
+ * automatically. A document which is loaded by a cancelled task is closed. If a task
+ * fails, the <code>ExecutionException</code> of the future contains the exception of 
+ * the underlying document or persistence service.
+ */
+public interface IAsyncDocumentService extends IDisposeable {
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted URL. The result of the future is the 
+   * loaded <code>IDocument</code>.
+   * 
+   * @param url URL of the document
+   * @param documentDescriptor document descriptor to be used (can be null)
+   * 
+   * @return future of the loaded document
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future loadDocumentAsync(String url, IDocumentDescriptor documentDescriptor)
+      throws NOAException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted input stream. The result of the future is 
+   * the loaded <code>IDocument</code>. The stream is read by the worker thread and 
+   * must not be closed before the future is done.
+   * 
+   * @param inputStream input stream of the document
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return future of the loaded document
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future loadDocumentAsync(InputStream inputStream, IDocumentDescriptor documentDescriptor)
+      throws NOAException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Stores the submitted document to its location. The result of the future is null.
+   * 
+   * @param document document to be stored
+   * 
+   * @return future of the store
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future storeAsync(IDocument document) throws NOAException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Exports the submitted document to the submitted URL. The result of the future 
+   * is null.
+   * 
+   * @param document document to be exported
+   * @param url URL of the export
+   * @param filter filter to be used
+   * 
+   * @return future of the export
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future exportAsync(IDocument document, String url, IFilter filter) throws NOAException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Exports the submitted document to the submitted output stream. The result of 
+   * the future is null. The stream is written by the worker thread and must not be 
+   * closed before the future is done.
+   * 
+   * @param document document to be exported
+   * @param outputStream output stream of the export
+   * @param filter filter to be used
+   * 
+   * @return future of the export
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future exportAsync(IDocument document, OutputStream outputStream, IFilter filter)
+      throws NOAException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted document. The result of the future is null.
+   * 
+   * @param document document to be closed
+   * 
+   * @return future of the close
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future closeAsync(IDocument document) throws NOAException;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of tasks which are queued or running.
+   * 
+   * @return number of tasks which are queued or running
+   */
+  public int getPendingTaskCount();
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,546 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.IDisposeable;
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.document.DocumentDescriptor;
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.document.IDocumentDescriptor;
+import ag.ion.bion.officelayer.internal.document.DocumentRegistry;
+import ag.ion.noa.NOAException;
+
+/**
+ * Cache for templates which are instantiated repeatedly. The bytes of every template are 
+ * kept in memory, keyed by the URL and the modification time of the template, and new 
+ * instances are loaded from these bytes. A changed template is read again. Optionally a 
+ * loaded spare instance of every template is kept ready, so that the next instance is 
+ * loaded while the current one is used. Spare instances are not counted as open documents
+ * until they are handed out, so they do not keep an idle office from being recycled.
+ */
+public class TemplateCache implements IDisposeable {
+
+  private static final String SPARE_THREAD_NAME = "NOA template spare"; //$NON-NLS-1$
+  private static final int    BUFFER_SIZE       = 64 * 1024;
+
+  private static Logger       LOGGER            = Logger.getLogger(TemplateCache.class.getName());
+
+  private IOfficeApplication  officeApplication = null;
+  private HashMap             snapshots         = new HashMap();
+  private ExecutorService     spareExecutor     = null;
+  private boolean             keepSpare         = false;
+  private boolean             disposed          = false;
+  private long                hitCount          = 0;
+  private long                missCount         = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Bytes of a template.
+   */
+  private static class Snapshot {
+
+    private String url      = null;
+    private long   modified = 0;
+    private byte[] content  = null;
+    private Future spare    = null;
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new Snapshot.
+     * 
+     * @param url URL of the template
+     * @param modified modification time of the template
+     * @param content bytes of the template
+     */
+    public Snapshot(String url, long modified, byte[] content) {
+      this.url = url;
+      this.modified = modified;
+      this.content = content;
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new TemplateCache.
+   * 
+   * @param officeApplication office application to be used
+   * 
+   * @throws IllegalArgumentException if the submitted office application is not valid
+   */
+  public TemplateCache(IOfficeApplication officeApplication) throws IllegalArgumentException {
+    if (officeApplication == null)
+      throw new IllegalArgumentException("The submitted office application is not valid."); //$NON-NLS-1$
+    this.officeApplication = officeApplication;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Sets information whether a loaded spare instance of every template is kept ready. 
+   * Spare instances are only used by {@link #instantiate(String)}.
+   * 
+   * @param keepSpare information whether a loaded spare instance is kept ready
+   */
+  public synchronized void setKeepSpare(boolean keepSpare) {
+    this.keepSpare = keepSpare;
+    if (keepSpare && spareExecutor == null && !disposed) {
+      spareExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, SPARE_THREAD_NAME);
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    if (!keepSpare) {
+      for (Iterator iterator = snapshots.values().iterator(); iterator.hasNext();)
+        discardSpare((Snapshot) iterator.next());
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a new hidden instance of the template with the submitted URL.
+   * 
+   * @param url URL of the template
+   * 
+   * @return new instance of the template
+   * 
+   * @throws NOAException if the template can not be instantiated
+   */
+  public IDocument instantiate(String url) throws NOAException {
+    return instantiate(url, null);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a new instance of the template with the submitted URL.
+   * 
+   * @param url URL of the template
+   * @param documentDescriptor document descriptor to be used (null for a hidden 
+   * instance of the template)
+   * 
+   * @return new instance of the template
+   * 
+   * @throws NOAException if the template can not be instantiated
+   */
+  public IDocument instantiate(String url, IDocumentDescriptor documentDescriptor)
+      throws NOAException {
+    if (url == null)
+      throw new NOAException("The submitted URL is not valid."); //$NON-NLS-1$
+    try {
+      url = URLAdapter.adaptURL(url);
+    }
+    catch (IOException ioException) {
+      throw new NOAException(ioException);
+    }
+    Snapshot snapshot = getSnapshot(url);
+    if (documentDescriptor == null) {
+      Future spare = null;
+      synchronized (this) {
+        if (keepSpare && !disposed) {
+          spare = snapshot.spare;
+          snapshot.spare = null;
+          submitSpare(snapshot);
+        }
+      }
+      IDocument document = getSpare(spare);
+      if (document != null)
+        return document;
+    }
+    return load(snapshot,
+        documentDescriptor != null ? documentDescriptor : createTemplateDescriptor());
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes the template with the submitted URL from the cache.
+   * 
+   * @param url URL of the template
+   */
+  public void invalidate(String url) {
+    if (url == null)
+      return;
+    try {
+      url = URLAdapter.adaptURL(url);
+    }
+    catch (IOException ioException) {
+      return;
+    }
+    synchronized (this) {
+      Snapshot snapshot = (Snapshot) snapshots.remove(url);
+      if (snapshot != null)
+        discardSpare(snapshot);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes all templates from the cache.
+   */
+  public synchronized void clear() {
+    for (Iterator iterator = snapshots.values().iterator(); iterator.hasNext();)
+      discardSpare((Snapshot) iterator.next());
+    snapshots.clear();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns modification time of the cached snapshot of the template with the submitted 
+   * URL. The value changes whenever the template was read again because it was modified.
+   * 
+   * @param url URL of the template
+   * 
+   * @return modification time of the cached snapshot or -1 if the template is not cached
+   */
+  public long getModificationTime(String url) {
+    if (url == null)
+      return -1;
+    try {
+      url = URLAdapter.adaptURL(url);
+    }
+    catch (IOException ioException) {
+      return -1;
+    }
+    synchronized (this) {
+      Snapshot snapshot = (Snapshot) snapshots.get(url);
+      return snapshot != null ? snapshot.modified : -1;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of cached templates.
+   * 
+   * @return number of cached templates
+   */
+  public synchronized int getTemplateCount() {
+    return snapshots.size();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of instantiations which used a cached template.
+   * 
+   * @return number of instantiations which used a cached template
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of instantiations which had to read the template.
+   * 
+   * @return number of instantiations which had to read the template
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Disposes all allocated resources. Spare instances are closed.
+   */
+  public void dispose() {
+    ExecutorService spareExecutor = null;
+    synchronized (this) {
+      if (disposed)
+        return;
+      clear();
+      disposed = true;
+      spareExecutor = this.spareExecutor;
+      this.spareExecutor = null;
+    }
+    if (spareExecutor != null)
+      spareExecutor.shutdown();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the current snapshot of the template with the submitted URL. The template 
+   * is read if it is not cached or was modified.
+   * 
+   * @param url URL of the template
+   * 
+   * @return current snapshot of the template
+   * 
+   * @throws NOAException if the template can not be read
+   */
+  private Snapshot getSnapshot(String url) throws NOAException {
+    long modified = getLastModified(url);
+    synchronized (this) {
+      Snapshot snapshot = (Snapshot) snapshots.get(url);
+      if (snapshot != null) {
+        if (snapshot.modified == modified) {
+          hitCount++;
+          return snapshot;
+        }
+        snapshots.remove(url);
+        discardSpare(snapshot);
+      }
+    }
+    Snapshot snapshot = new Snapshot(url, modified, read(url));
+    synchronized (this) {
+      missCount++;
+      if (!disposed)
+        snapshots.put(url, snapshot);
+    }
+    return snapshot;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads a new instance of the submitted snapshot. The URL of the template is used as 
+   * base URL of the instance unless the descriptor provides one, so that relative links 
+   * and images of the template are resolved as if it was loaded from its URL.
+   * 
+   * @param snapshot snapshot to be loaded
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return new instance of the snapshot
+   * 
+   * @throws NOAException if the instance can not be loaded
+   */
+  private IDocument load(Snapshot snapshot, IDocumentDescriptor documentDescriptor)
+      throws NOAException {
+    try {
+      return officeApplication.getDocumentService().loadDocument(snapshot.content,
+          withBaseURL(documentDescriptor, snapshot.url));
+    }
+    catch (NOAException noaException) {
+      throw noaException;
+    }
+    catch (Exception exception) {
+      throw new NOAException(exception);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Submits the loading of a spare instance of the submitted snapshot.
+   * 
+   * @param snapshot snapshot to be used
+   */
+  private void submitSpare(final Snapshot snapshot) {
+    if (spareExecutor == null || snapshot.spare != null || snapshots.get(snapshot.url) != snapshot)
+      return;
+    snapshot.spare = spareExecutor.submit(new Callable() {
+      public Object call() throws Exception {
+        IDocument document = load(snapshot, createTemplateDescriptor());
+        DocumentRegistry.setExcluded(document, true);
+        return document;
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the document of the submitted spare and counts it as open document again. 
+   * Returns null if no spare is available, it could not be loaded or it was closed in 
+   * the meantime, for example because its office was recycled.
+   * 
+   * @param spare spare to be used (can be null)
+   * 
+   * @return document of the spare or null
+   */
+  private IDocument getSpare(Future spare) {
+    if (spare == null)
+      return null;
+    try {
+      IDocument document = (IDocument) spare.get();
+      if (document == null || !document.isOpen())
+        return null;
+      DocumentRegistry.setExcluded(document, false);
+      return document;
+    }
+    catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      discard(spare);
+    }
+    catch (Exception exception) {
+      LOGGER.log(Level.FINE, "Spare instance of the template can not be loaded.", exception); //$NON-NLS-1$
+    }
+    return null;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the spare instance of the submitted snapshot.
+   * 
+   * @param snapshot snapshot to be used
+   */
+  private void discardSpare(Snapshot snapshot) {
+    Future spare = snapshot.spare;
+    snapshot.spare = null;
+    if (spare != null)
+      discard(spare);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the document of the submitted spare as soon as it is loaded.
+   * 
+   * @param spare spare to be closed
+   */
+  private void discard(final Future spare) {
+    if (spare.cancel(false))
+      return;
+    Runnable closer = new Runnable() {
+      public void run() {
+        try {
+          ((IDocument) spare.get()).close();
+        }
+        catch (Throwable throwable) {
+          //the spare was not loaded
+        }
+      }
+    };
+    if (spare.isDone() || spareExecutor == null)
+      closer.run();
+    else
+      spareExecutor.execute(closer);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a new descriptor for a hidden instance of a template.
+   * 
+   * @return new descriptor for a hidden instance of a template
+   */
+  private static IDocumentDescriptor createTemplateDescriptor() {
+    DocumentDescriptor documentDescriptor = new DocumentDescriptor(true);
+    documentDescriptor.setAsTemplate(true);
+    return documentDescriptor;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the submitted descriptor if it provides a base URL, otherwise a copy of it 
+   * with the submitted base URL. The submitted descriptor is not changed, as it may be 
+   * shared, for example {@link DocumentDescriptor#DEFAULT_HIDDEN}.
+   * 
+   * @param documentDescriptor document descriptor to be used
+   * @param baseURL base URL to be used
+   * 
+   * @return descriptor with a base URL
+   */
+  private static IDocumentDescriptor withBaseURL(IDocumentDescriptor documentDescriptor,
+      String baseURL) {
+    if (documentDescriptor.getBaseURL() != null)
+      return documentDescriptor;
+    DocumentDescriptor copy = new DocumentDescriptor(documentDescriptor.getHidden());
+    copy.setAsTemplate(documentDescriptor.getAsTemplate());
+    copy.setReadOnly(documentDescriptor.getReadOnly());
+    copy.setAsPreview(documentDescriptor.getAsPreview());
+    copy.setAuthor(documentDescriptor.getAuthor());
+    copy.setComment(documentDescriptor.getComment());
+    copy.setTitle(documentDescriptor.getTitle());
+    copy.setURL(documentDescriptor.getURL());
+    copy.setFilterDefinition(documentDescriptor.getFilterDefinition());
+    copy.setMacroExecutionMode(documentDescriptor.getMacroExecutionMode());
+    copy.setBaseURL(baseURL);
+    return copy;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the modification time of the template with the submitted URL. Returns 0 if 
+   * the modification time is not known.
+   * 
+   * @param url URL of the template
+   * 
+   * @return modification time of the template or 0
+   * 
+   * @throws NOAException if the template is not available
+   */
+  private static long getLastModified(String url) throws NOAException {
+    try {
+      if (url.startsWith("file:")) { //$NON-NLS-1$
+        File file = new File(new URI(url));
+        if (!file.isFile())
+          throw new NOAException("The template " + url + " is not available."); //$NON-NLS-1$ //$NON-NLS-2$
+        return file.lastModified();
+      }
+      URLConnection urlConnection = new URL(url).openConnection();
+      return urlConnection.getLastModified();
+    }
+    catch (NOAException noaException) {
+      throw noaException;
+    }
+    catch (Exception exception) {
+      throw new NOAException(exception);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Reads the template with the submitted URL.
+   * 
+   * @param url URL of the template
+   * 
+   * @return bytes of the template
+   * 
+   * @throws NOAException if the template can not be read
+   */
+  private static byte[] read(String url) throws NOAException {
+    try {
+      InputStream inputStream = new URL(url).openStream();
+      try {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1)
+          outputStream.write(buffer, 0, read);
+        return outputStream.toByteArray();
+      }
+      finally {
+        inputStream.close();
+      }
+    }
+    catch (IOException ioException) {
+      throw new NOAException(ioException);
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,394 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.internal.document;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ag.ion.bion.officelayer.application.IOfficeApplication;
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.document.IDocumentDescriptor;
+import ag.ion.bion.officelayer.filter.IFilter;
+import ag.ion.noa.NOAException;
+import ag.ion.noa.document.IAsyncDocumentService;
+
+/**
+ * Asynchronous document service of an office application. The tasks obtain the 
+ * document service from the application when they are executed, so the service 
+ * survives restarts of the office process.
+ */
+public class AsyncDocumentService implements IAsyncDocumentService {
+
+  private static final String         WORKER_THREAD_NAME  = "NOA document worker";  //$NON-NLS-1$
+  private static final String         TIMEOUT_THREAD_NAME = "NOA document timeout"; //$NON-NLS-1$
+  private static final long           KEEP_ALIVE_TIME     = 60000;
+
+  private static Logger               LOGGER              = Logger.getLogger(AsyncDocumentService.class.getName());
+
+  private IOfficeApplication          officeApplication   = null;
+  private ThreadPoolExecutor          executor            = null;
+  private ScheduledThreadPoolExecutor timeoutExecutor     = null;
+  private long                        timeout             = 0;
+  private AtomicInteger               pendingTaskCount    = new AtomicInteger();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Thread factory for daemon threads.
+   */
+  private static class DaemonThreadFactory implements ThreadFactory {
+
+    private String        name        = null;
+    private AtomicInteger threadCount = new AtomicInteger();
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new DaemonThreadFactory.
+     * 
+     * @param name name of the threads
+     */
+    public DaemonThreadFactory(String name) {
+      this.name = name;
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new daemon thread.
+     * 
+     * @param runnable runnable to be executed
+     * 
+     * @return new daemon thread
+     */
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, name + " " + threadCount.incrementAndGet()); //$NON-NLS-1$
+      thread.setDaemon(true);
+      return thread;
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Task of the service. A running task is cancelled as soon as it exceeds the 
+   * timeout, a document which is loaded by a cancelled task is closed.
+   */
+  private class DocumentTask extends FutureTask {
+
+    private volatile ScheduledFuture timeoutFuture = null;
+
+    //----------------------------------------------------------------------------
+    /**
+     * Constructs new DocumentTask.
+     * 
+     * @param callable callable to be executed
+     */
+    public DocumentTask(Callable callable) {
+      super(callable);
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Runs the task.
+     */
+    public void run() {
+      if (timeoutExecutor != null && !isDone()) {
+        timeoutFuture = timeoutExecutor.schedule(new Runnable() {
+          public void run() {
+            if (!isDone() && cancel(true))
+              LOGGER.warning("Asynchronous document task cancelled after " + timeout + " ms."); //$NON-NLS-1$ //$NON-NLS-2$
+          }
+        }, timeout, TimeUnit.MILLISECONDS);
+      }
+      super.run();
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Sets the result of the task. Closes a loaded document if the task was 
+     * already cancelled.
+     * 
+     * @param value result of the task
+     */
+    protected void set(Object value) {
+      super.set(value);
+      if (isCancelled() && value instanceof IDocument)
+        closeDocument((IDocument) value);
+    }
+
+    //----------------------------------------------------------------------------
+    /**
+     * Releases the timeout of the finished task.
+     */
+    protected void done() {
+      pendingTaskCount.decrementAndGet();
+      ScheduledFuture timeoutFuture = this.timeoutFuture;
+      if (timeoutFuture != null) {
+        timeoutFuture.cancel(false);
+        timeoutExecutor.remove((Runnable) timeoutFuture);
+      }
+    }
+    //----------------------------------------------------------------------------
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new AsyncDocumentService.
+   * 
+   * @param officeApplication office application to be used
+   * @param threadCount number of worker threads
+   * @param queueCapacity number of tasks which can be queued
+   * @param timeout timeout of a running task in milliseconds (0 for no timeout)
+   */
+  public AsyncDocumentService(IOfficeApplication officeApplication, int threadCount,
+      int queueCapacity, long timeout) {
+    this.officeApplication = officeApplication;
+    this.timeout = timeout;
+    executor = new ThreadPoolExecutor(threadCount,
+        threadCount,
+        KEEP_ALIVE_TIME,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue(queueCapacity),
+        new DaemonThreadFactory(WORKER_THREAD_NAME));
+    executor.allowCoreThreadTimeOut(true);
+    if (timeout > 0)
+      timeoutExecutor = new ScheduledThreadPoolExecutor(1,
+          new DaemonThreadFactory(TIMEOUT_THREAD_NAME));
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted URL. The result of the future is the 
+   * loaded <code>IDocument</code>.
+   * 
+   * @param url URL of the document
+   * @param documentDescriptor document descriptor to be used (can be null)
+   * 
+   * @return future of the loaded document
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future loadDocumentAsync(final String url, final IDocumentDescriptor documentDescriptor)
+      throws NOAException {
+    return submit(new Callable() {
+      public Object call() throws Exception {
+        if (documentDescriptor == null)
+          return officeApplication.getDocumentService().loadDocument(url);
+        return officeApplication.getDocumentService().loadDocument(url, documentDescriptor);
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Loads document from the submitted input stream. The result of the future is 
+   * the loaded <code>IDocument</code>. The stream is read by the worker thread and 
+   * must not be closed before the future is done.
+   * 
+   * @param inputStream input stream of the document
+   * @param documentDescriptor document descriptor to be used
+   * 
+   * @return future of the loaded document
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future loadDocumentAsync(final InputStream inputStream,
+      final IDocumentDescriptor documentDescriptor) throws NOAException {
+    return submit(new Callable() {
+      public Object call() throws Exception {
+        return officeApplication.getDocumentService().loadDocument(inputStream, documentDescriptor);
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Stores the submitted document to its location. The result of the future is null.
+   * 
+   * @param document document to be stored
+   * 
+   * @return future of the store
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future storeAsync(final IDocument document) throws NOAException {
+    return submit(new Callable() {
+      public Object call() throws Exception {
+        document.getPersistenceService().store();
+        return null;
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Exports the submitted document to the submitted URL. The result of the future 
+   * is null.
+   * 
+   * @param document document to be exported
+   * @param url URL of the export
+   * @param filter filter to be used
+   * 
+   * @return future of the export
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future exportAsync(final IDocument document, final String url, final IFilter filter)
+      throws NOAException {
+    return submit(new Callable() {
+      public Object call() throws Exception {
+        document.getPersistenceService().export(url, filter);
+        return null;
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Exports the submitted document to the submitted output stream. The result of 
+   * the future is null. The stream is written by the worker thread and must not be 
+   * closed before the future is done.
+   * 
+   * @param document document to be exported
+   * @param outputStream output stream of the export
+   * @param filter filter to be used
+   * 
+   * @return future of the export
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future exportAsync(final IDocument document, final OutputStream outputStream,
+      final IFilter filter) throws NOAException {
+    return submit(new Callable() {
+      public Object call() throws Exception {
+        document.getPersistenceService().export(outputStream, filter);
+        return null;
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted document. The result of the future is null.
+   * 
+   * @param document document to be closed
+   * 
+   * @return future of the close
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  public Future closeAsync(final IDocument document) throws NOAException {
+    return submit(new Callable() {
+      public Object call() throws Exception {
+        document.close();
+        return null;
+      }
+    });
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of tasks which are queued or running.
+   * 
+   * @return number of tasks which are queued or running
+   */
+  public int getPendingTaskCount() {
+    return pendingTaskCount.get();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Disposes all allocated resources. Running tasks are interrupted and queued
+   * tasks are cancelled.
+   */
+  public void dispose() {
+    List queuedTasks = executor.shutdownNow();
+    for (Iterator iterator = queuedTasks.iterator(); iterator.hasNext();) {
+      Object task = iterator.next();
+      if (task instanceof Future)
+        ((Future) task).cancel(false);
+    }
+    if (timeoutExecutor != null)
+      timeoutExecutor.shutdownNow();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Submits the submitted callable.
+   * 
+   * @param callable callable to be submitted
+   * 
+   * @return future of the callable
+   * 
+   * @throws NOAException if the task is rejected
+   */
+  private Future submit(Callable callable) throws NOAException {
+    DocumentTask documentTask = new DocumentTask(callable);
+    pendingTaskCount.incrementAndGet();
+    try {
+      executor.execute(documentTask);
+      return documentTask;
+    }
+    catch (RejectedExecutionException rejectedExecutionException) {
+      pendingTaskCount.decrementAndGet();
+      if (executor.isShutdown())
+        throw new NOAException("The asynchronous document service was disposed.",
+            rejectedExecutionException);
+      throw new NOAException("The asynchronous document service is saturated.",
+          rejectedExecutionException);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Closes the submitted document which was loaded by a cancelled task.
+   * 
+   * @param document document to be closed
+   */
+  private void closeDocument(IDocument document) {
+    try {
+      document.close();
+    }
+    catch (Throwable throwable) {
+      LOGGER.log(Level.WARNING, "Document of a cancelled task could not be closed.", throwable); //$NON-NLS-1$
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
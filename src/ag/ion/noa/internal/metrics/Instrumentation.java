@@ -0,0 +1,136 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.internal.metrics;
+
+import ag.ion.noa.metrics.IOfficeMetrics;
+
+/**
+ * Entry point for the instrumentation of NOA. The wrappers of NOA are not bound to 
+ * an office application, therefore the installed metrics collector receives the 
+ * calls of all applications. Without an installed collector the instrumentation only 
+ * costs one volatile read per call.
+ */
+public class Instrumentation {
+
+  private static final long              DISABLED = Long.MIN_VALUE;
+
+  private static volatile IOfficeMetrics metrics  = null;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Installs the submitted metrics collector.
+   * 
+   * @param officeMetrics metrics collector to be installed (null disables the instrumentation)
+   */
+  public static void setMetrics(IOfficeMetrics officeMetrics) {
+    metrics = officeMetrics;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the installed metrics collector or null.
+   * 
+   * @return installed metrics collector or null
+   */
+  public static IOfficeMetrics getMetrics() {
+    return metrics;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the start time of a call which must be submitted to one of the record 
+   * methods.
+   * 
+   * @return start time of a call
+   */
+  public static long start() {
+    if (metrics == null)
+      return DISABLED;
+    return System.nanoTime();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records a call of a NOA wrapper method.
+   * 
+   * @param name name of the method, for example <code>PersistenceService.export</code>
+   * @param start start time returned by {@link #start()}
+   */
+  public static void recordMethod(String name, long start) {
+    record(IOfficeMetrics.CATEGORY_NOA, name, start);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records a call of an UNO interface method.
+   * 
+   * @param name name of the method, for example <code>XStorable.storeToURL</code>
+   * @param start start time returned by {@link #start()}
+   */
+  public static void recordUnoCall(String name, long start) {
+    record(IOfficeMetrics.CATEGORY_UNO, name, start);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records a stream transfer between NOA and the office.
+   * 
+   * @param name name of the method, for example <code>PersistenceService.export</code>
+   * @param bytes number of streamed bytes
+   * @param start start time returned by {@link #start()}
+   */
+  public static void recordTransfer(String name, long bytes, long start) {
+    IOfficeMetrics officeMetrics = metrics;
+    if (start == DISABLED || officeMetrics == null)
+      return;
+    try {
+      officeMetrics.recordTransfer(IOfficeMetrics.CATEGORY_IO, name, bytes, System.nanoTime() - start);
+    }
+    catch (Throwable throwable) {
+      //metrics must never break the call
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records a call.
+   * 
+   * @param category category of the call
+   * @param name name of the method
+   * @param start start time returned by {@link #start()}
+   */
+  private static void record(String category, String name, long start) {
+    IOfficeMetrics officeMetrics = metrics;
+    if (start == DISABLED || officeMetrics == null)
+      return;
+    try {
+      officeMetrics.recordCall(category, name, System.nanoTime() - start);
+    }
+    catch (Throwable throwable) {
+      //metrics must never break the call
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -115,5 +115,40 @@ public class ServiceProvider implements IServiceProvider {
     }
   }
   //----------------------------------------------------------------------------
+  /**
+   * Returns office connection of the service provider.
+   * 
+   * @return office connection of the service provider
+   */
+  public IOfficeConnection getOfficeConnection() {
+    return officeConnection;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted object is a service provider of
+   * the same office connection.
+   * 
+   * @param object object to be compared
+   * 
+   * @return information whether the submitted object is a service provider of
+   * the same office connection
+   */
+  public boolean equals(Object object) {
+    if (object == this)
+      return true;
+    if (!(object instanceof ServiceProvider))
+      return false;
+    return officeConnection == ((ServiceProvider) object).officeConnection;
+  }
+  //----------------------------------------------------------------------------
+  /**
+   * Returns hash code of the service provider.
+   * 
+   * @return hash code of the service provider
+   */
+  public int hashCode() {
+    return System.identityHashCode(officeConnection);
+  }
+  //----------------------------------------------------------------------------
   
 }
\ No newline at end of file
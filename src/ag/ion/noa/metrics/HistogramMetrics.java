@@ -0,0 +1,234 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics collector which records a latency histogram per category and method name
+ * and the throughput of the stream transfers.
+ */
+public class HistogramMetrics implements IOfficeMetrics {
+
+  private static final String SEPARATOR             = ":"; //$NON-NLS-1$
+  private static final long   NANOS_PER_SECOND      = 1000000000L;
+
+  private Map                 histograms            = new ConcurrentHashMap();
+  private Map                 transfers             = new ConcurrentHashMap();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Transferred bytes and time of one method.
+   */
+  private static class Transfer {
+
+    private AtomicLong bytes = new AtomicLong();
+    private AtomicLong time  = new AtomicLong();
+
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records one call.
+   * 
+   * @param category category of the call
+   * @param name name of the called method
+   * @param duration duration of the call in nanoseconds
+   */
+  public void recordCall(String category, String name, long duration) {
+    String key = category + SEPARATOR + name;
+    LatencyHistogram histogram = (LatencyHistogram) histograms.get(key);
+    if (histogram == null) {
+      histogram = new LatencyHistogram();
+      LatencyHistogram existing = (LatencyHistogram) ((ConcurrentHashMap) histograms).putIfAbsent(key,
+          histogram);
+      if (existing != null)
+        histogram = existing;
+    }
+    histogram.record(duration);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records one stream transfer.
+   * 
+   * @param category category of the transfer
+   * @param name name of the method which streamed the bytes
+   * @param bytes number of streamed bytes
+   * @param duration duration of the transfer in nanoseconds
+   */
+  public void recordTransfer(String category, String name, long bytes, long duration) {
+    String key = category + SEPARATOR + name;
+    Transfer transfer = (Transfer) transfers.get(key);
+    if (transfer == null) {
+      transfer = new Transfer();
+      Transfer existing = (Transfer) ((ConcurrentHashMap) transfers).putIfAbsent(key, transfer);
+      if (existing != null)
+        transfer = existing;
+    }
+    transfer.bytes.addAndGet(bytes);
+    transfer.time.addAndGet(Math.max(duration, 0));
+    recordCall(category, name, duration);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of bytes streamed by the submitted method.
+   * 
+   * @param category category of the method
+   * @param name name of the method
+   * 
+   * @return number of bytes streamed by the method
+   */
+  public long getTransferredBytes(String category, String name) {
+    Transfer transfer = (Transfer) transfers.get(category + SEPARATOR + name);
+    if (transfer == null)
+      return 0;
+    return transfer.bytes.get();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the average throughput of the submitted method in bytes per second.
+   * 
+   * @param category category of the method
+   * @param name name of the method
+   * 
+   * @return average throughput of the method in bytes per second
+   */
+  public long getBytesPerSecond(String category, String name) {
+    Transfer transfer = (Transfer) transfers.get(category + SEPARATOR + name);
+    if (transfer == null)
+      return 0;
+    long time = transfer.time.get();
+    if (time <= 0)
+      return 0;
+    return (long) (transfer.bytes.get() * ((double) NANOS_PER_SECOND / time));
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns histogram of the submitted method. Returns null if the method was
+   * never recorded.
+   * 
+   * @param category category of the method
+   * @param name name of the method
+   * 
+   * @return histogram of the method or null
+   */
+  public LatencyHistogram getHistogram(String category, String name) {
+    return (LatencyHistogram) histograms.get(category + SEPARATOR + name);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns sorted names of all recorded methods of the submitted category.
+   * 
+   * @param category category to be used
+   * 
+   * @return sorted names of all recorded methods of the category
+   */
+  public String[] getNames(String category) {
+    String prefix = category + SEPARATOR;
+    List names = new ArrayList();
+    for (Iterator iterator = histograms.keySet().iterator(); iterator.hasNext();) {
+      String key = (String) iterator.next();
+      if (key.startsWith(prefix))
+        names.add(key.substring(prefix.length()));
+    }
+    Collections.sort(names);
+    return (String[]) names.toArray(new String[names.size()]);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of recorded calls into the office (bridge round trips).
+   * 
+   * @return number of recorded calls into the office
+   */
+  public long getRoundTripCount() {
+    long count = 0;
+    String[] names = getNames(CATEGORY_UNO);
+    for (int i = 0; i < names.length; i++) {
+      LatencyHistogram histogram = getHistogram(CATEGORY_UNO, names[i]);
+      if (histogram != null)
+        count += histogram.getCount();
+    }
+    return count;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Removes all recorded histograms and transfers.
+   */
+  public void reset() {
+    histograms.clear();
+    transfers.clear();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a report of all recorded histograms, one method per line.
+   * 
+   * @return report of all recorded histograms
+   */
+  public String getReport() {
+    StringBuffer buffer = new StringBuffer();
+    appendReport(buffer, CATEGORY_NOA);
+    appendReport(buffer, CATEGORY_UNO);
+    appendReport(buffer, CATEGORY_IO);
+    buffer.append("round trips: ").append(getRoundTripCount()); //$NON-NLS-1$
+    return buffer.toString();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Appends the histograms of the submitted category to the submitted buffer.
+   * 
+   * @param buffer buffer to be used
+   * @param category category to be used
+   */
+  private void appendReport(StringBuffer buffer, String category) {
+    String[] names = getNames(category);
+    for (int i = 0; i < names.length; i++) {
+      LatencyHistogram histogram = getHistogram(category, names[i]);
+      if (histogram == null)
+        continue;
+      buffer.append(category).append(SEPARATOR).append(names[i]).append(' ');
+      buffer.append(histogram);
+      if (transfers.containsKey(category + SEPARATOR + names[i]))
+        buffer.append(" bytes=").append(getTransferredBytes(category, names[i])) //$NON-NLS-1$
+            .append(" bytes/s=").append(getBytesPerSecond(category, names[i])); //$NON-NLS-1$
+      buffer.append('\n');
+    }
+  }
+  //----------------------------------------------------------------------------
+
+}
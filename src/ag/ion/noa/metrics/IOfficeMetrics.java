@@ -0,0 +1,63 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.metrics;
+
+/**
+ * Collector for timing metrics of NOA. NOA reports the duration of its costly wrapper
+ * methods and of the calls into the office (every UNO call is one round trip over the
+ * bridge) as well as the number of bytes streamed between NOA and the office.
+ * Implementations must be thread safe and should return quickly.
+ */
+public interface IOfficeMetrics {
+
+  /** Category of NOA wrapper methods, for example <code>PersistenceService.export</code>. */
+  public static final String CATEGORY_NOA = "noa"; //$NON-NLS-1$
+  /** Category of UNO interface methods, for example <code>XStorable.storeToURL</code>. */
+  public static final String CATEGORY_UNO = "uno"; //$NON-NLS-1$
+  /** Category of streams between NOA and the office, for example <code>PersistenceService.export</code>. */
+  public static final String CATEGORY_IO  = "io"; //$NON-NLS-1$
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records one call.
+   * 
+   * @param category category of the call (see the <code>CATEGORY_*</code> constants)
+   * @param name name of the called method
+   * @param duration duration of the call in nanoseconds
+   */
+  public void recordCall(String category, String name, long duration);
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records one stream transfer.
+   * 
+   * @param category category of the transfer (see the <code>CATEGORY_*</code> constants)
+   * @param name name of the method which streamed the bytes
+   * @param bytes number of streamed bytes
+   * @param duration duration of the transfer in nanoseconds
+   */
+  public void recordTransfer(String category, String name, long bytes, long duration);
+  //----------------------------------------------------------------------------
+
+}
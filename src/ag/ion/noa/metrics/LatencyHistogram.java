@@ -0,0 +1,213 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe latency histogram. The buckets grow by powers of two: bucket 0 counts 
+ * durations below one microsecond and bucket i counts durations below 2^i microseconds. 
+ * The last bucket counts all longer durations.
+ */
+public class LatencyHistogram {
+
+  /** Number of buckets of the histogram. */
+  public static final int  BUCKET_COUNT       = 32;
+
+  private static final long NANOS_PER_MICROSECOND = 1000;
+
+  private AtomicLongArray   buckets            = new AtomicLongArray(BUCKET_COUNT);
+  private AtomicLong        count              = new AtomicLong();
+  private AtomicLong        totalTime          = new AtomicLong();
+  private AtomicLong        maxTime            = new AtomicLong();
+
+  //----------------------------------------------------------------------------
+  /**
+   * Records the submitted duration.
+   * 
+   * @param duration duration in nanoseconds
+   */
+  public void record(long duration) {
+    if (duration < 0)
+      duration = 0;
+    buckets.incrementAndGet(getBucket(duration));
+    count.incrementAndGet();
+    totalTime.addAndGet(duration);
+    long max = maxTime.get();
+    while (duration > max && !maxTime.compareAndSet(max, duration))
+      max = maxTime.get();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of recorded durations.
+   * 
+   * @return number of recorded durations
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns sum of all recorded durations in nanoseconds.
+   * 
+   * @return sum of all recorded durations in nanoseconds
+   */
+  public long getTotalTime() {
+    return totalTime.get();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns longest recorded duration in nanoseconds.
+   * 
+   * @return longest recorded duration in nanoseconds
+   */
+  public long getMaxTime() {
+    return maxTime.get();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns mean of the recorded durations in nanoseconds.
+   * 
+   * @return mean of the recorded durations in nanoseconds
+   */
+  public long getMeanTime() {
+    long count = getCount();
+    if (count == 0)
+      return 0;
+    return getTotalTime() / count;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of durations recorded in the bucket with the submitted index.
+   * 
+   * @param index index of the bucket
+   * 
+   * @return number of durations recorded in the bucket
+   */
+  public long getBucketCount(int index) {
+    return buckets.get(index);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns exclusive upper bound of the bucket with the submitted index in nanoseconds.
+   * Returns Long.MAX_VALUE for the last bucket.
+   * 
+   * @param index index of the bucket
+   * 
+   * @return exclusive upper bound of the bucket in nanoseconds
+   */
+  public static long getBucketUpperBound(int index) {
+    if (index >= BUCKET_COUNT - 1)
+      return Long.MAX_VALUE;
+    return (1L << index) * NANOS_PER_MICROSECOND;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the upper bound of the bucket which contains the submitted percentile 
+   * in nanoseconds. The longest recorded duration is returned for the last bucket.
+   * 
+   * @param percentile percentile between 0 and 100
+   * 
+   * @return upper bound of the bucket which contains the percentile in nanoseconds
+   */
+  public long getPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0)
+      return 0;
+    long rank = (long) Math.ceil(count * percentile / 100.0);
+    if (rank < 1)
+      rank = 1;
+    long sum = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      sum += buckets.get(i);
+      if (sum >= rank)
+        return Math.min(getBucketUpperBound(i), getMaxTime());
+    }
+    return getMaxTime();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Resets the histogram.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++)
+      buckets.set(i, 0);
+    count.set(0);
+    totalTime.set(0);
+    maxTime.set(0);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns a summary of the histogram.
+   * 
+   * @return summary of the histogram
+   */
+  public String toString() {
+    return "count=" + getCount() //$NON-NLS-1$
+        + " mean=" + toMicroseconds(getMeanTime()) //$NON-NLS-1$
+        + "us p50=" + toMicroseconds(getPercentile(50)) //$NON-NLS-1$
+        + "us p99=" + toMicroseconds(getPercentile(99)) //$NON-NLS-1$
+        + "us max=" + toMicroseconds(getMaxTime()) + "us"; //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns index of the bucket for the submitted duration.
+   * 
+   * @param duration duration in nanoseconds
+   * 
+   * @return index of the bucket
+   */
+  private static int getBucket(long duration) {
+    long microseconds = duration / NANOS_PER_MICROSECOND;
+    if (microseconds == 0)
+      return 0;
+    int bucket = 64 - Long.numberOfLeadingZeros(microseconds);
+    return Math.min(bucket, BUCKET_COUNT - 1);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Converts the submitted nanoseconds to microseconds.
+   * 
+   * @param nanoseconds nanoseconds to be converted
+   * 
+   * @return microseconds
+   */
+  private static long toMicroseconds(long nanoseconds) {
+    return nanoseconds / NANOS_PER_MICROSECOND;
+  }
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.metrics.test;
+
+import ag.ion.noa.metrics.HistogramMetrics;
+import ag.ion.noa.metrics.IOfficeMetrics;
+import ag.ion.noa.metrics.LatencyHistogram;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest extends TestCase {
+
+  public void testRecord() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(500);
+    histogram.record(1500);
+    histogram.record(3000);
+    histogram.record(-5);
+    Assert.assertEquals(4, histogram.getCount());
+    Assert.assertEquals(2, histogram.getBucketCount(0));
+    Assert.assertEquals(1, histogram.getBucketCount(1));
+    Assert.assertEquals(1, histogram.getBucketCount(2));
+    Assert.assertEquals(3000, histogram.getMaxTime());
+    Assert.assertEquals(5000 / 4, histogram.getMeanTime());
+
+    histogram.record(Long.MAX_VALUE / 2);
+    Assert.assertEquals(1, histogram.getBucketCount(LatencyHistogram.BUCKET_COUNT - 1));
+
+    histogram.reset();
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getPercentile(99));
+  }
+
+  public void testGetPercentile() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++)
+      histogram.record(500);
+    histogram.record(10000);
+    Assert.assertEquals(LatencyHistogram.getBucketUpperBound(0), histogram.getPercentile(50));
+    Assert.assertEquals(LatencyHistogram.getBucketUpperBound(0), histogram.getPercentile(99));
+    Assert.assertEquals(10000, histogram.getPercentile(100));
+  }
+
+  public void testHistogramMetrics() {
+    HistogramMetrics metrics = new HistogramMetrics();
+    metrics.recordCall(IOfficeMetrics.CATEGORY_UNO, "XStorable.store", 1000);
+    metrics.recordCall(IOfficeMetrics.CATEGORY_UNO, "XStorable.store", 2000);
+    metrics.recordCall(IOfficeMetrics.CATEGORY_NOA, "PersistenceService.store", 4000);
+    Assert.assertEquals(2, metrics.getRoundTripCount());
+    Assert.assertEquals(2, metrics.getHistogram(IOfficeMetrics.CATEGORY_UNO, "XStorable.store").getCount());
+    Assert.assertEquals(1, metrics.getNames(IOfficeMetrics.CATEGORY_NOA).length);
+    metrics.reset();
+    Assert.assertEquals(0, metrics.getRoundTripCount());
+  }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.text.merge;
+
+import java.util.Map;
+
+import ag.ion.bion.officelayer.text.ITextDocument;
+import ag.ion.noa.NOAException;
+
+/**
+ * Listener which receives every document of a merge. The listener is called by the 
+ * thread which runs the merge and is responsible for the document, for example it 
+ * exports and closes the document.
+ */
+public interface IMergeListener {
+
+  //----------------------------------------------------------------------------
+  /**
+   * Informs the listener that a record was merged into a new instance of the template.
+   * 
+   * @param record merged record
+   * @param textDocument new instance of the template which contains the record
+   * 
+   * @throws NOAException if the document can not be processed, the merge is stopped
+   */
+  public void recordMerged(Map record, ITextDocument textDocument) throws NOAException;
+  //----------------------------------------------------------------------------
+
+}
@@ -0,0 +1,344 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.text.merge;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ag.ion.bion.officelayer.document.IDocument;
+import ag.ion.bion.officelayer.text.ITextDocument;
+import ag.ion.noa.NOAException;
+import ag.ion.noa.document.TemplateCache;
+
+import com.sun.star.beans.XPropertySet;
+import com.sun.star.container.XEnumeration;
+import com.sun.star.container.XNameAccess;
+import com.sun.star.frame.XModel;
+import com.sun.star.text.XBookmarksSupplier;
+import com.sun.star.text.XTextContent;
+import com.sun.star.text.XTextCursor;
+import com.sun.star.text.XTextFieldsSupplier;
+import com.sun.star.uno.UnoRuntime;
+
+/**
+ * Merges records into instances of a template. A record maps names of placeholders, user 
+ * fields and bookmarks to their values; the values are converted with <code>toString()</code>
+ * and null values clear the element. Names which are not part of the template are ignored. 
+ * <br>
+ * <br>
+ * The template is analyzed once per version (see {@link MergeIndex}); the index is built 
+ * again when the template cache reads a modified template. User fields and bookmarks of 
+ * an instance are resolved by name, the placeholders of an instance are resolved by their 
+ * positions in the body text, so the cost of a merge depends on the record and not on the 
+ * size of the template. Only placeholders without a position in the index, or whose 
+ * position does not match because the instance was changed, are collected in a pass over 
+ * the fields of the instance. 
+ * All values of a record are applied while the controllers of the document are locked, 
+ * so the office does not update views in between.
+ */
+public class MergeEngine {
+
+  private static final String CONTENT_PROPERTY = "Content"; //$NON-NLS-1$
+
+  private TemplateCache       templateCache    = null;
+  private String              templateURL      = null;
+  private MergeIndex          mergeIndex       = null;
+  private long                indexModified    = -1;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new MergeEngine.
+   * 
+   * @param templateCache template cache which provides the instances of the template
+   * @param templateURL URL of the template
+   * 
+   * @throws IllegalArgumentException if the submitted template cache or URL is not valid
+   */
+  public MergeEngine(TemplateCache templateCache, String templateURL)
+      throws IllegalArgumentException {
+    if (templateCache == null)
+      throw new IllegalArgumentException("The submitted template cache is not valid."); //$NON-NLS-1$
+    if (templateURL == null)
+      throw new IllegalArgumentException("The submitted template URL is not valid."); //$NON-NLS-1$
+    this.templateCache = templateCache;
+    this.templateURL = templateURL;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns index of the template. The index is built by the first merge and after 
+   * every modification of the template, so null is returned before the first merge.
+   * 
+   * @return index of the template or null
+   */
+  public synchronized MergeIndex getMergeIndex() {
+    return mergeIndex;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Merges the submitted record into a new instance of the template. The caller is 
+   * responsible for the returned document.
+   * 
+   * @param record record to be merged
+   * 
+   * @return new instance of the template which contains the record
+   * 
+   * @throws NOAException if the record can not be merged
+   */
+  public ITextDocument merge(Map record) throws NOAException {
+    if (record == null)
+      throw new NOAException("The submitted record is not valid."); //$NON-NLS-1$
+    IDocument document = templateCache.instantiate(templateURL);
+    boolean merged = false;
+    try {
+      if (!(document instanceof ITextDocument))
+        throw new NOAException("The template " + templateURL + " is not a text document."); //$NON-NLS-1$ //$NON-NLS-2$
+      ITextDocument textDocument = (ITextDocument) document;
+      long modified = templateCache.getModificationTime(templateURL);
+      MergeIndex mergeIndex = null;
+      synchronized (this) {
+        if (this.mergeIndex == null || indexModified != modified || modified == -1) {
+          this.mergeIndex = MergeIndex.build(textDocument);
+          indexModified = modified;
+        }
+        mergeIndex = this.mergeIndex;
+      }
+      fill(textDocument, mergeIndex, record);
+      merged = true;
+      return textDocument;
+    }
+    finally {
+      if (!merged)
+        document.close();
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Merges every submitted record into a new instance of the template and passes the 
+   * instance to the submitted listener.
+   * 
+   * @param records iterator over the records (maps) to be merged
+   * @param mergeListener listener which receives the instances
+   * 
+   * @return number of merged records
+   * 
+   * @throws NOAException if a record can not be merged or the listener failed
+   */
+  public int merge(Iterator records, IMergeListener mergeListener) throws NOAException {
+    if (records == null)
+      throw new NOAException("The submitted records are not valid."); //$NON-NLS-1$
+    if (mergeListener == null)
+      throw new NOAException("The submitted merge listener is not valid."); //$NON-NLS-1$
+    int count = 0;
+    while (records.hasNext()) {
+      Map record = (Map) records.next();
+      mergeListener.recordMerged(record, merge(record));
+      count++;
+    }
+    return count;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Fills the submitted record into the submitted document. The document should be an 
+   * unchanged instance of the template of the submitted index; user fields and bookmarks 
+   * of the index which are missing in the document are skipped.
+   * 
+   * @param textDocument document to be filled
+   * @param mergeIndex index of the template of the document
+   * @param record record to be filled
+   * 
+   * @return number of filled elements
+   * 
+   * @throws NOAException if the record can not be filled
+   */
+  public static int fill(ITextDocument textDocument, MergeIndex mergeIndex, Map record)
+      throws NOAException {
+    if (textDocument == null)
+      throw new NOAException("The submitted text document is not valid."); //$NON-NLS-1$
+    if (mergeIndex == null)
+      throw new NOAException("The submitted merge index is not valid."); //$NON-NLS-1$
+    if (record == null)
+      throw new NOAException("The submitted record is not valid."); //$NON-NLS-1$
+    XModel xModel = (XModel) UnoRuntime.queryInterface(XModel.class,
+        textDocument.getXTextDocument());
+    if (xModel != null)
+      xModel.lockControllers();
+    try {
+      XTextFieldsSupplier xTextFieldsSupplier = (XTextFieldsSupplier) UnoRuntime.queryInterface(XTextFieldsSupplier.class,
+          textDocument.getXTextDocument());
+      int count = fillPlaceholders(textDocument, xTextFieldsSupplier, mergeIndex, record);
+
+      XNameAccess masters = null;
+      XNameAccess bookmarks = null;
+      for (Iterator iterator = record.entrySet().iterator(); iterator.hasNext();) {
+        Map.Entry entry = (Map.Entry) iterator.next();
+        String name = (String) entry.getKey();
+        String value = entry.getValue() == null ? "" : entry.getValue().toString(); //$NON-NLS-1$
+        String masterName = mergeIndex.getUserFieldMasterName(name);
+        if (masterName != null) {
+          if (masters == null)
+            masters = xTextFieldsSupplier.getTextFieldMasters();
+          if (masters.hasByName(masterName)) {
+            XPropertySet xPropertySet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+                masters.getByName(masterName));
+            xPropertySet.setPropertyValue(CONTENT_PROPERTY, value);
+            count++;
+          }
+        }
+        if (mergeIndex.getBookmarkNames().contains(name)) {
+          if (bookmarks == null) {
+            XBookmarksSupplier xBookmarksSupplier = (XBookmarksSupplier) UnoRuntime.queryInterface(XBookmarksSupplier.class,
+                textDocument.getXTextDocument());
+            bookmarks = xBookmarksSupplier.getBookmarks();
+          }
+          if (bookmarks.hasByName(name)) {
+            XTextContent xTextContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+                bookmarks.getByName(name));
+            xTextContent.getAnchor().setString(value);
+            count++;
+          }
+        }
+      }
+      return count;
+    }
+    catch (NOAException noaException) {
+      throw noaException;
+    }
+    catch (Exception exception) {
+      throw new NOAException(exception);
+    }
+    finally {
+      if (xModel != null)
+        xModel.unlockControllers();
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Replaces the placeholders of the submitted record by their values. The placeholders 
+   * are resolved by their positions of the index; the fields of the document are only 
+   * enumerated for placeholders which can not be resolved this way. The fields are 
+   * collected first and replaced afterwards, so neither the positions nor the enumeration 
+   * are changed while they are used.
+   * 
+   * @param textDocument text document to be filled
+   * @param xTextFieldsSupplier text fields supplier of the document
+   * @param mergeIndex index of the template of the document
+   * @param record record to be filled
+   * 
+   * @return number of replaced placeholders
+   * 
+   * @throws Exception if the placeholders can not be replaced
+   */
+  private static int fillPlaceholders(ITextDocument textDocument,
+      XTextFieldsSupplier xTextFieldsSupplier, MergeIndex mergeIndex, Map record)
+      throws Exception {
+    if (xTextFieldsSupplier == null || mergeIndex.getPlaceholderCount() == 0)
+      return 0;
+
+    List fields = new ArrayList();
+    List values = new ArrayList();
+    Set unresolved = new HashSet();
+    int missing = 0;
+    XTextCursor xTextCursor = null;
+    for (Iterator iterator = record.entrySet().iterator(); iterator.hasNext();) {
+      Map.Entry entry = (Map.Entry) iterator.next();
+      String name = (String) entry.getKey();
+      if (!mergeIndex.getPlaceholderNames().contains(name))
+        continue;
+      String value = entry.getValue() == null ? "" : entry.getValue().toString(); //$NON-NLS-1$
+      int[] positions = mergeIndex.getPlaceholderPositions(name);
+      List resolved = null;
+      if (positions != null) {
+        if (xTextCursor == null)
+          xTextCursor = textDocument.getXTextDocument().getText().createTextCursor();
+        resolved = resolvePlaceholders(xTextCursor, name, positions);
+      }
+      if (resolved == null) {
+        unresolved.add(name);
+        missing += mergeIndex.getPlaceholderCount(name);
+        continue;
+      }
+      for (int i = 0, n = resolved.size(); i < n; i++) {
+        fields.add(resolved.get(i));
+        values.add(value);
+      }
+    }
+
+    if (missing > 0) {
+      XEnumeration xEnumeration = xTextFieldsSupplier.getTextFields().createEnumeration();
+      while (missing > 0 && xEnumeration.hasMoreElements()) {
+        Object textField = xEnumeration.nextElement();
+        String name = MergeIndex.getPlaceholderName(textField);
+        if (name == null || !unresolved.contains(name))
+          continue;
+        missing--;
+        Object value = record.get(name);
+        fields.add(textField);
+        values.add(value == null ? "" : value.toString()); //$NON-NLS-1$
+      }
+    }
+
+    for (int i = 0, n = fields.size(); i < n; i++) {
+      XTextContent xTextContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+          fields.get(i));
+      xTextContent.getAnchor().setString((String) values.get(i));
+    }
+    return fields.size();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the placeholders with the submitted name at the submitted positions of the 
+   * body text, or null if a position does not contain such a placeholder.
+   * 
+   * @param xTextCursor cursor of the body text, it is moved
+   * @param name name of the placeholders
+   * @param positions positions of the placeholders
+   * 
+   * @return placeholders at the positions or null
+   * 
+   * @throws Exception if the placeholders can not be accessed
+   */
+  private static List resolvePlaceholders(XTextCursor xTextCursor, String name, int[] positions)
+      throws Exception {
+    List resolved = new ArrayList(positions.length);
+    for (int i = 0; i < positions.length; i++) {
+      Object textField = MergeIndex.getTextField(xTextCursor, positions[i]);
+      if (textField == null || !name.equals(MergeIndex.getPlaceholderName(textField)))
+        return null;
+      resolved.add(textField);
+    }
+    return resolved;
+  }
+  //----------------------------------------------------------------------------
+
+}
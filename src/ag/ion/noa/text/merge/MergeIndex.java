@@ -0,0 +1,422 @@
+/*
+ * This file is part of noa-libre.
+ *
+ * The Contents of this file are made available subject to
+ * the terms of GNU Lesser General Public License Version 2.1.
+ *
+ * GNU Lesser General Public License Version 2.1
+ * ========================================================================
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1, as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+ * MA  02111-1307  USA
+ */
+package ag.ion.noa.text.merge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ag.ion.bion.officelayer.text.ITextDocument;
+import ag.ion.bion.officelayer.text.ITextFieldService;
+import ag.ion.noa.NOAException;
+
+import com.sun.star.beans.XPropertySet;
+import com.sun.star.container.XEnumeration;
+import com.sun.star.container.XNameAccess;
+import com.sun.star.lang.XServiceInfo;
+import com.sun.star.text.XBookmarksSupplier;
+import com.sun.star.text.XText;
+import com.sun.star.text.XTextContent;
+import com.sun.star.text.XTextCursor;
+import com.sun.star.text.XTextFieldsSupplier;
+import com.sun.star.text.XTextRange;
+import com.sun.star.text.XTextRangeCompare;
+import com.sun.star.uno.Any;
+import com.sun.star.uno.UnoRuntime;
+
+/**
+ * Names of the placeholders, user fields and bookmarks of a template. The index is built 
+ * once per version of a template and used for all records which are merged into instances 
+ * of the template. User fields and bookmarks of a record are resolved by name. Placeholders 
+ * have no name access, therefore the index records the character position of every 
+ * placeholder in the body text, which is the same in every unchanged instance of the 
+ * template. Placeholders without a position, for example in tables or frames, are looked 
+ * up in the fields of every instance.
+ */
+public class MergeIndex {
+
+  /** Prefix of the names of the masters of user fields. */
+  public static final String USER_FIELD_MASTER_PREFIX = ITextFieldService.USER_TEXTFIELD_MASTER_ID
+                                                          + "."; //$NON-NLS-1$
+
+  private static final String PLACEHOLDER_PROPERTY    = "PlaceHolder"; //$NON-NLS-1$
+  private static final String TEXT_FIELD_PROPERTY     = "TextField"; //$NON-NLS-1$
+
+  private Map                 placeholderCounts       = null;
+  private Map                 placeholderPositions    = null;
+  private Map                 userFieldMasterNames    = null;
+  private Set                 bookmarkNames           = null;
+  private int                 placeholderCount        = 0;
+
+  //----------------------------------------------------------------------------
+  /**
+   * Constructs new MergeIndex.
+   * 
+   * @param placeholderCounts number of placeholders for every placeholder name
+   * @param placeholderPositions positions of the placeholders in the body text for every 
+   * placeholder name whose placeholders are all in the body text
+   * @param userFieldMasterNames names of the masters of the user fields for every user 
+   * field name
+   * @param bookmarkNames names of the bookmarks
+   */
+  private MergeIndex(Map placeholderCounts, Map placeholderPositions, Map userFieldMasterNames,
+      Set bookmarkNames) {
+    this.placeholderCounts = Collections.unmodifiableMap(placeholderCounts);
+    this.placeholderPositions = placeholderPositions;
+    this.userFieldMasterNames = Collections.unmodifiableMap(userFieldMasterNames);
+    this.bookmarkNames = Collections.unmodifiableSet(bookmarkNames);
+    for (Iterator iterator = placeholderCounts.values().iterator(); iterator.hasNext();)
+      placeholderCount += ((Integer) iterator.next()).intValue();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Builds the index of the submitted template. The fields of the template are enumerated 
+   * once and the position of every placeholder in the body text is determined, the 
+   * template is neither refreshed nor modified.
+   * 
+   * @param textDocument instance of the template
+   * 
+   * @return index of the template
+   * 
+   * @throws NOAException if the index can not be built
+   */
+  public static MergeIndex build(ITextDocument textDocument) throws NOAException {
+    if (textDocument == null)
+      throw new NOAException("The submitted text document is not valid."); //$NON-NLS-1$
+    try {
+      XTextFieldsSupplier xTextFieldsSupplier = (XTextFieldsSupplier) UnoRuntime.queryInterface(XTextFieldsSupplier.class,
+          textDocument.getXTextDocument());
+      Map placeholderCounts = new HashMap();
+      Map positions = new HashMap();
+      Set unpositioned = new HashSet();
+      Map userFieldMasterNames = new HashMap();
+      Set bookmarkNames = new HashSet();
+      if (xTextFieldsSupplier != null) {
+        XText xText = textDocument.getXTextDocument().getText();
+        XTextCursor xTextCursor = xText.createTextCursor();
+        XEnumeration xEnumeration = xTextFieldsSupplier.getTextFields().createEnumeration();
+        while (xEnumeration.hasMoreElements()) {
+          Object textField = xEnumeration.nextElement();
+          String name = getPlaceholderName(textField);
+          if (name == null)
+            continue;
+          Integer count = (Integer) placeholderCounts.get(name);
+          placeholderCounts.put(name, new Integer(count == null ? 1 : count.intValue() + 1));
+          int position = unpositioned.contains(name) ? -1 : getPosition(xText, xTextCursor,
+              textField);
+          if (position < 0) {
+            unpositioned.add(name);
+            positions.remove(name);
+            continue;
+          }
+          List list = (List) positions.get(name);
+          if (list == null) {
+            list = new ArrayList();
+            positions.put(name, list);
+          }
+          list.add(new Integer(position));
+        }
+        String[] masterNames = xTextFieldsSupplier.getTextFieldMasters().getElementNames();
+        for (int i = 0; i < masterNames.length; i++) {
+          if (masterNames[i].length() > USER_FIELD_MASTER_PREFIX.length()
+              && masterNames[i].regionMatches(true,
+                  0,
+                  USER_FIELD_MASTER_PREFIX,
+                  0,
+                  USER_FIELD_MASTER_PREFIX.length()))
+            userFieldMasterNames.put(masterNames[i].substring(USER_FIELD_MASTER_PREFIX.length()),
+                masterNames[i]);
+        }
+      }
+      XBookmarksSupplier xBookmarksSupplier = (XBookmarksSupplier) UnoRuntime.queryInterface(XBookmarksSupplier.class,
+          textDocument.getXTextDocument());
+      if (xBookmarksSupplier != null) {
+        XNameAccess xNameAccess = xBookmarksSupplier.getBookmarks();
+        String[] names = xNameAccess.getElementNames();
+        for (int i = 0; i < names.length; i++)
+          bookmarkNames.add(names[i]);
+      }
+      Map placeholderPositions = new HashMap();
+      for (Iterator iterator = positions.entrySet().iterator(); iterator.hasNext();) {
+        Map.Entry entry = (Map.Entry) iterator.next();
+        List list = (List) entry.getValue();
+        int[] values = new int[list.size()];
+        for (int i = 0; i < values.length; i++)
+          values[i] = ((Integer) list.get(i)).intValue();
+        placeholderPositions.put(entry.getKey(), values);
+      }
+      return new MergeIndex(placeholderCounts, placeholderPositions, userFieldMasterNames,
+          bookmarkNames);
+    }
+    catch (Exception exception) {
+      throw new NOAException(exception);
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns names of the placeholders of the template.
+   * 
+   * @return names of the placeholders of the template
+   */
+  public Set getPlaceholderNames() {
+    return placeholderCounts.keySet();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of placeholders of the template.
+   * 
+   * @return number of placeholders of the template
+   */
+  public int getPlaceholderCount() {
+    return placeholderCount;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns names of the user fields of the template.
+   * 
+   * @return names of the user fields of the template
+   */
+  public Set getUserFieldNames() {
+    return userFieldMasterNames.keySet();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns names of the bookmarks of the template.
+   * 
+   * @return names of the bookmarks of the template
+   */
+  public Set getBookmarkNames() {
+    return bookmarkNames;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns information whether the submitted name is a placeholder, user field or 
+   * bookmark of the template.
+   * 
+   * @param name name to be checked
+   * 
+   * @return information whether the submitted name is a placeholder, user field or 
+   * bookmark of the template
+   */
+  public boolean contains(String name) {
+    return placeholderCounts.containsKey(name) || userFieldMasterNames.containsKey(name)
+        || bookmarkNames.contains(name);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns name of the master of the user field with the submitted name or null.
+   * 
+   * @param name name of the user field
+   * 
+   * @return name of the master of the user field or null
+   */
+  String getUserFieldMasterName(String name) {
+    return (String) userFieldMasterNames.get(name);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the positions of the placeholders with the submitted name in the body text, 
+   * or null if not all of them are in the body text.
+   * 
+   * @param name name of the placeholders
+   * 
+   * @return positions of the placeholders in the body text or null
+   */
+  int[] getPlaceholderPositions(String name) {
+    return (int[]) placeholderPositions.get(name);
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns number of the placeholders with the submitted name.
+   * 
+   * @param name name of the placeholders
+   * 
+   * @return number of the placeholders with the submitted name
+   */
+  int getPlaceholderCount(String name) {
+    Integer count = (Integer) placeholderCounts.get(name);
+    return count == null ? 0 : count.intValue();
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the text field at the submitted position of the submitted text, or null if 
+   * the position is not valid.
+   * 
+   * @param xTextCursor cursor of the text to be used, it is moved
+   * @param position position of the text field
+   * 
+   * @return text field at the position or null
+   * 
+   * @throws Exception if the text field can not be accessed
+   */
+  static Object getTextField(XTextCursor xTextCursor, int position) throws Exception {
+    if (!moveTo(xTextCursor, position))
+      return null;
+    XPropertySet xPropertySet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+        xTextCursor);
+    if (xPropertySet == null)
+      return null;
+    Object textField = xPropertySet.getPropertyValue(TEXT_FIELD_PROPERTY);
+    if (textField instanceof Any)
+      textField = ((Any) textField).getObject();
+    return textField;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the position of the submitted text field in the submitted text, or -1 if the
+   * field is not part of the text or can not be found again by its position. The position 
+   * is searched with a doubling and a binary search, so it costs a number of calls which 
+   * grows with the logarithm of the position.
+   * 
+   * @param xText text to be used
+   * @param xTextCursor cursor of the text, it is moved
+   * @param textField text field to be used
+   * 
+   * @return position of the text field or -1
+   */
+  private static int getPosition(XText xText, XTextCursor xTextCursor, Object textField) {
+    try {
+      XTextContent xTextContent = (XTextContent) UnoRuntime.queryInterface(XTextContent.class,
+          textField);
+      XTextRange anchor = xTextContent.getAnchor();
+      if (!UnoRuntime.areSame(anchor.getText(), xText))
+        return -1;
+      XTextRangeCompare xTextRangeCompare = (XTextRangeCompare) UnoRuntime.queryInterface(XTextRangeCompare.class,
+          xText);
+      if (xTextRangeCompare == null)
+        return -1;
+      int low = 0;
+      int high = 0;
+      while (true) {
+        if (!moveTo(xTextCursor, high))
+          break;
+        int comparison = xTextRangeCompare.compareRegionStarts(xTextCursor, anchor);
+        if (comparison == 0)
+          return verify(xTextCursor, high, textField);
+        if (comparison < 0)
+          break;
+        if (high > Integer.MAX_VALUE / 2)
+          return -1;
+        low = high;
+        high = high == 0 ? 1 : high * 2;
+      }
+      while (high - low > 1) {
+        int middle = (low + high) >>> 1;
+        if (!moveTo(xTextCursor, middle)) {
+          high = middle;
+          continue;
+        }
+        int comparison = xTextRangeCompare.compareRegionStarts(xTextCursor, anchor);
+        if (comparison == 0)
+          return verify(xTextCursor, middle, textField);
+        if (comparison > 0)
+          low = middle;
+        else
+          high = middle;
+      }
+      return -1;
+    }
+    catch (Exception exception) {
+      return -1;
+    }
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns the submitted position if the submitted text field is found at this position, 
+   * otherwise -1.
+   * 
+   * @param xTextCursor cursor of the text, it is moved
+   * @param position position to be checked
+   * @param textField text field to be found
+   * 
+   * @return submitted position or -1
+   * 
+   * @throws Exception if the text field can not be accessed
+   */
+  private static int verify(XTextCursor xTextCursor, int position, Object textField)
+      throws Exception {
+    Object found = getTextField(xTextCursor, position);
+    return found != null && UnoRuntime.areSame(found, textField) ? position : -1;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Moves the submitted cursor to the submitted position of its text.
+   * 
+   * @param xTextCursor cursor to be moved
+   * @param position position to be used
+   * 
+   * @return information whether the position was reached
+   */
+  private static boolean moveTo(XTextCursor xTextCursor, int position) {
+    xTextCursor.gotoStart(false);
+    while (position > 0) {
+      short step = (short) Math.min(position, Short.MAX_VALUE);
+      if (!xTextCursor.goRight(step, false))
+        return false;
+      position -= step;
+    }
+    return true;
+  }
+
+  //----------------------------------------------------------------------------
+  /**
+   * Returns name of the submitted text field if it is a placeholder, otherwise null.
+   * 
+   * @param textField text field to be checked
+   * 
+   * @return name of the placeholder or null
+   * 
+   * @throws Exception if the text field can not be accessed
+   */
+  static String getPlaceholderName(Object textField) throws Exception {
+    XServiceInfo xServiceInfo = (XServiceInfo) UnoRuntime.queryInterface(XServiceInfo.class,
+        textField);
+    if (xServiceInfo == null
+        || !xServiceInfo.supportsService(ITextFieldService.PLACEHOLDER_TEXTFIELD_ID))
+      return null;
+    XPropertySet xPropertySet = (XPropertySet) UnoRuntime.queryInterface(XPropertySet.class,
+        textField);
+    return (String) xPropertySet.getPropertyValue(PLACEHOLDER_PROPERTY);
+  }
+  //----------------------------------------------------------------------------
+
+}